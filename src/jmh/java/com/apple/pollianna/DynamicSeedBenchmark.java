@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.MBeanAttributeInfo;
+
+/**
+ * Reading bean attributes the ways JMX clients and the OTel reporter do.
+ */
+@State(Scope.Benchmark)
+public class DynamicSeedBenchmark {
+
+    @Param({"Jvm", "GcAggregate", "RtAggregate", "CompilerAggregate"})
+    public String beanName;
+
+    private DynamicSeed seed;
+    private String[] attributeNames;
+    private String firstAttributeName;
+    private int firstAttributeIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        seed = PolliannaConfiguration.startRecording(beanName, null);
+        final MBeanAttributeInfo[] attributes = seed.getMBeanInfo().getAttributes();
+        attributeNames = new String[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            attributeNames[i] = attributes[i].getName();
+        }
+        firstAttributeName = attributeNames[0];
+        firstAttributeIndex = seed.attributeIndex(firstAttributeName);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        seed.stopRecording();
+    }
+
+    @Benchmark
+    public Object getAttributeByName() throws AttributeNotFoundException {
+        return seed.getAttribute(firstAttributeName);
+    }
+
+    @Benchmark
+    public Object getAttributeByIndex() throws AttributeNotFoundException {
+        return seed.getAttribute(firstAttributeIndex);
+    }
+
+    @Benchmark
+    public AttributeList getAttributes() {
+        return seed.getAttributes(attributeNames);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collecting all metrics of one bean via the OTel reporter's gauge callbacks,
+ * as the periodic metric reader does before each export.
+ * The export itself is a no-op, so only Pollianna's callbacks and the OTel SDK's own collection work are measured.
+ */
+@State(Scope.Benchmark)
+public class OTelCallbackBenchmark {
+
+    @Param({"Jvm", "GcAggregate", "GcCounter", "RtAggregate"})
+    public String beanName;
+
+    private static final class DiscardingMetricExporter implements MetricExporter {
+        @Override
+        public CompletableResultCode export(Collection<MetricData> metrics) {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+            return AggregationTemporality.CUMULATIVE;
+        }
+    }
+
+    private PeriodicMetricReader reader;
+    private OpenTelemetrySdk sdk;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Only collects when flushed by the benchmark
+        reader = PeriodicMetricReader.builder(new DiscardingMetricExporter())
+            .setInterval(1, TimeUnit.DAYS)
+            .build();
+        sdk = OpenTelemetrySdk.builder()
+            .setMeterProvider(SdkMeterProvider.builder().registerMetricReader(reader).build())
+            .build();
+        OTelReporter.createBeanGauges(sdk, "pollianna", beanName, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sdk.close();
+    }
+
+    @Benchmark
+    public boolean collect() {
+        return reader.forceFlush().join(10, TimeUnit.SECONDS).isSuccess();
+    }
+}
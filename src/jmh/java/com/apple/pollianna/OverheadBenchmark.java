@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what the agent costs an allocation-heavy application, per garbage collector and per set of beans.
+ * <p>
+ * For each collector that the running JDK supports, {@link OverheadWorkload} runs in fresh JVMs,
+ * once without the agent and once per bean set with the agent, and that several times in alternation.
+ * The medians of throughput, process CPU usage, and GC pause time are then compared to the runs without the agent
+ * and written as a Markdown report.
+ * <p>
+ * Configured by these system properties:
+ * <ul>
+ * <li>`pollianna.overhead.agent`: the agent JAR, required</li>
+ * <li>`pollianna.overhead.classpath`: the classpath of the workload, required</li>
+ * <li>`pollianna.overhead.report`: the report file, by default "overhead.md"</li>
+ * <li>`pollianna.overhead.beanSets`: the agent arguments to compare, separated by spaces,
+ * by default "Jvm GcAggregate;GcCounter GcAggregate;RtAggregate;CompilerAggregate;Pollianna AsyncStart;Jvm"</li>
+ * <li>`pollianna.overhead.runs`: the number of runs per collector and bean set, by default 3</li>
+ * <li>`pollianna.overhead.warmupSeconds` and `pollianna.overhead.seconds`: the durations of each run, by default 10 and 20</li>
+ * </ul>
+ */
+public final class OverheadBenchmark {
+    private OverheadBenchmark() { }
+
+    private static final String BASELINE = "(no agent)";
+
+    // Collector names and the JVM arguments that select them
+    private static final Map<String, List<String>> collectors = new LinkedHashMap<String, List<String>>();
+
+    static {
+        collectors.put("Serial", Arrays.asList("-XX:+UseSerialGC"));
+        collectors.put("Parallel", Arrays.asList("-XX:+UseParallelGC"));
+        collectors.put("G1", Arrays.asList("-XX:+UseG1GC"));
+        collectors.put("ZGC", Arrays.asList("-XX:+UnlockExperimentalVMOptions", "-XX:+UseZGC"));
+        collectors.put("Generational ZGC", Arrays.asList("-XX:+UnlockExperimentalVMOptions", "-XX:+UseZGC", "-XX:+ZGenerational"));
+        collectors.put("Shenandoah", Arrays.asList("-XX:+UnlockExperimentalVMOptions", "-XX:+UseShenandoahGC"));
+    }
+
+    private static final List<String> HEAP_ARGUMENTS = Arrays.asList("-Xms1G", "-Xmx1G");
+
+    private static final String JAVA = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+    private static String property(String name, String defaultValue) {
+        final String result = System.getProperty("pollianna.overhead." + name, defaultValue);
+        if (result == null) {
+            throw new IllegalArgumentException("missing system property: pollianna.overhead." + name);
+        }
+        return result;
+    }
+
+    /**
+     * The results of one workload run, as printed by the workload.
+     */
+    private static final class Result {
+        final double operationsPerSecond;
+        final double cpuPercent;
+        final double pauseCount;
+        final double pauseMillis;
+
+        Result(Map<String, String> values) {
+            operationsPerSecond = Double.parseDouble(values.get("operationsPerSecond"));
+            cpuPercent = Double.parseDouble(values.get("cpuPercent"));
+            pauseCount = Double.parseDouble(values.get("pauseCount"));
+            pauseMillis = Double.parseDouble(values.get("pauseMillis"));
+        }
+    }
+
+    private static int exec(List<String> command, List<String> output) throws IOException, InterruptedException {
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.add(line);
+            }
+        }
+        if (!process.waitFor(10, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+            return -1;
+        }
+        return process.exitValue();
+    }
+
+    private static boolean isSupported(List<String> gcArguments) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<String>();
+        command.add(JAVA);
+        command.addAll(gcArguments);
+        command.add("-version");
+        return exec(command, new ArrayList<String>()) == 0;
+    }
+
+    private static Result run(List<String> gcArguments, String agent, String beanSet, String classpath,
+                              String warmupSeconds, String seconds) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<String>();
+        command.add(JAVA);
+        command.addAll(gcArguments);
+        command.addAll(HEAP_ARGUMENTS);
+        if (beanSet != null) {
+            command.add("-javaagent:" + agent + "=" + beanSet);
+        }
+        command.add("-cp");
+        command.add(classpath);
+        command.add(OverheadWorkload.class.getName());
+        command.add(warmupSeconds);
+        command.add(seconds);
+        final List<String> output = new ArrayList<String>();
+        final int exitValue = exec(command, output);
+        for (String line : output) {
+            if (line.startsWith(OverheadWorkload.RESULT_PREFIX + " ")) {
+                final Map<String, String> values = new HashMap<String, String>();
+                for (String pair : line.substring(OverheadWorkload.RESULT_PREFIX.length() + 1).split(" ")) {
+                    final int i = pair.indexOf('=');
+                    values.put(pair.substring(0, i), pair.substring(i + 1));
+                }
+                return new Result(values);
+            }
+        }
+        throw new IllegalStateException("workload failed with exit value " + exitValue + ": " + String.join("\n", output));
+    }
+
+    private interface Metric {
+        double of(Result result);
+    }
+
+    private static double median(List<Result> results, Metric metric) {
+        final List<Double> values = new ArrayList<Double>();
+        for (Result result : results) {
+            values.add(metric.of(result));
+        }
+        Collections.sort(values);
+        final int n = values.size();
+        return n % 2 == 1 ? values.get(n / 2) : (values.get(n / 2 - 1) + values.get(n / 2)) / 2;
+    }
+
+    private static String delta(double value, double baseline) {
+        if (baseline == 0) {
+            return "";
+        }
+        return String.format(Locale.ROOT, " (%+.1f%%)", (value - baseline) * 100.0 / baseline);
+    }
+
+    private static void report(StringBuilder report, String collector, Map<String, List<Result>> resultsByBeanSet) {
+        report.append("\n## ").append(collector).append("\n\n");
+        report.append("| Agent arguments | Operations/s | Process CPU % | GC pauses | GC pause ms |\n");
+        report.append("|:----------------|-------------:|--------------:|----------:|------------:|\n");
+        final List<Result> baseline = resultsByBeanSet.get(BASELINE);
+        final double baselineThroughput = median(baseline, r -> r.operationsPerSecond);
+        final double baselineCpu = median(baseline, r -> r.cpuPercent);
+        final double baselinePauseMillis = median(baseline, r -> r.pauseMillis);
+        for (Map.Entry<String, List<Result>> entry : resultsByBeanSet.entrySet()) {
+            final List<Result> results = entry.getValue();
+            final boolean isBaseline = entry.getKey().equals(BASELINE);
+            final double throughput = median(results, r -> r.operationsPerSecond);
+            final double cpu = median(results, r -> r.cpuPercent);
+            final double pauseMillis = median(results, r -> r.pauseMillis);
+            report.append(String.format(Locale.ROOT, "| `%s` | %.0f%s | %.1f%s | %.0f | %.0f%s |\n",
+                entry.getKey(),
+                throughput, isBaseline ? "" : delta(throughput, baselineThroughput),
+                cpu, isBaseline ? "" : delta(cpu, baselineCpu),
+                median(results, r -> r.pauseCount),
+                pauseMillis, isBaseline ? "" : delta(pauseMillis, baselinePauseMillis)));
+        }
+    }
+
+    public static void main(String[] arguments) throws Exception {
+        final String agent = property("agent", null);
+        final String classpath = property("classpath", null);
+        final File reportFile = new File(property("report", "overhead.md"));
+        final List<String> beanSets = Arrays.asList(property("beanSets",
+            "Jvm GcAggregate;GcCounter GcAggregate;RtAggregate;CompilerAggregate;Pollianna AsyncStart;Jvm").trim().split("\\s+"));
+        final int runs = Integer.parseInt(property("runs", "3"));
+        final String warmupSeconds = property("warmupSeconds", "10");
+        final String seconds = property("seconds", "20");
+
+        final StringBuilder report = new StringBuilder();
+        report.append("# Pollianna Agent Overhead\n\n");
+        report.append("Java: ").append(System.getProperty("java.vm.name")).append(' ')
+            .append(System.getProperty("java.runtime.version")).append(", ")
+            .append(Runtime.getRuntime().availableProcessors()).append(" CPUs, heap ").append(String.join(" ", HEAP_ARGUMENTS))
+            .append(", medians of ").append(runs).append(" runs of ").append(seconds).append(" s after ")
+            .append(warmupSeconds).append(" s warmup.\n");
+        report.append("Deltas are relative to running without the agent.\n");
+
+        for (Map.Entry<String, List<String>> collector : collectors.entrySet()) {
+            if (!isSupported(collector.getValue())) {
+                System.out.println("Skipping " + collector.getKey() + ": not supported by this JDK");
+                report.append("\n## ").append(collector.getKey()).append("\n\nNot supported by this JDK.\n");
+                continue;
+            }
+            final Map<String, List<Result>> resultsByBeanSet = new LinkedHashMap<String, List<Result>>();
+            resultsByBeanSet.put(BASELINE, new ArrayList<Result>());
+            for (String beanSet : beanSets) {
+                resultsByBeanSet.put(beanSet, new ArrayList<Result>());
+            }
+            // Alternate between configurations, so that drifting machine conditions affect all of them alike
+            for (int i = 0; i < runs; i++) {
+                for (Map.Entry<String, List<Result>> entry : resultsByBeanSet.entrySet()) {
+                    final String beanSet = entry.getKey().equals(BASELINE) ? null : entry.getKey();
+                    System.out.println("Running " + collector.getKey() + " with " + entry.getKey() + ", run " + (i + 1) + " of " + runs);
+                    entry.getValue().add(run(collector.getValue(), agent, beanSet, classpath, warmupSeconds, seconds));
+                }
+            }
+            report(report, collector.getKey(), resultsByBeanSet);
+        }
+
+        final File reportDirectory = reportFile.getAbsoluteFile().getParentFile();
+        if (reportDirectory != null) {
+            Files.createDirectories(reportDirectory.toPath());
+        }
+        Files.write(reportFile.toPath(), report.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.println(report);
+        System.out.println("Report written to " + reportFile.getAbsolutePath());
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An allocation-heavy workload that {@link OverheadBenchmark} runs in a separate JVM, with and without the agent.
+ * It keeps a live set of small arrays, replaces a random part of it while allocating garbage,
+ * and then prints one line with its throughput, the CPU time of the whole process, and its GC pauses.
+ * <p>
+ * This class must not refer to any Pollianna classes, because it also runs without Pollianna on the classpath.
+ */
+public final class OverheadWorkload {
+    private OverheadWorkload() { }
+
+    static final String RESULT_PREFIX = "RESULT";
+
+    private static final int K = 1024;
+    private static final int LIVE_SET_MIB = 200;
+    private static final int LIVE_SET_CHUNKS = LIVE_SET_MIB * K;
+    private static final int REPLACED_CHUNKS_PER_OPERATION = 64;
+
+    // Names of collectors whose collections are pauses, as in the GC notification listener
+    private static final Set<String> pauseGcNames = new HashSet<String>(Arrays.asList(
+        "Copy", "MarkSweepCompact", "PS MarkSweep", "PS Scavenge", "ParNew", "ConcurrentMarkSweep",
+        "G1 Young Generation", "G1 Old Generation", "Shenandoah Pauses", "ZGC Pauses", "ZGC Minor Pauses", "ZGC Major Pauses"));
+
+    private static final byte[][] liveSet = new byte[LIVE_SET_CHUNKS][];
+
+    // Written to prevent the JIT compiler from eliminating allocations
+    static volatile Object sink = null;
+
+    /**
+     * Allocate 1 MiB of short-lived arrays, and replace some long-lived ones.
+     */
+    private static void operate(ThreadLocalRandom random) {
+        for (int i = 0; i < K; i++) {
+            sink = new byte[K];
+        }
+        for (int i = 0; i < REPLACED_CHUNKS_PER_OPERATION; i++) {
+            liveSet[random.nextInt(LIVE_SET_CHUNKS)] = new byte[K];
+        }
+    }
+
+    private static long run(long durationNanos) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final long endNanos = System.nanoTime() + durationNanos;
+        long operationCount = 0;
+        while (System.nanoTime() < endNanos) {
+            for (int i = 0; i < 16; i++) {
+                operate(random);
+            }
+            operationCount += 16;
+        }
+        return operationCount;
+    }
+
+    private static long processCpuNanos() {
+        final OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) bean).getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    private static final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private static long pauseCount() {
+        long result = 0;
+        for (GarbageCollectorMXBean gcBean : gcBeans) {
+            if (pauseGcNames.contains(gcBean.getName())) {
+                result += gcBean.getCollectionCount();
+            }
+        }
+        return result;
+    }
+
+    private static long pauseMillis() {
+        long result = 0;
+        for (GarbageCollectorMXBean gcBean : gcBeans) {
+            if (pauseGcNames.contains(gcBean.getName())) {
+                result += gcBean.getCollectionTime();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param arguments the warmup duration and the measured duration, in seconds
+     */
+    public static void main(String[] arguments) {
+        final long warmupNanos = Long.parseLong(arguments[0]) * 1_000_000_000L;
+        final long measuredNanos = Long.parseLong(arguments[1]) * 1_000_000_000L;
+        for (int i = 0; i < LIVE_SET_CHUNKS; i++) {
+            liveSet[i] = new byte[K];
+        }
+        run(warmupNanos);
+
+        final long cpuNanos = processCpuNanos();
+        final long pauseCount = pauseCount();
+        final long pauseMillis = pauseMillis();
+        final long startNanos = System.nanoTime();
+        final long operationCount = run(measuredNanos);
+        final long elapsedNanos = System.nanoTime() - startNanos;
+
+        System.out.println(RESULT_PREFIX
+            + " operationsPerSecond=" + (operationCount * 1_000_000_000.0 / elapsedNanos)
+            + " cpuPercent=" + ((processCpuNanos() - cpuNanos) * 100.0 / elapsedNanos)
+            + " pauseCount=" + (pauseCount() - pauseCount)
+            + " pauseMillis=" + (pauseMillis() - pauseMillis));
+        System.out.flush();
+        // Do not wait for non-daemon threads that the agent may have started
+        Runtime.getRuntime().halt(0);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import static com.apple.pollianna.Units.MILLIS_PER_SECOND;
+import static com.apple.pollianna.Units.MiB;
+
+/**
+ * Recording into and reading from recorders, alone and with recording threads contending with a reader.
+ */
+@State(Scope.Group)
+public class RecorderBenchmark {
+
+    private final LongValueRecorder valueRecorder = new LongValueRecorder();
+    private final RateRecorder rateRecorder = new RateRecorder(MiB, MILLIS_PER_SECOND);
+    private final StripedDurationRecorder stripedRecorder = new StripedDurationRecorder();
+
+    /**
+     * What each thread records, in increasing order per thread.
+     */
+    @State(Scope.Thread)
+    public static class Samples {
+        long value = 0;
+        long millis = 0;
+        long amount = 0;
+    }
+
+    @Benchmark
+    @Group("valueRecord")
+    public void valueRecord(Samples samples) {
+        valueRecorder.record(samples.value++);
+    }
+
+    @Benchmark
+    @Group("valueGetRecord")
+    public LongValueRecord valueGetRecord(Samples samples) {
+        valueRecorder.record(samples.value++);
+        return valueRecorder.getRecord();
+    }
+
+    @Benchmark
+    @Group("valueContended")
+    @GroupThreads(3)
+    public void valueContendedRecord(Samples samples) {
+        valueRecorder.record(samples.value++);
+    }
+
+    @Benchmark
+    @Group("valueContended")
+    @GroupThreads(1)
+    public LongValueRecord valueContendedGetRecord() {
+        return valueRecorder.getRecord();
+    }
+
+    @Benchmark
+    @Group("rateRecord")
+    public void rateRecord(Samples samples) {
+        // One allocation rate sample per simulated GC cycle, as by GcAggregator
+        rateRecorder.recordSampleIntervalEnd(samples.millis += 10, samples.amount += 64 * MiB);
+        rateRecorder.recordSampleIntervalBegin(samples.millis += 1, samples.amount -= 48 * MiB);
+    }
+
+    @Benchmark
+    @Group("rateContended")
+    @GroupThreads(1) // Like the GC event consumer, the only thread that records rates
+    public void rateContendedRecord(Samples samples) {
+        rateRecorder.recordSampleIntervalEnd(samples.millis += 10, samples.amount += 64 * MiB);
+        rateRecorder.recordSampleIntervalBegin(samples.millis += 1, samples.amount -= 48 * MiB);
+    }
+
+    @Benchmark
+    @Group("rateContended")
+    @GroupThreads(1)
+    public DoubleValueRecord rateContendedGetRecord() {
+        return rateRecorder.getRecord();
+    }
+
+    @Benchmark
+    @Group("stripedRecord")
+    public void stripedRecord(Samples samples) {
+        stripedRecorder.record(samples.value++);
+    }
+
+    @Benchmark
+    @Group("stripedContended")
+    @GroupThreads(64) // Like request threads recording an application metric
+    public void stripedContendedRecord(Samples samples) {
+        stripedRecorder.record(samples.value++);
+    }
+
+    @Benchmark
+    @Group("stripedContended")
+    @GroupThreads(1)
+    public LongDurationRecord stripedContendedGetRecord() {
+        return stripedRecorder.getRecord();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.gc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.management.Notification;
+import javax.management.openmbean.OpenDataException;
+import java.lang.management.MemoryUsage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Handling one GC notification, fed with synthetic notification data for each known collector,
+ * including collectors that are not in use in the benchmarking JVM.
+ * Handled events are drained from the event ring right away, without dispatching them to any aggregators.
+ */
+@State(Scope.Benchmark)
+public class GcNotificationListenerBenchmark {
+
+    @Param({
+        "Copy", "MarkSweepCompact",
+        "PS Scavenge", "PS MarkSweep",
+        "ParNew", "ConcurrentMarkSweep",
+        "G1 Young Generation", "G1 Old Generation",
+        "Shenandoah Cycles",
+        "ZGC", "ZGC Cycles", "ZGC Minor Cycles", "ZGC Major Cycles",
+        "GPGC New", "GPGC Old"
+    })
+    public String gcName;
+
+    private static final long MiB = 1024 * 1024;
+
+    private final GcNotificationListener listener = new GcNotificationListener();
+    private GcCollector collector;
+    private Notification notification;
+
+    private static Map<String, MemoryUsage> memoryUsages(GcCollector.Pool[] pools, long usedPerPool) {
+        final Map<String, MemoryUsage> result = new LinkedHashMap<>();
+        for (GcCollector.Pool pool : pools) {
+            result.put((String) pool.key[0], new MemoryUsage(64 * MiB, usedPerPool, 512 * MiB, 1024 * MiB));
+        }
+        return result;
+    }
+
+    @Setup
+    public void setUp() throws OpenDataException {
+        collector = listener.collector(gcName);
+        notification = GcNotifications.notification(gcName, "Allocation Failure", 1, 1000, 1005,
+            memoryUsages(collector.pools, 300 * MiB), memoryUsages(collector.pools, 100 * MiB));
+    }
+
+    @Benchmark
+    public void handleNotification() {
+        listener.handleNotification(notification, collector);
+        GcEventHub.ring.drain(event -> { }, 1);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.nmt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+
+/**
+ * Polling NMT data the way the NMT aggregators do once per interval.
+ * Only meaningful on JDKs with NMT data discovery by a dedicated JMX bean, otherwise setup fails.
+ */
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = "-XX:NativeMemoryTracking=summary")
+public class NmtAccessBenchmark {
+
+    @Setup
+    public void setUp() {
+        if (!NmtAccess.isAvailable()) {
+            throw new IllegalStateException("NMT data discovery is not available in this JDK");
+        }
+    }
+
+    @Benchmark
+    public long vmTotals() {
+        final Object usage = NmtAccess.getUsageInfo();
+        return NmtAccess.getVmTotalCommitted(usage) + NmtAccess.getVmTotalReserved(usage);
+    }
+
+    @Benchmark
+    public Map<String, NmtUsage> perCategory() {
+        return NmtAccess.getNmtUsagePerCategory(NmtAccess.getUsageInfo());
+    }
+}
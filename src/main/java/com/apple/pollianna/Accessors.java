@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+/**
+ * Compiles getter methods into direct accessor functions,
+ * so that invoking a getter does not go through reflection each time.
+ */
+final class Accessors {
+
+    private Accessors() {}
+
+    private static Class<?> boxed(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    /**
+     * @param getter a public method without parameters
+     * @return a function that applies the getter to its argument and returns the result, boxed if primitive
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> of(Method getter) {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            final MethodHandle handle = lookup.unreflect(getter);
+            try {
+                // Generates a class that calls the getter directly, just like a lambda expression would
+                final CallSite site = LambdaMetafactory.metafactory(lookup,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(boxed(getter.getReturnType()), getter.getDeclaringClass()));
+                return (Function<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable t) {
+                // Fall back to a method handle, which the JIT compiler can still inline
+                final MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+                return object -> {
+                    try {
+                        return generic.invokeExact(object);
+                    } catch (RuntimeException | Error e) {
+                        throw e;
+                    } catch (Throwable e) {
+                        throw new RuntimeException(e);
+                    }
+                };
+            }
+        } catch (IllegalAccessException e) {
+            // Fall back to reflection
+            return object -> {
+                try {
+                    return getter.invoke(object);
+                } catch (Exception e1) {
+                    throw new RuntimeException(e1);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accumulates a monotonically increasing `long` total that, unlike the values of other recorders,
+ * is never reset when read. Recording and reading are lock-free.
+ */
+public final class CounterRecorder {
+
+    public CounterRecorder() { }
+
+    private final AtomicLong total = new AtomicLong(0);
+
+    /**
+     * Add to the total. Negative amounts are ignored, so that the total never decreases.
+     *
+     * @param amount the amount to add
+     */
+    public void record(long amount) {
+        if (amount > 0) {
+            total.addAndGet(amount);
+        }
+    }
+
+    public void increment() {
+        total.incrementAndGet();
+    }
+
+    /**
+     * @return the sum of all amounts recorded so far
+     */
+    public long total() {
+        return total.get();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Identifies an independent reader of recorders, such as JMX clients or the OTel reporter.
+ * <p>
+ * Reading an aggregate attribute ends a polling interval. Without cursors, all readers would share intervals,
+ * so that each of them would only see what has been recorded since any other reader's previous read.
+ * Instead, each cursor has its own polling intervals and sees everything recorded since its own previous read.
+ * <p>
+ * Attribute getters take no parameters, so the cursor on whose behalf they run is passed implicitly
+ * per thread by {@link #read(Callable)}. Reads outside of that, e.g. by JMX clients, use the default cursor.
+ */
+public final class Cursor {
+
+    private static final AtomicInteger nextId = new AtomicInteger(0);
+
+    /**
+     * The cursor of all reads that do not specify one.
+     */
+    public static final Cursor DEFAULT = new Cursor();
+
+    private static final ThreadLocal<Cursor> current = ThreadLocal.withInitial(() -> DEFAULT);
+
+    private final int id;
+
+    private Cursor() {
+        this.id = nextId.getAndIncrement();
+    }
+
+    /**
+     * @return a new cursor, independent of all others
+     */
+    public static Cursor register() {
+        return new Cursor();
+    }
+
+    /**
+     * @return the cursor on whose behalf the current thread reads
+     */
+    static Cursor current() {
+        return current.get();
+    }
+
+    /**
+     * @return a small number that identifies this cursor, suitable as an array index
+     */
+    int id() {
+        return id;
+    }
+
+    /**
+     * Read on behalf of this cursor.
+     *
+     * @param reader reads recorders or attributes, directly or indirectly
+     * @param <T> the type of the result
+     * @return the result of `reader`
+     * @throws Exception if `reader` throws
+     */
+    public <T> T read(Callable<T> reader) throws Exception {
+        final Cursor previous = current.get();
+        current.set(this);
+        try {
+            return reader.call();
+        } finally {
+            current.set(previous);
+        }
+    }
+}
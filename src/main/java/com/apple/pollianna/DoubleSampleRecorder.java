@@ -29,6 +29,14 @@ public class DoubleSampleRecorder {
      */
     public synchronized double last() { return last; }
 
+    /**
+     * Adopt the most recent value of another recorder without processing it as a sample.
+     * @param value the value to be returned by {@link #last()}
+     */
+    protected synchronized void setLast(double value) {
+        last = value;
+    }
+
     /**
      * Process a sample value.
      * @param value the value to record
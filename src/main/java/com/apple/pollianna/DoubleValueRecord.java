@@ -17,11 +17,17 @@ package com.apple.pollianna;
 
 import java.beans.ConstructorProperties;
 
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataView;
+import javax.management.openmbean.CompositeType;
+
 /**
  * Holds the minimum, average, and maximum of a `double` value
  * that has been repeatedly sampled over a polling interval.
  */
-public class DoubleValueRecord {
+public class DoubleValueRecord implements CompositeDataView {
+    private static final String[] ITEM_NAMES = {"min", "avg", "max"};
+
     protected final double min;
     protected final double avg;
     protected final double max;
@@ -39,6 +45,11 @@ public class DoubleValueRecord {
 
     public double getMax() { return max; }
 
+    @Override
+    public CompositeData toCompositeData(CompositeType type) {
+        return Util.toCompositeData(type, ITEM_NAMES, new Object[] {min, avg, max});
+    }
+
     @Override
     public String toString() {
         final StringBuilder buf = new StringBuilder();
@@ -15,9 +15,15 @@
  */
 package com.apple.pollianna;
 
+import java.util.Arrays;
+
 /**
  * Records `double` sample values and produces the minimum, average, and maximum values
  * of all samples from a polling interval.
+ * <p>
+ * Each {@link Cursor} has its own polling intervals.
+ * Recording a value costs the same regardless of the number of cursors,
+ * since reads fold what has been recorded since the previous read by any cursor into per-cursor recorders.
  */
 public class DoubleValueRecorder extends DoubleSampleRecorder {
 
@@ -45,8 +51,22 @@ public class DoubleValueRecorder extends DoubleSampleRecorder {
         max = last();
     }
 
+    private SlidingWindows windows = null;
+
+    /**
+     * Additionally aggregate all subsequently recorded values over sliding windows of the last 1, 5, and 15 minutes.
+     */
+    public synchronized void enableWindows() {
+        if (windows == null) {
+            windows = new SlidingWindows(System.nanoTime());
+        }
+    }
+
     public synchronized void record(double value) {
         super.record(value);
+        if (windows != null) {
+            windows.record(value, System.nanoTime());
+        }
         total += value;
         if (count <= 0 || value < min) {
             min = value;
@@ -57,14 +77,98 @@ public class DoubleValueRecorder extends DoubleSampleRecorder {
         count++;
     }
 
+    // Per cursor id, the recorder that accumulates what has been recorded since that cursor's previous read.
+    // As long as there is only one cursor, it reads this recorder directly.
+    private DoubleValueRecorder[] cursors = new DoubleValueRecorder[0];
+    private int cursorCount = 0;
+
+    /**
+     * @return a new recorder of the same kind, to accumulate on behalf of one cursor
+     */
+    protected DoubleValueRecorder newCursorRecorder() {
+        return new DoubleValueRecorder();
+    }
+
+    /**
+     * Add what has been recorded since the previous read by any cursor to a cursor's recorder.
+     *
+     * @param recorder a recorder created by {@link #newCursorRecorder()}
+     */
+    protected void mergeInto(DoubleValueRecorder recorder) {
+        recorder.setLast(last());
+        if (count > 0) {
+            if (recorder.count <= 0 || min < recorder.min) {
+                recorder.min = min;
+            }
+            if (recorder.count <= 0 || max > recorder.max) {
+                recorder.max = max;
+            }
+            recorder.count += count;
+            recorder.total += total;
+        }
+    }
+
+    /**
+     * @return the recorder that holds what has been recorded since the current cursor's previous read,
+     * to be reset by the caller after producing a record from it
+     */
+    protected synchronized DoubleValueRecorder cursorRecorder() {
+        final int id = Cursor.current().id();
+        if (id >= cursors.length) {
+            cursors = Arrays.copyOf(cursors, id + 1);
+        }
+        if (cursors[id] == null) {
+            if (cursorCount > 0) {
+                // The sole cursor so far must stop reading this recorder directly
+                for (int i = 0; i < cursors.length; i++) {
+                    if (cursors[i] == this) {
+                        cursors[i] = newCursorRecorder();
+                    }
+                }
+            }
+            cursors[id] = cursorCount == 0 ? this : newCursorRecorder();
+            cursorCount++;
+        }
+        final DoubleValueRecorder result = cursors[id];
+        if (result != this) {
+            for (DoubleValueRecorder recorder : cursors) {
+                if (recorder != null) {
+                    mergeInto(recorder);
+                }
+            }
+            reset();
+        }
+        return result;
+    }
+
     /**
-     * Start a new polling interval and return a record of the observed sample values from the previous interval.
+     * Start a new polling interval for the current cursor
+     * and return a record of the observed sample values from its previous interval.
      *
-     * @return a record of the observed sample values since the previous call
+     * @return a record of the observed sample values since the current cursor's previous call
      */
     public synchronized DoubleValueRecord getRecord() {
-        final DoubleValueRecord result = new DoubleValueRecord(min(), avg(), max());
-        reset();
+        final DoubleValueRecorder recorder = cursorRecorder();
+        final DoubleValueRecord result = new DoubleValueRecord(recorder.min(), recorder.avg(), recorder.max());
+        recorder.reset();
         return result;
     }
+
+    /**
+     * @return the factor by which recorded values are multiplied when reported over sliding windows
+     */
+    protected double windowScale() { return 1.0; }
+
+    /**
+     * Aggregate the values recorded over the last 1, 5, and 15 minutes.
+     * Unlike {@link #getRecord()}, this does not start a new polling interval.
+     *
+     * @return a record of the sample values in each window, all zero if windows have not been enabled
+     */
+    public synchronized WindowRecord getWindowRecord() {
+        if (windows == null) {
+            return new WindowRecord(0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        return windows.getRecord(windowScale(), System.nanoTime());
+    }
 }
@@ -26,13 +26,24 @@ import javax.management.MBeanNotificationInfo;
 import javax.management.MBeanOperationInfo;
 import javax.management.ReflectionException;
 import javax.management.RuntimeOperationsException;
+import javax.management.openmbean.ArrayType;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeDataView;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenMBeanAttributeInfoSupport;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Stream;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * A dynamic bean implementation that projects a reduced view upon a static bean implementation
@@ -45,6 +56,17 @@ import java.util.stream.Stream;
  *
  * Only complete attribute names (i.e. "PauseMax", but not "Pause" or "Max")
  * are exposed as attributes by the dynamic bean.
+ *
+ * All getter methods are compiled to direct accessors once, at construction.
+ * Reading an attribute then amounts to indexing into tables of these accessors.
+ *
+ * All exposed attributes are served from one consistent {@link Snapshot} per scrape,
+ * so that e.g. "PauseMax", "PauseAvg", and "PauseCount" describe the same polling interval.
+ * The additional attribute "Snapshot" returns all exposed attributes at once, in a single `CompositeData` value.
+ *
+ * Getters that return arrays of records, such as the top threads, are exposed as `CompositeData[]` attributes.
+ * They are not part of snapshots, but invoked only when read,
+ * because they start a new interval and snapshots are also taken for readers that do not report them.
  */
 public class DynamicSeed extends Seed implements DynamicMBean {
 
@@ -58,11 +80,34 @@ public class DynamicSeed extends Seed implements DynamicMBean {
     private final ArrayList<MBeanAttributeInfo> beanAttributes = new ArrayList<MBeanAttributeInfo>();
     private final Seed staticSeed;
 
-    // Maps complete attribute names to getter methods in the projected bean interface
-    private final Map<String, Method> getters1 = new HashMap<String, Method>();
+    // Maps complete attribute names to attribute indices, which are also indices into `beanAttributes`
+    private final Map<String, Integer> attributeIndices = new HashMap<String, Integer>();
+
+    // Distinct getter methods in the projected bean interface
+    private final List<Method> methods1 = new ArrayList<Method>();
+
+    // Per getter index: accessors for the above getter methods
+    private final Function<Object, Object>[] getters1;
+
+    // Per attribute index: the index of the getter method in the projected bean interface
+    private final int[] getter1Indices;
+
+    // Per attribute index: accessors for getter methods in the return types of the above getters, or `null`
+    private final Function<Object, Object>[] getters2;
+
+    // Per getter index: snapshot sources that invoke the above getters, or `null` if not exposed
+    private Snapshot.Source<Object>[] sources;
 
-    // Maps complete attribute names to getter methods in the return types of the above getters
-    private final Map<String, Method> getters2 = new HashMap<String, Method>();
+    // Per attribute index: snapshot attribute indices, or -1 if not exposed or not part of snapshots
+    private int[] snapshotAttributes;
+
+    // Per attribute index of an array of records: the open type of the attribute
+    private final Map<Integer, ArrayType<CompositeData>> recordArrayTypes = new HashMap<Integer, ArrayType<CompositeData>>();
+
+    public static final String SNAPSHOT_ATTRIBUTE_NAME = "Snapshot";
+
+    // The type of the "Snapshot" attribute value, or `null` if that attribute is not exposed
+    private CompositeType snapshotType;
 
     private MBeanInfo beanInfo;
 
@@ -71,44 +116,115 @@ public class DynamicSeed extends Seed implements DynamicMBean {
         return beanInfo;
     }
 
-    private MBeanAttributeInfo createAttribute(String name, Class type) {
+    private MBeanAttributeInfo createAttribute(String name, Class type, boolean isIs, ArrayType<CompositeData> openType) {
         final String description = name + " : " + type.getName();
         final boolean isReadable = true;
         final boolean isWritable = false;
-        final boolean isIs = false;
+        if (openType != null) {
+            return new OpenMBeanAttributeInfoSupport(name, description, openType, isReadable, isWritable, isIs);
+        }
         return new MBeanAttributeInfo(name, type.getName(), description, isReadable, isWritable, isIs);
     }
 
+    /**
+     * @return the open type of an array of records with simple getters, e.g. `ThreadRecord[]`, or `null` for other types
+     */
+    private static ArrayType<CompositeData> recordArrayType(Class<?> type) {
+        final Class<?> recordType = type.getComponentType();
+        if (recordType == null || !CompositeDataView.class.isAssignableFrom(recordType)) {
+            return null;
+        }
+        final List<String> itemNames = new ArrayList<String>();
+        final List<OpenType<?>> itemTypes = new ArrayList<OpenType<?>>();
+        for (Method method : recordType.getMethods()) {
+            final OpenType<?> itemType = openType(method.getReturnType().getName());
+            if (method.getName().startsWith(GETTER_PREFIX) && method.getParameterCount() == 0 && itemType != null) {
+                final String name = method.getName().substring(GETTER_PREFIX.length());
+                itemNames.add(Character.toLowerCase(name.charAt(0)) + name.substring(1));
+                itemTypes.add(itemType);
+            }
+        }
+        try {
+            final String[] names = itemNames.toArray(new String[0]); // Java 8
+            final CompositeType recordOpenType = new CompositeType(recordType.getSimpleName(), recordType.getName(),
+                names, names, itemTypes.toArray(new OpenType<?>[0]));
+            return new ArrayType<CompositeData>(1, recordOpenType);
+        } catch (OpenDataException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static CompositeData[] toCompositeData(ArrayType<CompositeData> type, Object records) {
+        final CompositeType recordType = (CompositeType) type.getElementOpenType();
+        final Object[] elements = (Object[]) records;
+        final CompositeData[] result = new CompositeData[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            result[i] = ((CompositeDataView) elements[i]).toCompositeData(recordType);
+        }
+        return result;
+    }
+
     private static final String GETTER_PREFIX = "get";
+    private static final String BOOLEAN_GETTER_PREFIX = "is";
 
-    private void addAttributes(ArrayList<MBeanAttributeInfo> attributes, Class getterInterface) {
+    /**
+     * @return the attribute name derived from the given interface method, or null if it is not a getter
+     */
+    private static String attributeName(Method method) {
+        final String methodName = method.getName();
+        if (methodName.startsWith(GETTER_PREFIX)) {
+            return methodName.substring(GETTER_PREFIX.length());
+        }
+        if (methodName.startsWith(BOOLEAN_GETTER_PREFIX) && method.getReturnType() == boolean.class) {
+            return methodName.substring(BOOLEAN_GETTER_PREFIX.length());
+        }
+        return null;
+    }
+
+    private void addAttribute(ArrayList<MBeanAttributeInfo> attributes, String name, Class<?> type,
+                              Method method1, Method method2, List<Integer> methods1Indices, List<Method> methods2) {
+        int getter1Index = methods1.indexOf(method1);
+        if (getter1Index < 0) {
+            methods1.add(method1);
+            getter1Index = methods1.size() - 1;
+        }
+        final ArrayType<CompositeData> openType = recordArrayType(type);
+        if (openType != null) {
+            recordArrayTypes.put(attributes.size(), openType);
+        }
+        attributeIndices.put(name, attributes.size());
+        final boolean isIs = method2 == null && method1.getName().startsWith(BOOLEAN_GETTER_PREFIX);
+        attributes.add(createAttribute(name, type, isIs, openType));
+        methods1Indices.add(getter1Index);
+        methods2.add(method2);
+    }
+
+    private void addAttributes(ArrayList<MBeanAttributeInfo> attributes, Class getterInterface,
+                               List<Integer> methods1Indices, List<Method> methods2) {
         if (!getterInterface.isInterface()) {
             return;
         }
         for (Method method1 : getterInterface.getDeclaredMethods()) {
-            if (method1.getName().startsWith(GETTER_PREFIX)) {
-                final String name1 = method1.getName().substring(GETTER_PREFIX.length());
+            final String name1 = attributeName(method1);
+            if (name1 != null) {
                 final Class type1 = method1.getReturnType();
                 boolean isSimpleType = true;
                 for (Method method2 :  type1.getMethods()) {
                     final String method2Name = method2.getName();
-                    if (method2Name.startsWith(GETTER_PREFIX) &&
+                    if (method2Name.startsWith(GETTER_PREFIX) && method2.getParameterCount() == 0 &&
                             !method2Name.equals("getClass") && !method2Name.equals("getObjectName")) {
                         final String name2 = name1 + method2.getName().substring(GETTER_PREFIX.length());
-                        attributes.add(createAttribute(name2, method2.getReturnType()));
-                        getters1.put(name2, method1);
-                        getters2.put(name2, method2);
+                        addAttribute(attributes, name2, method2.getReturnType(), method1, method2, methods1Indices, methods2);
                         isSimpleType = false;
                     }
                 }
                 if (isSimpleType) {
-                    attributes.add(createAttribute(name1, type1));
-                    getters1.put(name1, method1);
+                    addAttribute(attributes, name1, type1, method1, null, methods1Indices, methods2);
                 }
             }
         }
         for (Class i : getterInterface.getInterfaces()) {
-            addAttributes(attributes, i);
+            addAttributes(attributes, i, methods1Indices, methods2);
         }
     }
 
@@ -119,33 +235,140 @@ public class DynamicSeed extends Seed implements DynamicMBean {
      * @param getterInterface the interface specifying all possible getter methods
      * @param staticSeed the instance to reflectively invoke the interface methods upon
      */
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Generic array creation
     public DynamicSeed(Class getterInterface, Seed staticSeed) {
         this.staticSeed = staticSeed;
         this.beanName = getterInterface.getSimpleName().replace("MXBean", "");
-        addAttributes(beanAttributes, getterInterface);
+
+        final List<Integer> methods1Indices = new ArrayList<Integer>();
+        final List<Method> methods2 = new ArrayList<Method>();
+        addAttributes(beanAttributes, getterInterface, methods1Indices, methods2);
+
+        this.getters1 = new Function[methods1.size()];
+        for (int i = 0; i < getters1.length; i++) {
+            getters1[i] = Accessors.of(methods1.get(i));
+        }
+        this.getter1Indices = new int[beanAttributes.size()];
+        this.getters2 = new Function[beanAttributes.size()];
+        for (int i = 0; i < getter1Indices.length; i++) {
+            getter1Indices[i] = methods1Indices.get(i);
+            getters2[i] = methods2.get(i) == null ? null : Accessors.of(methods2.get(i));
+        }
 
         final MBeanConstructorInfo[] beanConstructors = new MBeanConstructorInfo[1];
         beanConstructors[0] = new MBeanConstructorInfo("PolliannaDynamicMBean()", this.getClass().getConstructors()[0]);
 
         this.beanInfo = new MBeanInfo(beanName(),
             "dynamic " + beanName,
-            beanAttributes.toArray(new MBeanAttributeInfo[0]), // Java 8
+            exposeAttributes(beanAttributes, true),
             beanConstructors,
             new MBeanOperationInfo[0],
             new MBeanNotificationInfo[0]);
     }
 
+    // Invocation failures are stored in snapshot frames and reported when the affected attribute is read
+    private static final class Failure {
+        final Exception exception;
+
+        Failure(Exception exception) {
+            this.exception = exception;
+        }
+    }
+
+    private Object invokeGetter1(int getter1Index) {
+        try {
+            return getters1[getter1Index].apply(staticSeed);
+        } catch (Exception e) {
+            return new Failure(e);
+        }
+    }
+
+    private static OpenType<?> openType(String typeName) {
+        switch (typeName) {
+            case "long":
+            case "java.lang.Long":
+                return SimpleType.LONG;
+            case "double":
+            case "java.lang.Double":
+                return SimpleType.DOUBLE;
+            case "int":
+            case "java.lang.Integer":
+                return SimpleType.INTEGER;
+            case "boolean":
+            case "java.lang.Boolean":
+                return SimpleType.BOOLEAN;
+            case "java.lang.String":
+                return SimpleType.STRING;
+            default:
+                return null;
+        }
+    }
+
+    private static CompositeType createSnapshotType(String beanName, List<MBeanAttributeInfo> attributes) {
+        final List<MBeanAttributeInfo> items = attributes.stream()
+            .filter(a -> openType(a.getType()) != null)
+            .collect(Collectors.toList());
+        if (items.isEmpty()) {
+            return null;
+        }
+        final String[] itemNames = new String[items.size()];
+        final OpenType<?>[] itemTypes = new OpenType<?>[items.size()];
+        for (int i = 0; i < itemNames.length; i++) {
+            itemNames[i] = items.get(i).getName();
+            itemTypes[i] = openType(items.get(i).getType());
+        }
+        try {
+            return new CompositeType(beanName + SNAPSHOT_ATTRIBUTE_NAME,
+                "all attributes of " + beanName + " from one consistent snapshot",
+                itemNames, itemNames, itemTypes);
+        } catch (OpenDataException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Register snapshot sources for the given attributes and determine the bean's attribute infos.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Generic array creation
+    private MBeanAttributeInfo[] exposeAttributes(List<MBeanAttributeInfo> attributes, boolean isSnapshotExposed) {
+        snapshot.clear();
+        sources = new Snapshot.Source[getters1.length];
+        snapshotAttributes = new int[beanAttributes.size()];
+        Arrays.fill(snapshotAttributes, -1);
+        for (MBeanAttributeInfo attribute : attributes) {
+            final int attributeIndex = attributeIndices.get(attribute.getName());
+            if (recordArrayTypes.containsKey(attributeIndex)) {
+                continue;
+            }
+            final int getter1Index = getter1Indices[attributeIndex];
+            if (sources[getter1Index] == null) {
+                sources[getter1Index] = snapshot.source(() -> invokeGetter1(getter1Index));
+            }
+            snapshotAttributes[attributeIndex] = snapshot.attribute();
+        }
+        snapshotType = isSnapshotExposed ? createSnapshotType(beanName, attributes) : null;
+
+        final List<MBeanAttributeInfo> result = new ArrayList<MBeanAttributeInfo>(attributes);
+        if (snapshotType != null) {
+            result.add(new OpenMBeanAttributeInfoSupport(SNAPSHOT_ATTRIBUTE_NAME,
+                "all attributes of " + beanName + " from one consistent snapshot",
+                snapshotType, true, false, false));
+        }
+        return result.toArray(new MBeanAttributeInfo[0]); // Java 8
+    }
+
     /**
      * Restrict the attributes of this dynamic bean to those that match the given set of names.
      * @param includedAttributeNames set of names that the names of all visible attributes are part of
      */
-    public void setIncludedAttributeNames(Set<String> includedAttributeNames) {
-        final Stream<MBeanAttributeInfo> filteredBeanAttributes =
-            beanAttributes.stream().filter(a -> includedAttributeNames.contains(a.getName()));
+    public synchronized void setIncludedAttributeNames(Set<String> includedAttributeNames) {
+        final List<MBeanAttributeInfo> filteredBeanAttributes = beanAttributes.stream()
+            .filter(a -> includedAttributeNames.contains(a.getName()))
+            .collect(Collectors.toList());
 
         beanInfo = new MBeanInfo(beanName,
             beanInfo.getDescription(),
-            filteredBeanAttributes.toArray(MBeanAttributeInfo[]::new),
+            exposeAttributes(filteredBeanAttributes, includedAttributeNames.contains(SNAPSHOT_ATTRIBUTE_NAME)),
             beanInfo.getConstructors(),
             beanInfo.getOperations(),
             beanInfo.getNotifications());
@@ -154,27 +377,113 @@ public class DynamicSeed extends Seed implements DynamicMBean {
     @Override
     protected List<Aggregator> aggregators() { return staticSeed.aggregators(); }
 
-    // Implement DynamicMBean
-    public Object getAttribute(String attributeName) throws AttributeNotFoundException {
-        if (attributeName == null) {
-            throw new RuntimeOperationsException(new IllegalArgumentException("Attribute name cannot be null"),
-                "Cannot invoke a getter of " + beanName + " with null attribute name");
-        }
-        final Method getter1 = getters1.get(attributeName);
-        if (getter1 == null) {
-            throw(new AttributeNotFoundException(
-                "Failed to find " + attributeName + " attribute in " + beanName));
+    @Override
+    protected Map<String, LongDurationRecorder> histograms() { return staticSeed.histograms(); }
+
+    @Override
+    protected boolean isCumulative() { return staticSeed.isCumulative(); }
+
+    private Object getAttribute(int attributeIndex, Snapshot.Frame frame) throws AttributeNotFoundException {
+        final int getter1Index = getter1Indices[attributeIndex];
+        final int snapshotAttribute = snapshotAttributes[attributeIndex];
+        Object result;
+        if (snapshotAttribute < 0) {
+            // Not exposed or an array of records, and therefore not part of any snapshot
+            result = invokeGetter1(getter1Index);
+        } else {
+            result = sources[getter1Index].in(frame != null ? frame : snapshot.serve(snapshotAttribute));
         }
         try {
-            Object result = getter1.invoke(staticSeed);
-            final Method getter2 = getters2.get(attributeName);
+            if (result instanceof Failure) {
+                throw ((Failure) result).exception;
+            }
+            final Function<Object, Object> getter2 = getters2[attributeIndex];
             if (getter2 != null) {
-                result = getter2.invoke(result);
+                result = getter2.apply(result);
+            }
+            final ArrayType<CompositeData> recordArrayType = recordArrayTypes.get(attributeIndex);
+            if (recordArrayType != null && result != null) {
+                result = toCompositeData(recordArrayType, result);
             }
             return result;
         } catch (Exception e) {
+            throw(new AttributeNotFoundException("Failed to use " + beanAttributes.get(attributeIndex).getName() +
+                " attribute in " + beanName + ": " + e.getMessage()));
+        }
+    }
+
+    private Object getAttribute(String attributeName, Snapshot.Frame frame) throws AttributeNotFoundException {
+        final Integer attributeIndex = attributeIndices.get(attributeName);
+        if (attributeIndex == null) {
+            throw(new AttributeNotFoundException(
+                "Failed to find " + attributeName + " attribute in " + beanName));
+        }
+        return getAttribute(attributeIndex, frame);
+    }
+
+    /**
+     * @param attributeName the complete name of an attribute
+     * @return an index that can be used to read the attribute without looking up its name again, or -1 if not found
+     */
+    int attributeIndex(String attributeName) {
+        final Integer attributeIndex = attributeIndices.get(attributeName);
+        return attributeIndex == null ? -1 : attributeIndex;
+    }
+
+    /**
+     * @param attributeIndex an index obtained from {@link #attributeIndex(String)}
+     * @return the value of the attribute
+     * @throws AttributeNotFoundException if the attribute's getter fails
+     */
+    synchronized Object getAttribute(int attributeIndex) throws AttributeNotFoundException {
+        final long startNanos = System.nanoTime();
+        try {
+            return getAttribute(attributeIndex, null);
+        } finally {
+            Overhead.scrape.recordSince(startNanos);
+        }
+    }
+
+    /**
+     * @param frame the frame from which to serve all exposed attributes, which the caller has taken for this scrape
+     */
+    private CompositeData getSnapshot(Snapshot.Frame frame) throws AttributeNotFoundException {
+        if (snapshotType == null) {
             throw(new AttributeNotFoundException(
-                "Failed to use " + attributeName + " attribute in " + beanName + ": " + e.getMessage()));
+                "Failed to find " + SNAPSHOT_ATTRIBUTE_NAME + " attribute in " + beanName));
+        }
+        final Set<String> names = snapshotType.keySet();
+        final Map<String, Object> items = new HashMap<String, Object>();
+        for (String name : names) {
+            try {
+                items.put(name, getAttribute(name, frame));
+            } catch (AttributeNotFoundException e) {
+                // Report what is available instead of failing the whole snapshot
+                items.put(name, null);
+            }
+        }
+        try {
+            return new CompositeDataSupport(snapshotType, items);
+        } catch (OpenDataException e) {
+            throw(new AttributeNotFoundException(
+                "Failed to use " + SNAPSHOT_ATTRIBUTE_NAME + " attribute in " + beanName + ": " + e.getMessage()));
+        }
+    }
+
+    // Implement DynamicMBean
+    public synchronized Object getAttribute(String attributeName) throws AttributeNotFoundException {
+        if (attributeName == null) {
+            throw new RuntimeOperationsException(new IllegalArgumentException("Attribute name cannot be null"),
+                "Cannot invoke a getter of " + beanName + " with null attribute name");
+        }
+        final long startNanos = System.nanoTime();
+        try {
+            if (attributeName.equals(SNAPSHOT_ATTRIBUTE_NAME)) {
+                return getSnapshot(snapshot.serveAll());
+            }
+            return getAttribute(attributeName, null);
+        } finally {
+            Overhead.scrape.recordSince(startNanos);
         }
     }
 
@@ -188,19 +497,24 @@ public class DynamicSeed extends Seed implements DynamicMBean {
     }
 
     // Implement DynamicMBean
-    public AttributeList getAttributes(String[] attributeNames) {
+    public synchronized AttributeList getAttributes(String[] attributeNames) {
         if (attributeNames == null) {
             throw new RuntimeOperationsException(new IllegalArgumentException("attributeNames[] cannot be null"),
                 "Cannot invoke a getter of " + beanName);
         }
+        final long startNanos = System.nanoTime();
+        // All requested attributes are served from the same fresh frame
+        final Snapshot.Frame frame = snapshot.serveAll();
         final AttributeList result = new AttributeList();
         for (String name : attributeNames){
             try {
-                result.add(new Attribute(name, getAttribute(name)));
-            } catch (Exception e) {
-                e.printStackTrace();
+                final Object value = SNAPSHOT_ATTRIBUTE_NAME.equals(name) ? getSnapshot(frame) : getAttribute(name, frame);
+                result.add(new Attribute(name, value));
+            } catch (AttributeNotFoundException e) {
+                // Report what is available instead of failing the whole request
             }
         }
+        Overhead.scrape.recordSince(startNanos);
         return result;
     }
 
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns recorded amounts into exponentially weighted moving average (EWMA) rates per second
+ * over the last 1, 5, and 15 minutes, like the Unix load average does.
+ * <p>
+ * Amounts are accumulated for fixed ticks of 5 seconds.
+ * Each completed tick folds the rate within it into every average with a weight that depends on the average's horizon,
+ * so that the contribution of a tick decays by a factor of `e` per horizon.
+ * Like {@link SlidingWindows}, the averages therefore only depend on elapsed time,
+ * not on when or how often they are read, and reading them has no side effects.
+ * <p>
+ * Ticks are applied lazily, by the first recording or reading after a tick has ended,
+ * which makes up for all ticks that have ended since in one step.
+ * All averages are published together as one immutable record per step,
+ * so a reader always sees the averages as of one and the same tick.
+ * Recording and reading are lock-free and never allocate, except for the published record.
+ * If another thread is applying ticks at the same time, a reader returns the averages as of the preceding tick.
+ */
+public final class EwmaRateRecorder {
+
+    static final long TICK_NANOS = 5_000_000_000L;
+    private static final double TICK_SECONDS = (double) TICK_NANOS / 1e9;
+
+    private static final double ALPHA_1M = alpha(60);
+    private static final double ALPHA_5M = alpha(5 * 60);
+    private static final double ALPHA_15M = alpha(15 * 60);
+
+    private static double alpha(int horizonSeconds) {
+        return 1.0 - Math.exp(-TICK_SECONDS / (double) horizonSeconds);
+    }
+
+    private static final EwmaRecord ZERO = new EwmaRecord(0.0, 0.0, 0.0);
+
+    private final double amountFactor;
+
+    /**
+     * @param amountFactor the divisor that converts recorded amounts to the unit of the rates, e.g. `MiB` for bytes
+     */
+    public EwmaRateRecorder(long amountFactor) {
+        this(amountFactor, System.nanoTime());
+    }
+
+    EwmaRateRecorder(long amountFactor, long nanoTime) {
+        this.amountFactor = (double) amountFactor;
+        this.tickNanos = nanoTime;
+    }
+
+    // The amount recorded since the beginning of the current tick
+    private final AtomicLong pending = new AtomicLong(0);
+
+    // Held by the thread that is applying ticks or spreading a total's change
+    private final AtomicBoolean isTicking = new AtomicBoolean(false);
+
+    // Written only while holding `isTicking`: when the current tick began
+    private volatile long tickNanos;
+
+    // Only accessed while holding `isTicking`: the number of ticks applied so far
+    private long tickCount = 0;
+
+    // Only accessed while holding `isTicking`: the previous total passed to `recordTotal`,
+    // or `Long.MIN_VALUE` before the first one, and the value of `tickCount` at that time
+    private long previousTotal = Long.MIN_VALUE;
+    private long previousTotalTickCount = 0;
+
+    // Written only while holding `isTicking`: the averages as of the most recently applied tick, or `null` before it
+    private volatile EwmaRecord averages = null;
+
+    private void tickIfNecessary(long nanoTime) {
+        // Only compares against a possibly stale value, the exact check follows under `isTicking`
+        if (nanoTime - tickNanos < TICK_NANOS || !isTicking.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            applyTicks(nanoTime);
+        } finally {
+            isTicking.set(false);
+        }
+    }
+
+    // Requires holding `isTicking`
+    private void applyTicks(long nanoTime) {
+        final long ticks = (nanoTime - tickNanos) / TICK_NANOS;
+        if (ticks <= 0) {
+            return;
+        }
+        tickNanos += ticks * TICK_NANOS;
+        tickCount += ticks;
+        // Everything pending has been recorded during the first of the ended ticks, none in the others
+        final double rate = (double) pending.getAndSet(0) / amountFactor / TICK_SECONDS;
+        final EwmaRecord previous = averages;
+        // Start from the first observed rate instead of from zero
+        double rate1m = rate;
+        double rate5m = rate;
+        double rate15m = rate;
+        if (previous != null) {
+            rate1m = previous.rate1m + ALPHA_1M * (rate - previous.rate1m);
+            rate5m = previous.rate5m + ALPHA_5M * (rate - previous.rate5m);
+            rate15m = previous.rate15m + ALPHA_15M * (rate - previous.rate15m);
+        }
+        if (ticks > 1) {
+            rate1m *= Math.pow(1.0 - ALPHA_1M, ticks - 1);
+            rate5m *= Math.pow(1.0 - ALPHA_5M, ticks - 1);
+            rate15m *= Math.pow(1.0 - ALPHA_15M, ticks - 1);
+        }
+        averages = new EwmaRecord(rate1m, rate5m, rate15m);
+    }
+
+    /**
+     * Add an amount to the current tick. Negative amounts are ignored.
+     *
+     * @param amount the amount to add, e.g. a number of bytes or events
+     */
+    public void record(long amount) {
+        record(amount, System.nanoTime());
+    }
+
+    void record(long amount, long nanoTime) {
+        tickIfNecessary(nanoTime);
+        if (amount > 0) {
+            pending.addAndGet(amount);
+        }
+    }
+
+    /**
+     * Add the change of a cumulative total since the preceding call.
+     * If ticks have ended since then, the change is spread evenly over those ticks,
+     * so that polling a total less often than once per tick does not concentrate its change into a single tick.
+     * Otherwise it is added to the current tick.
+     * The first call only establishes the total to compare to.
+     * A total that has decreased is taken as a new starting point.
+     * <p>
+     * Unlike {@link #record(long)}, this waits for any thread that is applying ticks at the same time.
+     *
+     * @param total the current value of a monotonically increasing total, e.g. a counter of a platform MXBean
+     */
+    public void recordTotal(long total) {
+        recordTotal(total, System.nanoTime());
+    }
+
+    void recordTotal(long total, long nanoTime) {
+        while (!isTicking.compareAndSet(false, true)) {
+            // Only ever held for a few arithmetic operations
+            Thread.yield();
+        }
+        try {
+            applyTicks(nanoTime);
+            final long previous = previousTotal;
+            final long ticks = tickCount - previousTotalTickCount;
+            previousTotal = total;
+            previousTotalTickCount = tickCount;
+            if (previous == Long.MIN_VALUE || total <= previous) {
+                return;
+            }
+            if (ticks == 0) {
+                pending.addAndGet(total - previous);
+            } else {
+                spread(total - previous, ticks);
+            }
+        } finally {
+            isTicking.set(false);
+        }
+    }
+
+    /**
+     * Fold an amount into the averages as if it had been recorded evenly during the most recently ended ticks.
+     * This relies on each tick's contribution to an average decaying independently of the others.
+     * Requires holding `isTicking`.
+     */
+    private void spread(long amount, long ticks) {
+        final double rate = (double) amount / amountFactor / TICK_SECONDS / (double) ticks;
+        final EwmaRecord previous = averages;
+        if (tickCount == ticks) {
+            // The averages started from the first of these ticks, whose rate would have been the starting rate
+            averages = new EwmaRecord(previous.rate1m + rate, previous.rate5m + rate, previous.rate15m + rate);
+        } else {
+            averages = new EwmaRecord(
+                previous.rate1m + rate * (1.0 - Math.pow(1.0 - ALPHA_1M, ticks)),
+                previous.rate5m + rate * (1.0 - Math.pow(1.0 - ALPHA_5M, ticks)),
+                previous.rate15m + rate * (1.0 - Math.pow(1.0 - ALPHA_15M, ticks)));
+        }
+    }
+
+    /**
+     * Return the averages as of the most recently completed tick. Unlike with other recorders,
+     * reading does not start a new interval and any number of readers see the same averages.
+     *
+     * @return the 1, 5, and 15 minute average rates per second
+     */
+    public EwmaRecord getRecord() {
+        return getRecord(System.nanoTime());
+    }
+
+    EwmaRecord getRecord(long nanoTime) {
+        tickIfNecessary(nanoTime);
+        final EwmaRecord result = averages;
+        return result == null ? ZERO : result;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.beans.ConstructorProperties;
+
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataView;
+import javax.management.openmbean.CompositeType;
+
+/**
+ * Holds exponentially weighted moving average rates per second
+ * over the last 1, 5, and 15 minutes.
+ */
+public class EwmaRecord implements CompositeDataView {
+    private static final String[] ITEM_NAMES = {"rate1m", "rate5m", "rate15m"};
+
+    protected final double rate1m;
+    protected final double rate5m;
+    protected final double rate15m;
+
+    @ConstructorProperties({"rate1m", "rate5m", "rate15m"}) // Java 8
+    public EwmaRecord(double rate1m, double rate5m, double rate15m) {
+        this.rate1m = rate1m;
+        this.rate5m = rate5m;
+        this.rate15m = rate15m;
+    }
+
+    public double getRate1m() { return rate1m; }
+
+    public double getRate5m() { return rate5m; }
+
+    public double getRate15m() { return rate15m; }
+
+    @Override
+    public CompositeData toCompositeData(CompositeType type) {
+        return Util.toCompositeData(type, ITEM_NAMES, new Object[] {rate1m, rate5m, rate15m});
+    }
+
+    @Override
+    public String toString() {
+        return "{1m = " + rate1m + ", 5m = " + rate5m + ", 15m = " + rate15m + "}";
+    }
+}
@@ -15,16 +15,26 @@
  */
 package com.apple.pollianna;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
 import java.security.CodeSource;
 import java.security.ProtectionDomain;
+import java.util.Collections;
 import java.util.Enumeration;
-import java.util.jar.JarEntry;
-import java.util.jar.JarInputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 /**
  * A wrapper Java agent that provides complete classpath isolation
@@ -66,59 +76,252 @@ public final class IsolatingPolliannaAgent {
         agentmain(arguments);
     }
 
+    /**
+     * The embedded JAR, read once into a single byte buffer that stays compressed,
+     * with an index from entry names to their locations in that buffer.
+     * Each entry is only inflated when it is read.
+     */
+    static final class EmbeddedJar {
+        private static final int END_SIGNATURE = 0x06054b50;
+        private static final int END_SIZE = 22;
+        private static final int MAX_COMMENT_SIZE = 0xffff;
+        private static final int CENTRAL_SIGNATURE = 0x02014b50;
+        private static final int CENTRAL_HEADER_SIZE = 46;
+        private static final int LOCAL_SIGNATURE = 0x04034b50;
+        private static final int LOCAL_HEADER_SIZE = 30;
+        private static final int STORED = 0;
+        private static final int DEFLATED = 8;
+        private static final long ZIP64_MARKER = 0xffffffffL;
+
+        private final byte[] buffer;
+
+        // Per entry name: the compression method, compressed size, uncompressed size, and local header offset
+        private final Map<String, long[]> index = new HashMap<String, long[]>();
+
+        private int u16(int offset) {
+            return (buffer[offset] & 0xff) | (buffer[offset + 1] & 0xff) << 8;
+        }
+
+        private long u32(int offset) {
+            return (u16(offset) | (long) u16(offset + 2) << 16) & 0xffffffffL;
+        }
+
+        private int findEnd() throws IOException {
+            final int minOffset = Math.max(buffer.length - END_SIZE - MAX_COMMENT_SIZE, 0);
+            for (int offset = buffer.length - END_SIZE; offset >= minOffset; offset--) {
+                if (u32(offset) == END_SIGNATURE) {
+                    return offset;
+                }
+            }
+            throw new IOException("Embedded JAR has no central directory");
+        }
+
+        EmbeddedJar(InputStream stream) throws IOException {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] data = new byte[64 * 1024];
+            int bytesRead;
+            while ((bytesRead = stream.read(data)) != -1) {
+                bytes.write(data, 0, bytesRead);
+            }
+            buffer = bytes.toByteArray();
+
+            final int end = findEnd();
+            final int nEntries = u16(end + 10);
+            int offset = (int) u32(end + 16);
+            for (int i = 0; i < nEntries; i++) {
+                if (u32(offset) != CENTRAL_SIGNATURE) {
+                    throw new IOException("Embedded JAR has a corrupt central directory");
+                }
+                final long compressedSize = u32(offset + 20);
+                final long size = u32(offset + 24);
+                final long localOffset = u32(offset + 42);
+                if (compressedSize == ZIP64_MARKER || size == ZIP64_MARKER || localOffset == ZIP64_MARKER) {
+                    throw new IOException("Embedded JAR is in unsupported ZIP64 format");
+                }
+                final int nameLength = u16(offset + 28);
+                final String name = new String(buffer, offset + CENTRAL_HEADER_SIZE, nameLength, StandardCharsets.UTF_8);
+                index.put(name, new long[] {u16(offset + 10), compressedSize, size, localOffset});
+                offset += CENTRAL_HEADER_SIZE + nameLength + u16(offset + 30) + u16(offset + 32);
+            }
+        }
+
+        boolean contains(String name) {
+            return index.containsKey(name);
+        }
+
+        /**
+         * @return the inflated content of the named entry, or `null` if there is no such entry
+         */
+        byte[] read(String name) throws IOException {
+            final long[] entry = index.get(name);
+            if (entry == null) {
+                return null;
+            }
+            final int localOffset = (int) entry[3];
+            if (u32(localOffset) != LOCAL_SIGNATURE) {
+                throw new IOException("Embedded JAR has a corrupt entry: " + name);
+            }
+            final int dataOffset = localOffset + LOCAL_HEADER_SIZE + u16(localOffset + 26) + u16(localOffset + 28);
+            final int compressedSize = (int) entry[1];
+            final byte[] result = new byte[(int) entry[2]];
+            switch ((int) entry[0]) {
+                case STORED:
+                    System.arraycopy(buffer, dataOffset, result, 0, result.length);
+                    return result;
+                case DEFLATED:
+                    final Inflater inflater = new Inflater(true);
+                    try {
+                        inflater.setInput(buffer, dataOffset, compressedSize);
+                        int size = 0;
+                        while (size < result.length) {
+                            final int n = inflater.inflate(result, size, result.length - size);
+                            if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                                throw new IOException("Embedded JAR has a truncated entry: " + name);
+                            }
+                            size += n;
+                        }
+                        return result;
+                    } catch (DataFormatException e) {
+                        throw new IOException("Embedded JAR has a corrupt entry: " + name, e);
+                    } finally {
+                        inflater.end();
+                    }
+                default:
+                    throw new IOException("Embedded JAR has an entry with unsupported compression: " + name);
+            }
+        }
+    }
+
     /**
      * Custom classloader that loads all Pollianna classes and dependencies from an embedded JAR.
      */
-    private static class AgentClassLoader extends ClassLoader {
+    static class AgentClassLoader extends ClassLoader {
+        static {
+            registerAsParallelCapable();
+        }
 
         private static final String EMBEDDED_JAR = "/pollianna-all.jar";
+        private static final String RESOURCE_PROTOCOL = "pollianna";
 
-        public AgentClassLoader() {
-            super(null);
-        }
+        private final EmbeddedJar jar;
+        private final URL jarUrl;
+        private final ProtectionDomain protectionDomain;
+        private final Manifest manifest;
+
+        // Serves the content of embedded JAR entries for the URLs returned by `findResource()`
+        private final URLStreamHandler resourceHandler = new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(URL url) throws IOException {
+                final byte[] bytes = jar.read(url.getPath().substring(1));
+                if (bytes == null) {
+                    throw new IOException("Entry not found: " + url);
+                }
+                return new URLConnection(url) {
+                    @Override
+                    public void connect() { }
+
+                    @Override
+                    public InputStream getInputStream() {
+                        return new ByteArrayInputStream(bytes);
+                    }
 
-        private byte[] readEntryBytes(String entryName) throws IOException {
+                    @Override
+                    public int getContentLength() {
+                        return bytes.length;
+                    }
+                };
+            }
+        };
+
+        private static EmbeddedJar readEmbeddedJar() throws IOException {
             try (InputStream embeddedJarStream = IsolatingPolliannaAgent.class.getResourceAsStream(EMBEDDED_JAR)) {
                 if (embeddedJarStream == null) {
                     throw new IOException("Embedded JAR '" + EMBEDDED_JAR + "' not found");
                 }
-                try (JarInputStream jarInputStream = new JarInputStream(embeddedJarStream)) {
-                    JarEntry entry;
-                    while ((entry = jarInputStream.getNextJarEntry()) != null) {
-                        if (entryName.equals(entry.getName())) {
-                            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-                            byte[] data = new byte[8192];
-                            int bytesRead;
-                            while ((bytesRead = jarInputStream.read(data)) != -1) {
-                                buffer.write(data, 0, bytesRead);
-                            }
-                            return buffer.toByteArray();
-                        }
-                        jarInputStream.closeEntry();
-                    }
+                return new EmbeddedJar(embeddedJarStream);
+            }
+        }
+
+        public AgentClassLoader() throws IOException {
+            this(readEmbeddedJar(), IsolatingPolliannaAgent.class.getResource(EMBEDDED_JAR));
+        }
+
+        /**
+         * @param jar the JAR to load classes and resources from
+         * @param jarUrl where the JAR came from, which becomes the code source and the seal base of its packages
+         */
+        AgentClassLoader(EmbeddedJar jar, URL jarUrl) throws IOException {
+            super(null);
+            this.jar = jar;
+            this.jarUrl = jarUrl;
+            protectionDomain = new ProtectionDomain(new CodeSource(jarUrl, (java.security.cert.Certificate[]) null), null);
+            final byte[] manifestBytes = jar.read(JarFile.MANIFEST_NAME);
+            manifest = manifestBytes == null ? null : new Manifest(new ByteArrayInputStream(manifestBytes));
+        }
+
+        /**
+         * @param packageAttributes the attributes of a package's manifest section, or `null` if it has none
+         * @return the value of the named attribute in that section, or else in the manifest's main section
+         */
+        private String attribute(Attributes packageAttributes, Attributes.Name name) {
+            final String value = packageAttributes == null ? null : packageAttributes.getValue(name);
+            return value != null ? value : manifest.getMainAttributes().getValue(name);
+        }
+
+        @SuppressWarnings("deprecation") // `getDefinedPackage()` is not available in Java 8
+        private void definePackage(String className) {
+            final int lastDot = className.lastIndexOf('.');
+            if (lastDot < 0) {
+                return;
+            }
+            final String packageName = className.substring(0, lastDot);
+            if (getPackage(packageName) != null) {
+                return;
+            }
+            try {
+                if (manifest != null) {
+                    // Like `URLClassLoader`, prefer the attributes of the package's own manifest section
+                    final Attributes attributes = manifest.getAttributes(packageName.replace('.', '/') + "/");
+                    final boolean isSealed = "true".equalsIgnoreCase(attribute(attributes, Attributes.Name.SEALED));
+                    definePackage(packageName,
+                        attribute(attributes, Attributes.Name.SPECIFICATION_TITLE),
+                        attribute(attributes, Attributes.Name.SPECIFICATION_VERSION),
+                        attribute(attributes, Attributes.Name.SPECIFICATION_VENDOR),
+                        attribute(attributes, Attributes.Name.IMPLEMENTATION_TITLE),
+                        attribute(attributes, Attributes.Name.IMPLEMENTATION_VERSION),
+                        attribute(attributes, Attributes.Name.IMPLEMENTATION_VENDOR),
+                        isSealed ? jarUrl : null);
+                } else {
+                    definePackage(packageName, null, null, null, null, null, null, null);
                 }
+            } catch (IllegalArgumentException e) {
+                // Defined concurrently by another thread
             }
-            throw new IOException("Entry not found: " + entryName);
         }
 
         @Override
         protected Class<?> findClass(String name) throws ClassNotFoundException {
             final String classPath = name.replace('.', '/') + ".class";
+            final byte[] classBytes;
             try {
-                final byte[] classBytes = readEntryBytes(classPath);
-                final CodeSource codeSource = new CodeSource(new URL("jar:memory:pollianna-all.jar!/" + classPath), (java.security.cert.Certificate[]) null);
-                final ProtectionDomain protectionDomain = new ProtectionDomain(codeSource, null);
-                return defineClass(name, classBytes, 0, classBytes.length, protectionDomain);
-            } catch (Exception e) {
+                classBytes = jar.read(classPath);
+            } catch (IOException e) {
                 throw new ClassNotFoundException("Failed to load class: " + name, e);
             }
+            if (classBytes == null) {
+                throw new ClassNotFoundException("Failed to load class: " + name);
+            }
+            definePackage(name);
+            return defineClass(name, classBytes, 0, classBytes.length, protectionDomain);
         }
 
         @Override
         protected URL findResource(String name) {
+            if (!jar.contains(name)) {
+                return null;
+            }
             try {
-                readEntryBytes(name);
-                return new URL("jar:memory:pollianna-all.jar!/" + name);
+                return new URL(RESOURCE_PROTOCOL, null, -1, "/" + name, resourceHandler);
             } catch (Exception e) {
                 return null;
             }
@@ -126,7 +329,9 @@ public final class IsolatingPolliannaAgent {
 
         @Override
         protected Enumeration<URL> findResources(String name) throws IOException {
-            return super.findResources(name);
+            // Each name occurs at most once in the embedded JAR
+            final URL url = findResource(name);
+            return url == null ? Collections.<URL>emptyEnumeration() : Collections.enumeration(Collections.singletonList(url));
         }
     }
-}
\ No newline at end of file
+}
@@ -15,31 +15,46 @@
  */
 package com.apple.pollianna;
 
+import java.util.Arrays;
+
 /**
  * Tracks a cumulative `long` value and reports its change (delta) since its preceding observation.
+ * <p>
+ * Each {@link Cursor} has its own preceding observation, so that independent readers do not steal deltas from each other.
+ * A cursor's first delta is relative to the most recent observation by any other cursor.
  */
 public class LongDeltaRecorder {
 
     public LongDeltaRecorder() { }
 
-    private boolean initialized = false;
-    private long previous = 0;
+    // Per cursor id, the value observed by that cursor's preceding call, if any
+    private long[] previous = new long[0];
+    private boolean[] initialized = new boolean[0];
+
+    private boolean hasLatest = false;
+    private long latest = 0;
 
     /**
-     * Return the delta of a cumulative value compared to the preceding call to this method.
-     * The first call returns `0`.
+     * Return the delta of a cumulative value compared to the current cursor's preceding call to this method.
+     * The first call by any cursor returns `0`.
      * 
      * @param value the current cumulative value
-     * @return the delta of the cumulative `value` compared to the preceding call to this method
+     * @return the delta of the cumulative `value` compared to the current cursor's preceding call to this method
      */
     public synchronized long record(long value) {
-        if (!initialized) {
-            previous = value;
-            initialized = true;
-            return 0;
+        final int id = Cursor.current().id();
+        if (id >= previous.length) {
+            previous = Arrays.copyOf(previous, id + 1);
+            initialized = Arrays.copyOf(initialized, id + 1);
+        }
+        if (!initialized[id]) {
+            previous[id] = hasLatest ? latest : value;
+            initialized[id] = true;
         }
-        final long result = value - previous;
-        previous = value;
+        final long result = value - previous[id];
+        previous[id] = value;
+        latest = value;
+        hasLatest = true;
         return result;
     }
 }
@@ -16,20 +16,39 @@
 package com.apple.pollianna;
 
 import java.beans.ConstructorProperties;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeType;
 
 /**
  * Holds a summary of duration data.
  * Examples: GC pause or GC cycle durations.
  */
 public class LongDurationRecord extends LongValueRecord {
+    private static final String[] ITEM_NAMES = {"min", "avg", "max", "count", "portion", "p50", "p90", "p99", "p999"};
+
     protected final long count;
     protected final double portion;
+    protected final long p50;
+    protected final long p90;
+    protected final long p99;
+    protected final long p999;
 
-    @ConstructorProperties({"min", "avg", "max", "count", "portion"})  // Java 8
-    public LongDurationRecord(long min, long avg, long max, long count, double portion) {
+    @ConstructorProperties({"min", "avg", "max", "count", "portion", "p50", "p90", "p99", "p999"})  // Java 8
+    public LongDurationRecord(long min, long avg, long max, long count, double portion,
+                              long p50, long p90, long p99, long p999) {
         super(min, avg, max);
         this.count = count;
         this.portion = portion;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+    }
+
+    public LongDurationRecord(long min, long avg, long max, long count, double portion) {
+        this(min, avg, max, count, portion, 0, 0, 0, 0);
     }
 
     /**
@@ -42,6 +61,46 @@ public class LongDurationRecord extends LongValueRecord {
      */
     public double getPortion() { return portion; }
 
+    /**
+     * @return the median of the observed durations, with a relative error below 2%
+     */
+    public long getP50() { return p50; }
+
+    /**
+     * @return the 90th percentile of the observed durations, with a relative error below 2%
+     */
+    public long getP90() { return p90; }
+
+    /**
+     * @return the 99th percentile of the observed durations, with a relative error below 2%
+     */
+    public long getP99() { return p99; }
+
+    /**
+     * @return the 99.9th percentile of the observed durations, with a relative error below 2%
+     */
+    public long getP999() { return p999; }
+
+    /**
+     * @param sourceUnit the time unit of the durations in this record
+     * @param unit the time unit of the durations in the result
+     * @return a record with the same durations in the given unit, truncated, and the same count and portion
+     */
+    public LongDurationRecord convert(TimeUnit sourceUnit, TimeUnit unit) {
+        if (sourceUnit == unit) {
+            return this;
+        }
+        return new LongDurationRecord(unit.convert(min, sourceUnit), unit.convert(avg, sourceUnit),
+            unit.convert(max, sourceUnit), count, portion,
+            unit.convert(p50, sourceUnit), unit.convert(p90, sourceUnit),
+            unit.convert(p99, sourceUnit), unit.convert(p999, sourceUnit));
+    }
+
+    @Override
+    public CompositeData toCompositeData(CompositeType type) {
+        return Util.toCompositeData(type, ITEM_NAMES, new Object[] {min, avg, max, count, portion, p50, p90, p99, p999});
+    }
+
     @Override
     public String toString() {
         final StringBuilder buf = new StringBuilder();
@@ -49,7 +108,11 @@ public class LongDurationRecord extends LongValueRecord {
         buf.append("avg = " + avg + ", ");
         buf.append("max = " + max + ", ");
         buf.append("count = " + count + ", ");
-        buf.append("portion = " + portion + "}");
+        buf.append("portion = " + portion + ", ");
+        buf.append("p50 = " + p50 + ", ");
+        buf.append("p90 = " + p90 + ", ");
+        buf.append("p99 = " + p99 + ", ");
+        buf.append("p999 = " + p999 + "}");
         return buf.toString();
     }
 }
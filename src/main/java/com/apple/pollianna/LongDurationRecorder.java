@@ -15,46 +15,142 @@
  */
 package com.apple.pollianna;
 
-import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
 
+/**
+ * Records durations and produces their minimum, average, maximum, count, runtime portion, and percentiles
+ * over a polling interval.
+ * <p>
+ * Durations are recorded and stored in nanoseconds, so that sub-millisecond events do not vanish by rounding.
+ * Records are produced in milliseconds unless another unit is requested.
+ */
 public class LongDurationRecorder extends LongValueRecorder {
 
     public LongDurationRecorder() {
         super();
     }
 
-    private static final long runtimeStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private long intervalStartNanos = System.nanoTime();
+    private double lastPortionValue = 0;
+
+    // The total duration of events that happened but could not be observed individually
+    private long unobservedTotal = 0;
 
     /**
-     * @return elapsed milliseconds since the observed JVM started
-     * This conforms with the times that GcInfo.getStartTime() and GcInfo.getEndTime() report.
+     * Account for events that are known to have happened, but whose individual durations are unknown.
+     * Their total duration only contributes to the portion, but not to the count, minimum, average, or maximum.
+     *
+     * @param total the total duration of the unobserved events, in nanoseconds
      */
-    private long uptimeMillis() {
-        return System.currentTimeMillis() - runtimeStartMillis;
+    public synchronized void recordUnobserved(long total) {
+        unobservedTotal += total;
     }
 
-    private long intervalStartMillis = uptimeMillis();
-    private double lastPortionValue = 0;
+    private final LongHistogram histogram = new LongHistogram();
+
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+    private final long[] percentiles = new long[PERCENTILES.length];
+
+    private volatile LongConsumer[] listeners = new LongConsumer[0];
+
+    /**
+     * Have every subsequently recorded duration also passed on to the given listener,
+     * e.g. to feed an externally exported histogram.
+     *
+     * @param listener receives each recorded duration in nanoseconds, while this recorder's lock is held
+     */
+    public synchronized void addListener(LongConsumer listener) {
+        final LongConsumer[] result = Arrays.copyOf(listeners, listeners.length + 1);
+        result[listeners.length] = listener;
+        listeners = result;
+    }
+
+    /**
+     * @param value a duration in nanoseconds
+     */
+    @Override
+    public synchronized void record(long value) {
+        super.record(value);
+        histogram.record(value);
+        for (LongConsumer listener : listeners) {
+            listener.accept(value);
+        }
+    }
+
+    /**
+     * @return the factor that converts nanoseconds to milliseconds, so that windows report milliseconds
+     */
+    @Override
+    protected double windowScale() {
+        return 1.0 / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @param unit the time unit of the result
+     * @return the most recently recorded duration, truncated to the given unit
+     */
+    public synchronized long last(TimeUnit unit) {
+        return unit.convert(last(), TimeUnit.NANOSECONDS);
+    }
 
     protected double portion() {
-        final long intervalMillis = uptimeMillis() - intervalStartMillis;
-        if (intervalMillis <= 1) {
+        final long intervalNanos = System.nanoTime() - intervalStartNanos;
+        if (intervalNanos <= NANOS_PER_MILLI) {
             return lastPortionValue; // Return previous value if under 1ms time has elapsed
         }
-        lastPortionValue = ((double) total() / (double) intervalMillis) * 100.0;
+        lastPortionValue = ((double) (total() + unobservedTotal) / (double) intervalNanos) * 100.0;
         return lastPortionValue;
     }
 
     @Override
     protected synchronized void reset() {
         super.reset();
-        intervalStartMillis = uptimeMillis();
+        intervalStartNanos = System.nanoTime();
+        unobservedTotal = 0;
+        histogram.reset();
     }
 
     @Override
-    public synchronized LongDurationRecord getRecord() {
-        final LongDurationRecord result = new LongDurationRecord(min(), avg(), max(), count(), portion());
-        reset();
+    protected LongValueRecorder newCursorRecorder() {
+        final LongDurationRecorder result = new LongDurationRecorder();
+        result.intervalStartNanos = intervalStartNanos;
         return result;
     }
+
+    @Override
+    protected void mergeInto(LongValueRecorder recorder) {
+        super.mergeInto(recorder);
+        final LongDurationRecorder durationRecorder = (LongDurationRecorder) recorder;
+        durationRecorder.unobservedTotal += unobservedTotal;
+        durationRecorder.histogram.add(histogram);
+    }
+
+    /**
+     * Start a new polling interval for the current cursor
+     * and return a record of the durations observed in its previous interval.
+     *
+     * @param unit the time unit of the durations in the result
+     * @return a record of the durations observed since the current cursor's previous call
+     */
+    public synchronized LongDurationRecord getRecord(TimeUnit unit) {
+        final LongDurationRecorder recorder = (LongDurationRecorder) cursorRecorder();
+        recorder.histogram.percentiles(PERCENTILES, percentiles);
+        final LongDurationRecord result = new LongDurationRecord(recorder.min(), recorder.avg(), recorder.max(),
+            recorder.count(), recorder.portion(), percentiles[0], percentiles[1], percentiles[2], percentiles[3])
+            .convert(TimeUnit.NANOSECONDS, unit);
+        recorder.reset();
+        return result;
+    }
+
+    /**
+     * @return a record of the durations in milliseconds observed since the current cursor's previous call
+     */
+    @Override
+    public LongDurationRecord getRecord() {
+        return getRecord(TimeUnit.MILLISECONDS);
+    }
 }
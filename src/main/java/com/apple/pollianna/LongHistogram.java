@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size histogram of non-negative `long` values with log-linear buckets.
+ * <p>
+ * Values below 2^SUB_BUCKET_BITS each have a bucket of their own.
+ * Above that, every power-of-two range is divided into 2^(SUB_BUCKET_BITS - 1) equally wide buckets.
+ * Thus, any value that is reported for a bucket differs from the actually recorded values
+ * by less than 1 / 2^SUB_BUCKET_BITS (about 1.6%), across the entire `long` range,
+ * while the histogram's memory footprint stays constant.
+ * <p>
+ * Recording is allocation-free. Histograms can be merged by adding their bucket counts.
+ * This class is not thread-safe. Callers must synchronize.
+ */
+public final class LongHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (Long.SIZE - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long count = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+
+    public LongHistogram() { }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) Math.max(value, 0);
+        }
+        final int shift = (Long.SIZE - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        final int mantissa = (int) (value >>> shift);  // in [HALF_SUB_BUCKET_COUNT, SUB_BUCKET_COUNT)
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT + (mantissa - HALF_SUB_BUCKET_COUNT);
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int k = index - SUB_BUCKET_COUNT;
+        final int shift = k / HALF_SUB_BUCKET_COUNT + 1;
+        final long mantissa = k % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        return mantissa << shift;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = (index - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+        return bucketLowerBound(index) + (1L << shift) - 1;
+    }
+
+    /**
+     * @param value a non-negative value, negative values are recorded as zero
+     */
+    public void record(long value) {
+        counts[bucketIndex(value)]++;
+        count++;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Add all values recorded by another histogram to this one.
+     *
+     * @param other the histogram to merge into this one
+     */
+    public void add(LongHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        count = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @param percentile a number between 0 and 100
+     * @return an estimate of the value below or at which the given percentage of recorded values lie,
+     * or `0` if no values have been recorded
+     */
+    public long percentile(double percentile) {
+        final long[] result = new long[1];
+        percentiles(new double[] {percentile}, result);
+        return result[0];
+    }
+
+    /**
+     * Compute several percentiles in one pass.
+     *
+     * @param percentiles numbers between 0 and 100, in ascending order
+     * @param results receives the estimated values in the same order, see {@link #percentile(double)}
+     */
+    public void percentiles(double[] percentiles, long[] results) {
+        if (count == 0) {
+            Arrays.fill(results, 0L);
+            return;
+        }
+        int p = 0;
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT && p < percentiles.length; i++) {
+            cumulative += counts[i];
+            while (p < percentiles.length && percentiles[p] < 100.0
+                   && cumulative >= Math.max(1, (long) Math.ceil(percentiles[p] / 100.0 * count))) {
+                // Report the middle of the bucket, within the range of values actually recorded
+                final long lower = bucketLowerBound(i);
+                final long middle = lower + (bucketUpperBound(i) - lower) / 2;
+                results[p++] = Math.max(min, Math.min(max, middle));
+            }
+        }
+        while (p < percentiles.length) {
+            results[p++] = max;
+        }
+    }
+}
@@ -29,6 +29,14 @@ public class LongSampleRecorder {
      */
     public synchronized long last() { return last; }
 
+    /**
+     * Adopt the most recent value of another recorder without processing it as a sample.
+     * @param value the value to be returned by {@link #last()}
+     */
+    protected synchronized void setLast(long value) {
+        last = value;
+    }
+
     /**
      * Process a sample value.
      * @param value the value to record
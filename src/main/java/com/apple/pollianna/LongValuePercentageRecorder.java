@@ -22,7 +22,7 @@ public class LongValuePercentageRecorder {
     private final LongValueRecorder valueRecorder = new LongValueRecorder();
     private final PercentageRecorder percentageRecorder = new PercentageRecorder();
 
-    private static long limit;
+    private volatile long limit;
 
     public long limit() {
         return limit;
@@ -17,11 +17,17 @@ package com.apple.pollianna;
 
 import java.beans.ConstructorProperties;
 
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataView;
+import javax.management.openmbean.CompositeType;
+
 /**
  * Holds the minimum, average, and maximum of a `long` value
  * that has been repeatedly sampled over a polling interval.
  */
-public class LongValueRecord {
+public class LongValueRecord implements CompositeDataView {
+    private static final String[] ITEM_NAMES = {"min", "avg", "max"};
+
     protected final long min;
     protected final long avg;
     protected final long max;
@@ -39,6 +45,11 @@ public class LongValueRecord {
 
     public long getMax() { return max; }
 
+    @Override
+    public CompositeData toCompositeData(CompositeType type) {
+        return Util.toCompositeData(type, ITEM_NAMES, new Object[] {min, avg, max});
+    }
+
     @Override
     public String toString() {
         final StringBuilder buf = new StringBuilder();
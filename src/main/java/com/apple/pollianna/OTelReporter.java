@@ -15,11 +15,15 @@
  */
 package com.apple.pollianna;
 
+import com.apple.pollianna.application.ApplicationSeed;
+
+import io.opentelemetry.api.metrics.DoubleHistogram;
 import io.opentelemetry.api.metrics.Meter;
 import io.opentelemetry.exporter.otlp.metrics.OtlpGrpcMetricExporter;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.common.export.RetryPolicy;
 import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.export.AggregationTemporalitySelector;
 import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.resources.ResourceBuilder;
@@ -40,9 +44,13 @@ import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.stream.Stream;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
@@ -69,6 +77,26 @@ final class OTelReporter {
 
     private static final String DEFAULT_KEYSTORE_PASSWORD = "";
 
+    // The SDK of the most recent start, or `null` if stopped
+    private static OpenTelemetrySdk currentSdk = null;
+
+    // Only one hook for all starts, which stops whatever reporting is current at exit
+    private static boolean isShutdownHookAdded = false;
+
+    /**
+     * Stop exporting metrics and release the instruments of the most recent start, if any.
+     */
+    static synchronized void stop() {
+        if (applicationUnsubscriber != null) {
+            applicationUnsubscriber.run();
+            applicationUnsubscriber = null;
+        }
+        if (currentSdk != null) {
+            currentSdk.close();
+            currentSdk = null;
+        }
+    }
+
     static synchronized void start(OTelConfiguration configuration, String[] arguments) throws Exception {
         String keyStorePassword = DEFAULT_KEYSTORE_PASSWORD;
         if (configuration.keystorePasswordPath != null && !configuration.keystorePasswordPath.isEmpty()) {
@@ -115,21 +143,28 @@ final class OTelReporter {
 
         final SdkMeterProvider sdkMeterProvider = SdkMeterProvider.builder()
             .registerMetricReader(PeriodicMetricReader.builder(
-                                  OtlpGrpcMetricExporter.builder()
+                                  new TimedMetricExporter(OtlpGrpcMetricExporter.builder()
                                       .setEndpoint(configuration.endpoint)
                                       .setHeaders(() -> configuration.headers)
                                       .setSslContext(sslContext, trustManager)
                                       .setRetryPolicy(RetryPolicy.getDefault())
-                                      .build()
+                                      .setAggregationTemporalitySelector(AggregationTemporalitySelector.alwaysCumulative())
+                                      .build())
                                   )
                                   .setInterval(configuration.intervalSeconds, TimeUnit.SECONDS)
+                                  .setExecutor(TimedMetricExporter.newExecutor())
                                   .build()
             )
             .setResource(resourceBuilder.build())
             .build();
 
+        stop();
         final OpenTelemetrySdk sdk = OpenTelemetrySdk.builder().setMeterProvider(sdkMeterProvider).build();
-        Runtime.getRuntime().addShutdownHook(new Thread(sdk::close));
+        currentSdk = sdk;
+        if (!isShutdownHookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(OTelReporter::stop));
+            isShutdownHookAdded = true;
+        }
         discoverAndCreateGauges(sdk, configuration.meterPrefix, arguments);
     }
 
@@ -147,16 +182,20 @@ final class OTelReporter {
         return meterName(meterPrefix, beanName) + "_" + camelCaseToUnderscores(attributeInfo.getName());
     }
 
+    // Reads with polling intervals of its own, independent of JMX clients reading the same beans
+    private static final Cursor cursor = Cursor.register();
+
     private static void createDoubleGaugeCallback(Meter meterBuilder, 
                                                   String meterPrefix,
                                                   String beanName,
                                                   DynamicSeed dynamicSeed,
                                                   MBeanAttributeInfo attributeInfo ) {
         final String metricName = metricName(meterPrefix, beanName, attributeInfo);
+        final int attributeIndex = dynamicSeed.attributeIndex(attributeInfo.getName());
         try {            
             meterBuilder.gaugeBuilder(metricName).buildWithCallback(measurement -> {
                 try {
-                    Object value = dynamicSeed.getAttribute(attributeInfo.getName());
+                    Object value = cursor.read(() -> dynamicSeed.getAttribute(attributeIndex));
                     if (value != null) {
                         measurement.record((Double) value);
                     }
@@ -175,10 +214,11 @@ final class OTelReporter {
                                                 DynamicSeed dynamicSeed,
                                                 MBeanAttributeInfo attributeInfo ) {
         final String metricName = metricName(meterPrefix, beanName, attributeInfo);
+        final int attributeIndex = dynamicSeed.attributeIndex(attributeInfo.getName());
         try {            
             meterBuilder.gaugeBuilder(metricName).buildWithCallback(measurement -> {
                 try {
-                    Object value = dynamicSeed.getAttribute(attributeInfo.getName());
+                    Object value = cursor.read(() -> dynamicSeed.getAttribute(attributeIndex));
                     if (value != null) {
                         measurement.record((Long) value);
                     }
@@ -191,18 +231,146 @@ final class OTelReporter {
         }
     }
 
-    private static void createBeanGauges(OpenTelemetrySdk sdk, String meterPrefix, String beanName, String[] attributes) {
+    private static void createLongCounterCallback(Meter meterBuilder,
+                                                  String meterPrefix,
+                                                  String beanName,
+                                                  DynamicSeed dynamicSeed,
+                                                  MBeanAttributeInfo attributeInfo ) {
+        final String metricName = metricName(meterPrefix, beanName, attributeInfo);
+        final int attributeIndex = dynamicSeed.attributeIndex(attributeInfo.getName());
+        try {
+            // Monotonic sums with cumulative temporality, as counters never reset.
+            // Counters do not depend on the cursor, but reading through it keeps all callbacks alike.
+            meterBuilder.counterBuilder(metricName).buildWithCallback(measurement -> {
+                try {
+                    Object value = cursor.read(() -> dynamicSeed.getAttribute(attributeIndex));
+                    if (value != null) {
+                        measurement.record((Long) value);
+                    }
+                } catch (final Exception e) {
+                    System.err.println("Error recording long counter " + metricName + ": " + e.getMessage());
+                }
+            });
+        } catch (final Exception e) {
+            System.err.println("Error creating callback for " + metricName  + ": " + e.getMessage());
+        }
+    }
+
+    // Explicit bucket boundaries for duration histograms, in milliseconds
+    private static final List<Double> DURATION_BUCKET_BOUNDARIES = Arrays.asList(
+        0.01, 0.02, 0.05, 0.1, 0.2, 0.5, 1.0, 2.0, 5.0, 10.0, 20.0, 50.0, 100.0, 200.0, 500.0, 1000.0, 2000.0, 5000.0, 10000.0);
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * @param meter the meter to create the histogram with
+     * @param metricName the name of the histogram
+     * @return a listener for a LongDurationRecorder that reports each duration to a new histogram, in milliseconds
+     */
+    static LongConsumer durationHistogram(Meter meter, String metricName) {
+        final DoubleHistogram histogram = meter.histogramBuilder(metricName)
+            .setUnit("ms")
+            .setExplicitBucketBoundariesAdvice(DURATION_BUCKET_BOUNDARIES)
+            .build();
+        return durationNanos -> histogram.record(durationNanos / NANOS_PER_MILLI);
+    }
+
+    private static boolean isExposed(MBeanInfo beanInfo, String attributeNamePrefix) {
+        for (MBeanAttributeInfo attributeInfo : beanInfo.getAttributes()) {
+            if (attributeInfo.getName().startsWith(attributeNamePrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void createHistograms(Meter meterBuilder, String meterPrefix, String beanName, DynamicSeed dynamicSeed) {
+        final MBeanInfo beanInfo = dynamicSeed.getMBeanInfo();
+        for (Map.Entry<String, LongDurationRecorder> entry : dynamicSeed.histograms().entrySet()) {
+            if (!isExposed(beanInfo, entry.getKey())) {
+                continue;
+            }
+            final String metricName = meterName(meterPrefix, beanName) + "_" + camelCaseToUnderscores(entry.getKey()) + "_duration";
+            try {
+                entry.getValue().addListener(durationHistogram(meterBuilder, metricName));
+            } catch (final Exception e) {
+                System.err.println("Error creating histogram " + metricName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void createApplicationCallback(Meter meterBuilder,
+                                                  String meterPrefix,
+                                                  String beanName,
+                                                  ApplicationSeed seed,
+                                                  MBeanAttributeInfo attributeInfo) {
+        final String metricName = metricName(meterPrefix, beanName, attributeInfo);
+        final String attributeName = attributeInfo.getName();
+        try {
+            if (seed.isCumulative(attributeName)) {
+                meterBuilder.counterBuilder(metricName).buildWithCallback(measurement -> {
+                    try {
+                        measurement.record((Long) cursor.read(() -> seed.getAttribute(attributeName)));
+                    } catch (final Exception e) {
+                        System.err.println("Error recording long counter " + metricName + ": " + e.getMessage());
+                    }
+                });
+            } else if (attributeInfo.getType().equals("double")) {
+                meterBuilder.gaugeBuilder(metricName).buildWithCallback(measurement -> {
+                    try {
+                        measurement.record((Double) cursor.read(() -> seed.getAttribute(attributeName)));
+                    } catch (final Exception e) {
+                        System.err.println("Error recording double gauge " + metricName + ": " + e.getMessage());
+                    }
+                });
+            } else {
+                meterBuilder.gaugeBuilder(metricName).buildWithCallback(measurement -> {
+                    try {
+                        measurement.record((Long) cursor.read(() -> seed.getAttribute(attributeName)));
+                    } catch (final Exception e) {
+                        System.err.println("Error recording long gauge " + metricName + ": " + e.getMessage());
+                    }
+                });
+            }
+        } catch (final Exception e) {
+            System.err.println("Error creating callback for " + metricName  + ": " + e.getMessage());
+        }
+    }
+
+    // Stops creating instruments for application metrics registered later, or `null`
+    private static Runnable applicationUnsubscriber = null;
+
+    /**
+     * Create instruments for the application metrics registered so far and for those registered later,
+     * until the reporter or the "Application" bean is stopped.
+     */
+    private static void createApplicationInstruments(Meter meterBuilder, String meterPrefix, String beanName, String[] attributes) {
+        final ApplicationSeed seed = PolliannaConfiguration.startApplicationRecording(attributes);
+        final Consumer<MBeanAttributeInfo> subscriber =
+            attributeInfo -> createApplicationCallback(meterBuilder, meterPrefix, beanName, seed, attributeInfo);
+        seed.subscribe(subscriber);
+        applicationUnsubscriber = () -> seed.unsubscribe(subscriber);
+    }
+
+    static void createBeanGauges(OpenTelemetrySdk sdk, String meterPrefix, String beanName, String[] attributes) {
         final Meter meterBuilder = sdk.getMeter(meterName(meterPrefix, beanName));
+        if (beanName.equals(PolliannaConfiguration.applicationBeanName())) {
+            createApplicationInstruments(meterBuilder, meterPrefix, beanName, attributes);
+            return;
+        }
         DynamicSeed dynamicSeed = PolliannaConfiguration.startRecording(beanName, attributes);
         MBeanInfo beanInfo = dynamicSeed.getMBeanInfo();
         for (MBeanAttributeInfo attributeInfo : beanInfo.getAttributes()) {
             final String type = attributeInfo.getType();
             if (type.equals("double") || type.equals("java.lang.Double")) {
                 createDoubleGaugeCallback(meterBuilder, meterPrefix, beanName, dynamicSeed, attributeInfo);
+            } else if ((type.equals("long") || type.equals("java.lang.Long")) && dynamicSeed.isCumulative()) {
+                createLongCounterCallback(meterBuilder, meterPrefix, beanName, dynamicSeed, attributeInfo);
             } else if (type.equals("long") || type.equals("java.lang.Long")) {
                 createLongGaugeCallback(meterBuilder, meterPrefix, beanName, dynamicSeed, attributeInfo);
             }
         }
+        createHistograms(meterBuilder, meterPrefix, beanName, dynamicSeed);
     }
 
     private static void discoverAndCreateGauges(OpenTelemetrySdk sdk, String meterPrefix, String[] arguments) throws Exception {
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Records what Pollianna itself costs: the resources used by its own threads
+ * and the durations of its work on threads that it shares with the application or the JVM.
+ * All durations are recorded in nanoseconds.
+ */
+public final class Overhead {
+    private Overhead() { }
+
+    /**
+     * The time spent handling each GC notification on the JVM's notification thread.
+     * Each duration is recorded later by the GC event consumer, so that readers never delay the notification thread.
+     */
+    public static final LongDurationRecorder gcNotification = new LongDurationRecorder();
+
+    /**
+     * The durations of the periodic data gathering procedures, by bean family.
+     */
+    public static final LongDurationRecorder compilerTick = new LongDurationRecorder();
+    public static final LongDurationRecorder nmtTick = new LongDurationRecorder();
+    public static final LongDurationRecorder rtTick = new LongDurationRecorder();
+    public static final LongDurationRecorder threadTick = new LongDurationRecorder();
+
+    /**
+     * The durations of the periodic reconciliation of GC notifications with the collectors' totals,
+     * and of the overhead governor's periodic decisions.
+     */
+    public static final LongDurationRecorder gcReconcileTick = new LongDurationRecorder();
+    public static final LongDurationRecorder governorTick = new LongDurationRecorder();
+
+    /**
+     * The time spent serving each attribute read request, on the requesting thread.
+     * Striped, so that concurrent requests to different beans do not contend for a lock, at the cost of percentiles.
+     */
+    public static final StripedDurationRecorder scrape = new StripedDurationRecorder();
+
+    /**
+     * The durations of OTel metric exports, from start until completion, and the number of failed exports.
+     */
+    public static final LongDurationRecorder export = new LongDurationRecorder();
+    public static final CounterRecorder exportFailures = new CounterRecorder();
+
+    private static volatile boolean isReady = false;
+    private static volatile long premainNanos = 0;
+    private static volatile long startNanos = 0;
+
+    /**
+     * Record that Pollianna has begun (re)starting, so it is not ready.
+     */
+    static void startBegun() {
+        isReady = false;
+    }
+
+    /**
+     * Record that Pollianna has finished (re)starting, so it is ready.
+     * This is also called if starting failed, in which case the failure has been thrown to the caller of start.
+     *
+     * @param durationNanos how long starting took, in nanoseconds
+     */
+    static void startCompleted(long durationNanos) {
+        startNanos = durationNanos;
+        isReady = true;
+    }
+
+    /**
+     * @param durationNanos the time that the agent took on the thread that invoked it, in nanoseconds
+     */
+    static void recordPremain(long durationNanos) {
+        premainNanos = durationNanos;
+    }
+
+    /**
+     * @return whether Pollianna has completely started, including any OTel reporting
+     */
+    public static boolean isReady() {
+        return isReady;
+    }
+
+    /**
+     * @return the time that the agent added to the startup of the application, in nanoseconds,
+     * or zero if Pollianna has not been started by an agent
+     */
+    public static long premainNanos() {
+        return premainNanos;
+    }
+
+    /**
+     * @return how long the most recent completed start of Pollianna took, in nanoseconds,
+     * regardless of whether it happened on the application's thread or in the background
+     */
+    public static long startNanos() {
+        return startNanos;
+    }
+
+    /**
+     * A registered thread and what it had used when it was most recently sampled.
+     */
+    private static final class RegisteredThread {
+        final long id;
+        long cpuTime = 0;
+        long allocatedBytes = 0;
+
+        RegisteredThread(long id) {
+            this.id = id;
+        }
+    }
+
+    private static final Object threadLock = new Object();
+
+    // Guarded by `threadLock`
+    private static RegisteredThread[] threads = new RegisteredThread[0];
+
+    // What threads that have been unregistered or that have ended used in total, guarded by `threadLock`
+    private static long retiredCpuTime = 0;
+    private static long retiredAllocatedBytes = 0;
+
+    /**
+     * Have the CPU time and allocated bytes of the given thread accounted for as Pollianna overhead.
+     * Registering the same thread more than once has no further effect.
+     *
+     * @param thread a thread that only does work for Pollianna
+     */
+    public static void registerThread(Thread thread) {
+        final long id = thread.getId();
+        synchronized (threadLock) {
+            for (RegisteredThread registered : threads) {
+                if (registered.id == id) {
+                    return;
+                }
+            }
+            final RegisteredThread[] result = Arrays.copyOf(threads, threads.length + 1);
+            result[threads.length] = new RegisteredThread(id);
+            threads = result;
+        }
+    }
+
+    /**
+     * Stop sampling the given thread, e.g. because it is about to end.
+     * What it has used so far remains accounted for.
+     * This is most accurate when called on the thread itself, while it can still be sampled.
+     *
+     * @param thread a thread that has been registered with {@link #registerThread(Thread)}
+     */
+    public static void unregisterThread(Thread thread) {
+        final long id = thread.getId();
+        synchronized (threadLock) {
+            sampleThreads();
+            for (RegisteredThread registered : threads) {
+                if (registered.id == id) {
+                    retire(registered);
+                }
+            }
+        }
+    }
+
+    // Fold what a thread has used into the retired totals and stop sampling it, while holding `threadLock`
+    private static void retire(RegisteredThread thread) {
+        retiredCpuTime += thread.cpuTime;
+        retiredAllocatedBytes += thread.allocatedBytes;
+        final RegisteredThread[] result = new RegisteredThread[threads.length - 1];
+        int n = 0;
+        for (RegisteredThread registered : threads) {
+            if (registered != thread) {
+                result[n++] = registered;
+            }
+        }
+        threads = result;
+    }
+
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private static final boolean isThreadCpuTimeSupported = threadBean.isCurrentThreadCpuTimeSupported();
+
+    /**
+     * @return the CPU time used so far by the current thread, in nanoseconds,
+     * or zero if thread CPU time measurement is unsupported
+     */
+    static long currentThreadCpuTime() {
+        return isThreadCpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * Update what each registered thread has used so far and retire those that have ended,
+     * while holding `threadLock`.
+     * Measurements that are unsupported or disabled leave the previous samples unchanged.
+     */
+    private static void sampleThreads() {
+        if (threads.length == 0 || !(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+        final long[] ids = new long[threads.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = threads[i].id;
+        }
+        final boolean isCpuTimeMeasured = bean.isThreadCpuTimeSupported() && bean.isThreadCpuTimeEnabled();
+        final boolean isAllocationMeasured = bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled();
+        final long[] cpuTimes = isCpuTimeMeasured ? bean.getThreadCpuTime(ids) : null;
+        final long[] allocatedBytes = isAllocationMeasured ? bean.getThreadAllocatedBytes(ids) : null;
+        final RegisteredThread[] sampled = threads;
+        for (int i = 0; i < sampled.length; i++) {
+            boolean isEnded = false;
+            // -1 for threads that have ended
+            if (cpuTimes != null) {
+                if (cpuTimes[i] >= 0) {
+                    sampled[i].cpuTime = cpuTimes[i];
+                } else {
+                    isEnded = true;
+                }
+            }
+            if (allocatedBytes != null) {
+                if (allocatedBytes[i] >= 0) {
+                    sampled[i].allocatedBytes = allocatedBytes[i];
+                } else {
+                    isEnded = true;
+                }
+            }
+            if (isEnded) {
+                retire(sampled[i]);
+            }
+        }
+    }
+
+    /**
+     * Return the CPU time used so far by all registered threads, in nanoseconds.
+     * This includes threads that have since been unregistered or that have ended,
+     * as of when they were last sampled, so the total never decreases.
+     *
+     * @return the CPU time used so far by all registered threads, in nanoseconds
+     */
+    public static long threadCpuTime() {
+        synchronized (threadLock) {
+            sampleThreads();
+            long result = retiredCpuTime;
+            for (RegisteredThread thread : threads) {
+                result += thread.cpuTime;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Return the number of bytes allocated in the Java heap so far by all registered threads.
+     * This includes threads that have since been unregistered or that have ended,
+     * as of when they were last sampled, so the total never decreases.
+     *
+     * @return the number of bytes allocated in the Java heap so far by all registered threads
+     */
+    public static long threadAllocatedBytes() {
+        synchronized (threadLock) {
+            sampleThreads();
+            long result = retiredAllocatedBytes;
+            for (RegisteredThread thread : threads) {
+                result += thread.allocatedBytes;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the CPU time used by Pollianna's degradable periodic data gathering within a budget,
+ * given as a percentage of the CPU capacity available to the JVM.
+ * Other work on Pollianna's threads, such as GC event handling, JFR pause streaming, and OTel export,
+ * cannot be degraded, so it is not measured against the budget. Otherwise, its cost alone could exceed the budget,
+ * which would suspend all data gathering without any effect on the measured share.
+ * <p>
+ * Once per interval, the governor estimates the CPU share of degradable aggregators from their current intervals
+ * and the average CPU time of their runs so far. Unlike measuring the CPU time used since the previous decision,
+ * this is not skewed by whether a stretched aggregator happened to run in between, and it reflects each decision at once.
+ * If the share exceeds the budget, the most expensive periodic aggregator is degraded by one step:
+ * its interval is doubled, up to a limit, and then it is suspended.
+ * If the share has dropped below half the budget, the most recently degraded aggregator is restored by one step,
+ * unless it is suspended and resuming it would exceed the budget.
+ * Thus at most one decision is made per interval, and the gap between the two thresholds prevents oscillation.
+ */
+public final class OverheadGovernor extends PeriodicAggregator {
+
+    private static final int MAX_STRETCH_FACTOR = 8;
+
+    private static final OverheadGovernor instance = new OverheadGovernor();
+
+    private OverheadGovernor() { super(); }
+
+    private double budgetPercent = 0.0;
+    private double cpuSharePercent = 0.0;
+    private long decisionCount = 0;
+    private String lastDecision = "";
+
+    // Degraded aggregators, the most recently degraded one first
+    private final Deque<PeriodicAggregator> degraded = new ArrayDeque<PeriodicAggregator>();
+
+    private final int nProcessors = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Set the CPU budget for Pollianna's degradable periodic data gathering and start or stop governing accordingly.
+     * When governing stops, all degraded aggregators are restored.
+     *
+     * @param percent the budget as a percentage of the CPU capacity available to the JVM,
+     *                or zero or a negative value to stop governing
+     */
+    public static void setBudgetPercent(double percent) {
+        synchronized (instance) {
+            instance.budgetPercent = Math.max(percent, 0.0);
+            if (percent <= 0.0) {
+                instance.restoreAll();
+            }
+        }
+        if (percent > 0.0) {
+            instance.startAggregating();
+        } else {
+            instance.stopAggregating();
+        }
+    }
+
+    /**
+     * @return the governor that is configured by {@link #setBudgetPercent(double)}
+     */
+    public static OverheadGovernor instance() {
+        return instance;
+    }
+
+    // The governor only examines the CPU time of others
+    @Override
+    protected boolean isDegradable() {
+        return false;
+    }
+
+    private static double costRate(PeriodicAggregator aggregator) {
+        final long runCount = aggregator.runCount();
+        if (runCount == 0) {
+            return 0.0;
+        }
+        return (double) aggregator.cpuNanos() / runCount / aggregator.intervalSeconds();
+    }
+
+    private double sharePercent(double cpuNanosPerSecond) {
+        return cpuNanosPerSecond / (1e9 * nProcessors) * 100.0;
+    }
+
+    private void decide(String decision) {
+        decisionCount++;
+        lastDecision = decision;
+    }
+
+    private void degrade() {
+        PeriodicAggregator mostExpensive = null;
+        double maxCostRate = 0.0;
+        for (PeriodicAggregator aggregator : PeriodicAggregator.activeAggregators()) {
+            if (aggregator.isDegradable() && !aggregator.isSuspended()) {
+                final double costRate = costRate(aggregator);
+                if (costRate > maxCostRate) {
+                    mostExpensive = aggregator;
+                    maxCostRate = costRate;
+                }
+            }
+        }
+        if (mostExpensive == null) {
+            return;
+        }
+        degraded.remove(mostExpensive);
+        degraded.push(mostExpensive);
+        final String name = mostExpensive.getClass().getSimpleName();
+        final int stretchFactor = mostExpensive.stretchFactor();
+        if (stretchFactor < MAX_STRETCH_FACTOR) {
+            mostExpensive.setStretchFactor(stretchFactor * 2);
+            decide("stretched " + name + " interval to " + mostExpensive.intervalSeconds() + "s");
+        } else {
+            mostExpensive.setSuspended(true);
+            decide("suspended " + name);
+        }
+    }
+
+    private void restore() {
+        final List<PeriodicAggregator> active = PeriodicAggregator.activeAggregators();
+        while (!degraded.isEmpty()) {
+            final PeriodicAggregator aggregator = degraded.peek();
+            if (!active.contains(aggregator) || (aggregator.stretchFactor() == 1 && !aggregator.isSuspended())) {
+                // Stopped in the meantime, which has already undone any degradation, and possibly restarted
+                degraded.pop();
+                continue;
+            }
+            final String name = aggregator.getClass().getSimpleName();
+            if (aggregator.isSuspended()) {
+                // Resuming at the longest interval must not exceed the budget by itself, or it would be suspended again
+                if (cpuSharePercent + sharePercent(costRate(aggregator)) > budgetPercent) {
+                    return;
+                }
+                aggregator.setSuspended(false);
+                decide("resumed " + name);
+            } else {
+                aggregator.setStretchFactor(aggregator.stretchFactor() / 2);
+                decide("restored " + name + " interval to " + aggregator.intervalSeconds() + "s");
+            }
+            if (aggregator.stretchFactor() == 1 && !aggregator.isSuspended()) {
+                degraded.pop();
+            }
+            return;
+        }
+    }
+
+    private void restoreAll() {
+        for (PeriodicAggregator aggregator : degraded) {
+            aggregator.setSuspended(false);
+            aggregator.setStretchFactor(1);
+        }
+        if (!degraded.isEmpty()) {
+            degraded.clear();
+            decide("restored all");
+        }
+    }
+
+    private synchronized void govern() {
+        if (budgetPercent <= 0.0) {
+            return;
+        }
+        double cpuNanosPerSecond = 0.0;
+        for (PeriodicAggregator aggregator : PeriodicAggregator.activeAggregators()) {
+            if (aggregator.isDegradable() && !aggregator.isSuspended()) {
+                cpuNanosPerSecond += costRate(aggregator);
+            }
+        }
+        cpuSharePercent = sharePercent(cpuNanosPerSecond);
+        if (cpuSharePercent > budgetPercent) {
+            degrade();
+        } else if (cpuSharePercent < budgetPercent / 2) {
+            restore();
+        }
+    }
+
+    private final Runnable govern = this::govern;
+
+    @Override
+    protected Runnable runnable() { return govern; }
+
+    @Override
+    protected LongDurationRecorder tickRecorder() { return Overhead.governorTick; }
+
+    /**
+     * @return the CPU budget for Pollianna's degradable periodic data gathering, in percent, or zero if not governing
+     */
+    public synchronized double budgetPercent() {
+        return budgetPercent;
+    }
+
+    /**
+     * @return the CPU share of degradable aggregators estimated by the most recent run, in percent
+     */
+    public synchronized double cpuSharePercent() {
+        return cpuSharePercent;
+    }
+
+    /**
+     * @return the number of aggregators whose intervals are currently stretched, including suspended ones
+     */
+    public synchronized int stretchedCount() {
+        int result = 0;
+        for (PeriodicAggregator aggregator : PeriodicAggregator.activeAggregators()) {
+            if (aggregator.stretchFactor() > 1) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of aggregators that are currently suspended
+     */
+    public synchronized int suspendedCount() {
+        int result = 0;
+        for (PeriodicAggregator aggregator : PeriodicAggregator.activeAggregators()) {
+            if (aggregator.isSuspended()) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of times an aggregator has been degraded or restored so far
+     */
+    public synchronized long decisionCount() {
+        return decisionCount;
+    }
+
+    /**
+     * @return a description of the most recent decision, or an empty string if there has been none
+     */
+    public synchronized String lastDecision() {
+        return lastDecision;
+    }
+}
@@ -15,15 +15,20 @@
  */
 package com.apple.pollianna;
 
-import java.util.IdentityHashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-
-import static java.util.concurrent.TimeUnit.SECONDS;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An aggregator with a data gathering procedure which is executed periodically.
+ * <p>
+ * All periodic aggregators share one daemon thread that runs a hashed timing wheel with one-second ticks.
+ * Each aggregator has its own interval, which can be changed at any time and takes effect immediately.
+ * A procedure that throws does not affect any other procedure.
+ * If a procedure runs for so long that it misses one or more of its own deadlines,
+ * these runs are skipped instead of being executed back-to-back.
  */
 public abstract class PeriodicAggregator implements Aggregator {
 
@@ -32,56 +37,337 @@ public abstract class PeriodicAggregator implements Aggregator {
      */
     protected abstract Runnable runnable();
 
-    private static final Map<PeriodicAggregator, PeriodicAggregator> aggregators = new IdentityHashMap<PeriodicAggregator, PeriodicAggregator>();
+    private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int WHEEL_SIZE = 64; // a power of 2
 
-    private static final Runnable runAggregators = () -> {
-        synchronized (aggregators) {
-            try {
-                for (PeriodicAggregator aggregator : aggregators.keySet()) {
-                    aggregator.runnable().run();
-                }
-            } catch (Exception e) {
-                // TODO: warning
-            }
+    // Guards all scheduling state, static and per aggregator
+    private static final Object lock = new Object();
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Generic array creation
+    private static final List<PeriodicAggregator>[] wheel = new List[WHEEL_SIZE];
+    static {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ArrayList<PeriodicAggregator>();
         }
-    };
+    }
+
+    private static Thread thread = null;
+    private static long origin;
+    private static long processedTick = 0;
+    private static int nActive = 0;
 
     private static final int DEFAULT_INTERVAL_SECONDS = 10;
     private static int intervalSeconds = DEFAULT_INTERVAL_SECONDS;
 
+    // Intervals that override the default for all aggregators of a given type, the last matching entry applies
+    private static final Map<Class<? extends PeriodicAggregator>, Integer> typeIntervalSeconds
+        = new LinkedHashMap<Class<? extends PeriodicAggregator>, Integer>();
+
+    // All active aggregators, in the order in which they were started
+    private static final List<PeriodicAggregator> activeAggregators = new ArrayList<PeriodicAggregator>();
+
+    private boolean isActive = false;
+    private boolean isRunning = false;
+    private boolean isSuspended = false;
+    private int stretchFactor = 1;
+    private int slot = -1;
+    private long lastRunTick;
+    private long deadlineTick;
+
+    private long runCount = 0;
+    private long failureCount = 0;
+    private long skipCount = 0;
+    private long cpuNanos = 0;
+
     /**
-     * Set the interval time after which all started data gathering procedures are periodically run.
-     * If zero or a negative interval time is given, no procedures will be run.
+     * Set the default interval time after which started data gathering procedures are periodically run.
+     * This takes effect immediately, also for procedures that are already running periodically,
+     * except for those of aggregators that have an interval of their own type.
+     * Zero or a negative interval time is ignored.
      *
      * @param seconds the interval in seconds
      */
     public static void setIntervalSeconds(int seconds) {
-        synchronized (aggregators) {
+        synchronized (lock) {
             if (seconds > 0) {
                 intervalSeconds = seconds;
+                reschedule();
+            }
+        }
+    }
+
+    /**
+     * Set the interval time after which the data gathering procedures of all aggregators of the given type,
+     * including subtypes, are periodically run.
+     * This takes effect immediately, also for procedures that are already running periodically.
+     *
+     * @param type the type of aggregators
+     * @param seconds the interval in seconds, or zero or a negative value to revert to the default interval
+     */
+    public static void setIntervalSeconds(Class<? extends PeriodicAggregator> type, int seconds) {
+        synchronized (lock) {
+            typeIntervalSeconds.remove(type);
+            if (seconds > 0) {
+                typeIntervalSeconds.put(type, seconds);
+            }
+            reschedule();
+        }
+    }
+
+    /**
+     * @return the interval time in seconds after which this aggregator's data gathering procedure is run,
+     * including any stretching by the overhead governor
+     */
+    public int intervalSeconds() {
+        synchronized (lock) {
+            int result = intervalSeconds;
+            for (Map.Entry<Class<? extends PeriodicAggregator>, Integer> entry : typeIntervalSeconds.entrySet()) {
+                if (entry.getKey().isInstance(this)) {
+                    result = entry.getValue();
+                }
+            }
+            return result * stretchFactor;
+        }
+    }
+
+    /**
+     * Aggregator families override this to have their procedure's durations recorded as Pollianna overhead.
+     *
+     * @return the recorder for the durations of this aggregator's data gathering procedure, or `null` if none
+     */
+    protected LongDurationRecorder tickRecorder() {
+        return null;
+    }
+
+    /**
+     * @return whether the overhead governor may stretch the interval of this aggregator or suspend it
+     */
+    protected boolean isDegradable() {
+        return true;
+    }
+
+    /**
+     * @return all currently active aggregators
+     */
+    static List<PeriodicAggregator> activeAggregators() {
+        synchronized (lock) {
+            return new ArrayList<PeriodicAggregator>(activeAggregators);
+        }
+    }
+
+    /**
+     * @return the factor by which the overhead governor has stretched this aggregator's interval
+     */
+    int stretchFactor() {
+        synchronized (lock) {
+            return stretchFactor;
+        }
+    }
+
+    /**
+     * Multiply this aggregator's configured interval by the given factor, effective immediately.
+     *
+     * @param factor one to restore the configured interval, or greater
+     */
+    void setStretchFactor(int factor) {
+        synchronized (lock) {
+            stretchFactor = Math.max(factor, 1);
+            if (slot >= 0) {
+                remove();
+                insert(Math.max(lastRunTick + intervalSeconds(), currentTick() + 1));
+            }
+        }
+    }
+
+    /**
+     * @return whether the overhead governor has suspended this aggregator's data gathering procedure
+     */
+    boolean isSuspended() {
+        synchronized (lock) {
+            return isSuspended;
+        }
+    }
+
+    /**
+     * Keep this aggregator's data gathering procedure from running while it remains active, or let it run again.
+     *
+     * @param isSuspended whether to suspend or resume
+     */
+    void setSuspended(boolean isSuspended) {
+        synchronized (lock) {
+            if (this.isSuspended == isSuspended) {
+                return;
+            }
+            this.isSuspended = isSuspended;
+            if (isSuspended) {
+                remove();
+            } else if (isActive && !isRunning) {
+                final long now = currentTick();
+                lastRunTick = now;
+                insert(now + intervalSeconds());
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private static long currentTick() {
+        return (System.nanoTime() - origin) / TICK_NANOS;
+    }
+
+    private void insert(long tick) {
+        deadlineTick = tick;
+        slot = (int) (tick & (WHEEL_SIZE - 1));
+        wheel[slot].add(this);
+    }
+
+    private void remove() {
+        if (slot >= 0) {
+            wheel[slot].remove(this);
+            slot = -1;
+        }
+    }
+
+    private static void reschedule() {
+        if (thread == null) {
+            return;
+        }
+        final List<PeriodicAggregator> scheduled = new ArrayList<PeriodicAggregator>();
+        for (List<PeriodicAggregator> aggregators : wheel) {
+            scheduled.addAll(aggregators);
+        }
+        final long now = currentTick();
+        for (PeriodicAggregator aggregator : scheduled) {
+            aggregator.remove();
+            aggregator.insert(Math.max(aggregator.lastRunTick + aggregator.intervalSeconds(), now + 1));
+        }
+        lock.notifyAll();
+    }
+
+    private static List<PeriodicAggregator> awaitDue() throws InterruptedException {
+        synchronized (lock) {
+            while (true) {
+                if (nActive == 0) {
+                    lock.wait();
+                    continue;
+                }
+                final long now = currentTick();
+                if (now <= processedTick) {
+                    final long waitNanos = (processedTick + 1) * TICK_NANOS - (System.nanoTime() - origin);
+                    TimeUnit.NANOSECONDS.timedWait(lock, Math.max(waitNanos, 1));
+                    continue;
+                }
+                final List<PeriodicAggregator> due = new ArrayList<PeriodicAggregator>();
+                final long nTicks = Math.min(now - processedTick, WHEEL_SIZE);
+                for (long tick = now - nTicks + 1; tick <= now; tick++) {
+                    final List<PeriodicAggregator> aggregators = wheel[(int) (tick & (WHEEL_SIZE - 1))];
+                    for (int i = aggregators.size() - 1; i >= 0; i--) {
+                        final PeriodicAggregator aggregator = aggregators.get(i);
+                        if (aggregator.deadlineTick <= now) {
+                            aggregators.remove(i);
+                            aggregator.slot = -1;
+                            aggregator.isRunning = true;
+                            due.add(aggregator);
+                        }
+                    }
+                }
+                processedTick = now;
+                if (!due.isEmpty()) {
+                    return due;
+                }
+            }
+        }
+    }
+
+    private void run() {
+        boolean isFailed = false;
+        final long startNanos = System.nanoTime();
+        final long startCpuNanos = Overhead.currentThreadCpuTime();
+        try {
+            runnable().run();
+        } catch (Exception e) {
+            isFailed = true;
+            if (failureCount == 0) {
+                System.err.println("Pollianna: periodic aggregation failed in " + getClass().getName() + ": " + e);
+            }
+        }
+        final LongDurationRecorder tick = tickRecorder();
+        if (tick != null) {
+            tick.record(System.nanoTime() - startNanos);
+        }
+        final long runCpuNanos = Overhead.currentThreadCpuTime() - startCpuNanos;
+        synchronized (lock) {
+            isRunning = false;
+            runCount++;
+            cpuNanos += runCpuNanos;
+            if (isFailed) {
+                failureCount++;
+            }
+            if (!isActive || isSuspended) {
+                return;
             }
+            final long now = currentTick();
+            final long interval = intervalSeconds();
+            lastRunTick = deadlineTick;
+            long next = deadlineTick + interval;
+            if (next <= now) {
+                // Overrun: skip the runs that have come due in the meantime instead of catching up
+                final long nSkipped = (now - next) / interval + 1;
+                skipCount += nSkipped;
+                lastRunTick = next + (nSkipped - 1) * interval;
+                next += nSkipped * interval;
+            }
+            insert(next);
         }
     }
 
-    private static ScheduledExecutorService scheduler = null;
+    private static void runWheel() {
+        try {
+            while (true) {
+                for (PeriodicAggregator aggregator : awaitDue()) {
+                    aggregator.run();
+                }
+            }
+        } catch (InterruptedException e) {
+            // Exit
+        }
+    }
 
     private static void startAggregating(PeriodicAggregator periodicAggregator) {
-        synchronized (aggregators) {
-            if (scheduler == null) {
-                scheduler = Executors.newScheduledThreadPool(1, r -> {
-                    final Thread t = Executors.defaultThreadFactory().newThread(r);
-                    t.setDaemon(true);
-                    return t;
-                });
-                scheduler.scheduleAtFixedRate(runAggregators, intervalSeconds, intervalSeconds, SECONDS);
+        synchronized (lock) {
+            if (thread == null) {
+                origin = System.nanoTime();
+                thread = new Thread(PeriodicAggregator::runWheel, "Pollianna Aggregators");
+                thread.setDaemon(true);
+                thread.start();
+                Overhead.registerThread(thread);
+            }
+            if (periodicAggregator.isActive) {
+                return;
             }
-            aggregators.put(periodicAggregator, periodicAggregator);
+            periodicAggregator.isActive = true;
+            nActive++;
+            activeAggregators.add(periodicAggregator);
+            if (!periodicAggregator.isRunning && !periodicAggregator.isSuspended) {
+                final long now = currentTick();
+                periodicAggregator.lastRunTick = now;
+                periodicAggregator.insert(now + periodicAggregator.intervalSeconds());
+            }
+            lock.notifyAll();
         }
     }
 
     private static void stopAggregating(PeriodicAggregator periodicAggregator) {
-        synchronized (aggregators) {
-            aggregators.remove(periodicAggregator);
+        synchronized (lock) {
+            if (!periodicAggregator.isActive) {
+                return;
+            }
+            periodicAggregator.isActive = false;
+            nActive--;
+            activeAggregators.remove(periodicAggregator);
+            periodicAggregator.remove();
+            // Governor decisions do not outlast activity
+            periodicAggregator.isSuspended = false;
+            periodicAggregator.stretchFactor = 1;
         }
     }
 
@@ -100,4 +386,42 @@ public abstract class PeriodicAggregator implements Aggregator {
     public void stopAggregating() {
         stopAggregating(this);
     }
+
+    /**
+     * @return the number of times this aggregator's data gathering procedure has been run
+     */
+    public long runCount() {
+        synchronized (lock) {
+            return runCount;
+        }
+    }
+
+    /**
+     * @return the number of times this aggregator's data gathering procedure has thrown
+     */
+    public long failureCount() {
+        synchronized (lock) {
+            return failureCount;
+        }
+    }
+
+    /**
+     * @return the CPU time in nanoseconds that all runs of this aggregator's data gathering procedure have used,
+     * or zero if thread CPU time measurement is unsupported
+     */
+    public long cpuNanos() {
+        synchronized (lock) {
+            return cpuNanos;
+        }
+    }
+
+    /**
+     * @return the number of runs of this aggregator's data gathering procedure that have been skipped,
+     * because a previous run had not finished in time
+     */
+    public long skipCount() {
+        synchronized (lock) {
+            return skipCount;
+        }
+    }
 }
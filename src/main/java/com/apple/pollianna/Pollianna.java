@@ -15,6 +15,7 @@
  */
 package com.apple.pollianna;
 
+import com.apple.pollianna.application.ApplicationRegistry;
 import com.apple.pollianna.jvm.JvmMXBean;
 
 import java.util.function.BiConsumer;
@@ -41,6 +42,18 @@ public class Pollianna {
      * It is recommended to use this keyword exactly once, as the first argument on the left.
      * Otherwise, beans to its left will remain unaffected.
      *
+     * If an argument begins with the keyword `budget` followed by a colon (':'),
+     * then the rest of the argument specifies the share of the CPU capacity available to the JVM,
+     * in percent, that Pollianna's periodic data gathering should not exceed.
+     * When it is exceeded, the intervals of the most expensive periodic data gathering procedures are stretched,
+     * and eventually these procedures are suspended, until the CPU share drops again.
+     * Example: "budget:0.1%".
+     *
+     * The argument `AsyncStart` is only effective when given directly to the agent, not in a file.
+     * It makes the agent return right after splitting its arguments and complete starting on a background thread.
+     * GC notifications are buffered from the beginning, so that GC beans still observe the earliest collections.
+     * The `Pollianna` bean reports when starting has completed and how much time the agent took.
+     *
      * Every other kind of argument specifies a bean name.
      * If that name is followed by a pipe character ('|'),
      * then only the bean attributes listed after the colon will be exposed to JMX.
@@ -56,8 +69,10 @@ public class Pollianna {
      *
      * If the same bean name is specified multiple times, only the right-most argument referring to it applies.
      *
-     * The available beans are: `Jvm`, `GcAggregate`, `GcSample`, `RtAggregate`, `RtSample`,
-     * `CompilerAggregate`, `CompilerSample`.
+     * The available beans are: `Jvm`, `GcAggregate`, `GcSample`, `GcCounter`, `RtAggregate`, `RtSample`, `RtCounter`,
+     * `CompilerAggregate`, `CompilerSample`, `CompilerCounter`, `ThreadAggregate`,
+     * `Pollianna`, which reports Pollianna's own overhead,
+     * and `Application`, which reports the metrics in the {@link #registry()}.
      * If the JDK in use supports NMT data discovery by a dedicated JMX bean,
      * then the `Jvm` bean has an expanded set of attributes that includes NMT-derived metrics and
      * these additional beans are available: `NmtAggregate`, `NmtSample`.
@@ -66,24 +81,46 @@ public class Pollianna {
      * @see JvmMXBean
      */
     public static void start(String... arguments) {
-        PolliannaConfiguration.stopAllBeans();
-        final OTelConfiguration otelConfiguration = OTelConfiguration.create(arguments);
-        if (otelConfiguration != null) {
-            try {
-                OTelReporter.start(otelConfiguration, arguments);
-            } catch (Exception e) {
-                throw new RuntimeException("could not start OTel reporter", e);
-            }
-        } else {
-            PolliannaArgumentParser.parseBeans(arguments, new BiConsumer<String, String[]>() {
-                public void accept(String beanName, String[] attributes) {
-                    PolliannaConfiguration.startBean(beanName, attributes);
+        final long startNanos = System.nanoTime();
+        Overhead.startBegun();
+        try {
+            stop();
+            final OTelConfiguration otelConfiguration = OTelConfiguration.create(arguments);
+            if (otelConfiguration != null) {
+                try {
+                    isReporting = true;
+                    OTelReporter.start(otelConfiguration, arguments);
+                } catch (Exception e) {
+                    throw new RuntimeException("could not start OTel reporter", e);
                 }
-            });
+            } else {
+                PolliannaArgumentParser.parseBeans(arguments, new BiConsumer<String, String[]>() {
+                    public void accept(String beanName, String[] attributes) {
+                        PolliannaConfiguration.startBean(beanName, attributes);
+                    }
+                });
+            }
+        } finally {
+            // Also if starting failed, so that readiness does not stay pending forever
+            Overhead.startCompleted(System.nanoTime() - startNanos);
         }
     }
 
+    // Whether the OTel reporter has been started, so that it is not even loaded otherwise
+    private static volatile boolean isReporting = false;
+
     public static void stop() {
+        if (isReporting) {
+            OTelReporter.stop();
+            isReporting = false;
+        }
         PolliannaConfiguration.stopAllBeans();
     }
+
+    /**
+     * @return the registry of the application's own metrics, which are reported by the `Application` bean
+     */
+    public static ApplicationRegistry registry() {
+        return ApplicationRegistry.instance();
+    }
 }
@@ -15,6 +15,7 @@
  */
 package com.apple.pollianna;
 
+import com.apple.pollianna.gc.GcAggregator;
 import com.apple.pollianna.jvm.JvmMXBean;
 
 /**
@@ -33,21 +34,51 @@ import com.apple.pollianna.jvm.JvmMXBean;
  * java -javaagent:pollianna-1.16.1.jar="GcAggregate;NmtSample|TotalReserved,MetaspaceCommitted" [application and its arguments]
  * </code>
  *
+ * <p>
+ * Example command line that makes the agent return immediately and start the beans in the background:
+ * <code>
+ * java -javaagent:pollianna-1.16.1.jar="AsyncStart;GcAggregate" [application and its arguments]
+ * </code>
+ *
  * @see Pollianna#start(String...) for the complete argument syntax
  */
 public final class PolliannaAgent {
 
+    private static void startInBackground(String[] arguments) {
+        // Record GC events right away, even though the beans that aggregate them do not exist yet
+        GcAggregator.startBuffering();
+        final Thread thread = new Thread(() -> {
+            try {
+                Pollianna.start(arguments);
+            } catch (Throwable t) {
+                System.err.println("could not start Pollianna: " + t);
+            } finally {
+                GcAggregator.stopBuffering();
+            }
+        }, "Pollianna Bootstrap");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     /**
      * Entry point of the agent when it is attached to a remote JVM.
      * Splits the string `arguments` into separate arguments, which are then passed to {@link Pollianna#start(String...)}.
      * If no arguments are given, the "Jvm" MXBean will be started.
+     * If the arguments include `AsyncStart`, then starting happens on a background daemon thread.
      *
      * @see Pollianna#start(String...) for the complete argument syntax
      * @param arguments the semicolon-separated arguments with instructions what to start
      * @see JvmMXBean
      */
     public static void agentmain(String arguments) {
-        Pollianna.start(arguments == null ? null : arguments.split(PolliannaArgumentParser.ARGUMENT_DELIMITER));
+        final long startNanos = System.nanoTime();
+        final String[] splitArguments = arguments == null ? null : arguments.split(PolliannaArgumentParser.ARGUMENT_DELIMITER);
+        if (PolliannaArgumentParser.isAsyncStart(splitArguments)) {
+            startInBackground(splitArguments);
+        } else {
+            Pollianna.start(splitArguments);
+        }
+        Overhead.recordPremain(System.nanoTime() - startNanos);
     }
 
     /**
@@ -31,8 +31,12 @@ class PolliannaArgumentParser {
     private static final char ATTRIBUTE_LIST_MARKER = '|';
     private static final String ATTRIBUTE_DELIMITER = ",";
     private static final char KEYWORD_MARKER = ':';
+    private static final char ASSIGNMENT_MARKER = '=';
     private static final String FILEPATH_KEYWORD = "file";
     private static final String INTERVAL_KEYWORD = "interval";
+    private static final String BUDGET_KEYWORD = "budget";
+    private static final String PERCENT_SUFFIX = "%";
+    private static final String ASYNC_START_FLAG = "AsyncStart";
 
     private void parse(String[] arguments,
                        BiConsumer<String, String> keywordConsumer,
@@ -68,11 +72,37 @@ class PolliannaArgumentParser {
                             break;
                         }
                         try {
-                            PeriodicAggregator.setIntervalSeconds(Integer.parseInt(value));
+                            if (value.indexOf(ASSIGNMENT_MARKER) < 0) {
+                                PeriodicAggregator.setIntervalSeconds(Integer.parseInt(value));
+                                break;
+                            }
+                            // Per bean family, e.g. "interval:Compiler=1,Nmt=60"
+                            for (String pair : value.split(ATTRIBUTE_DELIMITER)) {
+                                final int assignmentIndex = pair.indexOf(ASSIGNMENT_MARKER);
+                                if (assignmentIndex <= 0) {
+                                    throw new IllegalArgumentException("could not parse interval value: " + value);
+                                }
+                                PolliannaConfiguration.setIntervalSeconds(pair.substring(0, assignmentIndex).trim(),
+                                        Integer.parseInt(pair.substring(assignmentIndex + 1).trim()));
+                            }
                         } catch (NumberFormatException e) {
                             throw new IllegalArgumentException("could not parse interval value: " + value, e);
                         }
                         break;
+                    case BUDGET_KEYWORD:
+                        if (value == null || value.isEmpty()) {
+                            System.err.println("could not read budget config");
+                            break;
+                        }
+                        try {
+                            // E.g. "budget:0.1%"
+                            final String percent = value.trim();
+                            OverheadGovernor.setBudgetPercent(Double.parseDouble(percent.endsWith(PERCENT_SUFFIX)
+                                    ? percent.substring(0, percent.length() - PERCENT_SUFFIX.length()) : percent));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("could not parse budget value: " + value, e);
+                        }
+                        break;
                     default:
                         if (keywordConsumer != null) {
                             keywordConsumer.accept(keyword, value);
@@ -81,6 +111,8 @@ class PolliannaArgumentParser {
                 }
             } else if (argument.equals("DisableSurvey")) {
                 isSurveyDisabled = true;
+            } else if (argument.equals(ASYNC_START_FLAG)) {
+                // Only evaluated by the agent, see `isAsyncStart()`
             } else {
                 hasDeclaredBeans = true;
                 if (beanConsumer != null) {
@@ -103,6 +135,24 @@ class PolliannaArgumentParser {
         parse(arguments, keywordConsumer, beanConsumer);
     }
 
+    /**
+     * Determine whether to start in the background without evaluating any arguments, not even reading files.
+     *
+     * @param arguments the arguments given to the agent
+     * @return whether the arguments include the flag for starting in the background
+     */
+    static boolean isAsyncStart(String[] arguments) {
+        if (arguments == null) {
+            return false;
+        }
+        for (String argument : arguments) {
+            if (argument.trim().equals(ASYNC_START_FLAG)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     static PolliannaArgumentParser parseKeywords(String[] arguments, BiConsumer<String, String> keywordConsumer) {
         return new PolliannaArgumentParser(arguments, keywordConsumer, null);
     }
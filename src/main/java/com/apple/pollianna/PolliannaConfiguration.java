@@ -17,66 +17,177 @@ package com.apple.pollianna;
 
 import java.lang.management.ManagementFactory;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.management.InstanceNotFoundException;
 
+import com.apple.pollianna.application.ApplicationSeed;
+import com.apple.pollianna.compiler.CompilerAggregator;
 import com.apple.pollianna.compiler.CompilerAggregateMXBean;
 import com.apple.pollianna.compiler.CompilerAggregateSeed;
+import com.apple.pollianna.compiler.CompilerCounterMXBean;
+import com.apple.pollianna.compiler.CompilerCounterSeed;
 import com.apple.pollianna.compiler.CompilerSampleMXBean;
 import com.apple.pollianna.compiler.CompilerSampleSeed;
 import com.apple.pollianna.gc.GcAggregateMXBean;
 import com.apple.pollianna.gc.GcAggregateSeed;
+import com.apple.pollianna.gc.GcCounterMXBean;
+import com.apple.pollianna.gc.GcCounterSeed;
 import com.apple.pollianna.gc.GcSampleMXBean;
 import com.apple.pollianna.gc.GcSampleSeed;
 import com.apple.pollianna.jvm.JvmMXBean;
 import com.apple.pollianna.jvm.JvmSeed;
+import com.apple.pollianna.nmt.AbstractNmtAggregator;
 import com.apple.pollianna.nmt.NmtAccess;
 import com.apple.pollianna.nmt.NmtAggregateMXBean;
 import com.apple.pollianna.nmt.NmtAggregateSeed;
 import com.apple.pollianna.nmt.NmtSampleMXBean;
 import com.apple.pollianna.nmt.NmtSampleSeed;
+import com.apple.pollianna.overhead.PolliannaMXBean;
+import com.apple.pollianna.overhead.PolliannaSeed;
+import com.apple.pollianna.rt.RtAggregator;
 import com.apple.pollianna.rt.RtAggregateMXBean;
 import com.apple.pollianna.rt.RtAggregateSeed;
+import com.apple.pollianna.rt.RtCounterMXBean;
+import com.apple.pollianna.rt.RtCounterSeed;
 import com.apple.pollianna.rt.RtSampleMXBean;
 import com.apple.pollianna.rt.RtSampleSeed;
 import com.apple.pollianna.survey.SurveySeed;
+import com.apple.pollianna.thread.ThreadAggregateMXBean;
+import com.apple.pollianna.thread.ThreadAggregateSeed;
+import com.apple.pollianna.thread.ThreadAggregator;
 
-class PolliannaConfiguration {      
-    private static final Seed staticSurveySeed = new SurveySeed();
-    private static final Seed staticJvmSeed = new JvmSeed();
-
-    private static final Seed[] staticSeeds = {
-        staticJvmSeed, 
-        new CompilerAggregateSeed(),
-        new CompilerSampleSeed(),
-        new GcAggregateSeed(),
-        new GcSampleSeed(),
-        new NmtAggregateSeed(),
-        new NmtSampleSeed(),
-        new RtAggregateSeed(),
-        new RtSampleSeed()
-    };
-
-    private static DynamicSeed[] createDynamicSeeds() {
-        return new DynamicSeed[] {
-            new DynamicSeed(JvmMXBean.class, new JvmSeed()),
-            new DynamicSeed(CompilerAggregateMXBean.class, new CompilerAggregateSeed()),
-            new DynamicSeed(CompilerSampleMXBean.class, new CompilerSampleSeed()),
-            new DynamicSeed(GcAggregateMXBean.class, new GcAggregateSeed()),
-            new DynamicSeed(GcSampleMXBean.class, new GcSampleSeed()),
-            new DynamicSeed(NmtAggregateMXBean.class, new NmtAggregateSeed()),
-            new DynamicSeed(NmtSampleMXBean.class, new NmtSampleSeed()),
-            new DynamicSeed(RtAggregateMXBean.class, new RtAggregateSeed()),
-            new DynamicSeed(RtSampleMXBean.class, new RtSampleSeed())
-        };
-    }
-
-    private static DynamicSeed[] dynamicSeeds = createDynamicSeeds();
+/**
+ * The registry of all beans that can be started by name.
+ * <p>
+ * Seeds are only constructed when a bean is first started, and bean classes are only initialized then.
+ * Thus starting only the "Jvm" bean does not initialize the aggregators or probe the data sources of any other bean.
+ */
+class PolliannaConfiguration {
+    private static final String SURVEY_BEAN_NAME = "Survey";
+    private static final String JVM_BEAN_NAME = "Jvm";
+    private static final String APPLICATION_BEAN_NAME = "Application";
+
+    /**
+     * The implementation of a bean that can be started by name, and the interface that specifies its attributes.
+     * Seeds are constructed reflectively, so that the registry needs no code per bean.
+     */
+    private static final class Bean {
+        final Class<? extends Seed> seedClass;
+        // `null` if the bean filters its own attributes instead of being wrapped by a dynamic seed
+        final Class<?> beanInterface;
+
+        Bean(Class<? extends Seed> seedClass, Class<?> beanInterface) {
+            this.seedClass = seedClass;
+            this.beanInterface = beanInterface;
+        }
+
+        Seed createSeed() {
+            try {
+                return seedClass.getConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    // All beans that can be started by name
+    private static final Map<String, Bean> beans = new HashMap<String, Bean>();
+
+    private static void register(String beanName, Class<? extends Seed> seedClass, Class<?> beanInterface) {
+        beans.put(beanName, new Bean(seedClass, beanInterface));
+    }
+
+    static {
+        register(JVM_BEAN_NAME, JvmSeed.class, JvmMXBean.class);
+        register(APPLICATION_BEAN_NAME, ApplicationSeed.class, null);
+        register("CompilerAggregate", CompilerAggregateSeed.class, CompilerAggregateMXBean.class);
+        register("CompilerCounter", CompilerCounterSeed.class, CompilerCounterMXBean.class);
+        register("CompilerSample", CompilerSampleSeed.class, CompilerSampleMXBean.class);
+        register("GcAggregate", GcAggregateSeed.class, GcAggregateMXBean.class);
+        register("GcCounter", GcCounterSeed.class, GcCounterMXBean.class);
+        register("GcSample", GcSampleSeed.class, GcSampleMXBean.class);
+        register("NmtAggregate", NmtAggregateSeed.class, NmtAggregateMXBean.class);
+        register("NmtSample", NmtSampleSeed.class, NmtSampleMXBean.class);
+        register("Pollianna", PolliannaSeed.class, PolliannaMXBean.class);
+        register("RtAggregate", RtAggregateSeed.class, RtAggregateMXBean.class);
+        register("RtCounter", RtCounterSeed.class, RtCounterMXBean.class);
+        register("RtSample", RtSampleSeed.class, RtSampleMXBean.class);
+        register("ThreadAggregate", ThreadAggregateSeed.class, ThreadAggregateMXBean.class);
+    }
+
+    private static boolean isRegistered(String beanName) {
+        return beans.containsKey(beanName);
+    }
+
+    // Seeds that have been constructed so far, by bean name
+    private static final Map<String, Seed> staticSeeds = new HashMap<String, Seed>();
+    private static final Map<String, DynamicSeed> dynamicSeeds = new HashMap<String, DynamicSeed>();
+
+    private static synchronized Seed staticSeed(String beanName) {
+        Seed result = staticSeeds.get(beanName);
+        if (result == null) {
+            // The "Survey" bean is not started by name, but otherwise handled like the others
+            result = beanName.equals(SURVEY_BEAN_NAME) ? new SurveySeed() : beans.get(beanName).createSeed();
+            staticSeeds.put(beanName, result);
+        }
+        return result;
+    }
+
+    private static synchronized DynamicSeed dynamicSeed(String beanName) {
+        DynamicSeed result = dynamicSeeds.get(beanName);
+        if (result == null) {
+            final Bean bean = beans.get(beanName);
+            if (bean.beanInterface == null) {
+                throw new IllegalArgumentException("Pollianna bean cannot be wrapped dynamically: " + beanName);
+            }
+            result = new DynamicSeed(bean.beanInterface, bean.createSeed());
+            dynamicSeeds.put(beanName, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the names of all beans whose implementations have been constructed so far
+     */
+    static synchronized Set<String> constructedBeanNames() {
+        final Set<String> result = new HashSet<String>(staticSeeds.keySet());
+        result.addAll(dynamicSeeds.keySet());
+        return result;
+    }
 
     private PolliannaConfiguration() {}
 
+    /**
+     * Set the interval time for the periodic data gathering of all beans of a family,
+     * e.g. "Compiler" for "CompilerAggregate", "CompilerSample", and the code heap metrics of "Jvm".
+     *
+     * @param beanFamily the common prefix of the bean names
+     * @param seconds the interval in seconds, or zero or a negative value to revert to the default interval
+     */
+    static void setIntervalSeconds(String beanFamily, int seconds) {
+        switch (beanFamily) {
+            case "Compiler":
+                PeriodicAggregator.setIntervalSeconds(CompilerAggregator.class, seconds);
+                break;
+            case "Nmt":
+                PeriodicAggregator.setIntervalSeconds(AbstractNmtAggregator.class, seconds);
+                break;
+            case "Rt":
+                PeriodicAggregator.setIntervalSeconds(RtAggregator.class, seconds);
+                break;
+            case "Thread":
+                PeriodicAggregator.setIntervalSeconds(ThreadAggregator.class, seconds);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown Pollianna bean family with periodic data gathering specified: " + beanFamily);
+        }
+    }
+
     private static synchronized void startBean(Seed seed) {
         if (!seed.isRecording()) {
             try {
@@ -102,80 +213,97 @@ class PolliannaConfiguration {
     }
 
     static void startSurveyBean() {
-        startBean(staticSurveySeed);
+        startBean(staticSeed(SURVEY_BEAN_NAME));
     }
 
     static void startJvmBean() {
-        startBean(staticJvmSeed);
+        startBean(staticSeed(JVM_BEAN_NAME));
     }
 
     static String jvmBeanName() {
-        return staticJvmSeed.beanName();
+        return JVM_BEAN_NAME;
+    }
+
+    static String applicationBeanName() {
+        return APPLICATION_BEAN_NAME;
     }
 
     /**
      * Unregister all beans and stop aggregating any data
      */
-    static void stopAllBeans() {
-        stopBean(staticSurveySeed);
-        for (Seed staticSeed : staticSeeds) {
+    static synchronized void stopAllBeans() {
+        OverheadGovernor.setBudgetPercent(0);
+        for (Seed staticSeed : staticSeeds.values()) {
             stopBean(staticSeed);
         }
-        for (Seed dynamicSeed : dynamicSeeds) {
+        for (Seed dynamicSeed : dynamicSeeds.values()) {
             stopBean(dynamicSeed);
         }
         // Reset any effects of `setIncludedAttributeNames()` on any dynamic seed:
-        dynamicSeeds = createDynamicSeeds();
+        dynamicSeeds.clear();
     }
 
-    private static boolean startMatchingBean(String beanName, String[] attributes, Seed staticSeed, DynamicSeed dynamicSeed) {
-        if (!staticSeed.beanName().equals(beanName)) {
-            return false;
-        }
-        if (beanName.startsWith("Nmt") && !NmtAccess.isAvailable()) {
+    private static HashSet<String> attributeSet(String[] attributes) {
+        return new HashSet<String>(Arrays.stream(attributes).map(a -> a.trim()).collect(Collectors.toList()));
+    }
+
+    /*
+     * The "Application" bean is dynamic by itself, so it filters its own attributes instead of being wrapped
+     */
+    private static synchronized ApplicationSeed applicationSeed(String[] attributes) {
+        final ApplicationSeed seed = (ApplicationSeed) staticSeed(APPLICATION_BEAN_NAME);
+        final HashSet<String> attributeSet = attributes != null ? attributeSet(attributes) : null;
+        seed.setIncludedAttributeNames(attributeSet != null && !attributeSet.isEmpty() ? attributeSet : null);
+        return seed;
+    }
+
+    static synchronized void startBean(String beanName, String[] attributes) {
+        if (!isRegistered(beanName) || (beanName.startsWith("Nmt") && !NmtAccess.isAvailable())) {
             // TODO: warning
-            return false;
+            throw new IllegalArgumentException("unknown Pollianna bean specified: " + beanName);
+        }
+        if (beanName.equals(APPLICATION_BEAN_NAME)) {
+            startBean(applicationSeed(attributes));
+            return;
         }
         if (attributes != null) {
-            final HashSet<String> attributeSet = new HashSet<String>(Arrays.stream(attributes).map(a -> a.trim()).collect(Collectors.toList()));
+            final HashSet<String> attributeSet = attributeSet(attributes);
             if (!attributeSet.isEmpty()) {
-                if (staticSeed.isRecording()) {
+                final Seed staticSeed = staticSeeds.get(beanName);
+                if (staticSeed != null && staticSeed.isRecording()) {
                     // TODO: warning
                     stopBean(staticSeed); // can only use either the static or the dynamic bean, not both
                 }
+                final DynamicSeed dynamicSeed = dynamicSeed(beanName);
                 dynamicSeed.setIncludedAttributeNames(attributeSet);
                 startBean(dynamicSeed);
             } else {
                 // TODO: warning
             }
         } else {
-            if (dynamicSeed.isRecording()) {
+            final DynamicSeed dynamicSeed = dynamicSeeds.get(beanName);
+            if (dynamicSeed != null && dynamicSeed.isRecording()) {
                 // TODO: warning
                 stopBean(dynamicSeed); // can only use either the static or the dynamic bean, not both
             }
-            startBean(staticSeed);
+            startBean(staticSeed(beanName));
         }
-        return true;
     }
 
-    static void startBean(String beanName, String[] attributes) {
-        for (int i = 0; i < staticSeeds.length; i++) {
-            if (startMatchingBean(beanName, attributes, staticSeeds[i], dynamicSeeds[i])) {
-                return;
-            }
-        }
-        throw new IllegalArgumentException("unknown Pollianna bean specified: " + beanName);
-    }
-
-    private static DynamicSeed startMatchingRecording(String beanName, String[] attributes, Seed staticSeed, DynamicSeed dynamicSeed) {
-        if (!staticSeed.beanName().equals(beanName)) {
-            return null;
+    /*
+     * Start a dynamic seed with the given attributes or, if no attributes are specified,
+     * with all available attributes in the seed's MXBean interface
+     */
+    static synchronized DynamicSeed startRecording(String beanName, String[] attributes) {
+        if (!isRegistered(beanName)) {
+            throw new IllegalArgumentException("unknown Pollianna bean specified: " + beanName);
         }
         if (beanName.startsWith("Nmt") && !NmtAccess.isAvailable()) {
             throw new IllegalArgumentException("NMT bean specified, but NMT reporting not available: " + beanName);
         }
+        final DynamicSeed dynamicSeed = dynamicSeed(beanName);
         if (attributes != null) {
-            final HashSet<String> attributeSet = new HashSet<String>(Arrays.stream(attributes).map(a -> a.trim()).collect(Collectors.toList()));
+            final HashSet<String> attributeSet = attributeSet(attributes);
             if (!attributeSet.isEmpty()) {
                 dynamicSeed.setIncludedAttributeNames(attributeSet);
             }
@@ -185,16 +313,12 @@ class PolliannaConfiguration {
     }
 
     /*
-     * Start a dynamic seed with the given attributes or, if no attributes are specified,
-     * with all available attributes in the seed's MXBean interface
+     * Start the "Application" bean's recording without registering it, with the given attributes or,
+     * if no attributes are specified, with the attributes of all application metrics
      */
-    static DynamicSeed startRecording(String beanName, String[] attributes) {
-        for (int i = 0; i < staticSeeds.length; i++) {
-            final DynamicSeed dynamicSeed = startMatchingRecording(beanName, attributes, staticSeeds[i], dynamicSeeds[i]);
-            if (dynamicSeed != null) {
-                return dynamicSeed;
-            }
-        }
-        throw new IllegalArgumentException("unknown Pollianna bean specified: " + beanName);
+    static synchronized ApplicationSeed startApplicationRecording(String[] attributes) {
+        final ApplicationSeed seed = applicationSeed(attributes);
+        seed.startRecording();
+        return seed;
     }
 }
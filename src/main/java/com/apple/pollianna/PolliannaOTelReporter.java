@@ -55,6 +55,17 @@ public final class PolliannaOTelReporter {
 
     private static final JvmSeed jvmSeed = new JvmSeed();
 
+    // The SDK of the most recent start, and only one hook for all starts, which closes that SDK at exit
+    private static OpenTelemetrySdk currentSdk = null;
+    private static boolean isShutdownHookAdded = false;
+
+    private static synchronized void closeCurrentSdk() {
+        if (currentSdk != null) {
+            currentSdk.close();
+            currentSdk = null;
+        }
+    }
+
     private static ObservableDoubleMeasurement jvmGcWorkloadMax;
     private static ObservableDoubleMeasurement jvmGcAllocationRateMax;
     private static ObservableDoubleMeasurement jvmGcPauseMax;
@@ -117,14 +128,15 @@ public final class PolliannaOTelReporter {
 
         final SdkMeterProvider sdkMeterProvider = SdkMeterProvider.builder()
                 .registerMetricReader(PeriodicMetricReader.builder(
-                                        OtlpGrpcMetricExporter.builder()
+                                        new TimedMetricExporter(OtlpGrpcMetricExporter.builder()
                                                 .setEndpoint(endpoint)
                                                 .setHeaders(() -> headers)
                                                 .setSslContext(sslContext, trustManager)
                                                 .setRetryPolicy(RetryPolicy.getDefault())
-                                                .build()
+                                                .build())
                                 )
                                 .setInterval(intervalSeconds != null ? intervalSeconds : DEFAULT_INTERVAL_SECONDS, TimeUnit.SECONDS)
+                                .setExecutor(TimedMetricExporter.newExecutor())
                                 .build()
                 )
                 .setResource(resourceBuilder.build())
@@ -134,7 +146,13 @@ public final class PolliannaOTelReporter {
                 .builder()
                 .setMeterProvider(sdkMeterProvider)
                 .build();
-        Runtime.getRuntime().addShutdownHook(new Thread(openTelemetrySdk::close));
+        // A restart replaces the previous SDK
+        closeCurrentSdk();
+        currentSdk = openTelemetrySdk;
+        if (!isShutdownHookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(PolliannaOTelReporter::closeCurrentSdk));
+            isShutdownHookAdded = true;
+        }
 
         final Meter meterBuilder = openTelemetrySdk.getMeter("pollianna_jvm");
 
@@ -144,6 +162,10 @@ public final class PolliannaOTelReporter {
         jvmGcPausePortion = meterBuilder.gaugeBuilder("pollianna_jvm_gc_pause_portion").buildObserver();
         jvmDirectMemoryUsageMax = meterBuilder.gaugeBuilder("pollianna_jvm_direct_memory_usage_max").buildObserver();
 
+        final Seed seed = jvmSeed;
+        seed.histograms().get("GcPause").addListener(
+                OTelReporter.durationHistogram(meterBuilder, "pollianna_jvm_gc_pause_duration"));
+
         jvmSeed.startRecording();
         meterBuilder.batchCallback(() ->
                 {
@@ -21,6 +21,10 @@ public class RateRecorder extends DoubleValueRecorder {
     private final double amountFactor, millisFactor;
 
     public RateRecorder(long amountFactor, long millisFactor) {
+        this((double) amountFactor, (double) millisFactor);
+    }
+
+    private RateRecorder(double amountFactor, double millisFactor) {
         super();
         this.amountFactor = amountFactor;
         this.millisFactor = millisFactor;
@@ -54,6 +58,19 @@ public class RateRecorder extends DoubleValueRecorder {
         beginAmount = amount;
     }
 
+    @Override
+    protected DoubleValueRecorder newCursorRecorder() {
+        return new RateRecorder(amountFactor, millisFactor);
+    }
+
+    @Override
+    protected void mergeInto(DoubleValueRecorder recorder) {
+        super.mergeInto(recorder);
+        final RateRecorder rateRecorder = (RateRecorder) recorder;
+        rateRecorder.totalDelta += totalDelta;
+        rateRecorder.totalTime += totalTime;
+    }
+
     @Override
     protected synchronized void reset() {
         super.reset();
@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the state of many value recorders of one aggregator in a single primitive array,
+ * guarded by one sequence lock instead of a monitor per recorder.
+ * <p>
+ * Each slot in the arena records `long` or `double` sample values and produces the minimum, average, and maximum values
+ * of all samples from a polling interval, like {@link LongValueRecorder} and {@link DoubleValueRecorder} do,
+ * including separate polling intervals per {@link Cursor}.
+ * `double` values are stored as their raw bits.
+ * <p>
+ * Values are recorded in write sections, between {@link #beginWrite()} and {@link #endWrite()},
+ * which are expected to come from one thread at a time, such as the aggregator's.
+ * Writers never wait for readers.
+ * A reader copies the whole array at once and retries if a write section has overlapped with copying,
+ * so all slots are read consistently as of the end of one write section.
+ * Recording alternates between two halves of the array, one per generation,
+ * so that a reader can end the current generation and then fold the previous one into the per-cursor state
+ * without ever writing to the array itself.
+ * <p>
+ * All slots must be added before the first write section or read.
+ */
+public final class RecorderArena {
+
+    public RecorderArena() { super(); }
+
+    // Even while no write section is in progress, odd during one
+    private final AtomicLong sequence = new AtomicLong(0);
+
+    // Incremented by readers to end a generation, read by writers to pick the half to record into
+    private volatile long generation = 0;
+
+    private final Object slotLock = new Object();
+    private boolean[] isDouble = new boolean[0];
+
+    // Layout: the generation stamp of each half, then per half the counts, totals, minimums, and maximums of all slots,
+    // then the last values of all slots
+    private volatile long[] data = null;
+    private int n = 0;
+    private int lastBase = 0;
+
+    private int writeBase = 0;
+
+    private static final int FIELDS = 4;
+
+    private int addSlot(boolean isDoubleSlot) {
+        synchronized (slotLock) {
+            if (data != null) {
+                throw new IllegalStateException("cannot add slots to an arena that is in use");
+            }
+            isDouble = Arrays.copyOf(isDouble, isDouble.length + 1);
+            isDouble[isDouble.length - 1] = isDoubleSlot;
+            return isDouble.length - 1;
+        }
+    }
+
+    private long[] data() {
+        final long[] result = data;
+        if (result != null) {
+            return result;
+        }
+        synchronized (slotLock) {
+            if (data == null) {
+                n = isDouble.length;
+                lastBase = 2 + 2 * FIELDS * n;
+                final long[] array = new long[lastBase + n];
+                array[0] = -1;
+                array[1] = -1;
+                lastValues = new long[n];
+                data = array;
+            }
+            return data;
+        }
+    }
+
+    /**
+     * Begin a write section, in which any slots may be recorded.
+     * If another thread is writing, this waits for it to end its write section.
+     */
+    public void beginWrite() {
+        long s;
+        do {
+            s = sequence.get();
+        } while ((s & 1) != 0 || !sequence.compareAndSet(s, s + 1));
+        final long[] array = data();
+        final long g = generation;
+        final int half = (int) (g & 1);
+        writeBase = 2 + half * FIELDS * n;
+        if (array[half] != g) {
+            // Everything in this half is from two generations ago and has already been folded
+            Arrays.fill(array, writeBase, writeBase + FIELDS * n, 0L);
+            array[half] = g;
+        }
+    }
+
+    /**
+     * End the current write section, publishing everything recorded in it to readers at once.
+     */
+    public void endWrite() {
+        sequence.lazySet(sequence.get() + 1);
+    }
+
+    private void recordLong(int i, long value) {
+        final long[] array = data;
+        final int base = writeBase;
+        final long count = array[base + i];
+        array[base + n + i] += value;
+        if (count <= 0 || value < array[base + 2 * n + i]) {
+            array[base + 2 * n + i] = value;
+        }
+        if (count <= 0 || value > array[base + 3 * n + i]) {
+            array[base + 3 * n + i] = value;
+        }
+        array[base + i] = count + 1;
+        array[lastBase + i] = value;
+    }
+
+    private void recordDouble(int i, double value) {
+        final long[] array = data;
+        final int base = writeBase;
+        final long count = array[base + i];
+        array[base + n + i] = Double.doubleToRawLongBits(Double.longBitsToDouble(array[base + n + i]) + value);
+        if (count <= 0 || value < Double.longBitsToDouble(array[base + 2 * n + i])) {
+            array[base + 2 * n + i] = Double.doubleToRawLongBits(value);
+        }
+        if (count <= 0 || value > Double.longBitsToDouble(array[base + 3 * n + i])) {
+            array[base + 3 * n + i] = Double.doubleToRawLongBits(value);
+        }
+        array[base + i] = count + 1;
+        array[lastBase + i] = Double.doubleToRawLongBits(value);
+    }
+
+    /**
+     * @return a copy of the whole array that is not torn by any write section
+     */
+    private long[] snapshot() {
+        final long[] array = data();
+        while (true) {
+            final long s = sequence.get();
+            if ((s & 1) == 0) {
+                final long[] result = array.clone();
+                // Validates the copy and, being a full fence, keeps the reads of the copy from passing it
+                if (sequence.compareAndSet(s, s)) {
+                    return result;
+                }
+            }
+            Thread.yield();
+        }
+    }
+
+    // Everything below is guarded by the read lock, which writers never take
+
+    private final Object readLock = new Object();
+
+    private long foldedSequence = 0;
+
+    private long[] lastValues = null;
+
+    // Per cursor id, the counts, totals, minimums, and maximums accumulated since that cursor's previous read per slot
+    private long[][] cursors = new long[0][];
+
+    private void resetSlot(long[] accumulator, int i) {
+        accumulator[i] = 0;
+        accumulator[n + i] = 0; // Also the raw bits of 0.0
+        accumulator[2 * n + i] = lastValues[i];
+        accumulator[3 * n + i] = lastValues[i];
+    }
+
+    private void mergeSlot(long[] half, int base, long[] accumulator, int i) {
+        final long count = half[base + i];
+        if (count <= 0) {
+            return;
+        }
+        final long min = half[base + 2 * n + i];
+        final long max = half[base + 3 * n + i];
+        final boolean isEmpty = accumulator[i] <= 0;
+        if (isDouble[i]) {
+            final double total = Double.longBitsToDouble(accumulator[n + i]) + Double.longBitsToDouble(half[base + n + i]);
+            accumulator[n + i] = Double.doubleToRawLongBits(total);
+            if (isEmpty || Double.longBitsToDouble(min) < Double.longBitsToDouble(accumulator[2 * n + i])) {
+                accumulator[2 * n + i] = min;
+            }
+            if (isEmpty || Double.longBitsToDouble(max) > Double.longBitsToDouble(accumulator[3 * n + i])) {
+                accumulator[3 * n + i] = max;
+            }
+        } else {
+            accumulator[n + i] += half[base + n + i];
+            if (isEmpty || min < accumulator[2 * n + i]) {
+                accumulator[2 * n + i] = min;
+            }
+            if (isEmpty || max > accumulator[3 * n + i]) {
+                accumulator[3 * n + i] = max;
+            }
+        }
+        accumulator[i] += count;
+    }
+
+    /**
+     * Add what has been recorded since the previous fold to the state of every cursor.
+     */
+    private void fold() {
+        final long s = sequence.get();
+        if (s == foldedSequence) {
+            return; // Nothing has been written since
+        }
+        foldedSequence = s;
+        final long g = generation;
+        generation = g + 1;
+        // Write sections that have begun before this point may still record into generation `g`,
+        // but the snapshot waits for them to end
+        final long[] copy = snapshot();
+        System.arraycopy(copy, lastBase, lastValues, 0, n);
+        final int half = (int) (g & 1);
+        if (copy[half] != g) {
+            return; // Nothing has been recorded in generation `g`
+        }
+        final int base = 2 + half * FIELDS * n;
+        for (long[] accumulator : cursors) {
+            if (accumulator != null) {
+                for (int i = 0; i < n; i++) {
+                    mergeSlot(copy, base, accumulator, i);
+                }
+            }
+        }
+    }
+
+    /**
+     * End the current polling interval of one slot for the current cursor.
+     *
+     * @param i the slot's index
+     * @return the count, total, minimum, and maximum of the slot's ended interval, followed by its last value
+     */
+    private long[] takeInterval(int i) {
+        data();
+        synchronized (readLock) {
+            final int id = Cursor.current().id();
+            if (id >= cursors.length) {
+                cursors = Arrays.copyOf(cursors, id + 1);
+            }
+            if (cursors[id] == null) {
+                // The first interval of a new cursor begins with the most recent read by any other cursor
+                cursors[id] = new long[FIELDS * n];
+                for (int j = 0; j < n; j++) {
+                    resetSlot(cursors[id], j);
+                }
+            }
+            fold();
+            final long[] accumulator = cursors[id];
+            final long[] result = {
+                accumulator[i], accumulator[n + i], accumulator[2 * n + i], accumulator[3 * n + i], lastValues[i]
+            };
+            resetSlot(accumulator, i);
+            return result;
+        }
+    }
+
+    /**
+     * @return the last recorded values of all slots by slot index, consistent with each other,
+     * with `double` values as their raw bits
+     */
+    long[] lastValues() {
+        data();
+        synchronized (readLock) {
+            final long[] copy = snapshot();
+            return Arrays.copyOfRange(copy, lastBase, lastBase + n);
+        }
+    }
+
+    /**
+     * @return a new slot that records `long` values
+     */
+    public LongSlot newLongSlot() {
+        return new LongSlot(addSlot(false));
+    }
+
+    /**
+     * @return a new slot that records `double` values
+     */
+    public DoubleSlot newDoubleSlot() {
+        return new DoubleSlot(addSlot(true));
+    }
+
+    public final class LongSlot {
+        private final int index;
+
+        private LongSlot(int index) {
+            this.index = index;
+        }
+
+        int index() { return index; }
+
+        /**
+         * Record a value. Must be called within a write section of the arena.
+         *
+         * @param value the value to record
+         */
+        public void record(long value) {
+            recordLong(index, value);
+        }
+
+        /**
+         * Start a new polling interval for the current cursor
+         * and return a record of the observed sample values from its previous interval.
+         *
+         * @return a record of the observed sample values since the current cursor's previous call
+         */
+        public LongValueRecord getRecord() {
+            final long[] interval = takeInterval(index);
+            final long count = interval[0];
+            final long avg = count <= 0 ? interval[4] : interval[1] / count;
+            return new LongValueRecord(interval[2], avg, interval[3]);
+        }
+    }
+
+    public final class DoubleSlot {
+        private final int index;
+
+        private DoubleSlot(int index) {
+            this.index = index;
+        }
+
+        int index() { return index; }
+
+        /**
+         * Record a value. Must be called within a write section of the arena.
+         *
+         * @param value the value to record
+         */
+        public void record(double value) {
+            recordDouble(index, value);
+        }
+
+        /**
+         * Start a new polling interval for the current cursor
+         * and return a record of the observed sample values from its previous interval.
+         *
+         * @return a record of the observed sample values since the current cursor's previous call
+         */
+        public DoubleValueRecord getRecord() {
+            final long[] interval = takeInterval(index);
+            final long count = interval[0];
+            final double last = Double.longBitsToDouble(interval[4]);
+            final double avg = count <= 0 ? last : Double.longBitsToDouble(interval[1]) / (double) count;
+            return new DoubleValueRecord(Double.longBitsToDouble(interval[2]), avg, Double.longBitsToDouble(interval[3]));
+        }
+    }
+}
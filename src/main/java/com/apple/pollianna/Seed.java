@@ -17,7 +17,9 @@ package com.apple.pollianna;
 
 import javax.management.ObjectName;
 import java.lang.management.PlatformManagedObject;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * "Seed" is a synonym for "BeanImpl" or "bean implementation", as a seed is what is inside a bean.
@@ -39,6 +41,36 @@ public abstract class Seed implements PlatformManagedObject {
 
     protected abstract List<Aggregator> aggregators();
 
+    /**
+     * @return duration recorders whose individual values can be exported as histograms,
+     * by attribute name prefix, e.g. "Pause" for "PauseMax", "PauseP99", etc.
+     */
+    protected Map<String, LongDurationRecorder> histograms() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * @return whether all attributes of this seed are monotonic counters that are never reset when read,
+     * as opposed to aggregates over polling intervals or samples
+     */
+    protected boolean isCumulative() {
+        return false;
+    }
+
+    /**
+     * The sources of all attributes that end a polling interval when read.
+     */
+    protected final Snapshot snapshot = new Snapshot();
+
+    /**
+     * End the polling intervals of all aggregate attributes of this seed at once.
+     * Subsequent getter calls are served from the resulting snapshot,
+     * until a getter is called that has already been served from it.
+     */
+    public void takeSnapshot() {
+        snapshot.take();
+    }
+
     private boolean isRecording = false;
 
     public boolean isRecording() {
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.util.Arrays;
+
+/**
+ * Aggregates sample values over several sliding time windows at once,
+ * namely the last 1, 5, and 15 minutes, based on a ring of one-second buckets.
+ * <p>
+ * Unlike a recorder's polling interval, these windows do not depend on when or how often they are read,
+ * and reading them has no side effects. Scrapers with different periods thus see consistent results.
+ * <p>
+ * The ring rotates lazily: each bucket is cleared once per revolution,
+ * by the first write or read after the bucket's second has come around again.
+ * This is amortized O(1) per recorded value and never allocates.
+ * <p>
+ * Not thread-safe. Instances are guarded by the recorder that owns them.
+ */
+public final class SlidingWindows {
+
+    /**
+     * The lengths of the windows, in ascending order.
+     */
+    static final int[] WINDOW_SECONDS = {60, 5 * 60, 15 * 60};
+
+    private static final int BUCKET_COUNT = 15 * 60;
+    private static final long NANOS_PER_BUCKET = 1_000_000_000L;
+
+    private final int[] counts = new int[BUCKET_COUNT];
+    private final double[] totals = new double[BUCKET_COUNT];
+    private final double[] maxima = new double[BUCKET_COUNT];
+
+    private final long originNanos;
+
+    // The second since origin that the most recent bucket covers
+    private long headSecond = 0;
+
+    /**
+     * @param nanoTime the current `System.nanoTime()`, from which on seconds are counted
+     */
+    public SlidingWindows(long nanoTime) {
+        this.originNanos = nanoTime;
+    }
+
+    private static int bucket(long second) {
+        return (int) (second % BUCKET_COUNT);
+    }
+
+    private void rotate(long nanoTime) {
+        final long second = (nanoTime - originNanos) / NANOS_PER_BUCKET;
+        if (second <= headSecond) {
+            return;
+        }
+        if (second - headSecond >= BUCKET_COUNT) {
+            Arrays.fill(counts, 0);
+            Arrays.fill(totals, 0.0);
+            Arrays.fill(maxima, 0.0);
+        } else {
+            for (long s = headSecond + 1; s <= second; s++) {
+                final int i = bucket(s);
+                counts[i] = 0;
+                totals[i] = 0.0;
+                maxima[i] = 0.0;
+            }
+        }
+        headSecond = second;
+    }
+
+    /**
+     * @param value the sample value to record
+     * @param nanoTime the current `System.nanoTime()`
+     */
+    public void record(double value, long nanoTime) {
+        rotate(nanoTime);
+        final int i = bucket(headSecond);
+        if (counts[i] == 0 || value > maxima[i]) {
+            maxima[i] = value;
+        }
+        counts[i]++;
+        totals[i] += value;
+    }
+
+    /**
+     * Aggregate all windows in one pass over the ring, from the most recent bucket backwards.
+     *
+     * @param scale a factor by which to multiply all values in the result, e.g. to convert units
+     * @param nanoTime the current `System.nanoTime()`
+     * @return the count, average, and maximum of the values recorded in each window
+     */
+    public WindowRecord getRecord(double scale, long nanoTime) {
+        rotate(nanoTime);
+        final long[] windowCounts = new long[WINDOW_SECONDS.length];
+        final double[] windowAvgs = new double[WINDOW_SECONDS.length];
+        final double[] windowMaxima = new double[WINDOW_SECONDS.length];
+        long count = 0;
+        double total = 0.0;
+        double max = 0.0;
+        int w = 0;
+        for (int k = 0; w < WINDOW_SECONDS.length; k++) {
+            if (k <= headSecond) {
+                final int i = bucket(headSecond - k);
+                if (counts[i] > 0) {
+                    max = count == 0 ? maxima[i] : Math.max(max, maxima[i]);
+                    count += counts[i];
+                    total += totals[i];
+                }
+            }
+            if (k + 1 == WINDOW_SECONDS[w]) {
+                windowCounts[w] = count;
+                windowAvgs[w] = count == 0 ? 0.0 : total / count * scale;
+                windowMaxima[w] = max * scale;
+                w++;
+            }
+        }
+        return new WindowRecord(windowCounts[0], windowAvgs[0], windowMaxima[0],
+                                windowCounts[1], windowAvgs[1], windowMaxima[1],
+                                windowCounts[2], windowAvgs[2], windowMaxima[2]);
+    }
+}
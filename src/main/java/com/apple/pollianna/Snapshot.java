@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Serves all attributes of a bean from one consistent snapshot of its recorders.
+ * <p>
+ * Retrieving a record from a recorder ends the recorder's polling interval.
+ * If every attribute getter did that by itself, then attributes that stem from the same recorder
+ * (e.g. "PauseMax" and "PausePortion") would see different intervals, all but the first of them empty.
+ * Instead, the first attribute read in a scrape ends the polling intervals of all sources of the bean at once,
+ * and every other attribute is served from the resulting frozen frame.
+ * <p>
+ * A new scrape begins when an attribute that has already been served from the current frame is read again,
+ * or when a new frame is taken explicitly.
+ * <p>
+ * Each {@link Cursor} has its own current frame, so that independent readers do not disturb each other's scrapes.
+ */
+public final class Snapshot {
+
+    public Snapshot() { }
+
+    private final List<Supplier<?>> suppliers = new ArrayList<Supplier<?>>();
+    private int nAttributes = 0;
+
+    // The current frame of each cursor, by cursor id
+    private Frame[] frames = new Frame[1];
+
+    /**
+     * The values of all sources, taken together at one point in time.
+     */
+    public static final class Frame {
+        private final Object[] values;
+        private final boolean[] isServed;
+
+        private Frame(Object[] values, int nAttributes) {
+            this.values = values;
+            this.isServed = new boolean[nAttributes];
+        }
+    }
+
+    /**
+     * A value producer that is invoked exactly once per frame.
+     *
+     * @param <T> the type of the produced values
+     */
+    public final class Source<T> {
+        private final int index;
+        private final int attribute;
+
+        private Source(int index, int attribute) {
+            this.index = index;
+            this.attribute = attribute;
+        }
+
+        /**
+         * @param frame a frame of the snapshot that created this source
+         * @return the value this source produced for the given frame
+         */
+        @SuppressWarnings("unchecked")
+        public T in(Frame frame) {
+            return (T) frame.values[index];
+        }
+
+        /**
+         * Read the value of this source as the attribute that was implicitly registered along with it.
+         *
+         * @return the value this source produced for the current frame
+         */
+        public T get() {
+            return in(serve(attribute));
+        }
+    }
+
+    /**
+     * Register a new source along with an attribute that has the same name.
+     *
+     * @param supplier produces a new value each time it is invoked, typically by ending a polling interval
+     * @param <T> the type of the produced values
+     * @return a handle to retrieve the value produced for any given frame
+     */
+    public synchronized <T> Source<T> source(Supplier<T> supplier) {
+        suppliers.add(supplier);
+        return new Source<T>(suppliers.size() - 1, attribute());
+    }
+
+    /**
+     * Register an attribute that may be derived from one or more sources.
+     *
+     * @return the index of the new attribute
+     */
+    public synchronized int attribute() {
+        Arrays.fill(frames, null);
+        return nAttributes++;
+    }
+
+    /**
+     * Remove all sources and attributes.
+     */
+    public synchronized void clear() {
+        suppliers.clear();
+        nAttributes = 0;
+        Arrays.fill(frames, null);
+    }
+
+    /**
+     * End the polling intervals of all sources at once and begin a new scrape for the current cursor.
+     *
+     * @return a new frame with the values of all sources
+     */
+    public synchronized Frame take() {
+        final Object[] values = new Object[suppliers.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = suppliers.get(i).get();
+        }
+        final int cursor = Cursor.current().id();
+        if (cursor >= frames.length) {
+            frames = Arrays.copyOf(frames, cursor + 1);
+        }
+        frames[cursor] = new Frame(values, nAttributes);
+        return frames[cursor];
+    }
+
+    private Frame frame() {
+        final int cursor = Cursor.current().id();
+        return cursor < frames.length ? frames[cursor] : null;
+    }
+
+    /**
+     * Mark the given attribute as served from the current cursor's frame.
+     * If it has already been served from that frame, a new frame is taken first.
+     *
+     * @param attribute the index of the attribute to be served
+     * @return the frame from which to serve the attribute
+     */
+    public synchronized Frame serve(int attribute) {
+        Frame frame = frame();
+        if (frame == null || frame.isServed[attribute]) {
+            frame = take();
+        }
+        frame.isServed[attribute] = true;
+        return frame;
+    }
+
+    /**
+     * Take a new frame and mark all attributes as served from it.
+     *
+     * @return the new frame
+     */
+    public synchronized Frame serveAll() {
+        final Frame frame = take();
+        for (int i = 0; i < nAttributes; i++) {
+            frame.isServed[i] = true;
+        }
+        return frame;
+    }
+}
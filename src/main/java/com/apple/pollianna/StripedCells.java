@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-stripe `long` fields for recorders that are updated by many threads at once.
+ * <p>
+ * Each thread updates the stripe selected by its thread id, so threads from a pool mostly get stripes of their own.
+ * Every stripe occupies two cache lines exclusively, so that updates to different stripes neither contend
+ * nor suffer from false sharing, including by adjacent-line prefetching.
+ * Updates are lock-free and allocation-free. Readers combine all stripes.
+ */
+final class StripedCells {
+
+    // 128 bytes per stripe
+    private static final int STRIDE = 16;
+
+    /**
+     * The number of stripes, a power of two.
+     */
+    static final int STRIPES = stripeCount();
+
+    private static int stripeCount() {
+        final int target = Math.max(2 * Runtime.getRuntime().availableProcessors(), 4);
+        return Math.min(Integer.highestOneBit(target - 1) << 1, 64);
+    }
+
+    private final AtomicLongArray cells;
+
+    /**
+     * @param fieldCount the number of fields per stripe, at most 16
+     */
+    StripedCells(int fieldCount) {
+        if (fieldCount > STRIDE) {
+            throw new IllegalArgumentException("too many fields per stripe: " + fieldCount);
+        }
+        // With an unused stripe in front, so that the first stripe does not share a cache line with the array header
+        cells = new AtomicLongArray((STRIPES + 1) * STRIDE);
+    }
+
+    /**
+     * @return the base index of the current thread's stripe
+     */
+    int base() {
+        return base((int) Thread.currentThread().getId() & (STRIPES - 1));
+    }
+
+    /**
+     * @param stripe a stripe number below {@link #STRIPES}
+     * @return the base index of the given stripe
+     */
+    static int base(int stripe) {
+        return (stripe + 1) * STRIDE;
+    }
+
+    long get(int base, int field) {
+        return cells.get(base + field);
+    }
+
+    void set(int base, int field, long value) {
+        cells.set(base + field, value);
+    }
+
+    long getAndSet(int base, int field, long value) {
+        return cells.getAndSet(base + field, value);
+    }
+
+    void add(int base, int field, long amount) {
+        cells.getAndAdd(base + field, amount);
+    }
+
+    void min(int base, int field, long value) {
+        final int i = base + field;
+        long current = cells.get(i);
+        while (value < current && !cells.compareAndSet(i, current, value)) {
+            current = cells.get(i);
+        }
+    }
+
+    void max(int base, int field, long value) {
+        final int i = base + field;
+        long current = cells.get(i);
+        while (value > current && !cells.compareAndSet(i, current, value)) {
+            current = cells.get(i);
+        }
+    }
+}
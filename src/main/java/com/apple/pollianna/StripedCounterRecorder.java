@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+/**
+ * Accumulates a monotonically increasing `long` total from many threads at once, like {@link CounterRecorder},
+ * but with concurrent recording threads mostly updating separate cache lines.
+ */
+public final class StripedCounterRecorder {
+
+    public StripedCounterRecorder() { }
+
+    private final StripedCells cells = new StripedCells(1);
+
+    /**
+     * Add to the total. Negative amounts are ignored, so that the total never decreases.
+     *
+     * @param amount the amount to add
+     */
+    public void record(long amount) {
+        if (amount > 0) {
+            cells.add(cells.base(), 0, amount);
+        }
+    }
+
+    public void increment() {
+        cells.add(cells.base(), 0, 1);
+    }
+
+    /**
+     * @return the sum of all amounts recorded so far
+     */
+    public long total() {
+        long result = 0;
+        for (int stripe = 0; stripe < StripedCells.STRIPES; stripe++) {
+            result += cells.get(StripedCells.base(stripe), 0);
+        }
+        return result;
+    }
+}
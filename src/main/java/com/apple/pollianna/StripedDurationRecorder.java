@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records durations from many threads at once and produces their minimum, average, maximum, count,
+ * and runtime portion over a polling interval, like {@link LongDurationRecorder} does, but without percentiles.
+ * <p>
+ * Durations are recorded and stored in nanoseconds. Records are produced in milliseconds unless another unit is requested.
+ */
+public class StripedDurationRecorder extends StripedValueRecorder {
+
+    public StripedDurationRecorder() {
+        super();
+    }
+
+    /**
+     * Record the time elapsed since the given start time.
+     *
+     * @param startNanos a value previously obtained from `System.nanoTime()`
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Start a new polling interval for the current cursor
+     * and return a record of the durations observed in its previous interval.
+     *
+     * @param unit the time unit of the durations in the result
+     * @return a record of the durations observed since the current cursor's previous call
+     */
+    public LongDurationRecord getRecord(TimeUnit unit) {
+        final Interval interval = takeInterval();
+        final long intervalNanos = System.nanoTime() - interval.startNanos;
+        final double portion = intervalNanos <= 0 ? 0.0 : ((double) interval.total / (double) intervalNanos) * 100.0;
+        return new LongDurationRecord(interval.min(), interval.avg(), interval.max(), interval.count, portion)
+            .convert(TimeUnit.NANOSECONDS, unit);
+    }
+
+    /**
+     * @return a record of the durations in milliseconds observed since the current cursor's previous call
+     */
+    @Override
+    public LongDurationRecord getRecord() {
+        return getRecord(TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.util.Arrays;
+
+/**
+ * Records `long` sample values from many threads at once and produces the minimum, average, and maximum values
+ * of all samples from a polling interval.
+ * <p>
+ * Unlike {@link LongValueRecorder}, recording neither locks nor allocates, and concurrent recording threads
+ * mostly update separate cache lines, so this recorder suits application hot paths such as request handling.
+ * Each {@link Cursor} has its own polling intervals.
+ * A sample that is recorded while a read is in progress may contribute its minimum and maximum to the next interval.
+ * An empty interval repeats the average of the previous interval.
+ */
+public class StripedValueRecorder {
+
+    public StripedValueRecorder() {
+        for (int stripe = 0; stripe < StripedCells.STRIPES; stripe++) {
+            cells.set(StripedCells.base(stripe), MIN, Long.MAX_VALUE);
+            cells.set(StripedCells.base(stripe), MAX, Long.MIN_VALUE);
+        }
+    }
+
+    private static final int COUNT = 0;
+    private static final int TOTAL = 1;
+    private static final int MIN = 2;
+    private static final int MAX = 3;
+
+    private final StripedCells cells = new StripedCells(4);
+
+    public void record(long value) {
+        final int base = cells.base();
+        cells.add(base, COUNT, 1);
+        cells.add(base, TOTAL, value);
+        cells.min(base, MIN, value);
+        cells.max(base, MAX, value);
+    }
+
+    /**
+     * What has been recorded in a polling interval of one cursor.
+     */
+    protected static final class Interval {
+        long count = 0;
+        long total = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long startNanos;
+        long previousAvg = 0;
+
+        Interval(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        long avg() {
+            return count <= 0 ? previousAvg : total / count;
+        }
+
+        // If a sample's count has been read, but not yet its extremes, fall back to the average
+        long min() {
+            return count <= 0 || min == Long.MAX_VALUE ? avg() : min;
+        }
+
+        long max() {
+            return count <= 0 || max == Long.MIN_VALUE ? avg() : max;
+        }
+    }
+
+    // Everything below is guarded by this recorder's monitor, which recording threads never take
+
+    // Per stripe, the cumulative count and total as of the previous read by any cursor
+    private final long[] foldedCounts = new long[StripedCells.STRIPES];
+    private final long[] foldedTotals = new long[StripedCells.STRIPES];
+    private long foldNanos = System.nanoTime();
+
+    // Per cursor id, what has been recorded since that cursor's previous read
+    private Interval[] cursors = new Interval[0];
+
+    /**
+     * Add what has been recorded since the previous read by any cursor to the intervals of all cursors.
+     */
+    private void fold() {
+        long count = 0;
+        long total = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int stripe = 0; stripe < StripedCells.STRIPES; stripe++) {
+            final int base = StripedCells.base(stripe);
+            // In the reverse order of recording, so that the extremes of a sample are never read before its count
+            max = Math.max(max, cells.getAndSet(base, MAX, Long.MIN_VALUE));
+            min = Math.min(min, cells.getAndSet(base, MIN, Long.MAX_VALUE));
+            final long stripeTotal = cells.get(base, TOTAL);
+            final long stripeCount = cells.get(base, COUNT);
+            total += stripeTotal - foldedTotals[stripe];
+            count += stripeCount - foldedCounts[stripe];
+            foldedTotals[stripe] = stripeTotal;
+            foldedCounts[stripe] = stripeCount;
+        }
+        foldNanos = System.nanoTime();
+        if (count <= 0) {
+            return;
+        }
+        for (Interval interval : cursors) {
+            if (interval != null) {
+                interval.count += count;
+                interval.total += total;
+                interval.min = Math.min(interval.min, min);
+                interval.max = Math.max(interval.max, max);
+            }
+        }
+    }
+
+    /**
+     * End the current cursor's polling interval.
+     *
+     * @return what has been recorded in the ended interval
+     */
+    protected synchronized Interval takeInterval() {
+        final int id = Cursor.current().id();
+        if (id >= cursors.length) {
+            cursors = Arrays.copyOf(cursors, id + 1);
+        }
+        if (cursors[id] == null) {
+            // The first interval of a new cursor begins with the most recent read by any other cursor
+            cursors[id] = new Interval(foldNanos);
+        }
+        fold();
+        final Interval result = cursors[id];
+        final Interval next = new Interval(foldNanos);
+        next.previousAvg = result.avg();
+        cursors[id] = next;
+        return result;
+    }
+
+    /**
+     * Start a new polling interval for the current cursor
+     * and return a record of the observed sample values from its previous interval.
+     *
+     * @return a record of the observed sample values since the current cursor's previous call
+     */
+    public LongValueRecord getRecord() {
+        final Interval interval = takeInterval();
+        return new LongValueRecord(interval.min(), interval.avg(), interval.max());
+    }
+}
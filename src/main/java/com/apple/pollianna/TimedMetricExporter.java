@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.Aggregation;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Delegates to another metric exporter and records the duration and outcome of each export as Pollianna overhead.
+ * <p>
+ * The thread of the periodic metric reader, which exports and also reads all bean attributes,
+ * is accounted for as well if the reader runs on an executor from {@link #newExecutor()}.
+ * Exports that the reader performs on other threads, when it is flushed or shut down, are not.
+ */
+final class TimedMetricExporter implements MetricExporter {
+
+    private final MetricExporter exporter;
+
+    TimedMetricExporter(MetricExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    /**
+     * @return an executor for a periodic metric reader, with one daemon thread
+     * that is accounted for as Pollianna overhead until the reader shuts it down
+     */
+    static ScheduledExecutorService newExecutor() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(() -> {
+                Overhead.registerThread(Thread.currentThread());
+                try {
+                    runnable.run();
+                } finally {
+                    Overhead.unregisterThread(Thread.currentThread());
+                }
+            }, "Pollianna OTel Export");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<MetricData> metrics) {
+        final long startNanos = System.nanoTime();
+        final CompletableResultCode result = exporter.export(metrics);
+        result.whenComplete(() -> {
+            Overhead.export.record(System.nanoTime() - startNanos);
+            if (!result.isSuccess()) {
+                Overhead.exportFailures.increment();
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return exporter.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return exporter.shutdown();
+    }
+
+    @Override
+    public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+        return exporter.getAggregationTemporality(instrumentType);
+    }
+
+    @Override
+    public Aggregation getDefaultAggregation(InstrumentType instrumentType) {
+        return exporter.getDefaultAggregation(instrumentType);
+    }
+}
@@ -19,11 +19,32 @@ import com.sun.management.HotSpotDiagnosticMXBean;
 import com.sun.management.VMOption;
 
 import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.PlatformManagedObject;
 import java.util.Optional;
 
 public class Util {
+    /**
+     * Convert a record to `CompositeData` directly, instead of letting the MXBean framework do so by reflection.
+     * The framework derives the composite type once per record class and passes it in.
+     *
+     * @param type the composite type of the record class
+     * @param itemNames the names of all items in `type`
+     * @param itemValues the values of the record, in the same order as `itemNames`
+     * @return the converted record
+     */
+    public static CompositeData toCompositeData(CompositeType type, String[] itemNames, Object[] itemValues) {
+        try {
+            return new CompositeDataSupport(type, itemNames, itemValues);
+        } catch (OpenDataException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
     public static <B extends PlatformManagedObject> B getMXBean(Class<B> type, String name) {
         for (B bean : ManagementFactory.getPlatformMXBeans(type)) {
             if (bean.getObjectName().getKeyProperty("name").equals(name)) {
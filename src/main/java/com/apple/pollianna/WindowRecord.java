@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import java.beans.ConstructorProperties;
+
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataView;
+import javax.management.openmbean.CompositeType;
+
+/**
+ * Holds the count, average, and maximum of sample values
+ * over the last 1, 5, and 15 minutes.
+ */
+public class WindowRecord implements CompositeDataView {
+    private static final String[] ITEM_NAMES = {
+        "count1m", "avg1m", "max1m", "count5m", "avg5m", "max5m", "count15m", "avg15m", "max15m"
+    };
+
+    protected final long count1m;
+    protected final double avg1m;
+    protected final double max1m;
+    protected final long count5m;
+    protected final double avg5m;
+    protected final double max5m;
+    protected final long count15m;
+    protected final double avg15m;
+    protected final double max15m;
+
+    @ConstructorProperties({"count1m", "avg1m", "max1m", "count5m", "avg5m", "max5m", "count15m", "avg15m", "max15m"}) // Java 8
+    public WindowRecord(long count1m, double avg1m, double max1m,
+                        long count5m, double avg5m, double max5m,
+                        long count15m, double avg15m, double max15m) {
+        this.count1m = count1m;
+        this.avg1m = avg1m;
+        this.max1m = max1m;
+        this.count5m = count5m;
+        this.avg5m = avg5m;
+        this.max5m = max5m;
+        this.count15m = count15m;
+        this.avg15m = avg15m;
+        this.max15m = max15m;
+    }
+
+    public long getCount1m() { return count1m; }
+
+    public double getAvg1m() { return avg1m; }
+
+    public double getMax1m() { return max1m; }
+
+    public long getCount5m() { return count5m; }
+
+    public double getAvg5m() { return avg5m; }
+
+    public double getMax5m() { return max5m; }
+
+    public long getCount15m() { return count15m; }
+
+    public double getAvg15m() { return avg15m; }
+
+    public double getMax15m() { return max15m; }
+
+    @Override
+    public CompositeData toCompositeData(CompositeType type) {
+        return Util.toCompositeData(type, ITEM_NAMES, new Object[] {
+            count1m, avg1m, max1m, count5m, avg5m, max5m, count15m, avg15m, max15m
+        });
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buf = new StringBuilder();
+        buf.append("{1m = (" + count1m + ", " + avg1m + ", " + max1m + "), ");
+        buf.append("5m = (" + count5m + ", " + avg5m + ", " + max5m + "), ");
+        buf.append("15m = (" + count15m + ", " + avg15m + ", " + max15m + ")}");
+        return buf.toString();
+    }
+}
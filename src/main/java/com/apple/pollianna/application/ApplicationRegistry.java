@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.application;
+
+import com.apple.pollianna.StripedCounterRecorder;
+import com.apple.pollianna.StripedDurationRecorder;
+import com.apple.pollianna.StripedValueRecorder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The registry of application metrics, which are reported by the "Application" bean
+ * with the same polling interval semantics as the JVM metrics, and exported by OTel if configured.
+ * <p>
+ * Metrics are registered by name on first use, and the same recorder is returned for the same name thereafter,
+ * so callers can look recorders up once and keep them in fields. Recording is lock-free and allocation-free.
+ * Example:
+ * <pre>
+ * private static final StripedDurationRecorder dbQuery = Pollianna.registry().duration("db.query");
+ * ...
+ * final long startNanos = System.nanoTime();
+ * runQuery();
+ * dbQuery.recordSince(startNanos);
+ * </pre>
+ * Bean attribute names are derived from metric names by capitalizing each of their alphanumeric parts,
+ * e.g. "db.query" results in "DbQueryMax", "DbQueryAvg", etc.
+ */
+public final class ApplicationRegistry {
+
+    private static final ApplicationRegistry instance = new ApplicationRegistry();
+
+    private ApplicationRegistry() { }
+
+    /**
+     * @return the registry that is reported by the "Application" bean
+     */
+    public static ApplicationRegistry instance() {
+        return instance;
+    }
+
+    // Recorders by metric name, in registration order
+    private final Map<String, Object> metrics = new LinkedHashMap<String, Object>();
+
+    // Metric names by attribute name prefix
+    private final Map<String, String> prefixes = new HashMap<String, String>();
+
+    private final List<BiConsumer<String, Object>> subscribers = new ArrayList<BiConsumer<String, Object>>();
+
+    /**
+     * @param metricName the name of a metric
+     * @return the prefix of the names of all bean attributes of the metric
+     */
+    static String attributePrefix(String metricName) {
+        final StringBuilder result = new StringBuilder();
+        for (String part : metricName.split("[^A-Za-z0-9]+")) {
+            if (!part.isEmpty()) {
+                result.append(Character.toUpperCase(part.charAt(0))).append(part.substring(1));
+            }
+        }
+        return result.toString();
+    }
+
+    private synchronized <T> T metric(String name, Class<T> type, Supplier<T> constructor) {
+        final Object existing = metrics.get(name);
+        if (existing != null) {
+            if (existing.getClass() != type) {
+                throw new IllegalArgumentException("application metric " + name + " is already registered as "
+                    + existing.getClass().getSimpleName());
+            }
+            return type.cast(existing);
+        }
+        final String prefix = attributePrefix(name);
+        if (prefix.isEmpty()) {
+            throw new IllegalArgumentException("application metric name without letters or digits: " + name);
+        }
+        if (prefixes.containsKey(prefix)) {
+            throw new IllegalArgumentException("application metric " + name + " has the same attribute names as "
+                + prefixes.get(prefix));
+        }
+        final T result = constructor.get();
+        metrics.put(name, result);
+        prefixes.put(prefix, name);
+        for (BiConsumer<String, Object> subscriber : subscribers) {
+            subscriber.accept(name, result);
+        }
+        return result;
+    }
+
+    /**
+     * @param name the name of a metric of durations, e.g. request latencies
+     * @return the recorder of the metric
+     * @throws IllegalArgumentException if the name is already registered for another kind of metric
+     */
+    public StripedDurationRecorder duration(String name) {
+        return metric(name, StripedDurationRecorder.class, StripedDurationRecorder::new);
+    }
+
+    /**
+     * @param name the name of a metric of sampled values, e.g. queue depths
+     * @return the recorder of the metric
+     * @throws IllegalArgumentException if the name is already registered for another kind of metric
+     */
+    public StripedValueRecorder value(String name) {
+        return metric(name, StripedValueRecorder.class, StripedValueRecorder::new);
+    }
+
+    /**
+     * @param name the name of a metric that counts events, e.g. requests served
+     * @return the recorder of the metric
+     * @throws IllegalArgumentException if the name is already registered for another kind of metric
+     */
+    public StripedCounterRecorder counter(String name) {
+        return metric(name, StripedCounterRecorder.class, StripedCounterRecorder::new);
+    }
+
+    /**
+     * Have the given subscriber called for every metric that has been registered so far, in registration order,
+     * and then for every metric when it is registered.
+     *
+     * @param subscriber receives the name and the recorder of each metric, while the registry's lock is held
+     */
+    synchronized void subscribe(BiConsumer<String, Object> subscriber) {
+        for (Map.Entry<String, Object> entry : metrics.entrySet()) {
+            subscriber.accept(entry.getKey(), entry.getValue());
+        }
+        subscribers.add(subscriber);
+    }
+}
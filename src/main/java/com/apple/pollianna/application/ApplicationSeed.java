@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.application;
+
+import com.apple.pollianna.Aggregator;
+import com.apple.pollianna.LongDurationRecord;
+import com.apple.pollianna.LongValueRecord;
+import com.apple.pollianna.Overhead;
+import com.apple.pollianna.Seed;
+import com.apple.pollianna.Snapshot;
+import com.apple.pollianna.StripedCounterRecorder;
+import com.apple.pollianna.StripedDurationRecorder;
+import com.apple.pollianna.StripedValueRecorder;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanConstructorInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+import javax.management.RuntimeOperationsException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bean implementation for the metrics in the {@link ApplicationRegistry}.
+ * Its attributes are not known in advance, but grow as the application registers metrics, so it is a dynamic bean.
+ * <p>
+ * A duration metric has the attributes "Min", "Avg", "Max", "Count", and "Portion", prefixed by its attribute name prefix,
+ * with durations in milliseconds. A value metric has "Min", "Avg", and "Max".
+ * These are aggregated over polling intervals, and all attributes of the bean are served from one consistent snapshot per scrape.
+ * A counter metric has a single attribute with just the prefix as its name, which is never reset.
+ */
+public final class ApplicationSeed extends Seed implements DynamicMBean {
+
+    public ApplicationSeed() {
+        super();
+        ApplicationRegistry.instance().subscribe(this::addMetric);
+    }
+
+    @Override
+    protected List<Aggregator> aggregators() {
+        return Collections.emptyList();
+    }
+
+    private static final class ApplicationAttribute {
+        final MBeanAttributeInfo info;
+        final boolean isCumulative;
+
+        // Reads the attribute's value from the given frame, or from the current cursor's frame if `null`
+        final Function<Snapshot.Frame, Object> reader;
+
+        ApplicationAttribute(MBeanAttributeInfo info, boolean isCumulative, Function<Snapshot.Frame, Object> reader) {
+            this.info = info;
+            this.isCumulative = isCumulative;
+            this.reader = reader;
+        }
+    }
+
+    private final List<ApplicationAttribute> attributes = new ArrayList<ApplicationAttribute>();
+    private final Map<String, ApplicationAttribute> attributesByName = new HashMap<String, ApplicationAttribute>();
+
+    // The names of the attributes that are exposed, or `null` if all are
+    private Set<String> includedAttributeNames = null;
+
+    private final List<Consumer<MBeanAttributeInfo>> subscribers = new ArrayList<Consumer<MBeanAttributeInfo>>();
+
+    private MBeanInfo beanInfo = createBeanInfo();
+
+    private static MBeanAttributeInfo createAttribute(String name, Class<?> type) {
+        final String description = name + " : " + type.getName();
+        return new MBeanAttributeInfo(name, type.getName(), description, true, false, false);
+    }
+
+    private boolean isExposed(ApplicationAttribute attribute) {
+        return includedAttributeNames == null || includedAttributeNames.contains(attribute.info.getName());
+    }
+
+    private MBeanInfo createBeanInfo() {
+        final List<MBeanAttributeInfo> exposed = new ArrayList<MBeanAttributeInfo>();
+        for (ApplicationAttribute attribute : attributes) {
+            if (isExposed(attribute)) {
+                exposed.add(attribute.info);
+            }
+        }
+        final MBeanConstructorInfo[] beanConstructors = {
+            new MBeanConstructorInfo("ApplicationSeed()", getClass().getConstructors()[0])
+        };
+        return new MBeanInfo(beanName(), "application metrics",
+            exposed.toArray(new MBeanAttributeInfo[0]), // Java 8
+            beanConstructors,
+            new MBeanOperationInfo[0],
+            new MBeanNotificationInfo[0]);
+    }
+
+    private void addAttribute(ApplicationAttribute attribute) {
+        attributes.add(attribute);
+        attributesByName.put(attribute.info.getName(), attribute);
+        if (isExposed(attribute)) {
+            for (Consumer<MBeanAttributeInfo> subscriber : subscribers) {
+                subscriber.accept(attribute.info);
+            }
+        }
+    }
+
+    private <T> void addAttribute(String name, Class<?> type, Snapshot.Source<T> source, Function<T, Object> item) {
+        final int snapshotAttribute = snapshot.attribute();
+        addAttribute(new ApplicationAttribute(createAttribute(name, type), false,
+            frame -> item.apply(source.in(frame != null ? frame : snapshot.serve(snapshotAttribute)))));
+    }
+
+    private synchronized void addMetric(String metricName, Object recorder) {
+        final String prefix = ApplicationRegistry.attributePrefix(metricName);
+        if (recorder instanceof StripedDurationRecorder) {
+            final Snapshot.Source<LongDurationRecord> source = snapshot.source(((StripedDurationRecorder) recorder)::getRecord);
+            addAttribute(prefix + "Min", long.class, source, LongDurationRecord::getMin);
+            addAttribute(prefix + "Avg", long.class, source, LongDurationRecord::getAvg);
+            addAttribute(prefix + "Max", long.class, source, LongDurationRecord::getMax);
+            addAttribute(prefix + "Count", long.class, source, LongDurationRecord::getCount);
+            addAttribute(prefix + "Portion", double.class, source, LongDurationRecord::getPortion);
+        } else if (recorder instanceof StripedValueRecorder) {
+            final Snapshot.Source<LongValueRecord> source = snapshot.source(((StripedValueRecorder) recorder)::getRecord);
+            addAttribute(prefix + "Min", long.class, source, LongValueRecord::getMin);
+            addAttribute(prefix + "Avg", long.class, source, LongValueRecord::getAvg);
+            addAttribute(prefix + "Max", long.class, source, LongValueRecord::getMax);
+        } else if (recorder instanceof StripedCounterRecorder) {
+            final StripedCounterRecorder counter = (StripedCounterRecorder) recorder;
+            addAttribute(new ApplicationAttribute(createAttribute(prefix, long.class), true, frame -> counter.total()));
+        }
+        beanInfo = createBeanInfo();
+    }
+
+    /**
+     * Restrict the attributes of this bean to those with the given names, including those of metrics registered later.
+     *
+     * @param includedAttributeNames the names of all visible attributes, or `null` to make all attributes visible
+     */
+    public synchronized void setIncludedAttributeNames(Set<String> includedAttributeNames) {
+        this.includedAttributeNames = includedAttributeNames;
+        beanInfo = createBeanInfo();
+    }
+
+    /**
+     * Have the given subscriber called for every attribute that is visible so far,
+     * and then for every visible attribute when its metric is registered,
+     * until it is unsubscribed or this bean stops recording.
+     * The subscriber is called while this bean's lock is held, and for a newly registered metric also the registry's,
+     * so it must not wait for any thread that might read this bean or register a metric.
+     *
+     * @param subscriber receives the info of each visible attribute
+     */
+    public synchronized void subscribe(Consumer<MBeanAttributeInfo> subscriber) {
+        for (ApplicationAttribute attribute : attributes) {
+            if (isExposed(attribute)) {
+                subscriber.accept(attribute.info);
+            }
+        }
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Stop calling the given subscriber, so that whatever it references can be garbage collected.
+     *
+     * @param subscriber a subscriber passed to {@link #subscribe(Consumer)}
+     */
+    public synchronized void unsubscribe(Consumer<MBeanAttributeInfo> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Stop recording and drop all subscribers, which belong to the reporting that is stopped along with this bean.
+     */
+    @Override
+    public synchronized void stopRecording() {
+        super.stopRecording();
+        subscribers.clear();
+    }
+
+    /**
+     * @param attributeName the name of an attribute
+     * @return whether the attribute is a monotonic counter that is never reset when read
+     */
+    public synchronized boolean isCumulative(String attributeName) {
+        final ApplicationAttribute attribute = attributesByName.get(attributeName);
+        return attribute != null && attribute.isCumulative;
+    }
+
+    // Implement DynamicMBean
+    public synchronized MBeanInfo getMBeanInfo() {
+        return beanInfo;
+    }
+
+    private Object getAttribute(String attributeName, Snapshot.Frame frame) throws AttributeNotFoundException {
+        final ApplicationAttribute attribute = attributesByName.get(attributeName);
+        if (attribute == null) {
+            throw new AttributeNotFoundException("Failed to find " + attributeName + " attribute in " + beanName());
+        }
+        return attribute.reader.apply(frame);
+    }
+
+    // Implement DynamicMBean
+    public synchronized Object getAttribute(String attributeName) throws AttributeNotFoundException {
+        if (attributeName == null) {
+            throw new RuntimeOperationsException(new IllegalArgumentException("Attribute name cannot be null"),
+                "Cannot invoke a getter of " + beanName() + " with null attribute name");
+        }
+        final long startNanos = System.nanoTime();
+        try {
+            return getAttribute(attributeName, null);
+        } finally {
+            Overhead.scrape.recordSince(startNanos);
+        }
+    }
+
+    // Implement DynamicMBean
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        if (attribute == null) {
+            throw new RuntimeOperationsException(new IllegalArgumentException("Attribute cannot be null"),
+                "Cannot invoke a setter of " + beanName() + " with null attribute");
+        }
+        throw new AttributeNotFoundException("Cannot set attribute " + attribute.getName() + " because it is read-only");
+    }
+
+    // Implement DynamicMBean
+    public synchronized AttributeList getAttributes(String[] attributeNames) {
+        if (attributeNames == null) {
+            throw new RuntimeOperationsException(new IllegalArgumentException("attributeNames[] cannot be null"),
+                "Cannot invoke a getter of " + beanName());
+        }
+        final long startNanos = System.nanoTime();
+        // All requested attributes are served from the same fresh frame
+        final Snapshot.Frame frame = snapshot.serveAll();
+        final AttributeList result = new AttributeList();
+        for (String name : attributeNames) {
+            try {
+                result.add(new Attribute(name, getAttribute(name, frame)));
+            } catch (AttributeNotFoundException e) {
+                // Report what is available instead of failing the whole request
+            }
+        }
+        Overhead.scrape.recordSince(startNanos);
+        return result;
+    }
+
+    // Implement DynamicMBean
+    public AttributeList setAttributes(AttributeList attributes) {
+        if (attributes == null) {
+            throw new RuntimeOperationsException(new IllegalArgumentException("AttributeList attributes cannot be null"),
+                "Cannot invoke a setter of " + beanName());
+        }
+        return new AttributeList();
+    }
+
+    // Implement DynamicMBean
+    public Object invoke(String operationName, Object[] parameters, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(operationName),
+            "Cannot find the operation " + operationName + " in " + beanName());
+    }
+}
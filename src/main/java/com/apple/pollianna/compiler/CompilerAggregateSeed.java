@@ -17,16 +17,36 @@ package com.apple.pollianna.compiler;
 
 import com.apple.pollianna.DoubleValueRecord;
 import com.apple.pollianna.LongValueRecord;
+import com.apple.pollianna.Snapshot;
 
 public final class CompilerAggregateSeed extends CompilerSeed implements CompilerAggregateMXBean {
+    private final Snapshot.Source<LongValueRecord> compilationTime
+            = snapshot.source(aggregator.compilation::getRecord);
+    private final Snapshot.Source<LongValueRecord> profiledNMethodsCodeHeap
+            = snapshot.source(aggregator.profiledNMethodsCodeHeap::getValueRecord);
+    private final Snapshot.Source<DoubleValueRecord> profiledNMethodsCodeHeapUsage
+            = snapshot.source(aggregator.profiledNMethodsCodeHeap::getPercentageRecord);
+    private final Snapshot.Source<LongValueRecord> nonProfiledNMethodsCodeHeap
+            = snapshot.source(aggregator.nonProfiledNMethodsCodeHeap::getValueRecord);
+    private final Snapshot.Source<DoubleValueRecord> nonProfiledNMethodsCodeHeapUsage
+            = snapshot.source(aggregator.nonProfiledNMethodsCodeHeap::getPercentageRecord);
+    private final Snapshot.Source<LongValueRecord> nonNMethodsCodeHeap
+            = snapshot.source(aggregator.nonNMethodsCodeHeap::getValueRecord);
+    private final Snapshot.Source<DoubleValueRecord> nonNMethodsCodeHeapUsage
+            = snapshot.source(aggregator.nonNMethodsCodeHeap::getPercentageRecord);
+    private final Snapshot.Source<LongValueRecord> codeCache
+            = snapshot.source(aggregator.legacyCodeCache::getValueRecord);
+    private final Snapshot.Source<DoubleValueRecord> codeCacheUsage
+            = snapshot.source(aggregator.legacyCodeCache::getPercentageRecord);
+
     @Override
     public LongValueRecord getCompilationTime() {
-        return aggregator.compilation.getRecord();
+        return compilationTime.get();
     }
 
     @Override
     public LongValueRecord getProfiledNMethodsCodeHeap() {
-        return aggregator.profiledNMethodsCodeHeap.getValueRecord();
+        return profiledNMethodsCodeHeap.get();
     }
 
     @Override
@@ -36,12 +56,12 @@ public final class CompilerAggregateSeed extends CompilerSeed implements Compile
 
     @Override
     public DoubleValueRecord getProfiledNMethodsCodeHeapUsage() {
-        return aggregator.profiledNMethodsCodeHeap.getPercentageRecord();
+        return profiledNMethodsCodeHeapUsage.get();
     }
 
     @Override
     public LongValueRecord getNonProfiledNMethodsCodeHeap() {
-        return aggregator.nonProfiledNMethodsCodeHeap.getValueRecord();
+        return nonProfiledNMethodsCodeHeap.get();
     }
 
     @Override
@@ -51,12 +71,12 @@ public final class CompilerAggregateSeed extends CompilerSeed implements Compile
 
     @Override
     public DoubleValueRecord getNonProfiledNMethodsCodeHeapUsage() {
-        return aggregator.nonProfiledNMethodsCodeHeap.getPercentageRecord();
+        return nonProfiledNMethodsCodeHeapUsage.get();
     }
 
     @Override
     public LongValueRecord getNonNMethodsCodeHeap() {
-        return aggregator.nonNMethodsCodeHeap.getValueRecord();
+        return nonNMethodsCodeHeap.get();
     }
 
     @Override
@@ -66,12 +86,12 @@ public final class CompilerAggregateSeed extends CompilerSeed implements Compile
 
     @Override
     public DoubleValueRecord getNonNMethodsCodeHeapUsage() {
-        return aggregator.nonNMethodsCodeHeap.getPercentageRecord();
+        return nonNMethodsCodeHeapUsage.get();
     }
 
     @Override
     public LongValueRecord getCodeCache() {
-        return aggregator.legacyCodeCache.getValueRecord();
+        return codeCache.get();
     }
 
     @Override
@@ -81,6 +101,6 @@ public final class CompilerAggregateSeed extends CompilerSeed implements Compile
 
     @Override
     public DoubleValueRecord getCodeCacheUsage() {
-        return aggregator.legacyCodeCache.getPercentageRecord();
+        return codeCacheUsage.get();
     }
 }
@@ -15,8 +15,10 @@
  */
 package com.apple.pollianna.compiler;
 
+import com.apple.pollianna.EwmaRateRecorder;
 import com.apple.pollianna.LongDurationRecorder;
 import com.apple.pollianna.LongValueRecorder;
+import com.apple.pollianna.Overhead;
 import com.apple.pollianna.PeriodicAggregator;
 import com.apple.pollianna.Util;
 
@@ -36,7 +38,8 @@ public class CompilerAggregator extends PeriodicAggregator {
     private static final String VM_OPTION_CODE_CACHE_SIZE = "ReservedCodeCacheSize";
 
     private final CompilationMXBean compilationBean = ManagementFactory.getCompilationMXBean();
-    public final LongValueRecorder compilation = new LongDurationRecorder();
+    public final LongValueRecorder compilation = new LongValueRecorder();
+    public final EwmaRateRecorder compilationEwma = new EwmaRateRecorder(1);
 
     public final CodeHeapRecorder nonProfiledNMethodsCodeHeap
             = new CodeHeapRecorder(MEMORY_POOL_NON_PROFILED_NMETHODS, VM_OPTION_NON_PROFILED_NMETHODS);
@@ -50,7 +53,9 @@ public class CompilerAggregator extends PeriodicAggregator {
                     VM_OPTION_CODE_CACHE_SIZE);
 
     private final Runnable poll = () -> {
-        compilation.record(compilationBean.getTotalCompilationTime());
+        final long compilationTime = compilationBean.getTotalCompilationTime();
+        compilation.record(compilationTime);
+        compilationEwma.recordTotal(compilationTime);
         nonProfiledNMethodsCodeHeap.record();
         profiledNMethodsCodeHeap.record();
         nonNMethodsCodeHeap.record();
@@ -63,4 +68,9 @@ public class CompilerAggregator extends PeriodicAggregator {
     protected Runnable runnable() {
         return poll;
     }
+
+    @Override
+    protected LongDurationRecorder tickRecorder() {
+        return Overhead.compilerTick;
+    }
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.compiler;
+
+import java.lang.management.PlatformManagedObject;
+
+/**
+ * Bean interface for monotonic compiler metric counters.
+ * Unlike aggregates, counters are never reset when read.
+ */
+public interface CompilerCounterMXBean extends PlatformManagedObject {
+    /**
+     * Returns the approximate accumulated elapsed time (in milliseconds) spent in compilation since JVM start.
+     * If multiple threads are used for compilation, this value is the sum of the approximate
+     * times that each thread spent in compilation.
+     * Returns 0 if compilation time monitoring is not supported.
+     * @see java.lang.management.CompilationMXBean#getTotalCompilationTime
+     *
+     * @return the approximate accumulated elapsed time (in milliseconds) spent in compilation since JVM start
+     */
+    long getCompilationTime();
+}
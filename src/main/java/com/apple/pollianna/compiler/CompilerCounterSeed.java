@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.compiler;
+
+import com.apple.pollianna.Aggregator;
+import com.apple.pollianna.Seed;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bean implementation for monotonic compiler metric counters.
+ * The JVM already maintains these counters, so no aggregation is needed.
+ */
+public final class CompilerCounterSeed extends Seed implements CompilerCounterMXBean {
+    public CompilerCounterSeed() { super(); }
+
+    private final CompilationMXBean compilationBean = ManagementFactory.getCompilationMXBean();
+
+    @Override
+    protected List<Aggregator> aggregators() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    protected boolean isCumulative() { return true; }
+
+    @Override
+    public long getCompilationTime() {
+        if (compilationBean == null || !compilationBean.isCompilationTimeMonitoringSupported()) {
+            return 0;
+        }
+        return compilationBean.getTotalCompilationTime();
+    }
+}
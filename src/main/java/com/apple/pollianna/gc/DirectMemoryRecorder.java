@@ -39,11 +39,21 @@ public class DirectMemoryRecorder extends LongValuePercentageRecorder {
         return limit;
     }
 
-    private final BufferPoolMXBean bean = Util.getMXBean(BufferPoolMXBean.class, "direct");
+    private static final BufferPoolMXBean bean = Util.getMXBean(BufferPoolMXBean.class, "direct");
 
     public void record() {
         if (bean != null) {
             record(bean.getMemoryUsed(), limit);
         }
     };
+
+    static void sample(GcEvent event) {
+        event.directMemoryUsed = bean != null ? bean.getMemoryUsed() : -1;
+    }
+
+    void record(GcEvent event) {
+        if (event.directMemoryUsed >= 0) {
+            record(event.directMemoryUsed, limit);
+        }
+    }
 }
@@ -17,7 +17,9 @@ package com.apple.pollianna.gc;
 
 import com.apple.pollianna.LongDurationRecord;
 import com.apple.pollianna.DoubleValueRecord;
+import com.apple.pollianna.EwmaRecord;
 import com.apple.pollianna.LongValueRecord;
+import com.apple.pollianna.WindowRecord;
 
 import java.lang.management.PlatformManagedObject;
 
@@ -66,6 +68,24 @@ public interface GcAggregateMXBean extends PlatformManagedObject {
      */
     DoubleValueRecord getAllocationRate();
 
+    /**
+     * Return the count, average, and maximum of the Java object allocation rates between subsequent garbage collections,
+     * in Mbytes per second, over the last 1, 5, and 15 minutes.
+     * Unlike other attributes, these sliding windows do not depend on when or how often they are read.
+     *
+     * @return the allocation rate aggregates over the last 1, 5, and 15 minutes
+     */
+    WindowRecord getAllocationRateWindows();
+
+    /**
+     * Return exponentially weighted moving averages of the Java object allocation rate over the last 1, 5, and 15 minutes,
+     * in Mbytes per second, based on the bytes allocated between subsequent garbage collections.
+     * Like the sliding windows, these averages do not depend on when or how often they are read.
+     *
+     * @return the 1, 5, and 15 minute average allocation rates, in Mbytes per second
+     */
+    EwmaRecord getAllocationEwma();
+
     /**
      * Return a summary of the garbage collection pause durations in milliseconds since the previous call.
      * "Garbage collection pauses" are time intervals during which the garbage collector
@@ -75,6 +95,24 @@ public interface GcAggregateMXBean extends PlatformManagedObject {
      */
     LongDurationRecord getPause();
 
+    /**
+     * Return the same summary of garbage collection pause durations as {@link #getPause()}, but in microseconds.
+     * On JDK 14 or later pause durations are measured with JFR at sub-millisecond precision,
+     * so that the typically very short pauses of collectors such as ZGC and Shenandoah do not show up as zero.
+     *
+     * @return a summary of the garbage collection pause durations in microseconds since the previous call.
+     */
+    LongDurationRecord getPauseMicros();
+
+    /**
+     * Return the count, average, and maximum of the garbage collection pause durations in milliseconds,
+     * over the last 1, 5, and 15 minutes.
+     * Unlike other attributes, these sliding windows do not depend on when or how often they are read.
+     *
+     * @return the pause duration aggregates over the last 1, 5, and 15 minutes
+     */
+    WindowRecord getPauseWindows();
+
     /**
      * Return a summary of the garbage collection cycle durations in milliseconds since the previous call.
      * For stop-the-world collectors such as Serial and Parallel a garbage collector cycle is identical to a single pause.
@@ -128,4 +166,33 @@ public interface GcAggregateMXBean extends PlatformManagedObject {
      * @return an aggregate (last, min, average, max) percentage of bytes used in metaspace after the most recent global GC
      */
     DoubleValueRecord getMetaspaceUsage();
+
+    /**
+     * Return the number of GC notifications that have been dropped since the previous call,
+     * because they arrived faster than Pollianna could aggregate them.
+     * Dropped notifications are not reflected in any other GC metrics.
+     *
+     * @return the number of GC notifications dropped since the previous call
+     */
+    long getDroppedGcEvents();
+
+    /**
+     * Return the number of GC notifications that have been detected as lost since the previous call,
+     * including those dropped by Pollianna.
+     * Losses are detected by gaps in collection ids and by periodically reconciling observed collections
+     * with each garbage collector's cumulative collection count.
+     * The pause time of lost collections is included in the pause portion, but not in other pause metrics.
+     *
+     * @return the number of GC notifications detected as lost since the previous call
+     */
+    long getLostGcEvents();
+
+    /**
+     * Return where GC pause metrics currently stem from: "JFR" or "Notifications".
+     * JFR pause events have nanosecond precision and include pauses that no GC notification reports,
+     * such as G1 remark and cleanup pauses, so pause counts and portions from the two sources are not comparable.
+     *
+     * @return "JFR" if GC pauses are streamed from JFR, otherwise "Notifications"
+     */
+    String getPauseSource();
 }
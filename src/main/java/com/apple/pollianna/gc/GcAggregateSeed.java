@@ -16,21 +16,68 @@
 package com.apple.pollianna.gc;
 
 import com.apple.pollianna.LongDurationRecord;
+import com.apple.pollianna.LongDurationRecorder;
 import com.apple.pollianna.DoubleValueRecord;
+import com.apple.pollianna.EwmaRecord;
 import com.apple.pollianna.LongValueRecord;
+import com.apple.pollianna.Snapshot;
+import com.apple.pollianna.WindowRecord;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * Bean implementation for aggregated GC metrics.
  */
 public final class GcAggregateSeed extends GcSeed implements GcAggregateMXBean {
-    public DoubleValueRecord getAllocationRate() { return aggregator.allocationRate.getRecord(); }
-    public DoubleValueRecord getOccupancy() { return aggregator.occupancy.getRecord(); }
-    public DoubleValueRecord getWorkload() { return aggregator.workload.getRecord(); }
-    public LongDurationRecord getPause() { return aggregator.pause.getRecord(); }
-    public LongDurationRecord getCycle() { return aggregator.cycle.getRecord(); }
+    public GcAggregateSeed() {
+        super();
+        aggregator.pause.enableWindows();
+        aggregator.allocationRate.enableWindows();
+    }
+
+    private final Snapshot.Source<DoubleValueRecord> allocationRate = snapshot.source(aggregator.allocationRate::getRecord);
+    private final Snapshot.Source<DoubleValueRecord> occupancy = snapshot.source(aggregator.occupancy::getRecord);
+    private final Snapshot.Source<DoubleValueRecord> workload = snapshot.source(aggregator.workload::getRecord);
+    private final Snapshot.Source<LongDurationRecord> pause = snapshot.source(() -> aggregator.pause.getRecord(NANOSECONDS));
+    private final Snapshot.Source<LongDurationRecord> cycle = snapshot.source(aggregator.cycle::getRecord);
+    private final Snapshot.Source<LongValueRecord> directMemory = snapshot.source(aggregator.directMemory::getValueRecord);
+    private final Snapshot.Source<DoubleValueRecord> directMemoryUsage = snapshot.source(aggregator.directMemory::getPercentageRecord);
+    private final Snapshot.Source<LongValueRecord> metaspace = snapshot.source(aggregator.metaspace::getValueRecord);
+    private final Snapshot.Source<DoubleValueRecord> metaspaceUsage = snapshot.source(aggregator.metaspace::getPercentageRecord);
+    private final Snapshot.Source<Long> droppedGcEvents = snapshot.source(aggregator::droppedEvents);
+    private final Snapshot.Source<Long> lostGcEvents = snapshot.source(aggregator::lostEvents);
+
+    // Attributes that are derived from sources shared with other attributes
+    private final int pauseMicros = snapshot.attribute();
+
+    @Override
+    protected Map<String, LongDurationRecorder> histograms() {
+        final Map<String, LongDurationRecorder> result = new LinkedHashMap<String, LongDurationRecorder>();
+        result.put("Pause", aggregator.pause);
+        result.put("Cycle", aggregator.cycle);
+        return result;
+    }
+
+    public DoubleValueRecord getAllocationRate() { return allocationRate.get(); }
+    public WindowRecord getAllocationRateWindows() { return aggregator.allocationRate.getWindowRecord(); }
+    public EwmaRecord getAllocationEwma() { return aggregator.allocationEwma.getRecord(); }
+    public DoubleValueRecord getOccupancy() { return occupancy.get(); }
+    public DoubleValueRecord getWorkload() { return workload.get(); }
+    public LongDurationRecord getPause() { return pause.get().convert(NANOSECONDS, MILLISECONDS); }
+    public LongDurationRecord getPauseMicros() { return pause.in(snapshot.serve(pauseMicros)).convert(NANOSECONDS, MICROSECONDS); }
+    public WindowRecord getPauseWindows() { return aggregator.pause.getWindowRecord(); }
+    public LongDurationRecord getCycle() { return cycle.get(); }
     public long getDirectMemoryLimit() { return aggregator.directMemory.limit(); }
-    public LongValueRecord getDirectMemory() { return aggregator.directMemory.getValueRecord(); }
-    public DoubleValueRecord getDirectMemoryUsage() { return aggregator.directMemory.getPercentageRecord(); }
-    public LongValueRecord getMetaspace() { return aggregator.metaspace.getValueRecord(); }
-    public DoubleValueRecord getMetaspaceUsage() { return aggregator.metaspace.getPercentageRecord(); }
+    public LongValueRecord getDirectMemory() { return directMemory.get(); }
+    public DoubleValueRecord getDirectMemoryUsage() { return directMemoryUsage.get(); }
+    public LongValueRecord getMetaspace() { return metaspace.get(); }
+    public DoubleValueRecord getMetaspaceUsage() { return metaspaceUsage.get(); }
+    public long getDroppedGcEvents() { return droppedGcEvents.get(); }
+    public long getLostGcEvents() { return lostGcEvents.get(); }
+    public String getPauseSource() { return GcEventHub.isPauseStreamed() ? "JFR" : "Notifications"; }
 }
@@ -15,51 +15,113 @@
  */
 package com.apple.pollianna.gc;
 
-import com.apple.pollianna.Aggregator;
+import com.apple.pollianna.EwmaRateRecorder;
+import com.apple.pollianna.LongDeltaRecorder;
 import com.apple.pollianna.LongDurationRecorder;
 import com.apple.pollianna.PercentageRecorder;
 import com.apple.pollianna.RateRecorder;
 
-import javax.management.ListenerNotFoundException;
-import javax.management.NotificationEmitter;
-import java.lang.management.GarbageCollectorMXBean;
-import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
 
 import static com.apple.pollianna.Units.*;
 
 /**
- * Aggregates GC metrics by subscribing and to listening to GC events
+ * Aggregates GC metrics by subscribing to GC events
  * from all available GarbageCollectorMXBean instances in the running JDK.
+ * All GC aggregators share one process-wide GcEventHub, which decodes each GC notification only once.
  */
-public class GcAggregator implements Aggregator {
+public class GcAggregator extends GcCounterAggregator {
 
     public GcAggregator() { }
 
-    private final GcNotificationListener listener = new GcNotificationListener();
+    /**
+     * Begin buffering GC events before any GC aggregator has started,
+     * so that the first one to start also records the collections that happened in the meantime.
+     */
+    public static void startBuffering() {
+        GcEventHub.startBuffering();
+    }
+
+    /**
+     * Stop buffering GC events if no GC aggregator has started since {@link #startBuffering()}.
+     */
+    public static void stopBuffering() {
+        GcEventHub.stopBuffering();
+    }
+
+    /**
+     * @return the number of GC events that were buffered since {@link #startBuffering()}
+     * and then recorded by the first GC aggregator to start
+     */
+    public static long bufferedEventCount() {
+        return GcEventHub.bufferedEventCount();
+    }
 
+    @Override
     public void startAggregating() {
-        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
-            final NotificationEmitter emitter = (NotificationEmitter) gcBean;
-            emitter.addNotificationListener(listener, null, this);
-        }
+        droppedEvents.record(GcEventHub.droppedEventCount());
+        lostEvents.record(GcEventHub.lostEventCount());
+        super.startAggregating();
+    }
+
+    @Override
+    void recordUnobservedPause(long durationNanos) {
+        super.recordUnobservedPause(durationNanos);
+        pause.recordUnobserved(durationNanos);
+    }
+
+    @Override
+    void recordPause(long durationNanos) {
+        super.recordPause(durationNanos);
+        pause.record(durationNanos);
     }
 
-    public void stopAggregating() {
-        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
-            final NotificationEmitter emitter = (NotificationEmitter) gcBean;
-            try {
-                emitter.removeNotificationListener(listener, null, this);
-            } catch (ListenerNotFoundException e) {
-                throw new RuntimeException(e);
+    @Override
+    void record(GcEvent event) {
+        super.record(event);
+        if (event.isCycle) {
+            cycle.record(TimeUnit.MILLISECONDS.toNanos(event.duration));
+            allocationRate.recordSampleIntervalEnd(event.startTime, event.usedBeforeGc);
+            allocationRate.recordSampleIntervalBegin(event.endTime, event.usedAfterGc);
+            if (event.isLiveSetEstablished) {
+                directMemory.record(event);
+                metaspace.record(event);
+                occupancy.record(event.occupancyUsed, event.occupancyMax);
+                workload.record(event.workloadUsed, event.workloadMax);
             }
         }
     }
 
+    @Override
+    void recordAllocated(long bytes) {
+        super.recordAllocated(bytes);
+        allocationEwma.record(bytes);
+    }
+
     public final RateRecorder allocationRate = new RateRecorder(MiB, MILLIS_PER_SECOND);
+    public final EwmaRateRecorder allocationEwma = new EwmaRateRecorder(MiB);
     public final PercentageRecorder occupancy = new PercentageRecorder();
     public final PercentageRecorder workload = new PercentageRecorder();
     public final LongDurationRecorder pause = new LongDurationRecorder();
     public final LongDurationRecorder cycle = new LongDurationRecorder();
     public final DirectMemoryRecorder directMemory = new DirectMemoryRecorder();
     public final MetaspaceRecorder metaspace = new MetaspaceRecorder();
+
+    private final LongDeltaRecorder droppedEvents = new LongDeltaRecorder();
+
+    /**
+     * @return the number of GC notifications dropped since the previous call, because the event ring was full
+     */
+    public long droppedEvents() {
+        return droppedEvents.record(GcEventHub.droppedEventCount());
+    }
+
+    private final LongDeltaRecorder lostEvents = new LongDeltaRecorder();
+
+    /**
+     * @return the number of GC notifications detected as lost since the previous call, including dropped ones
+     */
+    public long lostEvents() {
+        return lostEvents.record(GcEventHub.lostEventCount());
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.gc;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * What the GcNotificationListener needs to know about one garbage collector,
+ * resolved once from the collector's name, so that handling its notifications requires no string operations.
+ */
+final class GcCollector {
+
+    /**
+     * A GC pool, i.e. a memory pool that forms part of the Java heap and holds Java objects.
+     */
+    static final class Pool {
+        // The key of this pool in the memory usage tables of a GC notification
+        final Object[] key;
+
+        // Generational ZGC, Generational Shenandoah, and C4 report the whole heap as max size for each generation.
+        // By skipping one of the two we arrive at the correct combined max value.
+        final boolean isMaxSkipped;
+
+        final boolean isG1Eden;
+        final boolean isEden;
+
+        Pool(String name, boolean isMaxSkipped) {
+            this.key = new Object[] {name};
+            this.isMaxSkipped = isMaxSkipped;
+            this.isG1Eden = name.startsWith("G1 Eden");
+            this.isEden = name.contains("Eden");
+        }
+    }
+
+    final String name;
+
+    // Whether this collector's collections pause the application
+    final boolean isPause;
+
+    // Whether this collector's collections traverse all live objects and can thus assess the live set
+    final boolean isGlobal;
+
+    final boolean isG1;
+    final boolean isG1Young;
+
+    // Empty if the collector's memory pools are unknown, which means its collections are not counted as cycles
+    final Pool[] pools;
+
+    // Indices into `pools`, or -1 if not applicable
+    final int g1OldGenPool;
+    final int shenandoahYoungGenPool;
+    final int shenandoahOldGenPool;
+
+    // Memory usage per pool of the notification at hand, reused for every notification
+    final CompositeData[] usagesBeforeGc;
+    final CompositeData[] usagesAfterGc;
+
+    // Written by the GcEventHub's consumer thread only, about the events it has observed
+    volatile long lastId = 0;
+    volatile long observedCount = 0;
+    volatile long observedTime = 0;
+    volatile long gapCount = 0;
+
+    // Written by the GcEventHub's reconciliation only
+    long baseCount = 0;
+    long baseTime = 0;
+    long previousUnaccountedCount = 0;
+    long previousUnaccountedTime = 0;
+    long timeBias = 0;
+    long lostCount = 0;
+    long lostTime = 0;
+    long timedLostCount = 0;
+
+    /**
+     * Called by the consumer thread for each event by this collector.
+     */
+    void observe(GcEvent event) {
+        if (lastId > 0 && event.id > lastId + 1) {
+            // Notifications in between have been lost
+            gapCount += event.id - lastId - 1;
+        }
+        if (event.id > lastId) {
+            lastId = event.id;
+        }
+        observedCount++;
+        observedTime += event.duration;
+    }
+
+    private static int indexOf(Pool[] pools, String poolName) {
+        for (int i = 0; i < pools.length; i++) {
+            if (pools[i].key[0].equals(poolName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    GcCollector(String name, boolean isPause, boolean isGlobal, Pool[] pools,
+                String g1OldGenPoolName, String shenandoahYoungGenPoolName, String shenandoahOldGenPoolName) {
+        this.name = name;
+        this.isPause = isPause;
+        this.isGlobal = isGlobal;
+        this.isG1 = name.contains("G1");
+        this.isG1Young = name.equals("G1 Young Generation");
+        this.pools = pools;
+        this.g1OldGenPool = indexOf(pools, g1OldGenPoolName);
+        this.shenandoahYoungGenPool = indexOf(pools, shenandoahYoungGenPoolName);
+        this.shenandoahOldGenPool = indexOf(pools, shenandoahOldGenPoolName);
+        this.usagesBeforeGc = new CompositeData[pools.length];
+        this.usagesAfterGc = new CompositeData[pools.length];
+    }
+
+    boolean isCycle() {
+        return pools.length > 0;
+    }
+}
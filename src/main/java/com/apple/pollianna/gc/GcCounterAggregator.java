@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.gc;
+
+import com.apple.pollianna.Aggregator;
+import com.apple.pollianna.CounterRecorder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulates monotonic GC totals by subscribing to the process-wide GcEventHub.
+ * This is all the "Counter" beans need, and {@link GcAggregator} builds its polling interval aggregates on top of it.
+ */
+public class GcCounterAggregator implements Aggregator {
+
+    public GcCounterAggregator() { }
+
+    public void startAggregating() {
+        GcEventHub.subscribe(this);
+    }
+
+    public void stopAggregating() {
+        GcEventHub.unsubscribe(this);
+    }
+
+    void recordUnobservedPause(long durationNanos) {
+        pauseTime.record(durationNanos);
+    }
+
+    void recordPause(long durationNanos) {
+        pauseTime.record(durationNanos);
+        pauseCount.increment();
+    }
+
+    void record(GcEvent event) {
+        if (event.isPause && !GcEventHub.isPauseStreamed()) {
+            recordPause(TimeUnit.MILLISECONDS.toNanos(event.duration));
+        }
+        if (event.isCycle) {
+            final long cycleNanos = TimeUnit.MILLISECONDS.toNanos(event.duration);
+            cycleTime.record(cycleNanos);
+            cycleCount.increment();
+            if (usedAfterPreviousGc >= 0 && event.usedBeforeGc >= usedAfterPreviousGc) {
+                recordAllocated(event.usedBeforeGc - usedAfterPreviousGc);
+            }
+            usedAfterPreviousGc = event.usedAfterGc;
+        }
+    }
+
+    // Heap usage right after the previous GC cycle, or -1 before the first one
+    private long usedAfterPreviousGc = -1;
+
+    /**
+     * @param bytes the heap memory allocated between the previous GC cycle and the current one
+     */
+    void recordAllocated(long bytes) {
+        allocated.record(bytes);
+    }
+
+    // Monotonic totals since aggregation started
+    public final CounterRecorder pauseTime = new CounterRecorder();
+    public final CounterRecorder pauseCount = new CounterRecorder();
+    public final CounterRecorder cycleTime = new CounterRecorder();
+    public final CounterRecorder cycleCount = new CounterRecorder();
+    public final CounterRecorder allocated = new CounterRecorder();
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.gc;
+
+import java.lang.management.PlatformManagedObject;
+
+/**
+ * Bean interface for monotonic GC metric counters.
+ * Unlike aggregates, counters are never reset when read.
+ * Each counter only ever increases, starting from zero when the bean is started,
+ * so that backends can compute rates over arbitrary time ranges and no data is lost when a scrape fails.
+ */
+public interface GcCounterMXBean extends PlatformManagedObject {
+
+    /**
+     * Return the accumulated duration of all garbage collection pauses, in milliseconds.
+     * This includes the time of pauses whose notifications were lost.
+     *
+     * @return the accumulated duration of all garbage collection pauses, in milliseconds
+     */
+    long getPauseTime();
+
+    /**
+     * Return the number of observed garbage collection pauses.
+     *
+     * @return the number of observed garbage collection pauses
+     */
+    long getPauseCount();
+
+    /**
+     * Return the accumulated duration of all garbage collection cycles, in milliseconds.
+     *
+     * @return the accumulated duration of all garbage collection cycles, in milliseconds
+     */
+    long getCycleTime();
+
+    /**
+     * Return the number of observed garbage collection cycles.
+     *
+     * @return the number of observed garbage collection cycles
+     */
+    long getCycleCount();
+
+    /**
+     * Return the amount of heap memory allocated between observed garbage collection cycles, in MiB.
+     * Allocation is accounted from the first observed cycle onward.
+     *
+     * @return the amount of heap memory allocated between observed garbage collection cycles, in MiB
+     */
+    long getAllocated();
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.gc;
+
+import com.apple.pollianna.Aggregator;
+import com.apple.pollianna.Seed;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.apple.pollianna.Units.MiB;
+
+/**
+ * Bean implementation for monotonic GC metric counters.
+ * These only need totals, so they are backed by a counter aggregator instead of a full GC aggregator.
+ */
+public final class GcCounterSeed extends Seed implements GcCounterMXBean {
+    public GcCounterSeed() { super(); }
+
+    private final GcCounterAggregator aggregator = new GcCounterAggregator();
+
+    @Override
+    protected List<Aggregator> aggregators() {
+        return Arrays.asList(aggregator);
+    }
+
+    @Override
+    protected boolean isCumulative() { return true; }
+
+    public long getPauseTime() { return TimeUnit.NANOSECONDS.toMillis(aggregator.pauseTime.total()); }
+    public long getPauseCount() { return aggregator.pauseCount.total(); }
+    public long getCycleTime() { return TimeUnit.NANOSECONDS.toMillis(aggregator.cycleTime.total()); }
+    public long getCycleCount() { return aggregator.cycleCount.total(); }
+    public long getAllocated() { return aggregator.allocated.total() / MiB; }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.gc;
+
+/**
+ * The essentials of one garbage collection notification, decoded once and shared by all GC aggregators.
+ * Instances are the preallocated slots of the GcEventRing.
+ * Once an event has been dispatched, the ring releases its slot to be claimed and filled in for a later notification,
+ * so subscribers must not retain it.
+ */
+final class GcEvent {
+
+    GcEvent() { }
+
+    // The collector that performed the collection
+    GcCollector collector;
+
+    // The number of collections by the collector so far, including this one
+    long id;
+
+    // Whether the collection paused the application
+    boolean isPause;
+
+    // Whether the collection has been performed by a collector whose memory pools we know
+    boolean isCycle;
+
+    // Whether the collection has established a live set, so that heap occupancy and workload are meaningful
+    boolean isLiveSetEstablished;
+
+    // All times in milliseconds, start and end times relative to JVM start
+    long duration;
+    long startTime;
+    long endTime;
+
+    // Bytes used in all memory pools of the collector combined
+    long usedBeforeGc;
+    long usedAfterGc;
+
+    // Bytes used and available in the pools that count towards heap occupancy
+    long occupancyUsed;
+    long occupancyMax;
+
+    // Bytes used and available in the pools that count towards heap workload
+    long workloadUsed;
+    long workloadMax;
+
+    // Sampled after collections that established a live set, -1 if unavailable
+    long directMemoryUsed;
+    long metaspaceUsed;
+    long metaspaceLimit;
+
+    // The time spent handling the notification on the JDK's notification thread, in nanoseconds
+    long handlingNanos;
+}
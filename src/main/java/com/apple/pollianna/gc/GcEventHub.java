@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.gc;
+
+import com.apple.pollianna.LongDurationRecorder;
+import com.apple.pollianna.Overhead;
+import com.apple.pollianna.PeriodicAggregator;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Subscribes to GC notifications from all available GarbageCollectorMXBean instances once per process,
+ * regardless of how many GC aggregators are active.
+ * Each notification is decoded once and then handed to all subscribed aggregators.
+ * <p>
+ * The notification listener only decodes notifications into a lock-free ring.
+ * A dedicated daemon thread drains the ring in batches into the aggregators' recorders,
+ * so that recorder locks held by readers never delay the JDK's notification delivery.
+ * <p>
+ * GC notifications are best-effort. The JDK may drop them, and so may the ring when it overflows.
+ * Lost notifications are detected by gaps in their per-collector ids and, periodically,
+ * by reconciling the observed events with each collector's cumulative collection count and time.
+ * The pause time of lost collections is folded into the subscribers' pause portion estimates.
+ * <p>
+ * Where JFR event streaming is available and enabled, GC pauses are taken from a GcPauseStream
+ * instead of notifications, with nanosecond instead of millisecond precision.
+ * All other GC metrics still stem from notifications.
+ */
+final class GcEventHub {
+
+    private GcEventHub() { }
+
+    private static final GcNotificationListener listener = new GcNotificationListener();
+
+    /**
+     * @return the one listener that decodes GC notifications into the ring,
+     * which is also the only one that may do so, because the ring has a single producer
+     */
+    static GcNotificationListener listener() {
+        return listener;
+    }
+
+    private static final int RING_CAPACITY = 1024;
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final long IDLE_PARK_NANOS = 1_000_000_000L;
+
+    static final GcEventRing ring = new GcEventRing(RING_CAPACITY);
+
+    private static volatile Thread consumer = null;
+
+    private static void consume() {
+        final Thread self = Thread.currentThread();
+        Overhead.registerThread(self);
+        try {
+            while (consumer == self) {
+                if (ring.drain(GcEventHub::dispatch, MAX_BATCH_SIZE) == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } finally {
+            // While the thread can still be sampled
+            Overhead.unregisterThread(self);
+        }
+    }
+
+    private static void startConsumer() {
+        if (consumer == null) {
+            final Thread thread = new Thread(GcEventHub::consume, "Pollianna GC Events");
+            thread.setDaemon(true);
+            // The thread runs only as long as it is the current consumer
+            consumer = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Let the consumer thread end and wait for it, then drain what is left in the ring on the calling thread.
+     * Must only be called after notifications have stopped arriving.
+     */
+    private static void stopConsumer() {
+        final Thread thread = consumer;
+        if (thread == null) {
+            return;
+        }
+        consumer = null;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        while (ring.drain(GcEventHub::dispatch, MAX_BATCH_SIZE) > 0) {
+            // There are no subscribers, so this only updates the collectors' observations
+        }
+    }
+
+    /**
+     * @return the thread that drains the ring while there are subscribers, or `null`
+     */
+    static Thread consumer() {
+        return consumer;
+    }
+
+    private static volatile GcPauseStream pauseStream = null;
+
+    /**
+     * @return whether GC pauses are currently streamed from JFR, and thus not to be recorded from notifications
+     */
+    static boolean isPauseStreamed() {
+        return pauseStream != null;
+    }
+
+    private static void startPauseStream() {
+        pauseStream = GcPauseStream.start(GcEventHub::dispatchPause, GcEventHub::stopPauseStream);
+    }
+
+    private static void stopPauseStream() {
+        final GcPauseStream stream = pauseStream;
+        pauseStream = null;
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private static volatile GcCounterAggregator[] subscribers = new GcCounterAggregator[0];
+
+    private static final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private static final AtomicLong lostEventCount = new AtomicLong();
+
+    private static final PeriodicAggregator reconciler = new PeriodicAggregator() {
+        @Override
+        protected Runnable runnable() {
+            return GcEventHub::reconcile;
+        }
+
+        @Override
+        protected LongDurationRecorder tickRecorder() {
+            return Overhead.gcReconcileTick;
+        }
+
+        // Reconciliation keeps pause and cycle totals correct, so it must not be degraded
+        @Override
+        protected boolean isDegradable() {
+            return false;
+        }
+    };
+
+    private static void addNotificationListener() {
+        for (GarbageCollectorMXBean gcBean : gcBeans) {
+            final GcCollector collector = listener.collector(gcBean.getName());
+            synchronized (collector) {
+                collector.baseCount = gcBean.getCollectionCount() - collector.observedCount;
+                collector.baseTime = gcBean.getCollectionTime() - collector.observedTime;
+                collector.previousUnaccountedCount = collector.lostCount;
+                collector.previousUnaccountedTime = collector.lostTime + collector.timeBias;
+                collector.lastId = 0;
+            }
+            final NotificationEmitter emitter = (NotificationEmitter) gcBean;
+            emitter.addNotificationListener(listener, null, collector);
+        }
+    }
+
+    private static void removeNotificationListener() {
+        for (GarbageCollectorMXBean gcBean : gcBeans) {
+            final NotificationEmitter emitter = (NotificationEmitter) gcBean;
+            try {
+                emitter.removeNotificationListener(listener, null, listener.collector(gcBean.getName()));
+            } catch (ListenerNotFoundException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static void addListener() {
+        startPauseStream();
+        addNotificationListener();
+        reconciler.startAggregating();
+    }
+
+    private static void removeListener() {
+        reconciler.stopAggregating();
+        stopPauseStream();
+        removeNotificationListener();
+    }
+
+    // Whether notifications are received into the ring before there are any subscribers
+    private static boolean isBuffering = false;
+
+    // Events that were buffered before the first subscription and then handed to the first subscriber
+    private static long bufferedEventCount = 0;
+
+    /**
+     * Begin receiving GC notifications into the ring before there are any subscribers,
+     * so that the first subscriber also gets the events of collections that happened in the meantime.
+     * This only takes effect while nothing is subscribed,
+     * and up to the capacity of the ring, beyond which events are dropped.
+     * JFR pause streaming is deferred until the first subscription, so buffered pauses stem from notifications.
+     */
+    static synchronized void startBuffering() {
+        if (isBuffering || consumer != null) {
+            return;
+        }
+        addNotificationListener();
+        isBuffering = true;
+    }
+
+    /**
+     * Stop receiving GC notifications if nothing has subscribed since {@link #startBuffering()}
+     * and discard any buffered events.
+     */
+    static synchronized void stopBuffering() {
+        if (!isBuffering) {
+            return;
+        }
+        isBuffering = false;
+        removeNotificationListener();
+        while (ring.drain(GcEventHub::dispatch, MAX_BATCH_SIZE) > 0) {
+            // There are no subscribers, so this only updates the collectors' observations
+        }
+    }
+
+    static synchronized void subscribe(GcCounterAggregator aggregator) {
+        for (GcCounterAggregator subscriber : subscribers) {
+            if (subscriber == aggregator) {
+                return;
+            }
+        }
+        final GcCounterAggregator[] result = new GcCounterAggregator[subscribers.length + 1];
+        System.arraycopy(subscribers, 0, result, 0, subscribers.length);
+        result[subscribers.length] = aggregator;
+        if (subscribers.length == 0 && isBuffering) {
+            isBuffering = false;
+            subscribers = result;
+            // Nothing else drains the ring yet, and pauses must be taken from the buffered events before streaming
+            int n;
+            while ((n = ring.drain(GcEventHub::dispatch, MAX_BATCH_SIZE)) > 0) {
+                bufferedEventCount += n;
+            }
+            startConsumer();
+            startPauseStream();
+            reconciler.startAggregating();
+            return;
+        }
+        if (subscribers.length == 0) {
+            startConsumer();
+            addListener();
+        }
+        subscribers = result;
+    }
+
+    static synchronized void unsubscribe(GcCounterAggregator aggregator) {
+        int n = 0;
+        final GcCounterAggregator[] result = new GcCounterAggregator[subscribers.length];
+        for (GcCounterAggregator subscriber : subscribers) {
+            if (subscriber != aggregator) {
+                result[n++] = subscriber;
+            }
+        }
+        if (n == subscribers.length) {
+            return;
+        }
+        subscribers = Arrays.copyOf(result, n);
+        if (n == 0) {
+            removeListener();
+            stopConsumer();
+        }
+    }
+
+    /**
+     * Called by the listener, one notification at a time, after it has filled a slot claimed from the ring.
+     */
+    static void publish() {
+        ring.publish();
+        final Thread thread = consumer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private static void dispatch(GcEvent event) {
+        Overhead.gcNotification.record(event.handlingNanos);
+        event.collector.observe(event);
+        for (GcCounterAggregator subscriber : subscribers) {
+            subscriber.record(event);
+        }
+    }
+
+    /**
+     * Called on the GcPauseStream's thread for each GC pause.
+     */
+    private static void dispatchPause(long durationNanos) {
+        for (GcCounterAggregator subscriber : subscribers) {
+            subscriber.recordPause(durationNanos);
+        }
+    }
+
+    /**
+     * Compare the events observed for each collector with the collector's own cumulative counters.
+     * Collections that the counters account for, but that have neither been observed
+     * during the current nor the previous period, are considered lost.
+     * Detected id gaps are considered lost immediately.
+     */
+    static synchronized void reconcile() {
+        for (GarbageCollectorMXBean gcBean : gcBeans) {
+            final GcCollector collector = listener.collector(gcBean.getName());
+            final long count = gcBean.getCollectionCount();
+            final long time = gcBean.getCollectionTime();
+            if (count < 0 || time < 0) {
+                continue; // Not supported by this collector
+            }
+            long lostTimeDelta = 0;
+            synchronized (collector) {
+                final long unaccountedCount = count - collector.baseCount - collector.observedCount;
+                final long unaccountedTime = time - collector.baseTime - collector.observedTime;
+                final long persistentCount = Math.min(unaccountedCount, collector.previousUnaccountedCount);
+                final long lostCount = Math.max(Math.max(persistentCount, collector.gapCount), collector.lostCount);
+                if (lostCount > collector.lostCount) {
+                    lostEventCount.addAndGet(lostCount - collector.lostCount);
+                    collector.lostCount = lostCount;
+                }
+                if (persistentCount > collector.timedLostCount) {
+                    // The counters now account for the time of more lost collections
+                    final long persistentTime = Math.min(unaccountedTime, collector.previousUnaccountedTime);
+                    lostTimeDelta = Math.max(0, persistentTime - collector.timeBias - collector.lostTime);
+                    collector.lostTime += lostTimeDelta;
+                    collector.timedLostCount = persistentCount;
+                } else if (unaccountedCount == collector.lostCount && collector.timedLostCount == collector.lostCount) {
+                    // Nothing pending, so any remaining time difference stems from rounding
+                    collector.timeBias = unaccountedTime - collector.lostTime;
+                }
+                collector.previousUnaccountedCount = unaccountedCount;
+                collector.previousUnaccountedTime = unaccountedTime;
+            }
+            if (lostTimeDelta > 0 && collector.isPause && !isPauseStreamed()) {
+                for (GcCounterAggregator subscriber : subscribers) {
+                    subscriber.recordUnobservedPause(TimeUnit.MILLISECONDS.toNanos(lostTimeDelta));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of GC notifications detected as lost so far, including those dropped by the event ring
+     */
+    static long lostEventCount() {
+        return lostEventCount.get();
+    }
+
+    /**
+     * @return the number of GC events that were buffered before the first subscription and handed to it
+     */
+    static synchronized long bufferedEventCount() {
+        return bufferedEventCount;
+    }
+
+    /**
+     * @return the number of GC notifications dropped so far because the event ring was full
+     */
+    static long droppedEventCount() {
+        return ring.overflowCount();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.gc;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A bounded, lock-free single-producer single-consumer ring of preallocated GC events.
+ * <p>
+ * The producer claims the next free slot, fills it in place, and then publishes it.
+ * When all slots are occupied, the event is dropped and counted as overflow instead of blocking the producer.
+ * The consumer drains published slots in batches.
+ */
+final class GcEventRing {
+
+    private final GcEvent[] slots;
+    private final int mask;
+
+    // The sequence number of the next slot to be consumed, only advanced by the consumer
+    private final AtomicLong head = new AtomicLong();
+
+    // The sequence number of the next slot to be produced, only advanced by the producer
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong overflowCount = new AtomicLong();
+
+    /**
+     * @param capacity the number of slots, rounded up to a power of two
+     */
+    GcEventRing(int capacity) {
+        final int n = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        slots = new GcEvent[n];
+        for (int i = 0; i < n; i++) {
+            slots[i] = new GcEvent();
+        }
+        mask = n - 1;
+    }
+
+    /**
+     * Producer only.
+     *
+     * @return the next free slot to be filled and then published, or `null` if the ring is full
+     */
+    GcEvent claim() {
+        final long t = tail.get();
+        if (t - head.get() >= slots.length) {
+            overflowCount.incrementAndGet();
+            return null;
+        }
+        return slots[(int) t & mask];
+    }
+
+    /**
+     * Producer only: make the most recently claimed slot available to the consumer.
+     */
+    void publish() {
+        tail.lazySet(tail.get() + 1);
+    }
+
+    /**
+     * Consumer only: hand published events to the given consumer in order and release their slots.
+     *
+     * @param consumer handles one event at a time and must not retain it
+     * @param maxBatchSize the maximum number of events to drain at once
+     * @return the number of drained events
+     */
+    int drain(Consumer<GcEvent> consumer, int maxBatchSize) {
+        final long h = head.get();
+        final int n = (int) Math.min(tail.get() - h, maxBatchSize);
+        for (int i = 0; i < n; i++) {
+            consumer.accept(slots[(int) (h + i) & mask]);
+        }
+        head.lazySet(h + n);
+        return n;
+    }
+
+    /**
+     * @return the number of events dropped so far because the ring was full
+     */
+    long overflowCount() {
+        return overflowCount.get();
+    }
+}
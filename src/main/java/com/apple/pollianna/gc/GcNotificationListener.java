@@ -15,15 +15,12 @@
  */
 package com.apple.pollianna.gc;
 
-import com.apple.pollianna.PercentageRecorder;
-import com.apple.pollianna.RateRecorder;
 import com.sun.management.GarbageCollectionNotificationInfo;
-import com.sun.management.GcInfo;
 
 import javax.management.Notification;
 import javax.management.NotificationListener;
 import javax.management.openmbean.CompositeData;
-import java.lang.management.MemoryUsage;
+import javax.management.openmbean.TabularData;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -31,15 +28,20 @@ import java.util.Map;
 import java.util.Set;
 
 /**
- * Gathers GarbageCollectorRecorder input from garbage collection notifications by a GarbageCollectorMXBean.
+ * Decodes garbage collection notifications by a GarbageCollectorMXBean into a reusable GcEvent
+ * and publishes it to all GC aggregators via the GcEventHub.
+ *
+ * Each collector is resolved once into a GcCollector that is passed back with each of its notifications.
+ * Thus, handling a notification requires neither name lookups nor a fully materialized `GcInfo`.
+ * Only the needed fields are read straight from the notification's `CompositeData`.
  */
 final class GcNotificationListener implements NotificationListener {
 
     // A GC pool is a memory pool that forms part of the Java heap and holds Java objects.
-    private final Map<String, Set<String>> gcNameToPools = new HashMap<String, Set<String>>();
+    private final Map<String, String[]> gcNameToPools = new HashMap<String, String[]>();
 
     private void registerGcPools(String gcName, String... pools) {
-        gcNameToPools.put(gcName, new HashSet<String>(Arrays.asList(pools)));
+        gcNameToPools.put(gcName, pools);
     }
 
     // A "global" GC traverses all live objects and can thus assess the live set.
@@ -110,47 +112,83 @@ final class GcNotificationListener implements NotificationListener {
             "ZGC Minor Pauses",                         // -XX:+UseZGC -XX:+ZGenerational, in JDK 21 or later
             "ZGC Major Pauses"));                       // -XX:+UseZGC -XX:+ZGenerational, in JDK 21 or later
 
-    private void recordAllocationRate(RateRecorder recorder, String gcName, GcInfo gcInfo) {
-        final Set<String> usagePools = gcNameToPools.get(gcName);
-        long usedBytesBeforeGc = 0;
-        for (String pool : usagePools) {
-            final MemoryUsage usage = gcInfo.getMemoryUsageBeforeGc().get(pool);
-            if (usage != null) {
-                usedBytesBeforeGc += usage.getUsed();
+    private final Map<String, GcCollector> collectors = new HashMap<String, GcCollector>();
+
+    private static boolean isMaxSkipped(String pool) {
+        return pool.equals(ZGC_YOUNG_GEN_POOL) ||
+               pool.equals(SHENANDOAH_YOUNG_GEN_POOL) ||
+               pool.equals(C4_YOUNG_GEN_POOL);
+    }
+
+    /**
+     * @param gcName the name of a GarbageCollectorMXBean
+     * @return the strategy for handling notifications by the named collector, the same instance for the same name
+     */
+    synchronized GcCollector collector(String gcName) {
+        GcCollector result = collectors.get(gcName);
+        if (result == null) {
+            final String[] poolNames = gcNameToPools.getOrDefault(gcName, new String[0]);
+            final GcCollector.Pool[] pools = new GcCollector.Pool[poolNames.length];
+            for (int i = 0; i < pools.length; i++) {
+                pools[i] = new GcCollector.Pool(poolNames[i], isMaxSkipped(poolNames[i]));
             }
+            result = new GcCollector(gcName, pauseGcNames.contains(gcName), globalGcNames.contains(gcName), pools,
+                G1_OLD_GEN_POOL, SHENANDOAH_YOUNG_GEN_POOL, SHENANDOAH_OLD_GEN_POOL);
+            collectors.put(gcName, result);
+        }
+        return result;
+    }
+
+    // Item names in `GcInfo` and `MemoryUsage` composite data
+    private static final String GC_INFO = "gcInfo";
+    private static final String ID = "id";
+    private static final String START_TIME = "startTime";
+    private static final String END_TIME = "endTime";
+    private static final String DURATION = "duration";
+    private static final String MEMORY_USAGE_BEFORE_GC = "memoryUsageBeforeGc";
+    private static final String MEMORY_USAGE_AFTER_GC = "memoryUsageAfterGc";
+    private static final String VALUE = "value";
+    private static final String USED = "used";
+    private static final String COMMITTED = "committed";
+    private static final String MAX = "max";
+
+    private static long getLong(CompositeData data, String key) {
+        return (Long) data.get(key);
+    }
+
+    private static void lookUpUsages(TabularData table, GcCollector.Pool[] pools, CompositeData[] usages) {
+        for (int i = 0; i < pools.length; i++) {
+            final CompositeData row = table.get(pools[i].key);
+            usages[i] = row == null ? null : (CompositeData) row.get(VALUE);
         }
-        long usedBytesAfterGc = 0;
-        for (String pool : usagePools) {
-            final MemoryUsage usage = gcInfo.getMemoryUsageAfterGc().get(pool);
+    }
+
+    private static long sumUsed(CompositeData[] usages) {
+        long result = 0;
+        for (CompositeData usage : usages) {
             if (usage != null) {
-                usedBytesAfterGc += usage.getUsed();
+                result += getLong(usage, USED);
             }
         }
-        recorder.recordSampleIntervalEnd(gcInfo.getStartTime(), usedBytesBeforeGc);
-        recorder.recordSampleIntervalBegin(gcInfo.getEndTime(), usedBytesAfterGc);
+        return result;
     }
 
     // Occupancy: usage/max percentage in all usage pools combined,
     // after a collection that has established a live set.
-    private void recordOccupancy(PercentageRecorder occupancyRecorder, String gcName, GcInfo gcInfo) {
+    private void decodeOccupancy(GcCollector collector, GcEvent event) {
         long usedOccupancyBytes = 0;
         long maxOccupancyBytes = 0;
-        for (String pool : gcNameToPools.get(gcName)) {
-            final MemoryUsage usage = gcInfo.getMemoryUsageAfterGc().get(pool);
+        for (int i = 0; i < collector.pools.length; i++) {
+            final CompositeData usage = collector.usagesAfterGc[i];
             if (usage != null) {
-                usedOccupancyBytes += usage.getUsed();
-                if (pool.equals(ZGC_YOUNG_GEN_POOL) ||
-                    pool.equals(SHENANDOAH_YOUNG_GEN_POOL) ||
-                    pool.equals(C4_YOUNG_GEN_POOL)) {
-                    // Generational ZGC, Generational Shenandoah, and C4
-                    // report the whole heap as max size for each generation.
-                    // By skipping one of the two we arrive at the correct combined max value.
-                } else {
-                    maxOccupancyBytes += usage.getMax();
+                usedOccupancyBytes += getLong(usage, USED);
+                if (!collector.pools[i].isMaxSkipped) {
+                    maxOccupancyBytes += getLong(usage, MAX);
                 }
             }
         }
-        occupancyRecorder.record(usedOccupancyBytes, maxOccupancyBytes);
+        event.occupancyUsed = usedOccupancyBytes;
+        event.occupancyMax = maxOccupancyBytes;
     }
 
     // We assume that the young gen has a fixed minimum size
@@ -179,71 +217,74 @@ final class GcNotificationListener implements NotificationListener {
     // Then we report occupancy as workload.
     //
     // Workload pools happen to be the same that serve as live set indicator pools,
-    // so we can refer to `gcNameToLiveSetPools` below to account for workload pools.
-    private void recordWorkload(PercentageRecorder workloadRecorder, String gcName, GcInfo gcInfo) {
+    // so we can refer to the collector's pools below to account for workload pools.
+    private void decodeWorkload(GcCollector collector, GcEvent event) {
         long usedWorkloadBytes = 0;
         long maxWorkloadBytes = 0;
-        for (String pool : gcNameToPools.get(gcName)) {
-            final MemoryUsage usage = gcInfo.getMemoryUsageAfterGc().get(pool);
+        for (int i = 0; i < collector.pools.length; i++) {
+            final CompositeData usage = collector.usagesAfterGc[i];
             if (usage != null) {
-                if (pool.startsWith("G1 Eden")) {
+                final GcCollector.Pool pool = collector.pools[i];
+                if (pool.isG1Eden) {
                     if (isMinYoungGenSizeFixed) {
                         // We have to work around OpenJDK bug https://bugs.openjdk.org/browse/JDK-8202793:
                         // survivor and Eden space sizes are unknown. They are always reported as `-1`.
                         // AND both are already included in "old gen size".
                         // Eden space size is available as the amount of dedicated committed memory,
                         // because all of Eden gets to be used before every young collection.
-                        maxWorkloadBytes -= getMinYoungGenSize(usage.getCommitted());
+                        maxWorkloadBytes -= getMinYoungGenSize(getLong(usage, COMMITTED));
                     }
                 } else {
-                    usedWorkloadBytes += usage.getUsed();
-                    if (pool.equals(ZGC_YOUNG_GEN_POOL) ||
-                        pool.equals(SHENANDOAH_YOUNG_GEN_POOL) ||
-                        pool.equals(C4_YOUNG_GEN_POOL)) {
-                        // Generational ZGC, Generational Shenandoah, and C4
-                        // report the whole heap as max size for each generation.
-                        // By skipping one of the two we arrive at the correct combined max value.
-                    } else {
-                        maxWorkloadBytes += usage.getMax();
-                        if (pool.contains("Eden")) {
+                    usedWorkloadBytes += getLong(usage, USED);
+                    if (!pool.isMaxSkipped) {
+                        final long max = getLong(usage, MAX);
+                        maxWorkloadBytes += max;
+                        if (pool.isEden) {
                             if (isMinYoungGenSizeFixed) {
-                                maxWorkloadBytes -= getMinYoungGenSize(usage.getMax());
+                                maxWorkloadBytes -= getMinYoungGenSize(max);
                             }
                         }
                     }
                 }
             }
         }
-        workloadRecorder.record(usedWorkloadBytes, maxWorkloadBytes);
+        event.workloadUsed = usedWorkloadBytes;
+        event.workloadMax = maxWorkloadBytes;
     }
 
     boolean isG1OldGenAfterGcUsageLower = false;
     private long previousG1OldGenAfterGcUsage = 0;
 
-    private boolean hasG1OldGenBeenCollected(GcInfo gcInfo) {
-        final Map<String, MemoryUsage> afterGc = gcInfo.getMemoryUsageAfterGc();
-        return afterGc.keySet().contains(G1_OLD_GEN_POOL) && (isG1OldGenAfterGcUsageLower ||
-            afterGc.get(G1_OLD_GEN_POOL).getUsed() < gcInfo.getMemoryUsageBeforeGc().get(G1_OLD_GEN_POOL).getUsed());
+    private boolean hasG1OldGenBeenCollected(GcCollector collector) {
+        final int i = collector.g1OldGenPool;
+        if (i < 0 || collector.usagesAfterGc[i] == null) {
+            return false;
+        }
+        if (isG1OldGenAfterGcUsageLower) {
+            return true;
+        }
+        return collector.usagesBeforeGc[i] != null &&
+            getLong(collector.usagesAfterGc[i], USED) < getLong(collector.usagesBeforeGc[i], USED);
     }
 
-    private boolean isShenandoahYoungCollection(GcInfo gcInfo) {
-        final Map<String, MemoryUsage> afterGc = gcInfo.getMemoryUsageAfterGc();
-        if (!afterGc.containsKey(SHENANDOAH_YOUNG_GEN_POOL)) {
+    private boolean isShenandoahYoungCollection(GcCollector collector) {
+        if (collector.shenandoahYoungGenPool < 0 || collector.usagesAfterGc[collector.shenandoahYoungGenPool] == null) {
             // This must be single-generational Shenandoah
             return false;
         }
-        final MemoryUsage afterGcUsage = afterGc.get(SHENANDOAH_OLD_GEN_POOL);
+        final int i = collector.shenandoahOldGenPool;
+        final CompositeData afterGcUsage = collector.usagesAfterGc[i];
         if (afterGcUsage == null) {
             // Should not happen, but we checked anyway, for null safety below
             return true;
         }
-        final MemoryUsage beforeGcUsage = gcInfo.getMemoryUsageBeforeGc().get(SHENANDOAH_OLD_GEN_POOL);
+        final CompositeData beforeGcUsage = collector.usagesBeforeGc[i];
         if (beforeGcUsage == null) {
             // Should not happen, but we checked anyway, for null safety below
             return true;
         }
         // True if old gen has not been collected
-        return beforeGcUsage.getUsed() <= afterGcUsage.getUsed();
+        return getLong(beforeGcUsage, USED) <= getLong(afterGcUsage, USED);
     }
 
     @Override
@@ -251,36 +292,54 @@ final class GcNotificationListener implements NotificationListener {
         if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
             return;
         }
+        handle(notification, (GcCollector) handBack, System.nanoTime());
+    }
 
-        final CompositeData compositeData = (CompositeData) notification.getUserData();
-        final GarbageCollectionNotificationInfo notificationInfo = GarbageCollectionNotificationInfo.from(compositeData);
-        final String gcName = notificationInfo.getGcName();
-        final GcInfo gcInfo = notificationInfo.getGcInfo();
-        final GcAggregator aggregator = (GcAggregator) handBack;
-
-        if (pauseGcNames.contains(gcName)) {
-            aggregator.pause.record(gcInfo.getDuration());
+    private void handle(Notification notification, GcCollector collector, long startNanos) {
+        final GcEvent event = GcEventHub.ring.claim();
+        if (event == null) {
+            // The ring is full, so the event is dropped and counted
+            return;
         }
-        if (gcNameToPools.containsKey(gcName)) {
-            aggregator.cycle.record(gcInfo.getDuration());
-            recordAllocationRate(aggregator.allocationRate, gcName, gcInfo);
-            if (gcName.contains("G1")) {
-                final MemoryUsage usage = gcInfo.getMemoryUsageAfterGc().get(G1_OLD_GEN_POOL);
+        final CompositeData gcInfo = (CompositeData) ((CompositeData) notification.getUserData()).get(GC_INFO);
+
+        event.collector = collector;
+        event.id = getLong(gcInfo, ID);
+        event.isPause = collector.isPause;
+        event.isCycle = collector.isCycle();
+        event.isLiveSetEstablished = false;
+        event.duration = getLong(gcInfo, DURATION);
+
+        if (event.isCycle) {
+            lookUpUsages((TabularData) gcInfo.get(MEMORY_USAGE_BEFORE_GC), collector.pools, collector.usagesBeforeGc);
+            lookUpUsages((TabularData) gcInfo.get(MEMORY_USAGE_AFTER_GC), collector.pools, collector.usagesAfterGc);
+            event.startTime = getLong(gcInfo, START_TIME);
+            event.endTime = getLong(gcInfo, END_TIME);
+            event.usedBeforeGc = sumUsed(collector.usagesBeforeGc);
+            event.usedAfterGc = sumUsed(collector.usagesAfterGc);
+
+            if (collector.isG1 && collector.g1OldGenPool >= 0) {
+                final CompositeData usage = collector.usagesAfterGc[collector.g1OldGenPool];
                 if (usage != null) {
-                    isG1OldGenAfterGcUsageLower = usage.getUsed() < previousG1OldGenAfterGcUsage;
-                    previousG1OldGenAfterGcUsage = usage.getUsed();
+                    final long used = getLong(usage, USED);
+                    isG1OldGenAfterGcUsageLower = used < previousG1OldGenAfterGcUsage;
+                    previousG1OldGenAfterGcUsage = used;
                 }
             }
-            if (globalGcNames.contains(gcName)) {
-                if (!gcName.equals("G1 Young Generation") || hasG1OldGenBeenCollected(gcInfo)) {
-                    if (!isShenandoahYoungCollection(gcInfo)) {
-                        aggregator.directMemory.record();
-                        aggregator.metaspace.record();
-                        recordOccupancy(aggregator.occupancy, gcName, gcInfo);
-                        recordWorkload(aggregator.workload, gcName, gcInfo);
+            if (collector.isGlobal) {
+                if (!collector.isG1Young || hasG1OldGenBeenCollected(collector)) {
+                    if (!isShenandoahYoungCollection(collector)) {
+                        event.isLiveSetEstablished = true;
+                        DirectMemoryRecorder.sample(event);
+                        MetaspaceRecorder.sample(event);
+                        decodeOccupancy(collector, event);
+                        decodeWorkload(collector, event);
                     }
                 }
             }
         }
+        // Recorded by the hub's consumer, so that readers of the recorder cannot delay notification delivery
+        event.handlingNanos = System.nanoTime() - startNanos;
+        GcEventHub.publish();
     }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.gc;
+
+import com.apple.pollianna.Overhead;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Streams the durations of individual GC pauses from JFR "jdk.GCPhasePause" events with nanosecond precision.
+ * <p>
+ * GC notifications report durations in whole milliseconds,
+ * which rounds almost every pause of collectors such as ZGC and Shenandoah down to zero.
+ * JFR event streaming requires JDK 14 or later and is thus accessed reflectively.
+ * Where it is unavailable, not enabled, or fails, GC pauses are taken from GC notifications instead.
+ * <p>
+ * Streaming is opt-in: set the system property "pollianna.gc.jfr" to "true" to enable it.
+ * It adds a JFR recording with its own thread and disk repository,
+ * and it changes the meaning of pause counts and portions,
+ * because JFR also reports pauses for which there is no GC notification, such as G1 remark and cleanup pauses.
+ */
+final class GcPauseStream {
+
+    private static final String PAUSE_EVENT_NAME = "jdk.GCPhasePause";
+    private static final String ENABLED_PROPERTY = "pollianna.gc.jfr";
+
+    private final LongConsumer consumer;
+    private final Runnable onFailure;
+    private final MethodHandle getDuration;
+    private final Object stream;
+
+    private GcPauseStream(LongConsumer consumer, Runnable onFailure) throws Throwable {
+        this.consumer = consumer;
+        this.onFailure = onFailure;
+
+        final ClassLoader loader = ClassLoader.getSystemClassLoader();
+        final Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream", true, loader);
+        final Class<?> settingsClass = Class.forName("jdk.jfr.EventSettings", true, loader);
+        final Class<?> eventClass = Class.forName("jdk.jfr.consumer.RecordedEvent", true, loader);
+        getDuration = MethodHandles.publicLookup()
+            .findVirtual(eventClass, "getDuration", MethodType.methodType(Duration.class))
+            .asType(MethodType.methodType(Duration.class, Object.class));
+
+        stream = streamClass.getConstructor().newInstance();
+        try {
+            final Object settings = streamClass.getMethod("enable", String.class).invoke(stream, PAUSE_EVENT_NAME);
+            settingsClass.getMethod("withoutThreshold").invoke(settings);
+            streamClass.getMethod("setReuse", boolean.class).invoke(stream, true);
+            streamClass.getMethod("setOrdered", boolean.class).invoke(stream, false);
+            final Consumer<Object> onEvent = this::onEvent;
+            streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(stream, PAUSE_EVENT_NAME, onEvent);
+            final Consumer<Throwable> onError = e -> fail();
+            streamClass.getMethod("onError", Consumer.class).invoke(stream, onError);
+            // The stream's thread inherits the daemon status of the thread that starts it.
+            // Starting it from a daemon thread of our own thus keeps it from preventing the JVM from exiting.
+            final Method startAsync = streamClass.getMethod("startAsync");
+            final Throwable[] failure = new Throwable[1];
+            final Thread starter = new Thread(() -> {
+                try {
+                    startAsync.invoke(stream);
+                } catch (Throwable e) {
+                    failure[0] = e;
+                }
+            }, "Pollianna GC Pauses");
+            starter.setDaemon(true);
+            starter.start();
+            starter.join();
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    private volatile boolean isFailed = false;
+
+    private void fail() {
+        if (!isFailed) {
+            isFailed = true;
+            onFailure.run();
+        }
+    }
+
+    // Only accessed on the stream's own thread, which is created by JFR
+    private boolean isThreadRegistered = false;
+
+    private void onEvent(Object event) {
+        if (!isThreadRegistered) {
+            Overhead.registerThread(Thread.currentThread());
+            isThreadRegistered = true;
+        }
+        try {
+            final Duration duration = (Duration) getDuration.invokeExact(event);
+            consumer.accept(duration.toNanos());
+        } catch (Throwable e) {
+            fail();
+        }
+    }
+
+    /**
+     * Start streaming GC pauses, if possible.
+     *
+     * @param consumer receives the duration of each GC pause in nanoseconds, on the stream's own thread
+     * @param onFailure called at most once if the stream fails after it has been started
+     * @return a running stream, or `null` if JFR event streaming is unavailable or not enabled
+     */
+    static GcPauseStream start(LongConsumer consumer, Runnable onFailure) {
+        if (!Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "false"))) {
+            return null;
+        }
+        try {
+            return new GcPauseStream(consumer, onFailure);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stop streaming and release the underlying JFR recording.
+     */
+    void close() {
+        try {
+            final Method close = stream.getClass().getMethod("close");
+            close.invoke(stream);
+        } catch (Exception e) {
+            // The stream is unusable anyway
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.apple.pollianna.gc;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Bean implementation for GC metric samples.
  */
@@ -22,8 +24,8 @@ public final class GcSampleSeed extends GcSeed implements GcSampleMXBean {
     public double getOccupancy() { return aggregator.occupancy.last(); }
     public double getWorkload() { return aggregator.workload.last(); }
     public double getAllocationRate() { return aggregator.allocationRate.last(); }
-    public long getPause() { return aggregator.pause.last(); }
-    public long getCycle() { return aggregator.cycle.last(); }
+    public long getPause() { return aggregator.pause.last(TimeUnit.MILLISECONDS); }
+    public long getCycle() { return aggregator.cycle.last(TimeUnit.MILLISECONDS); }
     public long getDirectMemoryLimit() { return aggregator.directMemory.limit(); }
     public long getDirectMemory() { return aggregator.directMemory.lastValue(); }
     public double getDirectMemoryUsage() { return aggregator.directMemory.lastPercentage(); }
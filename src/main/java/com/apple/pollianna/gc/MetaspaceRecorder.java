@@ -17,6 +17,7 @@ package com.apple.pollianna.gc;
 
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
 
 import com.apple.pollianna.LongValuePercentageRecorder;
 import com.apple.pollianna.Util;
@@ -25,19 +26,40 @@ public class MetaspaceRecorder extends LongValuePercentageRecorder {
 
     public MetaspaceRecorder() { super(); }
 
-    private final MemoryPoolMXBean bean = Util.getMXBean(MemoryPoolMXBean.class, "Metaspace");
+    private static final MemoryPoolMXBean bean = Util.getMXBean(MemoryPoolMXBean.class, "Metaspace");
+
+    private static long limit(MemoryUsage usage) {
+        long limit = usage.getMax();
+        if (limit < 0) {
+            // No metaspace limit configured.
+            // The default is unlimited.
+            // As a proxy, we use all committed non-Java-heap memory,
+            // which is a gross overestimate that may change dynamically.
+            limit = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage().getCommitted();
+        }
+        return limit;
+    }
 
     public void record() {
         if (bean != null) {
-            long limit = bean.getUsage().getMax();
-            if (limit < 0) {
-                // No metaspace limit configured.
-                // The default is unlimited.
-                // As a proxy, we use all committed non-Java-heap memory,
-                // which is a gross overestimate that may change dynamically.
-                limit = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage().getCommitted();
-            }
-            record(bean.getUsage().getUsed(), limit);
+            final MemoryUsage usage = bean.getUsage();
+            record(usage.getUsed(), limit(usage));
         }
     };
+
+    static void sample(GcEvent event) {
+        if (bean != null) {
+            final MemoryUsage usage = bean.getUsage();
+            event.metaspaceUsed = usage.getUsed();
+            event.metaspaceLimit = limit(usage);
+        } else {
+            event.metaspaceUsed = -1;
+        }
+    }
+
+    void record(GcEvent event) {
+        if (event.metaspaceUsed >= 0) {
+            record(event.metaspaceUsed, event.metaspaceLimit);
+        }
+    }
 }
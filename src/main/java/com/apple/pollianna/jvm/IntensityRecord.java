@@ -15,12 +15,20 @@
  */
 package com.apple.pollianna.jvm;
 
+import com.apple.pollianna.Util;
+
 import java.beans.ConstructorProperties;
 
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataView;
+import javax.management.openmbean.CompositeType;
+
 /**
  * Captures the maximum and the overall portion of runtime of observed event durations.
  */
-public class IntensityRecord {
+public class IntensityRecord implements CompositeDataView {
+    private static final String[] ITEM_NAMES = {"max", "portion"};
+
     private final double max;
     private final double portion;
 
@@ -33,4 +41,9 @@ public class IntensityRecord {
     public double getMax() { return max; }
 
     public double getPortion() { return portion; }
+
+    @Override
+    public CompositeData toCompositeData(CompositeType type) {
+        return Util.toCompositeData(type, ITEM_NAMES, new Object[] {max, portion});
+    }
 }
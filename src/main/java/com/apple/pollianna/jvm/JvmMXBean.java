@@ -15,6 +15,8 @@
  */
 package com.apple.pollianna.jvm;
 
+import com.apple.pollianna.EwmaRecord;
+
 import java.lang.management.PlatformManagedObject;
 
 /**
@@ -51,6 +53,17 @@ public interface JvmMXBean extends PlatformManagedObject {
      */
     double getGcAllocationRateMax();
 
+    /**
+     * Return exponentially weighted moving averages of the Java object allocation rate over the last 1, 5, and 15 minutes,
+     * in Mbytes per second.
+     * Unlike {@link #getGcAllocationRateMax()}, these averages do not depend on when or how often they are read.
+     * As allocated bytes are only known at garbage collections, the 1 minute average rises in steps
+     * when garbage collections are rare.
+     *
+     * @return the 1, 5, and 15 minute average allocation rates, in Mbytes per second.
+     */
+    EwmaRecord getGcAllocationEwma();
+
     /**
      * Return the maximum garbage collection pause duration in milliseconds,
      * since the previous call.
@@ -62,6 +75,17 @@ public interface JvmMXBean extends PlatformManagedObject {
      */
     long getGcPauseMax();
 
+    /**
+     * Return the maximum garbage collection pause duration in microseconds,
+     * since the previous call.
+     *
+     * On JDK 14 or later pause durations are measured with JFR at sub-millisecond precision,
+     * so that the typically very short pauses of collectors such as ZGC and Shenandoah do not show up as zero.
+     *
+     * @return the maximum garbage collection pause duration in microseconds
+     */
+    long getGcPauseMaxMicros();
+
     /**
      * Return the maximum portion of application runtime occupied/displaced by garbage collection pauses,
      * since the previous call.
@@ -73,6 +97,17 @@ public interface JvmMXBean extends PlatformManagedObject {
      */
     double getGcPausePortion();
 
+    /**
+     * Return the 99th percentile of garbage collection pause durations in milliseconds,
+     * since the previous call.
+     *
+     * "Garbage collection pauses" are time intervals during which the garbage collector
+     * causes the application execution to be suspended.
+     *
+     * @return the 99th percentile of garbage collection pause durations in milliseconds
+     */
+    long getGcPauseP99();
+
     /**
      * Return the maximum observed usage percentage of the memory available for direct buffers.
      * When a direct memory buffer allocation would lead to exceeding 100%, the JVM will throw `OutOfMemoryError`.
@@ -95,4 +130,26 @@ public interface JvmMXBean extends PlatformManagedObject {
      * @return the maximum observed usage percentage of any code cache segment or the single-segment legacy code cache.
      */
     double getCodeCacheSegmentUsageMax();
+
+    /**
+     * Return exponentially weighted moving averages of the time spent in JIT compilation over the last 1, 5, and 15 minutes,
+     * in milliseconds per second.
+     * Multiple compiler threads can add up to more than 1000 milliseconds per second.
+     * These averages do not depend on when or how often they are read.
+     *
+     * @see java.lang.management.CompilationMXBean#getTotalCompilationTime
+     * @return the 1, 5, and 15 minute average compilation time rates, in milliseconds per second.
+     */
+    EwmaRecord getCompilationEwma();
+
+    /**
+     * Return exponentially weighted moving averages of the rate at which threads are started
+     * over the last 1, 5, and 15 minutes, in threads per second.
+     * A high rate may indicate threads that should be pooled instead.
+     * These averages do not depend on when or how often they are read.
+     *
+     * @see java.lang.management.ThreadMXBean#getTotalStartedThreadCount
+     * @return the 1, 5, and 15 minute average thread start rates, in threads per second.
+     */
+    EwmaRecord getThreadStartEwma();
 }
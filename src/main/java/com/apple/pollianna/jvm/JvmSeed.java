@@ -15,13 +15,22 @@
  */
 package com.apple.pollianna.jvm;
 
+import com.apple.pollianna.DoubleValueRecord;
+import com.apple.pollianna.EwmaRecord;
+import com.apple.pollianna.LongDurationRecord;
+import com.apple.pollianna.LongDurationRecorder;
 import com.apple.pollianna.Seed;
+import com.apple.pollianna.Snapshot;
 import com.apple.pollianna.Aggregator;
 import com.apple.pollianna.compiler.CompilerAggregator;
 import com.apple.pollianna.gc.GcAggregator;
+import com.apple.pollianna.rt.RtAggregator;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Bean implementation for essential JVM metrics.
@@ -36,38 +45,90 @@ public class JvmSeed extends Seed implements JvmMXBean {
 
     protected final GcAggregator gcAggregator = new GcAggregator();
     protected final CompilerAggregator compilerAggregator = new CompilerAggregator();
+    // Only needed for the thread start rate, but also polls the mapped memory in use
+    protected final RtAggregator rtAggregator = new RtAggregator();
 
     @Override
     protected List<Aggregator> aggregators() {
-        return Arrays.asList(gcAggregator, compilerAggregator);
+        return Arrays.asList(gcAggregator, compilerAggregator, rtAggregator);
     }
 
+    @Override
+    protected Map<String, LongDurationRecorder> histograms() {
+        return Collections.singletonMap("GcPause", gcAggregator.pause);
+    }
+
+    private final Snapshot.Source<DoubleValueRecord> gcWorkload
+        = snapshot.source(gcAggregator.workload::getRecord);
+    private final Snapshot.Source<DoubleValueRecord> gcAllocationRate
+        = snapshot.source(gcAggregator.allocationRate::getRecord);
+    private final Snapshot.Source<LongDurationRecord> gcPause
+        = snapshot.source(() -> gcAggregator.pause.getRecord(TimeUnit.NANOSECONDS));
+    private final Snapshot.Source<DoubleValueRecord> directMemoryUsage
+        = snapshot.source(gcAggregator.directMemory::getPercentageRecord);
+    private final Snapshot.Source<DoubleValueRecord> nonProfiledNMethodsCodeHeapUsage
+        = snapshot.source(compilerAggregator.nonProfiledNMethodsCodeHeap::getPercentageRecord);
+    private final Snapshot.Source<DoubleValueRecord> profiledNMethodsCodeHeapUsage
+        = snapshot.source(compilerAggregator.profiledNMethodsCodeHeap::getPercentageRecord);
+    private final Snapshot.Source<DoubleValueRecord> nonNMethodsCodeHeapUsage
+        = snapshot.source(compilerAggregator.nonNMethodsCodeHeap::getPercentageRecord);
+    private final Snapshot.Source<DoubleValueRecord> legacyCodeCacheUsage
+        = snapshot.source(compilerAggregator.legacyCodeCache::getPercentageRecord);
+
+    // Attributes that are derived from sources shared with other attributes or from multiple sources
+    private final int gcPauseMax = snapshot.attribute();
+    private final int gcPausePortion = snapshot.attribute();
+    private final int gcPauseMaxMicros = snapshot.attribute();
+    private final int gcPauseP99 = snapshot.attribute();
+    private final int codeCacheSegmentUsageMax = snapshot.attribute();
+
     public double getGcWorkloadMax() {
-        return gcAggregator.workload.getRecord().getMax();
+        return gcWorkload.get().getMax();
     }
 
     public double getGcAllocationRateMax() {
-        return gcAggregator.allocationRate.getRecord().getMax();
+        return gcAllocationRate.get().getMax();
+    }
+
+    public EwmaRecord getGcAllocationEwma() {
+        return gcAggregator.allocationEwma.getRecord();
     }
 
     public long getGcPauseMax() {
-        return gcAggregator.pause.getRecord().getMax();
+        return TimeUnit.NANOSECONDS.toMillis(gcPause.in(snapshot.serve(gcPauseMax)).getMax());
+    }
+
+    public long getGcPauseMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(gcPause.in(snapshot.serve(gcPauseMaxMicros)).getMax());
     }
 
     public double getGcPausePortion() {
-        return gcAggregator.pause.getRecord().getPortion();
+        return gcPause.in(snapshot.serve(gcPausePortion)).getPortion();
+    }
+
+    public long getGcPauseP99() {
+        return TimeUnit.NANOSECONDS.toMillis(gcPause.in(snapshot.serve(gcPauseP99)).getP99());
     }
 
     public double getDirectMemoryUsageMax() {
-        return gcAggregator.directMemory.getPercentageRecord().getMax();
+        return directMemoryUsage.get().getMax();
     }
 
     public double getCodeCacheSegmentUsageMax() {
+        final Snapshot.Frame frame = snapshot.serve(codeCacheSegmentUsageMax);
         return Math.max(
-            Math.max(compilerAggregator.nonProfiledNMethodsCodeHeap.getPercentageRecord().getMax(),
-                     compilerAggregator.profiledNMethodsCodeHeap.getPercentageRecord().getMax()),
-            Math.max(compilerAggregator.nonNMethodsCodeHeap.getPercentageRecord().getMax(),
-                     compilerAggregator.legacyCodeCache.getPercentageRecord().getMax())
+            Math.max(nonProfiledNMethodsCodeHeapUsage.in(frame).getMax(),
+                     profiledNMethodsCodeHeapUsage.in(frame).getMax()),
+            Math.max(nonNMethodsCodeHeapUsage.in(frame).getMax(),
+                     legacyCodeCacheUsage.in(frame).getMax())
         );
     }
+
+    public EwmaRecord getCompilationEwma() {
+        return compilerAggregator.compilationEwma.getRecord();
+    }
+
+    public EwmaRecord getThreadStartEwma() {
+        return rtAggregator.threadStartEwma.getRecord();
+    }
 }
@@ -15,7 +15,10 @@
  */
 package com.apple.pollianna.nmt;
 
+import com.apple.pollianna.LongDurationRecorder;
+import com.apple.pollianna.Overhead;
 import com.apple.pollianna.PeriodicAggregator;
+import com.apple.pollianna.RecorderArena;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -28,12 +31,15 @@ import java.util.Map;
 public abstract class AbstractNmtAggregator extends PeriodicAggregator {
     protected AbstractNmtAggregator() { super(); }
 
-    public final NmtRecorder total = new NmtRecorder("total");
+    // Holds the state of all recorders, so that each poll is published to readers at once
+    protected final RecorderArena arena = new RecorderArena();
+
+    public final NmtRecorder total = new NmtRecorder(arena, "total");
 
     protected final List<NmtRecorder> recorders = new ArrayList<NmtRecorder>();
 
     protected NmtRecorder createRecorder(String name) {
-        final NmtRecorder recorder = new NmtRecorder(name);
+        final NmtRecorder recorder = new NmtRecorder(arena, name);
         recorders.add(recorder);
         return recorder;
     }
@@ -43,12 +49,18 @@ public abstract class AbstractNmtAggregator extends PeriodicAggregator {
     private final Runnable poll = () -> {
         Object usageInfo = NmtAccess.getUsageInfo();
         if (usageInfo != null) {
-            total.record(new NmtUsage(NmtAccess.getVmTotalReserved(usageInfo), NmtAccess.getVmTotalCommitted(usageInfo)));
+            final NmtUsage totalUsage = new NmtUsage(NmtAccess.getVmTotalReserved(usageInfo), NmtAccess.getVmTotalCommitted(usageInfo));
             Map<String, NmtUsage> categoryUsages = NmtAccess.getNmtUsagePerCategory(usageInfo);
-            if (categoryUsages != null) {
-                for (NmtRecorder recorder : recorders) {
-                    recorder.record(categoryUsages.get(recorder.name));
+            arena.beginWrite();
+            try {
+                total.record(totalUsage);
+                if (categoryUsages != null) {
+                    for (NmtRecorder recorder : recorders) {
+                        recorder.record(categoryUsages.get(recorder.name));
+                    }
                 }
+            } finally {
+                arena.endWrite();
             }
         }
     };
@@ -56,6 +68,9 @@ public abstract class AbstractNmtAggregator extends PeriodicAggregator {
     @Override
     protected Runnable runnable () { return poll; }
 
+    @Override
+    protected LongDurationRecorder tickRecorder() { return Overhead.nmtTick; }
+
     @Override
     public void startAggregating() {
         if (NmtAccess.isAvailable()) {
@@ -17,107 +17,149 @@ package com.apple.pollianna.nmt;
 
 import com.apple.pollianna.DoubleValueRecord;
 import com.apple.pollianna.LongValueRecord;
+import com.apple.pollianna.Snapshot;
 
 public final class NmtAggregateSeed extends NmtSeed implements NmtAggregateMXBean {
     public NmtAggregateSeed() { super(); }
 
-    public DoubleValueRecord getTotalPercent() { return aggregator.total.getRecord(); }
-    public LongValueRecord getTotalReserved() { return aggregator.total.reserved.getRecord(); }
-    public LongValueRecord getTotalCommitted() { return aggregator.total.committed.getRecord(); }
-
-    public DoubleValueRecord getArenaChunkPercent() { return aggregator.arenaChunk.getRecord(); }
-    public LongValueRecord getArenaChunkReserved() { return aggregator.arenaChunk.reserved.getRecord(); }
-    public LongValueRecord getArenaChunkCommitted() { return aggregator.arenaChunk.committed.getRecord(); }
-
-    public DoubleValueRecord getArgumentsPercent() { return aggregator.arguments.getRecord(); }
-    public LongValueRecord getArgumentsReserved() { return aggregator.arguments.reserved.getRecord(); }
-    public LongValueRecord getArgumentsCommitted() { return aggregator.arguments.committed.getRecord(); }
-
-    public DoubleValueRecord getClassesPercent() { return aggregator.classes.getRecord(); }
-    public LongValueRecord getClassesReserved() { return aggregator.classes.reserved.getRecord(); }
-    public LongValueRecord getClassesCommitted() { return aggregator.classes.committed.getRecord(); }
-
-    public DoubleValueRecord getCompilerPercent() { return aggregator.compiler.getRecord(); }
-    public LongValueRecord getCompilerReserved() { return aggregator.compiler.reserved.getRecord(); }
-    public LongValueRecord getCompilerCommitted() { return aggregator.compiler.committed.getRecord(); }
-
-    public DoubleValueRecord getGcPercent() { return aggregator.gc.getRecord(); }
-    public LongValueRecord getGcReserved() { return aggregator.gc.reserved.getRecord(); }
-    public LongValueRecord getGcCommitted() { return aggregator.gc.committed.getRecord(); }
-
-    public DoubleValueRecord getInternalPercent() { return aggregator.internal.getRecord(); }
-    public LongValueRecord getInternalReserved() { return aggregator.internal.reserved.getRecord(); }
-    public LongValueRecord getInternalCommitted() { return aggregator.internal.committed.getRecord(); }
-
-    public DoubleValueRecord getJavaHeapPercent() { return aggregator.javaHeap.getRecord(); }
-    public LongValueRecord getJavaHeapReserved() { return aggregator.javaHeap.reserved.getRecord(); }
-    public LongValueRecord getJavaHeapCommitted() { return aggregator.javaHeap.committed.getRecord(); }
-
-    public DoubleValueRecord getJvmciPercent() { return aggregator.jvmci.getRecord(); }
-    public LongValueRecord getJvmciReserved() { return aggregator.jvmci.reserved.getRecord(); }
-    public LongValueRecord getJvmciCommitted() { return aggregator.jvmci.committed.getRecord(); }
-
-    public DoubleValueRecord getMetaspacePercent() { return aggregator.metaspace.getRecord(); }
-    public LongValueRecord getMetaspaceReserved() { return aggregator.metaspace.reserved.getRecord(); }
-    public LongValueRecord getMetaspaceCommitted() { return aggregator.metaspace.committed.getRecord(); }
-
-    public DoubleValueRecord getModulesPercent() { return aggregator.modules.getRecord(); }
-    public LongValueRecord getModulesReserved() { return aggregator.modules.reserved.getRecord(); }
-    public LongValueRecord getModulesCommitted() { return aggregator.modules.committed.getRecord(); }
-
-    public DoubleValueRecord getNmtPercent() { return aggregator.nmt.getRecord(); }
-    public LongValueRecord getNmtReserved() { return aggregator.nmt.reserved.getRecord(); }
-    public LongValueRecord getNmtCommitted() { return aggregator.nmt.committed.getRecord(); }
-
-    public DoubleValueRecord getObjectMonitorsPercent() { return aggregator.objectMonitors.getRecord(); }
-    public LongValueRecord getObjectMonitorsReserved() { return aggregator.objectMonitors.reserved.getRecord(); }
-    public LongValueRecord getObjectMonitorsCommitted() { return aggregator.objectMonitors.committed.getRecord(); }
-
-    public DoubleValueRecord getOtherPercent() { return aggregator.other.getRecord(); }
-    public LongValueRecord getOtherReserved() { return aggregator.other.reserved.getRecord(); }
-    public LongValueRecord getOtherCommitted() { return aggregator.other.committed.getRecord(); }
-
-    public DoubleValueRecord getSafepointPercent() { return aggregator.safepoint.getRecord(); }
-    public LongValueRecord getSafepointReserved() { return aggregator.safepoint.reserved.getRecord(); }
-    public LongValueRecord getSafepointCommitted() { return aggregator.safepoint.committed.getRecord(); }
-
-    public DoubleValueRecord getServiceabilityPercent() { return aggregator.serviceability.getRecord(); }
-    public LongValueRecord getServiceabilityReserved() { return aggregator.serviceability.reserved.getRecord(); }
-    public LongValueRecord getServiceabilityCommitted() { return aggregator.serviceability.committed.getRecord(); }
-
-    public DoubleValueRecord getSharedClassSpacePercent() { return aggregator.sharedClassSpace.getRecord(); }
-    public LongValueRecord getSharedClassSpaceReserved() { return aggregator.sharedClassSpace.reserved.getRecord(); }
-    public LongValueRecord getSharedClassSpaceCommitted() { return aggregator.sharedClassSpace.committed.getRecord(); }
-
-    public DoubleValueRecord getStatisticsPercent() { return aggregator.statistics.getRecord(); }
-    public LongValueRecord getStatisticsReserved() { return aggregator.statistics.reserved.getRecord(); }
-    public LongValueRecord getStatisticsCommitted() { return aggregator.statistics.committed.getRecord(); }
-
-    public DoubleValueRecord getStringDeduplicationPercent() { return aggregator.stringDeduplication.getRecord(); }
-    public LongValueRecord getStringDeduplicationReserved() { return aggregator.stringDeduplication.reserved.getRecord(); }
-    public LongValueRecord getStringDeduplicationCommitted() { return aggregator.stringDeduplication.committed.getRecord(); }
-
-    public DoubleValueRecord getSymbolPercent() { return aggregator.symbol.getRecord(); }
-    public LongValueRecord getSymbolReserved() { return aggregator.symbol.reserved.getRecord(); }
-    public LongValueRecord getSymbolCommitted() { return aggregator.symbol.committed.getRecord(); }
-
-    public DoubleValueRecord getSynchronizationPercent() { return aggregator.synchronization.getRecord(); }
-    public LongValueRecord getSynchronizationReserved() { return aggregator.synchronization.reserved.getRecord(); }
-    public LongValueRecord getSynchronizationCommitted() { return aggregator.synchronization.committed.getRecord(); }
-
-    public DoubleValueRecord getThreadPercent() { return aggregator.thread.getRecord(); }
-    public LongValueRecord getThreadReserved() { return aggregator.thread.reserved.getRecord(); }
-    public LongValueRecord getThreadCommitted() { return aggregator.thread.committed.getRecord(); }
-
-    public DoubleValueRecord getThreadStackPercent() { return aggregator.threadStack.getRecord(); }
-    public LongValueRecord getThreadStackReserved() { return aggregator.threadStack.reserved.getRecord(); }
-    public LongValueRecord getThreadStackCommitted() { return aggregator.threadStack.committed.getRecord(); }
-
-    public DoubleValueRecord getTracingPercent() { return aggregator.tracing.getRecord(); }
-    public LongValueRecord getTracingReserved() { return aggregator.tracing.reserved.getRecord(); }
-    public LongValueRecord getTracingCommitted() { return aggregator.tracing.committed.getRecord(); }
-
-    public DoubleValueRecord getUnknownPercent() { return aggregator.unknown.getRecord(); }
-    public LongValueRecord getUnknownReserved() { return aggregator.unknown.reserved.getRecord(); }
-    public LongValueRecord getUnknownCommitted() { return aggregator.unknown.committed.getRecord(); }
+    /**
+     * The snapshot sources of all attributes of one NMT category.
+     */
+    private final class Category {
+        final Snapshot.Source<DoubleValueRecord> percent;
+        final Snapshot.Source<LongValueRecord> reserved;
+        final Snapshot.Source<LongValueRecord> committed;
+
+        Category(NmtRecorder recorder) {
+            percent = snapshot.source(recorder::getRecord);
+            reserved = snapshot.source(recorder.reserved::getRecord);
+            committed = snapshot.source(recorder.committed::getRecord);
+        }
+    }
+
+    private final Category total = new Category(aggregator.total);
+    private final Category arenaChunk = new Category(aggregator.arenaChunk);
+    private final Category arguments = new Category(aggregator.arguments);
+    private final Category classes = new Category(aggregator.classes);
+    private final Category compiler = new Category(aggregator.compiler);
+    private final Category gc = new Category(aggregator.gc);
+    private final Category internal = new Category(aggregator.internal);
+    private final Category javaHeap = new Category(aggregator.javaHeap);
+    private final Category jvmci = new Category(aggregator.jvmci);
+    private final Category metaspace = new Category(aggregator.metaspace);
+    private final Category modules = new Category(aggregator.modules);
+    private final Category nmt = new Category(aggregator.nmt);
+    private final Category objectMonitors = new Category(aggregator.objectMonitors);
+    private final Category other = new Category(aggregator.other);
+    private final Category safepoint = new Category(aggregator.safepoint);
+    private final Category serviceability = new Category(aggregator.serviceability);
+    private final Category sharedClassSpace = new Category(aggregator.sharedClassSpace);
+    private final Category statistics = new Category(aggregator.statistics);
+    private final Category stringDeduplication = new Category(aggregator.stringDeduplication);
+    private final Category symbol = new Category(aggregator.symbol);
+    private final Category synchronization = new Category(aggregator.synchronization);
+    private final Category thread = new Category(aggregator.thread);
+    private final Category threadStack = new Category(aggregator.threadStack);
+    private final Category tracing = new Category(aggregator.tracing);
+    private final Category unknown = new Category(aggregator.unknown);
+
+    public DoubleValueRecord getTotalPercent() { return total.percent.get(); }
+    public LongValueRecord getTotalReserved() { return total.reserved.get(); }
+    public LongValueRecord getTotalCommitted() { return total.committed.get(); }
+
+    public DoubleValueRecord getArenaChunkPercent() { return arenaChunk.percent.get(); }
+    public LongValueRecord getArenaChunkReserved() { return arenaChunk.reserved.get(); }
+    public LongValueRecord getArenaChunkCommitted() { return arenaChunk.committed.get(); }
+
+    public DoubleValueRecord getArgumentsPercent() { return arguments.percent.get(); }
+    public LongValueRecord getArgumentsReserved() { return arguments.reserved.get(); }
+    public LongValueRecord getArgumentsCommitted() { return arguments.committed.get(); }
+
+    public DoubleValueRecord getClassesPercent() { return classes.percent.get(); }
+    public LongValueRecord getClassesReserved() { return classes.reserved.get(); }
+    public LongValueRecord getClassesCommitted() { return classes.committed.get(); }
+
+    public DoubleValueRecord getCompilerPercent() { return compiler.percent.get(); }
+    public LongValueRecord getCompilerReserved() { return compiler.reserved.get(); }
+    public LongValueRecord getCompilerCommitted() { return compiler.committed.get(); }
+
+    public DoubleValueRecord getGcPercent() { return gc.percent.get(); }
+    public LongValueRecord getGcReserved() { return gc.reserved.get(); }
+    public LongValueRecord getGcCommitted() { return gc.committed.get(); }
+
+    public DoubleValueRecord getInternalPercent() { return internal.percent.get(); }
+    public LongValueRecord getInternalReserved() { return internal.reserved.get(); }
+    public LongValueRecord getInternalCommitted() { return internal.committed.get(); }
+
+    public DoubleValueRecord getJavaHeapPercent() { return javaHeap.percent.get(); }
+    public LongValueRecord getJavaHeapReserved() { return javaHeap.reserved.get(); }
+    public LongValueRecord getJavaHeapCommitted() { return javaHeap.committed.get(); }
+
+    public DoubleValueRecord getJvmciPercent() { return jvmci.percent.get(); }
+    public LongValueRecord getJvmciReserved() { return jvmci.reserved.get(); }
+    public LongValueRecord getJvmciCommitted() { return jvmci.committed.get(); }
+
+    public DoubleValueRecord getMetaspacePercent() { return metaspace.percent.get(); }
+    public LongValueRecord getMetaspaceReserved() { return metaspace.reserved.get(); }
+    public LongValueRecord getMetaspaceCommitted() { return metaspace.committed.get(); }
+
+    public DoubleValueRecord getModulesPercent() { return modules.percent.get(); }
+    public LongValueRecord getModulesReserved() { return modules.reserved.get(); }
+    public LongValueRecord getModulesCommitted() { return modules.committed.get(); }
+
+    public DoubleValueRecord getNmtPercent() { return nmt.percent.get(); }
+    public LongValueRecord getNmtReserved() { return nmt.reserved.get(); }
+    public LongValueRecord getNmtCommitted() { return nmt.committed.get(); }
+
+    public DoubleValueRecord getObjectMonitorsPercent() { return objectMonitors.percent.get(); }
+    public LongValueRecord getObjectMonitorsReserved() { return objectMonitors.reserved.get(); }
+    public LongValueRecord getObjectMonitorsCommitted() { return objectMonitors.committed.get(); }
+
+    public DoubleValueRecord getOtherPercent() { return other.percent.get(); }
+    public LongValueRecord getOtherReserved() { return other.reserved.get(); }
+    public LongValueRecord getOtherCommitted() { return other.committed.get(); }
+
+    public DoubleValueRecord getSafepointPercent() { return safepoint.percent.get(); }
+    public LongValueRecord getSafepointReserved() { return safepoint.reserved.get(); }
+    public LongValueRecord getSafepointCommitted() { return safepoint.committed.get(); }
+
+    public DoubleValueRecord getServiceabilityPercent() { return serviceability.percent.get(); }
+    public LongValueRecord getServiceabilityReserved() { return serviceability.reserved.get(); }
+    public LongValueRecord getServiceabilityCommitted() { return serviceability.committed.get(); }
+
+    public DoubleValueRecord getSharedClassSpacePercent() { return sharedClassSpace.percent.get(); }
+    public LongValueRecord getSharedClassSpaceReserved() { return sharedClassSpace.reserved.get(); }
+    public LongValueRecord getSharedClassSpaceCommitted() { return sharedClassSpace.committed.get(); }
+
+    public DoubleValueRecord getStatisticsPercent() { return statistics.percent.get(); }
+    public LongValueRecord getStatisticsReserved() { return statistics.reserved.get(); }
+    public LongValueRecord getStatisticsCommitted() { return statistics.committed.get(); }
+
+    public DoubleValueRecord getStringDeduplicationPercent() { return stringDeduplication.percent.get(); }
+    public LongValueRecord getStringDeduplicationReserved() { return stringDeduplication.reserved.get(); }
+    public LongValueRecord getStringDeduplicationCommitted() { return stringDeduplication.committed.get(); }
+
+    public DoubleValueRecord getSymbolPercent() { return symbol.percent.get(); }
+    public LongValueRecord getSymbolReserved() { return symbol.reserved.get(); }
+    public LongValueRecord getSymbolCommitted() { return symbol.committed.get(); }
+
+    public DoubleValueRecord getSynchronizationPercent() { return synchronization.percent.get(); }
+    public LongValueRecord getSynchronizationReserved() { return synchronization.reserved.get(); }
+    public LongValueRecord getSynchronizationCommitted() { return synchronization.committed.get(); }
+
+    public DoubleValueRecord getThreadPercent() { return thread.percent.get(); }
+    public LongValueRecord getThreadReserved() { return thread.reserved.get(); }
+    public LongValueRecord getThreadCommitted() { return thread.committed.get(); }
+
+    public DoubleValueRecord getThreadStackPercent() { return threadStack.percent.get(); }
+    public LongValueRecord getThreadStackReserved() { return threadStack.reserved.get(); }
+    public LongValueRecord getThreadStackCommitted() { return threadStack.committed.get(); }
+
+    public DoubleValueRecord getTracingPercent() { return tracing.percent.get(); }
+    public LongValueRecord getTracingReserved() { return tracing.reserved.get(); }
+    public LongValueRecord getTracingCommitted() { return tracing.committed.get(); }
+
+    public DoubleValueRecord getUnknownPercent() { return unknown.percent.get(); }
+    public LongValueRecord getUnknownReserved() { return unknown.reserved.get(); }
+    public LongValueRecord getUnknownCommitted() { return unknown.committed.get(); }
 }
@@ -15,26 +15,46 @@
  */
 package com.apple.pollianna.nmt;
 
-import com.apple.pollianna.LongValueRecorder;
-import com.apple.pollianna.PercentageRecorder;
+import com.apple.pollianna.DoubleValueRecord;
+import com.apple.pollianna.RecorderArena;
 
-public class NmtRecorder extends PercentageRecorder {
+/**
+ * Records the reserved and committed sizes of one NMT category, and the committed percentage of the reserved size,
+ * in slots of the arena of its aggregator.
+ */
+public class NmtRecorder {
     public final String name;
 
-    public NmtRecorder(String name) {
+    private final RecorderArena.DoubleSlot percentage;
+    public final RecorderArena.LongSlot reserved;
+    public final RecorderArena.LongSlot committed;
+
+    public NmtRecorder(RecorderArena arena, String name) {
         this.name = name;
+        percentage = arena.newDoubleSlot();
+        reserved = arena.newLongSlot();
+        committed = arena.newLongSlot();
     }
 
-    public final LongValueRecorder reserved = new LongValueRecorder();
-    public final LongValueRecorder committed = new LongValueRecorder();
-
     private NmtUsage lastUsage = new NmtUsage(0, 0);
     public NmtUsage lastUsage() { return lastUsage; }
 
+    /**
+     * Must be called within a write section of the arena.
+     *
+     * @param usage the usage to record
+     */
     public void record(NmtUsage usage) {
         lastUsage = usage;
         reserved.record(usage.reserved);
         committed.record(usage.committed);
-        super.record(usage.committed, usage.reserved);
+        percentage.record(((double) usage.committed / (double) usage.reserved) * 100.0);
+    }
+
+    /**
+     * @return a record of the committed percentages since the current cursor's previous call
+     */
+    public DoubleValueRecord getRecord() {
+        return percentage.getRecord();
     }
 }
@@ -15,9 +15,16 @@
  */
 package com.apple.pollianna.nmt;
 
+import com.apple.pollianna.Util;
+
 import java.beans.ConstructorProperties;
 
-public class NmtUsage {
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataView;
+import javax.management.openmbean.CompositeType;
+
+public class NmtUsage implements CompositeDataView {
+    private static final String[] ITEM_NAMES = {"reserved", "committed"};
 
     protected final long reserved;
     protected final long committed;
@@ -32,6 +39,11 @@ public class NmtUsage {
 
     public long getCommitted() { return committed; }
 
+    @Override
+    public CompositeData toCompositeData(CompositeType type) {
+        return Util.toCompositeData(type, ITEM_NAMES, new Object[] {reserved, committed});
+    }
+
     @Override
     public String toString() {
         final StringBuilder buf = new StringBuilder();
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.overhead;
+
+import com.apple.pollianna.LongDurationRecord;
+
+import java.lang.management.PlatformManagedObject;
+
+/**
+ * Bean interface for what Pollianna itself costs, and for how it keeps its costs within budget.
+ * Durations are aggregated since the previous call to the respective method,
+ * whereas thread resource usage and export failures are totals since Pollianna started.
+ */
+public interface PolliannaMXBean extends PlatformManagedObject {
+
+    /**
+     * Return the CPU time used so far by Pollianna's own threads, in milliseconds.
+     * These are the threads that run periodic data gathering, consume GC events,
+     * stream GC pauses from JFR, and export metrics via OTel.
+     * Threads that have ended remain accounted for, as of when they were last sampled, so this never decreases.
+     *
+     * @return the CPU time used so far by Pollianna's own threads, in milliseconds
+     */
+    long getThreadCpuTime();
+
+    /**
+     * Return the number of bytes allocated in the Java heap so far by Pollianna's own threads.
+     * Threads that have ended remain accounted for, as of when they were last sampled, so this never decreases.
+     *
+     * @return the number of bytes allocated in the Java heap so far by Pollianna's own threads
+     */
+    long getThreadAllocated();
+
+    /**
+     * Return an aggregate of the time spent handling GC notifications on the JVM's notification thread,
+     * in microseconds, since the previous call to this method.
+     *
+     * @return an aggregate of the time spent handling GC notifications, in microseconds
+     */
+    LongDurationRecord getGcNotificationMicros();
+
+    /**
+     * Return an aggregate of the durations of periodic compiler and code cache data gathering,
+     * in microseconds, since the previous call to this method.
+     *
+     * @return an aggregate of the durations of periodic compiler data gathering, in microseconds
+     */
+    LongDurationRecord getCompilerTickMicros();
+
+    /**
+     * Return an aggregate of the durations of periodic NMT data gathering,
+     * in microseconds, since the previous call to this method.
+     *
+     * @return an aggregate of the durations of periodic NMT data gathering, in microseconds
+     */
+    LongDurationRecord getNmtTickMicros();
+
+    /**
+     * Return an aggregate of the durations of periodic miscellaneous runtime data gathering,
+     * in microseconds, since the previous call to this method.
+     *
+     * @return an aggregate of the durations of periodic miscellaneous runtime data gathering, in microseconds
+     */
+    LongDurationRecord getRtTickMicros();
+
+    /**
+     * Return an aggregate of the durations of periodic per-thread data gathering,
+     * in microseconds, since the previous call to this method.
+     *
+     * @return an aggregate of the durations of periodic per-thread data gathering, in microseconds
+     */
+    LongDurationRecord getThreadTickMicros();
+
+    /**
+     * Return an aggregate of the durations of periodically reconciling GC notifications
+     * with the collectors' totals, in microseconds, since the previous call to this method.
+     *
+     * @return an aggregate of the durations of periodic GC reconciliation, in microseconds
+     */
+    LongDurationRecord getGcReconcileTickMicros();
+
+    /**
+     * Return an aggregate of the durations of the overhead governor's periodic decisions,
+     * in microseconds, since the previous call to this method.
+     *
+     * @return an aggregate of the durations of periodic overhead governing, in microseconds
+     */
+    LongDurationRecord getGovernorTickMicros();
+
+    /**
+     * Return an aggregate of the time spent serving attribute read requests of beans with selected attributes
+     * and of the OTel reporter, in microseconds, since the previous call to this method.
+     * Concurrent requests are recorded without a shared lock, so there are no percentiles.
+     *
+     * @return an aggregate of the time spent serving attribute read requests, in microseconds
+     */
+    LongDurationRecord getScrapeMicros();
+
+    /**
+     * Return an aggregate of the durations of OTel metric exports, from start until completion,
+     * in milliseconds, since the previous call to this method.
+     *
+     * @return an aggregate of the durations of OTel metric exports, in milliseconds
+     */
+    LongDurationRecord getExport();
+
+    /**
+     * Return the number of OTel metric exports that have failed so far.
+     *
+     * @return the number of OTel metric exports that have failed so far
+     */
+    long getExportFailureCount();
+
+    /**
+     * Return the CPU budget for Pollianna's periodic data gathering,
+     * as a percentage of the CPU capacity available to the JVM.
+     * When it is exceeded, the most expensive periodic data gathering procedures are degraded.
+     *
+     * @return the CPU budget for Pollianna's periodic data gathering in percent, or zero if no budget is configured
+     */
+    double getBudget();
+
+    /**
+     * Return the CPU share of Pollianna's degradable periodic data gathering at its current intervals,
+     * as estimated by the most recent budget governing run, relative to the CPU capacity available to the JVM.
+     * This excludes GC event handling, JFR pause streaming, and OTel export, which are not degraded.
+     *
+     * @return the CPU share of degradable periodic data gathering in percent, or zero if no budget is configured
+     */
+    double getCpuShare();
+
+    /**
+     * Return the number of periodic data gathering procedures whose intervals are stretched to stay within budget,
+     * including suspended ones.
+     *
+     * @return the number of periodic data gathering procedures whose intervals are stretched
+     */
+    int getStretchedCount();
+
+    /**
+     * Return the number of periodic data gathering procedures that are suspended to stay within budget.
+     *
+     * @return the number of periodic data gathering procedures that are suspended
+     */
+    int getSuspendedCount();
+
+    /**
+     * Return the number of times a periodic data gathering procedure has been degraded or restored so far.
+     *
+     * @return the number of budget governing decisions so far
+     */
+    long getDecisionCount();
+
+    /**
+     * Return a description of the most recent budget governing decision,
+     * e.g. "stretched NmtAggregator interval to 20s".
+     *
+     * @return a description of the most recent budget governing decision, or an empty string if there has been none
+     */
+    String getLastDecision();
+
+    /**
+     * Return whether Pollianna has finished starting, including any OTel reporting.
+     * This only stays false for a while if the agent was given the argument `AsyncStart`.
+     * It also becomes true if starting failed, in which case the failure has been reported.
+     *
+     * @return whether Pollianna has finished starting
+     */
+    boolean isReady();
+
+    /**
+     * Return the time that the agent took on the thread that invoked it, in microseconds.
+     * For the command line agent, this is the time that the agent added to the startup of the application.
+     *
+     * @return the time that the agent took on the thread that invoked it in microseconds, or zero without an agent
+     */
+    long getPremainMicros();
+
+    /**
+     * Return how long the most recent completed start of Pollianna took, in milliseconds,
+     * whether that happened on the application's thread or in the background.
+     *
+     * @return how long the most recent completed start of Pollianna took, in milliseconds
+     */
+    long getStart();
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.overhead;
+
+import com.apple.pollianna.Aggregator;
+import com.apple.pollianna.LongDurationRecord;
+import com.apple.pollianna.Overhead;
+import com.apple.pollianna.OverheadGovernor;
+import com.apple.pollianna.Seed;
+import com.apple.pollianna.Snapshot;
+
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Bean implementation for what Pollianna itself costs.
+ * All measurements are taken as a side effect of Pollianna's own activities, so no aggregation is needed.
+ */
+public final class PolliannaSeed extends Seed implements PolliannaMXBean {
+    public PolliannaSeed() { super(); }
+
+    @Override
+    protected List<Aggregator> aggregators() {
+        return Collections.emptyList();
+    }
+
+    private final Snapshot.Source<LongDurationRecord> gcNotification
+        = snapshot.source(() -> Overhead.gcNotification.getRecord(MICROSECONDS));
+    private final Snapshot.Source<LongDurationRecord> compilerTick
+        = snapshot.source(() -> Overhead.compilerTick.getRecord(MICROSECONDS));
+    private final Snapshot.Source<LongDurationRecord> nmtTick
+        = snapshot.source(() -> Overhead.nmtTick.getRecord(MICROSECONDS));
+    private final Snapshot.Source<LongDurationRecord> rtTick
+        = snapshot.source(() -> Overhead.rtTick.getRecord(MICROSECONDS));
+    private final Snapshot.Source<LongDurationRecord> threadTick
+        = snapshot.source(() -> Overhead.threadTick.getRecord(MICROSECONDS));
+    private final Snapshot.Source<LongDurationRecord> gcReconcileTick
+        = snapshot.source(() -> Overhead.gcReconcileTick.getRecord(MICROSECONDS));
+    private final Snapshot.Source<LongDurationRecord> governorTick
+        = snapshot.source(() -> Overhead.governorTick.getRecord(MICROSECONDS));
+    private final Snapshot.Source<LongDurationRecord> scrape
+        = snapshot.source(() -> Overhead.scrape.getRecord(MICROSECONDS));
+    private final Snapshot.Source<LongDurationRecord> export
+        = snapshot.source(() -> Overhead.export.getRecord(MILLISECONDS));
+
+    public long getThreadCpuTime() { return MILLISECONDS.convert(Overhead.threadCpuTime(), NANOSECONDS); }
+    public long getThreadAllocated() { return Overhead.threadAllocatedBytes(); }
+    public LongDurationRecord getGcNotificationMicros() { return gcNotification.get(); }
+    public LongDurationRecord getCompilerTickMicros() { return compilerTick.get(); }
+    public LongDurationRecord getNmtTickMicros() { return nmtTick.get(); }
+    public LongDurationRecord getRtTickMicros() { return rtTick.get(); }
+    public LongDurationRecord getThreadTickMicros() { return threadTick.get(); }
+    public LongDurationRecord getGcReconcileTickMicros() { return gcReconcileTick.get(); }
+    public LongDurationRecord getGovernorTickMicros() { return governorTick.get(); }
+    public LongDurationRecord getScrapeMicros() { return scrape.get(); }
+    public LongDurationRecord getExport() { return export.get(); }
+    public long getExportFailureCount() { return Overhead.exportFailures.total(); }
+    public double getBudget() { return OverheadGovernor.instance().budgetPercent(); }
+    public double getCpuShare() { return OverheadGovernor.instance().cpuSharePercent(); }
+    public int getStretchedCount() { return OverheadGovernor.instance().stretchedCount(); }
+    public int getSuspendedCount() { return OverheadGovernor.instance().suspendedCount(); }
+    public long getDecisionCount() { return OverheadGovernor.instance().decisionCount(); }
+    public String getLastDecision() { return OverheadGovernor.instance().lastDecision(); }
+    public boolean isReady() { return Overhead.isReady(); }
+    public long getPremainMicros() { return MICROSECONDS.convert(Overhead.premainNanos(), NANOSECONDS); }
+    public long getStart() { return MILLISECONDS.convert(Overhead.startNanos(), NANOSECONDS); }
+}
@@ -20,23 +20,22 @@ import java.lang.management.ThreadMXBean;
 
 import com.apple.pollianna.LongDeltaRecorder;
 import com.apple.pollianna.LongValueRecord;
+import com.apple.pollianna.Snapshot;
 
 public class RtAggregateSeed extends RtSeed implements RtAggregateMXBean {
     public RtAggregateSeed() { super(); }
 
-    public LongValueRecord getMappedMemory() { return aggregator.mappedMemory.getRecord(); }
-
     private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
     private final LongDeltaRecorder startedThreadRecorder = new LongDeltaRecorder();
 
-    public long getStartedThreadCount() {
+    private long recordStartedThreadCount() {
         if (threadBean == null) {
             return 0;
         }
         return startedThreadRecorder.record(threadBean.getTotalStartedThreadCount());
     }
 
-    public long getPeakThreadCount() {
+    private long recordPeakThreadCount() {
         if (threadBean == null) {
             return 0;
         }
@@ -44,4 +43,14 @@ public class RtAggregateSeed extends RtSeed implements RtAggregateMXBean {
         threadBean.resetPeakThreadCount();
         return result;
     }
+
+    private final Snapshot.Source<LongValueRecord> mappedMemory = snapshot.source(aggregator.mappedMemory::getRecord);
+    private final Snapshot.Source<Long> startedThreadCount = snapshot.source(this::recordStartedThreadCount);
+    private final Snapshot.Source<Long> peakThreadCount = snapshot.source(this::recordPeakThreadCount);
+
+    public LongValueRecord getMappedMemory() { return mappedMemory.get(); }
+
+    public long getStartedThreadCount() { return startedThreadCount.get(); }
+
+    public long getPeakThreadCount() { return peakThreadCount.get(); }
 }
@@ -15,16 +15,23 @@
  */
 package com.apple.pollianna.rt;
 
+import com.apple.pollianna.EwmaRateRecorder;
+import com.apple.pollianna.LongDurationRecorder;
 import com.apple.pollianna.LongValueRecorder;
+import com.apple.pollianna.Overhead;
 import com.apple.pollianna.PeriodicAggregator;
 import com.apple.pollianna.Util;
 
 import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 
 public class RtAggregator extends PeriodicAggregator {
 
     private final BufferPoolMXBean mappedMemoryBean = Util.getMXBean(BufferPoolMXBean.class, "mapped");
     public final LongValueRecorder mappedMemory = new LongValueRecorder();
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    public final EwmaRateRecorder threadStartEwma = new EwmaRateRecorder(1);
 
     public RtAggregator() { super(); }
 
@@ -32,8 +39,14 @@ public class RtAggregator extends PeriodicAggregator {
         if (mappedMemoryBean != null) {
             mappedMemory.record(mappedMemoryBean.getMemoryUsed());
         }
+        if (threadBean != null) {
+            threadStartEwma.recordTotal(threadBean.getTotalStartedThreadCount());
+        }
     };
 
     @Override
     protected Runnable runnable () { return poll; }
+
+    @Override
+    protected LongDurationRecorder tickRecorder() { return Overhead.rtTick; }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.rt;
+
+import java.lang.management.PlatformManagedObject;
+
+/**
+ * Bean interface for monotonic non-GC JVM runtime metric counters.
+ * Unlike aggregates, counters are never reset when read.
+ */
+public interface RtCounterMXBean extends PlatformManagedObject {
+    /**
+     * Returns the number of platform threads created and also started since JVM start.
+     * @see java.lang.management.ThreadMXBean#getTotalStartedThreadCount
+     *
+     * @return the number of platform threads created and also started since JVM start
+     */
+    long getStartedThreadCount();
+
+    /**
+     * Returns the number of classes loaded since JVM start.
+     * @see java.lang.management.ClassLoadingMXBean#getTotalLoadedClassCount
+     *
+     * @return the number of classes loaded since JVM start
+     */
+    long getLoadedClassCount();
+
+    /**
+     * Returns the number of classes unloaded since JVM start.
+     * @see java.lang.management.ClassLoadingMXBean#getUnloadedClassCount
+     *
+     * @return the number of classes unloaded since JVM start
+     */
+    long getUnloadedClassCount();
+}
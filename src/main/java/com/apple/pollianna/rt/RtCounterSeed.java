@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.rt;
+
+import com.apple.pollianna.Aggregator;
+import com.apple.pollianna.Seed;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bean implementation for monotonic non-GC JVM runtime metric counters.
+ * The JVM already maintains these counters, so no aggregation is needed.
+ */
+public final class RtCounterSeed extends Seed implements RtCounterMXBean {
+    public RtCounterSeed() { super(); }
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final ClassLoadingMXBean classLoadingBean = ManagementFactory.getClassLoadingMXBean();
+
+    @Override
+    protected List<Aggregator> aggregators() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    protected boolean isCumulative() { return true; }
+
+    public long getStartedThreadCount() {
+        return threadBean != null ? threadBean.getTotalStartedThreadCount() : 0;
+    }
+
+    public long getLoadedClassCount() {
+        return classLoadingBean != null ? classLoadingBean.getTotalLoadedClassCount() : 0;
+    }
+
+    public long getUnloadedClassCount() {
+        return classLoadingBean != null ? classLoadingBean.getUnloadedClassCount() : 0;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.thread;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from thread ids to `long` values, without boxing.
+ * Thread ids are positive, so the key `0` marks an empty slot.
+ * There is no removal of single entries. Maps that track live threads are instead rebuilt each tick,
+ * by filling a cleared map and swapping it with the previous one, which keeps their memory stable.
+ * <p>
+ * Not thread-safe.
+ */
+final class LongLongMap {
+
+    private static final int MIN_CAPACITY = 64;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size = 0;
+
+    LongLongMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize the expected number of entries, to avoid rehashing while filling the map
+     */
+    LongLongMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < 2 * expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long key) {
+        // Thread ids are mostly consecutive, so spread them with a multiplicative hash
+        int i = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        while (keys[i] != 0 && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void grow() {
+        final long[] oldKeys = keys;
+        final long[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                final int j = slot(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * @param key a thread id
+     * @param missing the value to return if there is no entry for the key
+     * @return the value for the key, or `missing`
+     */
+    long get(long key, long missing) {
+        final int i = slot(key);
+        return keys[i] == 0 ? missing : values[i];
+    }
+
+    void put(long key, long value) {
+        int i = slot(key);
+        if (keys[i] == 0) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+                i = slot(key);
+            }
+            keys[i] = key;
+            size++;
+        }
+        values[i] = value;
+    }
+
+    void add(long key, long delta) {
+        final int i = slot(key);
+        if (keys[i] == 0) {
+            put(key, delta);
+        } else {
+            values[i] += delta;
+        }
+    }
+
+    /**
+     * Remove all entries, keeping the capacity.
+     */
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, 0L);
+            size = 0;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of slots, which can be iterated with {@link #keyAt(int)} and {@link #valueAt(int)}
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * @param slot a slot index below {@link #capacity()}
+     * @return the key in the slot, or `0` if the slot is empty
+     */
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    long valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Select the entries with the largest values, in descending order of their values.
+     * Entries with values of zero or less are never selected.
+     *
+     * @param topKeys receives the keys of the selected entries, its length is the maximum number of entries to select
+     * @param topValues receives the values of the selected entries, at least as long as `topKeys`
+     * @return the number of selected entries
+     */
+    int top(long[] topKeys, long[] topValues) {
+        final int n = topKeys.length;
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            final long value = values[i];
+            if (keys[i] == 0 || value <= 0 || (count == n && value <= topValues[n - 1])) {
+                continue;
+            }
+            int j = count < n ? count++ : n - 1;
+            while (j > 0 && topValues[j - 1] < value) {
+                topKeys[j] = topKeys[j - 1];
+                topValues[j] = topValues[j - 1];
+                j--;
+            }
+            topKeys[j] = keys[i];
+            topValues[j] = value;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.thread;
+
+import com.apple.pollianna.DoubleValueRecord;
+import com.apple.pollianna.WindowRecord;
+
+import java.lang.management.PlatformManagedObject;
+
+/**
+ * Bean interface for aggregated per-thread metrics, sampled from all live threads in bulk.
+ */
+public interface ThreadAggregateMXBean extends PlatformManagedObject {
+    /**
+     * Return an aggregate (last, min, average, max) of the Java heap allocation rates per aggregation interval,
+     * in Mbytes per second, since the previous call to this method.
+     * Unlike the allocation rate of the "GcAggregate" bean, which is only known between garbage collections,
+     * this rate is sampled from the allocation counters of all threads,
+     * so that with an aggregation interval of one second it shows allocation bursts per second.
+     *
+     * @see com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long[])
+     * @return an aggregate of the Java heap allocation rates per aggregation interval, in Mbytes per second
+     */
+    DoubleValueRecord getAllocationRate();
+
+    /**
+     * Return the count, average, and maximum of the Java heap allocation rates per aggregation interval,
+     * in Mbytes per second, over the last 1, 5, and 15 minutes.
+     * Unlike other attributes, these sliding windows do not depend on when or how often they are read.
+     *
+     * @return the allocation rate aggregates over the last 1, 5, and 15 minutes
+     */
+    WindowRecord getAllocationRateWindows();
+
+    /**
+     * Return the threads that have allocated the most Java heap memory since the previous call to this method,
+     * with their names and their allocation rates in Mbytes per second, in descending order.
+     * Threads that have terminated meanwhile have an empty name.
+     * <p>
+     * Unlike other attributes, this is not part of snapshots, so that only reading it starts a new interval.
+     * All readers share these intervals.
+     *
+     * @return up to 10 threads with the highest allocation rates since the previous call to this method
+     */
+    ThreadRecord[] getTopAllocators();
+
+    /**
+     * Return the threads that have used the most CPU time since the previous call to this method,
+     * with their names and their CPU usage in percent of one processor's time, in descending order.
+     * A thread that keeps one processor busy all the time has a CPU usage of 100%.
+     * Threads that have terminated meanwhile have an empty name.
+     * <p>
+     * This requires thread CPU time measurement to be supported and enabled.
+     * <p>
+     * Unlike other attributes, this is not part of snapshots, so that only reading it starts a new interval.
+     * All readers share these intervals.
+     *
+     * @see java.lang.management.ThreadMXBean#isThreadCpuTimeEnabled
+     * @return up to 10 threads with the highest CPU usage since the previous call to this method
+     */
+    ThreadRecord[] getHotThreads();
+}
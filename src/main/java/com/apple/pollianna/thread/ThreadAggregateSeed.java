@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.thread;
+
+import com.apple.pollianna.Aggregator;
+import com.apple.pollianna.DoubleValueRecord;
+import com.apple.pollianna.Seed;
+import com.apple.pollianna.Snapshot;
+import com.apple.pollianna.WindowRecord;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bean implementation for aggregated per-thread metrics.
+ */
+public final class ThreadAggregateSeed extends Seed implements ThreadAggregateMXBean {
+    public ThreadAggregateSeed() {
+        super();
+        aggregator.allocationRate.enableWindows();
+    }
+
+    private final ThreadAggregator aggregator = new ThreadAggregator();
+
+    @Override
+    protected List<Aggregator> aggregators() {
+        return Arrays.asList(aggregator);
+    }
+
+    private final Snapshot.Source<DoubleValueRecord> allocationRate = snapshot.source(aggregator.allocationRate::getRecord);
+
+    // The top threads are not snapshot sources, because every snapshot would take them, also for readers that do not report them
+
+    public DoubleValueRecord getAllocationRate() { return allocationRate.get(); }
+    public WindowRecord getAllocationRateWindows() { return aggregator.allocationRate.getWindowRecord(); }
+    public ThreadRecord[] getTopAllocators() { return aggregator.topAllocators(); }
+    public ThreadRecord[] getHotThreads() { return aggregator.hotThreads(); }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.thread;
+
+import com.apple.pollianna.DoubleValueRecorder;
+import com.apple.pollianna.LongDurationRecorder;
+import com.apple.pollianna.Overhead;
+import com.apple.pollianna.PeriodicAggregator;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static com.apple.pollianna.Units.MiB;
+
+/**
+ * Samples the bytes allocated and the CPU time used by each live thread in bulk each tick.
+ * This yields the Java heap allocation rate at the resolution of the aggregation interval,
+ * independent of when garbage collections happen, as well as the threads that allocate most and the hottest threads.
+ * <p>
+ * The cost of a tick stays proportional to the number of live threads, even with thousands of them:
+ * the list of live thread ids is cached and only rescanned when enough threads have started since the previous rescan,
+ * so that a pool that keeps replacing a few threads does not cause a rescan every tick,
+ * per-thread totals are kept in primitive maps keyed by thread id, so that a tick does not box anything,
+ * and thread names are only looked up for the few top threads, when those are read.
+ */
+public class ThreadAggregator extends PeriodicAggregator {
+
+    /**
+     * The maximum number of threads reported as top threads.
+     */
+    public static final int TOP_COUNT = 10;
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * The maximum number of ticks for which threads that have started are not sampled yet,
+     * unless they add up to more than an eighth of the cached threads, which triggers a rescan sooner.
+     */
+    static final int MAX_RESCAN_DELAY_TICKS = 10;
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final com.sun.management.ThreadMXBean extendedBean = threadBean instanceof com.sun.management.ThreadMXBean
+        ? (com.sun.management.ThreadMXBean) threadBean : null;
+    private final boolean isAllocationSupported = extendedBean != null && extendedBean.isThreadAllocatedMemorySupported();
+    private final boolean isCpuTimeSupported = extendedBean != null && threadBean.isThreadCpuTimeSupported();
+
+    // `getTotalThreadAllocatedBytes()`, which also counts threads that have terminated since the previous tick, or `null` before JDK 21
+    private final MethodHandle totalAllocatedBytes = isAllocationSupported ? findTotalAllocatedBytes() : null;
+
+    private static MethodHandle findTotalAllocatedBytes() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(com.sun.management.ThreadMXBean.class,
+                "getTotalThreadAllocatedBytes", MethodType.methodType(long.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    public ThreadAggregator() { super(); }
+
+    /**
+     * The Java heap allocation rate per tick, in Mbytes per second.
+     */
+    public final DoubleValueRecorder allocationRate = new DoubleValueRecorder();
+
+    // The ids of the live threads as of the previous tick
+    private long[] ids = new long[0];
+    private long startedThreadCount = -1;
+    private long rescanCount = 0;
+    private int ticksSinceRescan = 0;
+
+    // Per live thread id: the bytes allocated and the CPU time used until the previous tick, and until the current tick
+    private LongLongMap allocated = new LongLongMap();
+    private LongLongMap nextAllocated = new LongLongMap();
+    private LongLongMap cpuTime = new LongLongMap();
+    private LongLongMap nextCpuTime = new LongLongMap();
+    private boolean hasAllocated = false;
+    private boolean hasCpuTime = false;
+
+    // Scratch space for the ids and the deltas of the threads sampled in a tick
+    private long[] deltaIds = new long[0];
+    private long[] deltas = new long[0];
+
+    private long previousTickNanos = 0;
+    private long previousTotalAllocated = -1;
+
+    private final ThreadIntervals allocators = new ThreadIntervals(threadBean, TOP_COUNT, MiB);
+    private final ThreadIntervals hotThreads = new ThreadIntervals(threadBean, TOP_COUNT, NANOS_PER_SECOND / 100.0);
+
+    /**
+     * @return the ids of all live threads, and possibly of some that have terminated since the previous tick
+     */
+    private long[] liveThreadIds() {
+        // Without started threads, the live threads are the previous ones, except for those that have terminated.
+        // Threads that have started meanwhile are sampled from the next rescan on, with all they have accumulated.
+        final long started = threadBean.getTotalStartedThreadCount();
+        ticksSinceRescan++;
+        if (startedThreadCount < 0 || ids.length == 0 || (started != startedThreadCount &&
+                (started - startedThreadCount > ids.length / 8 || ticksSinceRescan >= MAX_RESCAN_DELAY_TICKS))) {
+            startedThreadCount = started;
+            ids = threadBean.getAllThreadIds();
+            rescanCount++;
+            ticksSinceRescan = 0;
+        }
+        if (deltas.length < ids.length) {
+            deltaIds = new long[ids.length];
+            deltas = new long[ids.length];
+        }
+        return ids;
+    }
+
+    /**
+     * @return the number of times that the ids of all live threads have been retrieved
+     */
+    long rescanCount() {
+        return rescanCount;
+    }
+
+    private long totalAllocatedBytes() {
+        if (totalAllocatedBytes == null) {
+            return -1;
+        }
+        try {
+            return (long) totalAllocatedBytes.invokeExact(extendedBean);
+        } catch (Throwable e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Compute the deltas of the sampled per-thread totals compared to the previous tick,
+     * and fill `next` with the sampled totals of the threads that are still alive.
+     *
+     * @return the number of threads with deltas in `deltaIds` and `deltas`
+     */
+    private int sampleDeltas(long[] ids, long[] totals, LongLongMap previous, LongLongMap next) {
+        next.clear();
+        int count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (totals[i] < 0) {
+                continue; // The thread has terminated meanwhile
+            }
+            next.put(ids[i], totals[i]);
+            // A thread that has started since the previous tick has accumulated all of its total since then
+            deltaIds[count] = ids[i];
+            deltas[count] = totals[i] - previous.get(ids[i], 0);
+            count++;
+        }
+        return count;
+    }
+
+    private void sampleAllocations(long[] ids, long nanoTime) {
+        final long[] bytes = extendedBean.getThreadAllocatedBytes(ids);
+        final long totalAllocated = totalAllocatedBytes();
+        final int count = sampleDeltas(ids, bytes, allocated, nextAllocated);
+        final LongLongMap swap = allocated;
+        allocated = nextAllocated;
+        nextAllocated = swap;
+        if (count == 0) {
+            // Measurement has been disabled, and the first samples after it is enabled again only establish totals
+            hasAllocated = false;
+            return;
+        }
+
+        if (hasAllocated) {
+            allocators.add(deltaIds, deltas, count, allocated);
+            long delta = 0;
+            if (totalAllocated >= 0 && previousTotalAllocated >= 0) {
+                delta = totalAllocated - previousTotalAllocated;
+            } else {
+                for (int i = 0; i < count; i++) {
+                    delta += Math.max(deltas[i], 0);
+                }
+            }
+            final double seconds = (double) (nanoTime - previousTickNanos) / NANOS_PER_SECOND;
+            if (seconds > 0) {
+                allocationRate.record((double) delta / (double) MiB / seconds);
+            }
+        }
+        previousTotalAllocated = totalAllocated;
+        hasAllocated = true;
+    }
+
+    private void sampleCpuTimes(long[] ids) {
+        if (!threadBean.isThreadCpuTimeEnabled()) {
+            hasCpuTime = false;
+            return;
+        }
+        final long[] nanos = extendedBean.getThreadCpuTime(ids);
+        final int count = sampleDeltas(ids, nanos, cpuTime, nextCpuTime);
+        final LongLongMap swap = cpuTime;
+        cpuTime = nextCpuTime;
+        nextCpuTime = swap;
+        if (count == 0) {
+            // Measurement has been disabled since the check above
+            hasCpuTime = false;
+            return;
+        }
+        if (hasCpuTime) {
+            hotThreads.add(deltaIds, deltas, count, cpuTime);
+        }
+        hasCpuTime = true;
+    }
+
+    /**
+     * Drop the ids of terminated threads from the cached ids, based on the current samples.
+     * Without any current samples, e.g. because measurement has been disabled, the cached ids are kept.
+     */
+    private void dropTerminated() {
+        final LongLongMap live = hasCpuTime ? cpuTime : allocated;
+        if (live.size() == ids.length || !(hasCpuTime || hasAllocated)) {
+            return;
+        }
+        final long[] result = new long[live.size()];
+        int count = 0;
+        for (long id : ids) {
+            if (live.get(id, -1) >= 0) {
+                result[count++] = id;
+            }
+        }
+        ids = result;
+    }
+
+    private final Runnable poll = () -> {
+        final long nanoTime = System.nanoTime();
+        final long[] ids = liveThreadIds();
+        if (isAllocationSupported) {
+            sampleAllocations(ids, nanoTime);
+        }
+        if (isCpuTimeSupported) {
+            sampleCpuTimes(ids);
+        }
+        dropTerminated();
+        previousTickNanos = nanoTime;
+    };
+
+    @Override
+    protected Runnable runnable() { return poll; }
+
+    @Override
+    protected LongDurationRecorder tickRecorder() { return Overhead.threadTick; }
+
+    /**
+     * Return the threads that have allocated the most since the previous call, with their allocation rates,
+     * and start a new interval.
+     * Threads that have terminated meanwhile are included, with an empty name.
+     *
+     * @return up to {@link #TOP_COUNT} threads in descending order of their allocation rates, in Mbytes per second
+     */
+    public ThreadRecord[] topAllocators() {
+        return allocators.take();
+    }
+
+    /**
+     * Return the threads that have used the most CPU time since the previous call, with their CPU usage,
+     * and start a new interval.
+     * Threads that have terminated meanwhile are included, with an empty name.
+     *
+     * @return up to {@link #TOP_COUNT} threads in descending order of their CPU usage,
+     * in percent of one processor's time
+     */
+    public ThreadRecord[] hotThreads() {
+        return hotThreads.take();
+    }
+}
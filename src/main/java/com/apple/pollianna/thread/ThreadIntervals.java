@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.thread;
+
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Accumulates a per-thread quantity, such as allocated bytes or CPU time, between reads
+ * and reports the threads with the largest rates, by name.
+ * Thread names are only looked up for the reported threads.
+ */
+final class ThreadIntervals {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final ThreadMXBean threadBean;
+    private final int topCount;
+    private final double divisor;
+
+    /**
+     * @param threadBean the bean to look up thread names with
+     * @param topCount the maximum number of threads to report
+     * @param divisor what to divide the accumulated amounts by to convert them to the unit of the reported rates
+     */
+    ThreadIntervals(ThreadMXBean threadBean, int topCount, double divisor) {
+        this.threadBean = threadBean;
+        this.topCount = topCount;
+        this.divisor = divisor;
+        this.compactionIds = new long[topCount];
+        this.compactionAmounts = new long[topCount];
+    }
+
+    private final Object lock = new Object();
+
+    // Guarded by `lock`: per thread id, the amount accumulated since the previous call of `take()`
+    private LongLongMap amounts = new LongLongMap();
+    private LongLongMap compacted = new LongLongMap();
+    private final long[] compactionIds;
+    private final long[] compactionAmounts;
+    private long beginNanos = System.nanoTime();
+
+    /**
+     * @param ids thread ids
+     * @param deltas per thread id, the amount to add
+     * @param count the number of leading elements of `ids` and `deltas` to use
+     * @param live the map whose keys are the ids of the live threads, to bound the accumulated state
+     */
+    void add(long[] ids, long[] deltas, int count, LongLongMap live) {
+        synchronized (lock) {
+            for (int i = 0; i < count; i++) {
+                if (deltas[i] > 0) {
+                    amounts.add(ids[i], deltas[i]);
+                }
+            }
+            if (amounts.size() > 2 * live.size() + topCount) {
+                compact(live);
+            }
+        }
+    }
+
+    /**
+     * Drop the entries of terminated threads that cannot make it into the top threads anymore,
+     * so that thread churn without anyone reading the top threads does not grow the map without bounds.
+     */
+    private void compact(LongLongMap live) {
+        final int count = amounts.top(compactionIds, compactionAmounts);
+        final long threshold = count < topCount ? 0 : compactionAmounts[topCount - 1];
+        compacted.clear();
+        for (int i = 0; i < amounts.capacity(); i++) {
+            final long id = amounts.keyAt(i);
+            if (id != 0 && (live.get(id, -1) >= 0 || amounts.valueAt(i) >= threshold)) {
+                compacted.put(id, amounts.valueAt(i));
+            }
+        }
+        final LongLongMap swap = amounts;
+        amounts = compacted;
+        compacted = swap;
+    }
+
+    /**
+     * Return the threads with the largest amounts since the previous call, with their rates per second,
+     * and start a new interval.
+     * Threads that have terminated meanwhile are included, with an empty name.
+     *
+     * @return up to the configured number of threads, in descending order of their rates
+     */
+    ThreadRecord[] take() {
+        final long[] ids = new long[topCount];
+        final long[] values = new long[topCount];
+        final int count;
+        final double seconds;
+        synchronized (lock) {
+            count = amounts.top(ids, values);
+            amounts.clear();
+            final long nanoTime = System.nanoTime();
+            seconds = (double) (nanoTime - beginNanos) / NANOS_PER_SECOND;
+            beginNanos = nanoTime;
+        }
+        final long[] found = new long[count];
+        System.arraycopy(ids, 0, found, 0, count);
+        final ThreadInfo[] infos = threadBean.getThreadInfo(found);
+        final ThreadRecord[] result = new ThreadRecord[count];
+        for (int i = 0; i < count; i++) {
+            final String name = infos[i] != null ? infos[i].getThreadName() : "";
+            final double rate = seconds > 0 ? (double) values[i] / divisor / seconds : 0.0;
+            result[i] = new ThreadRecord(found[i], name, rate);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.thread;
+
+import com.apple.pollianna.Util;
+
+import java.beans.ConstructorProperties;
+
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataView;
+import javax.management.openmbean.CompositeType;
+
+/**
+ * Identifies a thread and holds one measurement of it, such as its allocation rate or its CPU usage.
+ */
+public class ThreadRecord implements CompositeDataView {
+    private static final String[] ITEM_NAMES = {"id", "name", "value"};
+
+    private final long id;
+    private final String name;
+    private final double value;
+
+    @ConstructorProperties({"id", "name", "value"}) // Java 8
+    public ThreadRecord(long id, String name, double value) {
+        this.id = id;
+        this.name = name;
+        this.value = value;
+    }
+
+    public long getId() { return id; }
+
+    public String getName() { return name; }
+
+    public double getValue() { return value; }
+
+    @Override
+    public CompositeData toCompositeData(CompositeType type) {
+        return Util.toCompositeData(type, ITEM_NAMES, new Object[] {id, name, value});
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + id + ") = " + value;
+    }
+}
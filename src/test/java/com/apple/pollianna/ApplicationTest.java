@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import com.apple.pollianna.application.ApplicationRegistry;
+import com.apple.pollianna.application.ApplicationSeed;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ApplicationTest {
+
+    @Test
+    public void testRegistry() {
+        final ApplicationRegistry registry = Pollianna.registry();
+        assertSame(registry.duration("test.registry"), registry.duration("test.registry"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("test.registry"));
+        assertThrows(IllegalArgumentException.class, () -> registry.value("test_registry"));
+        assertThrows(IllegalArgumentException.class, () -> registry.value("..."));
+    }
+
+    @Test
+    public void testStripedRecorders() throws Exception {
+        final Cursor other = Cursor.register();
+        final StripedValueRecorder recorder = new StripedValueRecorder();
+        final StripedCounterRecorder counter = new StripedCounterRecorder();
+        final int nThreads = 16;
+        final int nRecords = 10_000;
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < nThreads; i++) {
+            final Thread thread = new Thread(() -> {
+                for (int j = 1; j <= nRecords; j++) {
+                    recorder.record(j);
+                    counter.increment();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals((long) nThreads * nRecords, counter.total());
+        final LongValueRecord record = recorder.getRecord();
+        assertEquals(1L, record.getMin());
+        assertEquals((nRecords + 1) / 2, record.getAvg());
+        assertEquals(nRecords, record.getMax());
+
+        // Same cursor semantics as a value recorder, see CursorTest
+        recorder.record(3);
+        assertEquals(3L, other.read(recorder::getRecord).getMax());
+        recorder.record(9);
+        recorder.record(1);
+        assertEquals(9L, other.read(recorder::getRecord).getMax());
+        recorder.record(2);
+        final LongValueRecord record2 = recorder.getRecord();
+        assertEquals(1L, record2.getMin());
+        assertEquals(9L, record2.getMax());
+        assertEquals((3 + 9 + 1 + 2) / 4, record2.getAvg());
+        assertEquals(2L, other.read(recorder::getRecord).getMax());
+        // An empty interval repeats the previous average
+        assertEquals(3L, recorder.getRecord().getAvg());
+    }
+
+    @Test
+    public void testSubscribers() {
+        final ApplicationSeed seed = new ApplicationSeed();
+        final List<String> first = new ArrayList<String>();
+        final Consumer<MBeanAttributeInfo> subscriber = info -> first.add(info.getName());
+        seed.subscribe(subscriber);
+        Pollianna.registry().counter("test.subscribed.one");
+        assertTrue(first.contains("TestSubscribedOne"));
+
+        seed.unsubscribe(subscriber);
+        Pollianna.registry().counter("test.subscribed.two");
+        assertTrue(!first.contains("TestSubscribedTwo"));
+
+        // Stopping the bean drops all subscribers, e.g. of an OTel reporter that is stopped along with it
+        final List<String> second = new ArrayList<String>();
+        seed.subscribe(info -> second.add(info.getName()));
+        assertTrue(second.contains("TestSubscribedTwo"));
+        seed.stopRecording();
+        Pollianna.registry().counter("test.subscribed.three");
+        assertTrue(!second.contains("TestSubscribedThree"));
+    }
+
+    @Test
+    public void testBean() throws Exception {
+        final StripedDurationRecorder query = Pollianna.registry().duration("test.query");
+        final StripedCounterRecorder requests = Pollianna.registry().counter("test.requests");
+        Pollianna.start("Application|TestQueryMax,TestQueryCount,TestRequests,TestQueueDepthMax");
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = new ObjectName("com.apple.pollianna:type=Application");
+            server.getAttributes(objectName, new String[] {"TestQueryMax", "TestQueryCount"});
+
+            query.record(TimeUnit.MILLISECONDS.toNanos(4));
+            query.record(TimeUnit.MILLISECONDS.toNanos(8));
+            requests.increment();
+            requests.increment();
+            final AttributeList attributes = server.getAttributes(objectName,
+                new String[] {"TestQueryMax", "TestQueryCount", "TestRequests"});
+            assertEquals(3, attributes.size());
+            assertEquals(8L, ((Attribute) attributes.get(0)).getValue());
+            assertEquals(2L, ((Attribute) attributes.get(1)).getValue());
+            assertEquals(2L, ((Attribute) attributes.get(2)).getValue());
+
+            // Metrics registered after starting the bean show up as well, if included
+            Pollianna.registry().value("test.queue.depth").record(5);
+            final List<String> names = new ArrayList<String>();
+            for (MBeanAttributeInfo info : server.getMBeanInfo(objectName).getAttributes()) {
+                names.add(info.getName());
+            }
+            assertTrue(names.contains("TestQueueDepthMax"));
+            assertTrue(!names.contains("TestQueueDepthAvg"));
+            assertEquals(5L, server.getAttribute(objectName, "TestQueueDepthMax"));
+        } finally {
+            Pollianna.stop();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CursorTest {
+
+    @Test
+    public void testValueRecorder() throws Exception {
+        final Cursor other = Cursor.register();
+        final LongValueRecorder recorder = new LongValueRecorder();
+
+        recorder.record(5);
+        recorder.record(7);
+        assertEquals(7L, recorder.getRecord().getMax());
+
+        // The first interval of a new cursor begins with the most recent read by any other cursor
+        recorder.record(3);
+        assertEquals(3L, other.read(recorder::getRecord).getMax());
+
+        // From then on, each cursor sees everything recorded since its own previous read
+        recorder.record(9);
+        recorder.record(1);
+        assertEquals(9L, other.read(recorder::getRecord).getMax());
+        recorder.record(2);
+        final LongValueRecord record = recorder.getRecord();
+        assertEquals(1L, record.getMin());
+        assertEquals(9L, record.getMax());
+        assertEquals((3 + 9 + 1 + 2) / 4, record.getAvg());
+        assertEquals(2L, other.read(recorder::getRecord).getMax());
+        // An empty interval repeats the last value
+        assertEquals(2L, recorder.getRecord().getAvg());
+    }
+
+    @Test
+    public void testDurationRecorder() throws Exception {
+        final Cursor other = Cursor.register();
+        final LongDurationRecorder recorder = new LongDurationRecorder();
+        recorder.getRecord();
+        other.read(recorder::getRecord);
+
+        recorder.record(2_000_000L);
+        assertEquals(1L, recorder.getRecord().getCount());
+
+        recorder.record(4_000_000L);
+        final LongDurationRecord otherRecord = other.read(recorder::getRecord);
+        assertEquals(2L, otherRecord.getCount());
+        assertEquals(4L, otherRecord.getMax());
+        assertEquals(2L, otherRecord.getMin());
+
+        final LongDurationRecord record = recorder.getRecord();
+        assertEquals(1L, record.getCount());
+        assertEquals(4L, record.getMin());
+
+        assertEquals(0L, other.read(recorder::getRecord).getCount());
+    }
+
+    @Test
+    public void testDeltaRecorder() throws Exception {
+        final Cursor other = Cursor.register();
+        final LongDeltaRecorder recorder = new LongDeltaRecorder();
+
+        assertEquals(0L, recorder.record(10));
+        assertEquals(5L, recorder.record(15));
+
+        // The first delta of a new cursor is relative to the most recent observation by any other cursor
+        assertEquals(3L, (long) other.read(() -> recorder.record(18)));
+
+        // From then on, each cursor sees the whole change since its own preceding observation
+        assertEquals(7L, recorder.record(22));
+        assertEquals(4L, (long) other.read(() -> recorder.record(22)));
+        assertEquals(8L, (long) other.read(() -> recorder.record(30)));
+        assertEquals(8L, recorder.record(30));
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        final Cursor other = Cursor.register();
+        final Snapshot snapshot = new Snapshot();
+        final int[] invocations = new int[1];
+        final Snapshot.Source<Integer> source = snapshot.source(() -> ++invocations[0]);
+        final int derived = snapshot.attribute();
+
+        // Each cursor scrapes from its own frame
+        assertEquals(1, (int) source.get());
+        assertEquals(2, (int) other.read(source::get));
+        assertEquals(1, (int) source.in(snapshot.serve(derived)));
+        assertEquals(2, (int) other.read(() -> source.in(snapshot.serve(derived))));
+        assertEquals(3, (int) source.get());
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class EwmaRateRecorderTest {
+
+    private static final long TICK = EwmaRateRecorder.TICK_NANOS;
+
+    @Test
+    public void testRates() {
+        final long origin = 12345;
+        final EwmaRateRecorder readOften = new EwmaRateRecorder(1, origin);
+        final EwmaRateRecorder readOnce = new EwmaRateRecorder(1, origin);
+
+        // 10 per tick for 15 minutes, i.e. 2 per second
+        for (int k = 0; k < 180; k++) {
+            final long now = origin + k * TICK + TICK / 2;
+            readOften.record(10, now);
+            readOnce.record(10, now);
+            readOften.getRecord(now + 1);
+        }
+        final long end = origin + 180 * TICK;
+        final EwmaRecord record = readOnce.getRecord(end);
+        assertEquals(2.0, record.getRate1m(), 1e-9);
+        assertEquals(2.0, record.getRate5m(), 1e-9);
+        assertEquals(2.0, record.getRate15m(), 1e-9);
+
+        // The averages do not depend on how often they are read
+        assertEquals(record.toString(), readOften.getRecord(end).toString());
+
+        // Each average decays by a factor of e per horizon
+        final long later = end + 60 * 1_000_000_000L;
+        for (long now = end; now < later; now += TICK) {
+            readOften.getRecord(now);
+        }
+        final EwmaRecord decayed = readOnce.getRecord(later);
+        assertEquals(2.0 * Math.exp(-1.0), decayed.getRate1m(), 1e-9);
+        assertEquals(2.0 * Math.exp(-0.2), decayed.getRate5m(), 1e-9);
+        assertEquals(decayed.getRate15m(), readOften.getRecord(later).getRate15m(), 1e-9);
+    }
+
+    @Test
+    public void testTotals() {
+        final long origin = 12345;
+        final EwmaRateRecorder recorder = new EwmaRateRecorder(1, origin);
+        recorder.recordTotal(100, origin + 1);
+        recorder.recordTotal(150, origin + 2);
+        assertEquals(0.0, recorder.getRecord(origin + 3).getRate1m());
+        assertEquals(10.0, recorder.getRecord(origin + TICK).getRate1m(), 1e-9);
+
+        // A total that has decreased starts over
+        recorder.recordTotal(20, origin + TICK + 1);
+        recorder.recordTotal(70, origin + TICK + 2);
+        assertEquals(10.0, recorder.getRecord(origin + 2 * TICK).getRate15m(), 1e-9);
+    }
+
+    @Test
+    public void testSpreadTotals() {
+        final long origin = 12345;
+        final EwmaRateRecorder perTick = new EwmaRateRecorder(1, origin);
+        final EwmaRateRecorder polled = new EwmaRateRecorder(1, origin);
+
+        // The total is polled every other tick, and its change is spread over both ticks
+        long total = 1000;
+        polled.recordTotal(total, origin + TICK / 2);
+        for (int k = 1; k <= 90; k++) {
+            final long amount = (k % 3 == 0) ? 200 : 20;
+            perTick.record(amount / 2, origin + (2 * k - 2) * TICK + TICK / 2);
+            perTick.record(amount / 2, origin + (2 * k - 1) * TICK + TICK / 2);
+            total += amount;
+            final long now = origin + 2 * k * TICK + TICK / 2;
+            polled.recordTotal(total, now);
+            final EwmaRecord expected = perTick.getRecord(now + 1);
+            final EwmaRecord actual = polled.getRecord(now + 1);
+            assertEquals(expected.getRate1m(), actual.getRate1m(), 1e-9);
+            assertEquals(expected.getRate5m(), actual.getRate5m(), 1e-9);
+            assertEquals(expected.getRate15m(), actual.getRate15m(), 1e-9);
+        }
+    }
+}
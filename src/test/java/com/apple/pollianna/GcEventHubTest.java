@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import com.apple.pollianna.gc.GcAggregateSeed;
+import com.apple.pollianna.gc.GcCounterSeed;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class GcEventHubTest {
+
+    // Pacify SpotBugs to allow System.gc()
+    private static void collectGarbage() {
+        if (System.currentTimeMillis() > 0) { // always true
+            System.gc();
+        }
+    }
+
+    @Test
+    public void testSharedEvents() throws Exception {
+        final GcAggregateSeed seed1 = new GcAggregateSeed();
+        final GcAggregateSeed seed2 = new GcAggregateSeed();
+        seed1.startRecording();
+        seed2.startRecording();
+        seed1.takeSnapshot();
+        seed2.takeSnapshot();
+
+        collectGarbage();
+        collectGarbage();
+
+        // Notifications are delivered asynchronously
+        Thread.sleep(500);
+
+        seed1.takeSnapshot();
+        seed2.takeSnapshot();
+        final long count1 = seed1.getCycle().getCount();
+        final long count2 = seed2.getCycle().getCount();
+        assertTrue(count1 >= 2);
+        assertEquals(count1, count2);
+        assertEquals(0L, seed1.getDroppedGcEvents());
+
+        seed1.stopRecording();
+        seed2.stopRecording();
+    }
+
+    @Test
+    public void testNoLostEvents() throws Exception {
+        PeriodicAggregator.setIntervalSeconds(1);
+        final GcAggregateSeed seed = new GcAggregateSeed();
+        seed.startRecording();
+        seed.takeSnapshot();
+
+        for (int i = 0; i < 10; i++) {
+            collectGarbage();
+        }
+
+        // Let reconciliation run a few times
+        Thread.sleep(3500);
+
+        seed.takeSnapshot();
+        assertEquals(0L, seed.getLostGcEvents());
+        assertTrue(seed.getPause().getCount() >= 10);
+
+        seed.stopRecording();
+    }
+
+    @Test
+    public void testPauseMicros() throws Exception {
+        // Takes effect unless the GC event hub is already running from an earlier test in this JVM
+        System.setProperty("pollianna.gc.jfr", "true");
+        final GcAggregateSeed seed = new GcAggregateSeed();
+        seed.startRecording();
+        System.clearProperty("pollianna.gc.jfr");
+        seed.takeSnapshot();
+
+        for (int i = 0; i < 5; i++) {
+            collectGarbage();
+        }
+
+        // JFR events are delivered about once per second
+        Thread.sleep(2500);
+
+        seed.takeSnapshot();
+        final LongDurationRecord pause = seed.getPause();
+        final LongDurationRecord pauseMicros = seed.getPauseMicros();
+        assertTrue(pauseMicros.getCount() >= 5);
+        assertEquals(pause.getCount(), pauseMicros.getCount());
+        if (seed.getPauseSource().equals("JFR")) {
+            // Measured by JFR, so even the shortest pauses do not show up as zero
+            assertTrue(pauseMicros.getMax() > 0);
+        }
+        assertEquals(pause.getMax(), pauseMicros.getMax() / 1000);
+        assertEquals(pause.getPortion(), pauseMicros.getPortion());
+
+        seed.stopRecording();
+    }
+
+    @Test
+    public void testCounters() throws Exception {
+        final GcCounterSeed seed = new GcCounterSeed();
+        seed.startRecording();
+
+        // Allocate between collections
+        long sum = 0;
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 1000; j++) {
+                sum += new byte[16 * 1024].length;
+            }
+            collectGarbage();
+        }
+        assertTrue(sum > 0);
+        Thread.sleep(2500);
+
+        final long cycleCount = seed.getCycleCount();
+        final long pauseCount = seed.getPauseCount();
+        final long allocated = seed.getAllocated();
+        assertTrue(cycleCount >= 5);
+        assertTrue(pauseCount >= 5);
+        assertTrue(allocated >= 1);
+
+        // Reading does not reset counters
+        assertEquals(cycleCount, seed.getCycleCount());
+        assertEquals(pauseCount, seed.getPauseCount());
+
+        collectGarbage();
+        Thread.sleep(2500);
+        assertTrue(seed.getCycleCount() > cycleCount);
+        assertTrue(seed.getPauseCount() > pauseCount);
+        assertTrue(seed.getAllocated() >= allocated);
+
+        seed.stopRecording();
+    }
+}
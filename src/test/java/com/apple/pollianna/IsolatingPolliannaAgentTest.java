@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IsolatingPolliannaAgentTest {
+
+    private static final String STORED_NAME = "test/stored.txt";
+    private static final String DEFLATED_NAME = "test/deflated.txt";
+    private static final String PROBE_NAME = Probe.class.getName();
+    private static final String PROBE_ENTRY = PROBE_NAME.replace('.', '/') + ".class";
+
+    private static final byte[] STORED_CONTENT = "stored".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DEFLATED_CONTENT = new byte[64 * 1024];
+    static {
+        for (int i = 0; i < DEFLATED_CONTENT.length; i++) {
+            DEFLATED_CONTENT[i] = (byte) ('a' + i % 7);
+        }
+    }
+
+    /**
+     * Only refers to JDK classes, so that the agent classloader can define it without its parent.
+     */
+    public static final class Probe {
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] jarBytes(Manifest manifest) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JarOutputStream jar = manifest == null ? new JarOutputStream(bytes) : new JarOutputStream(bytes, manifest)) {
+            final JarEntry stored = new JarEntry(STORED_NAME);
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(STORED_CONTENT.length);
+            stored.setCompressedSize(STORED_CONTENT.length);
+            final CRC32 crc = new CRC32();
+            crc.update(STORED_CONTENT);
+            stored.setCrc(crc.getValue());
+            jar.putNextEntry(stored);
+            jar.write(STORED_CONTENT);
+            jar.closeEntry();
+
+            jar.putNextEntry(new JarEntry(DEFLATED_NAME));
+            jar.write(DEFLATED_CONTENT);
+            jar.closeEntry();
+
+            try (InputStream probe = Probe.class.getResourceAsStream("/" + PROBE_ENTRY)) {
+                jar.putNextEntry(new JarEntry(PROBE_ENTRY));
+                jar.write(readAll(probe));
+                jar.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static IsolatingPolliannaAgent.EmbeddedJar embeddedJar(Manifest manifest) throws IOException {
+        return new IsolatingPolliannaAgent.EmbeddedJar(new ByteArrayInputStream(jarBytes(manifest)));
+    }
+
+    private static IsolatingPolliannaAgent.AgentClassLoader classLoader(Manifest manifest) throws IOException {
+        return new IsolatingPolliannaAgent.AgentClassLoader(embeddedJar(manifest), new URL("file:/embedded.jar"));
+    }
+
+    @Test
+    void testStoredEntry() throws IOException {
+        final IsolatingPolliannaAgent.EmbeddedJar jar = embeddedJar(null);
+        assertTrue(jar.contains(STORED_NAME));
+        assertArrayEquals(STORED_CONTENT, jar.read(STORED_NAME));
+    }
+
+    @Test
+    void testDeflatedEntry() throws IOException {
+        final byte[] jarBytes = jarBytes(null);
+        assertTrue(jarBytes.length < DEFLATED_CONTENT.length, "entry was not compressed");
+        final IsolatingPolliannaAgent.EmbeddedJar jar = new IsolatingPolliannaAgent.EmbeddedJar(new ByteArrayInputStream(jarBytes));
+        assertTrue(jar.contains(DEFLATED_NAME));
+        assertArrayEquals(DEFLATED_CONTENT, jar.read(DEFLATED_NAME));
+    }
+
+    @Test
+    void testMissingEntry() throws IOException {
+        final IsolatingPolliannaAgent.EmbeddedJar jar = embeddedJar(null);
+        assertFalse(jar.contains("test/missing.txt"));
+        assertNull(jar.read("test/missing.txt"));
+        assertNull(jar.read("test/"));
+
+        final ClassLoader loader = classLoader(null);
+        assertNull(loader.getResource("test/missing.txt"));
+        assertFalse(loader.getResources("test/missing.txt").hasMoreElements());
+        assertThrows(ClassNotFoundException.class, () -> loader.loadClass("test.Missing"));
+    }
+
+    @Test
+    void testResources() throws IOException {
+        final ClassLoader loader = classLoader(null);
+        final List<URL> urls = Collections.list(loader.getResources(DEFLATED_NAME));
+        assertEquals(1, urls.size());
+        try (InputStream in = urls.get(0).openStream()) {
+            assertArrayEquals(DEFLATED_CONTENT, readAll(in));
+        }
+        try (InputStream in = loader.getResourceAsStream(STORED_NAME)) {
+            assertArrayEquals(STORED_CONTENT, readAll(in));
+        }
+    }
+
+    @Test
+    void testUnsealedPackage() throws Exception {
+        final Class<?> probe = classLoader(null).loadClass(PROBE_NAME);
+        assertNotSame(Probe.class, probe);
+        assertFalse(probe.getPackage().isSealed());
+    }
+
+    @Test
+    void testSealedPackage() throws Exception {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_TITLE, "main");
+        final Attributes packageAttributes = new Attributes();
+        packageAttributes.put(Attributes.Name.SEALED, "true");
+        packageAttributes.put(Attributes.Name.IMPLEMENTATION_VERSION, "1.2.3");
+        manifest.getEntries().put(Probe.class.getPackage().getName().replace('.', '/') + "/", packageAttributes);
+
+        final Class<?> probe = classLoader(manifest).loadClass(PROBE_NAME);
+        final Package pkg = probe.getPackage();
+        assertTrue(pkg.isSealed());
+        assertTrue(pkg.isSealed(new URL("file:/embedded.jar")));
+        assertEquals("main", pkg.getImplementationTitle());
+        assertEquals("1.2.3", pkg.getImplementationVersion());
+    }
+}
@@ -76,6 +76,9 @@ public class JvmTest {
         // Wait for initial sampling to occur
         try { Thread.sleep(3000); } catch (Exception e) {}
 
+        // Begin a new scrape, since the last one ended before the code heaps were sampled
+        seed.takeSnapshot();
+
         final double codeCacheSegmentUsageMax = seed.getCodeCacheSegmentUsageMax();
         assertTrue(codeCacheSegmentUsageMax > 0.0);
         
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class LongHistogramTest {
+
+    private static void assertClose(long expected, long actual) {
+        assertTrue(Math.abs(expected - actual) <= expected * 0.016 + 1, "expected ~" + expected + " but got " + actual);
+    }
+
+    @Test
+    public void testBuckets() {
+        for (long value = 0; value < 10_000_000L; value += 1 + value / 7) {
+            final int index = LongHistogram.bucketIndex(value);
+            assertTrue(LongHistogram.bucketLowerBound(index) <= value);
+            assertTrue(LongHistogram.bucketUpperBound(index) >= value);
+        }
+        final int last = LongHistogram.bucketIndex(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LongHistogram.bucketUpperBound(last));
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LongHistogram histogram = new LongHistogram();
+        assertEquals(0L, histogram.percentile(99));
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        final long[] results = new long[4];
+        histogram.percentiles(new double[] {50, 90, 99, 99.9}, results);
+        assertClose(50_000, results[0]);
+        assertClose(90_000, results[1]);
+        assertClose(99_000, results[2]);
+        assertClose(99_900, results[3]);
+        assertEquals(100_000L, histogram.percentile(100));
+        assertEquals(1L, histogram.percentile(0));
+    }
+
+    @Test
+    public void testMerge() {
+        final LongHistogram low = new LongHistogram();
+        final LongHistogram high = new LongHistogram();
+        for (int i = 0; i < 1000; i++) {
+            low.record(10);
+            high.record(1000);
+        }
+        low.add(high);
+        assertEquals(2000L, low.count());
+        assertEquals(10L, low.percentile(50));
+        assertClose(1000, low.percentile(51));
+
+        low.reset();
+        assertEquals(0L, low.count());
+        assertEquals(0L, low.percentile(50));
+    }
+}
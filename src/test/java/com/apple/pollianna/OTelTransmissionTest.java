@@ -143,6 +143,11 @@ class OTelTransmissionTest {
     }
 
     private void checkMetric(String metricName, String[] expectedMetricNames, Metric metric, Set<String> valueNames) {
+        if (metric.hasHistogram()) {
+            // Duration histograms only carry data points once the underlying recorder has seen a value
+            assertTrue(metricName.endsWith("_duration"), "Unexpected histogram received: " + metricName);
+            return;
+        }
         for (int i = 0; i < expectedMetricNames.length; i++) {
             if (metricName.equals(METRIC_PREFIX_ + expectedMetricNames[i])) {
                 if (valueNames.contains(expectedMetricNames[i])) {
@@ -203,7 +208,9 @@ class OTelTransmissionTest {
             "jvm_gc_workload_max",
             "jvm_gc_allocation_rate_max",
             "jvm_gc_pause_max",
+            "jvm_gc_pause_max_micros",
             "jvm_gc_pause_portion",
+            "jvm_gc_pause_p99",
             "jvm_direct_memory_usage_max",
             "jvm_code_cache_segment_usage_max"
         }, new HashSet<>(Arrays.asList( // for instance, these metrics must have non-zero values:
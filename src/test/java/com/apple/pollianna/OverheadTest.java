@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import com.apple.pollianna.gc.GcAggregateSeed;
+import com.apple.pollianna.overhead.PolliannaMXBean;
+import com.apple.pollianna.overhead.PolliannaSeed;
+import com.apple.pollianna.rt.RtAggregateMXBean;
+import com.apple.pollianna.rt.RtAggregateSeed;
+import com.apple.pollianna.rt.RtAggregator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class OverheadTest {
+
+    // Pacify SpotBugs to allow System.gc()
+    private static void collectGarbage() {
+        if (System.currentTimeMillis() > 0) { // always true
+            System.gc();
+        }
+    }
+
+    @Test
+    public void testOverhead() throws Exception {
+        final PolliannaSeed seed = new PolliannaSeed();
+        seed.startRecording();
+        seed.takeSnapshot();
+
+        PeriodicAggregator.setIntervalSeconds(RtAggregator.class, 1);
+        PeriodicAggregator.setIntervalSeconds(OverheadGovernor.class, 1);
+        try {
+            final long cpuNanos = Overhead.threadCpuTime();
+            final long allocatedBytes = Overhead.threadAllocatedBytes();
+
+            final GcAggregateSeed gcSeed = new GcAggregateSeed();
+            gcSeed.startRecording();
+            final DynamicSeed rtSeed = new DynamicSeed(RtAggregateMXBean.class, new RtAggregateSeed());
+            rtSeed.setIncludedAttributeNames(Collections.singleton("MappedMemoryMax"));
+            rtSeed.startRecording();
+            OverheadGovernor.setBudgetPercent(100.0);
+
+            collectGarbage();
+            collectGarbage();
+            // Let periodic data gathering run a few times
+            Thread.sleep(2500);
+            rtSeed.getAttribute("MappedMemoryMax");
+
+            seed.takeSnapshot();
+            assertTrue(seed.getGcNotificationMicros().getCount() >= 2);
+            assertTrue(seed.getRtTickMicros().getCount() >= 1);
+            assertTrue(seed.getGovernorTickMicros().getCount() >= 1);
+            assertTrue(seed.getScrapeMicros().getCount() >= 1);
+
+            // The ticks have run on Pollianna's own threads
+            assertTrue(Overhead.threadCpuTime() > cpuNanos);
+            assertTrue(Overhead.threadAllocatedBytes() > allocatedBytes);
+
+            // Thread resource usage is not reset when read
+            final long allocated = seed.getThreadAllocated();
+            assertTrue(allocated > 0);
+            assertTrue(seed.getThreadAllocated() >= allocated);
+
+            OverheadGovernor.setBudgetPercent(0.0);
+            rtSeed.stopRecording();
+            gcSeed.stopRecording();
+        } finally {
+            PeriodicAggregator.setIntervalSeconds(RtAggregator.class, 0);
+            PeriodicAggregator.setIntervalSeconds(OverheadGovernor.class, 0);
+            seed.stopRecording();
+        }
+    }
+
+    // Keeps allocations from being optimized away
+    private static volatile Object sink;
+
+    private static Thread startWorker(CountDownLatch isDone, CountDownLatch release, boolean isUnregistering) {
+        final Thread thread = new Thread(() -> {
+            Overhead.registerThread(Thread.currentThread());
+            for (int i = 0; i < 1024; i++) {
+                sink = new byte[16 * 1024];
+            }
+            isDone.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (isUnregistering) {
+                Overhead.unregisterThread(Thread.currentThread());
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    @Test
+    public void testEndedThreads() throws Exception {
+        final long allocatedBytes = Overhead.threadAllocatedBytes();
+        final CountDownLatch isDone = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread ending = startWorker(isDone, release, false);
+        final Thread unregistering = startWorker(isDone, release, true);
+        isDone.await();
+
+        // Sample both threads while they are alive
+        final long cpuTime = Overhead.threadCpuTime();
+        final long allocated = Overhead.threadAllocatedBytes();
+        assertTrue(allocated >= allocatedBytes + 2 * 1024 * 16 * 1024);
+
+        release.countDown();
+        ending.join();
+        unregistering.join();
+
+        // What ended and unregistered threads used remains accounted for
+        assertTrue(Overhead.threadCpuTime() >= cpuTime);
+        assertTrue(Overhead.threadAllocatedBytes() >= allocated);
+    }
+
+    @Test
+    public void testBeanName() {
+        final DynamicSeed seed = new DynamicSeed(PolliannaMXBean.class, new PolliannaSeed());
+        assertEquals("Pollianna", seed.beanName());
+        assertEquals("Pollianna", new PolliannaSeed().beanName());
+    }
+}
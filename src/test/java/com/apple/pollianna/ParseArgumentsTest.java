@@ -15,6 +15,8 @@
  */
 package com.apple.pollianna;
 
+import com.apple.pollianna.compiler.CompilerAggregator;
+import com.apple.pollianna.rt.RtAggregator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -42,6 +44,17 @@ public class ParseArgumentsTest {
         assertEquals("could not parse interval value: NaN", exception.getMessage());
     }
 
+    @Test
+    public void testIntervalPerBeanFamily() {
+        Pollianna.start("interval:Compiler=2,Nmt=60");
+        assertEquals(2, new CompilerAggregator().intervalSeconds());
+        Pollianna.start("interval:Compiler=0,Nmt=0");
+        assertEquals(new RtAggregator().intervalSeconds(), new CompilerAggregator().intervalSeconds());
+
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> Pollianna.start("interval:Unknown=1"));
+        assertEquals("unknown Pollianna bean family with periodic data gathering specified: Unknown", exception.getMessage());
+    }
+
     @Test
     public void testUnknownKeyword() {
         final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> Pollianna.start("unknown:foo"));
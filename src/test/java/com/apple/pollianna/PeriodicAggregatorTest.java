@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PeriodicAggregatorTest {
+
+    private static class CountingAggregator extends PeriodicAggregator {
+        @Override
+        protected Runnable runnable() { return () -> {}; }
+    }
+
+    private static class FailingAggregator extends PeriodicAggregator {
+        @Override
+        protected Runnable runnable() { return () -> { throw new IllegalStateException("failing on purpose"); }; }
+    }
+
+    private static class SlowAggregator extends PeriodicAggregator {
+        @Override
+        protected Runnable runnable() {
+            return () -> {
+                try {
+                    Thread.sleep(2500);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            };
+        }
+    }
+
+    private static class BusyAggregator extends PeriodicAggregator {
+        @Override
+        protected Runnable runnable() {
+            return () -> {
+                final long deadline = System.nanoTime() + 100_000_000L;
+                while (System.nanoTime() < deadline) {
+                    // Spend CPU time
+                }
+            };
+        }
+    }
+
+    private static class SwitchableAggregator extends BusyAggregator {
+        volatile boolean isBusy = true;
+
+        @Override
+        protected Runnable runnable() {
+            final Runnable busy = super.runnable();
+            return () -> {
+                if (isBusy) {
+                    busy.run();
+                }
+            };
+        }
+    }
+
+    private static class NonDegradableBusyAggregator extends BusyAggregator {
+        @Override
+        protected boolean isDegradable() {
+            return false;
+        }
+    }
+
+    private static void awaitStretchedCount(OverheadGovernor governor, boolean isStretched) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while ((governor.stretchedCount() > 0) != isStretched && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+    }
+
+    @Test
+    public void testFailureIsolation() throws Exception {
+        PeriodicAggregator.setIntervalSeconds(CountingAggregator.class, 1);
+        PeriodicAggregator.setIntervalSeconds(FailingAggregator.class, 1);
+        final PeriodicAggregator failing = new FailingAggregator();
+        final PeriodicAggregator counting = new CountingAggregator();
+        failing.startAggregating();
+        counting.startAggregating();
+
+        Thread.sleep(3500);
+        failing.stopAggregating();
+        counting.stopAggregating();
+
+        assertTrue(failing.failureCount() >= 2);
+        assertEquals(failing.runCount(), failing.failureCount());
+        assertTrue(counting.runCount() >= 2);
+        assertEquals(0L, counting.failureCount());
+    }
+
+    @Test
+    public void testReconfiguration() throws Exception {
+        PeriodicAggregator.setIntervalSeconds(CountingAggregator.class, 60);
+        final PeriodicAggregator counting = new CountingAggregator();
+        assertEquals(60, counting.intervalSeconds());
+        counting.startAggregating();
+
+        Thread.sleep(1500);
+        assertEquals(0L, counting.runCount());
+
+        // Takes effect without restarting the aggregator
+        PeriodicAggregator.setIntervalSeconds(CountingAggregator.class, 1);
+        assertEquals(1, counting.intervalSeconds());
+        Thread.sleep(3500);
+        assertTrue(counting.runCount() >= 2);
+
+        counting.stopAggregating();
+        final long runCount = counting.runCount();
+        Thread.sleep(1500);
+        assertEquals(runCount, counting.runCount());
+    }
+
+    @Test
+    public void testOverrun() throws Exception {
+        PeriodicAggregator.setIntervalSeconds(SlowAggregator.class, 1);
+        final PeriodicAggregator slow = new SlowAggregator();
+        slow.startAggregating();
+
+        Thread.sleep(6500);
+        slow.stopAggregating();
+
+        // Missed runs are skipped, not piled up
+        assertTrue(slow.runCount() >= 2);
+        assertTrue(slow.runCount() <= 3);
+        assertTrue(slow.skipCount() >= 2);
+    }
+
+    @Test
+    public void testOverheadGovernor() throws Exception {
+        PeriodicAggregator.setIntervalSeconds(BusyAggregator.class, 1);
+        PeriodicAggregator.setIntervalSeconds(OverheadGovernor.class, 1);
+        final PeriodicAggregator busy = new BusyAggregator();
+        busy.startAggregating();
+        OverheadGovernor.setBudgetPercent(0.001);
+
+        Thread.sleep(4500);
+        final OverheadGovernor governor = OverheadGovernor.instance();
+        // Once suspended, the aggregator no longer contributes to the share
+        assertTrue(governor.cpuSharePercent() > governor.budgetPercent() || governor.suspendedCount() == 1);
+        assertTrue(governor.decisionCount() >= 1);
+        assertTrue(governor.stretchedCount() >= 1);
+        assertTrue(busy.intervalSeconds() >= 2);
+
+        // Ending governance restores the configured interval
+        OverheadGovernor.setBudgetPercent(0);
+        assertEquals(1, busy.intervalSeconds());
+        assertEquals(0, governor.stretchedCount());
+        assertEquals(0, governor.suspendedCount());
+
+        busy.stopAggregating();
+        PeriodicAggregator.setIntervalSeconds(OverheadGovernor.class, 0);
+    }
+
+    @Test
+    public void testOverheadGovernorRestore() throws Exception {
+        PeriodicAggregator.setIntervalSeconds(SwitchableAggregator.class, 1);
+        PeriodicAggregator.setIntervalSeconds(OverheadGovernor.class, 1);
+        final SwitchableAggregator switchable = new SwitchableAggregator();
+        switchable.startAggregating();
+        OverheadGovernor.setBudgetPercent(0.001);
+        final OverheadGovernor governor = OverheadGovernor.instance();
+
+        awaitStretchedCount(governor, true);
+        assertTrue(switchable.intervalSeconds() >= 2);
+
+        // Once the share drops below half the budget, degradation is undone step by step
+        switchable.isBusy = false;
+        OverheadGovernor.setBudgetPercent(100.0);
+        awaitStretchedCount(governor, false);
+        assertEquals(1, switchable.intervalSeconds());
+        assertEquals(0, governor.suspendedCount());
+        assertTrue(governor.lastDecision().startsWith("restored") || governor.lastDecision().startsWith("resumed"));
+
+        // A restarted aggregator has already been restored, so no further decisions follow
+        switchable.isBusy = true;
+        OverheadGovernor.setBudgetPercent(0.001);
+        awaitStretchedCount(governor, true);
+        switchable.isBusy = false;
+        OverheadGovernor.setBudgetPercent(100.0);
+        switchable.stopAggregating();
+        switchable.startAggregating();
+        final long decisionCount = governor.decisionCount();
+        Thread.sleep(2500);
+        assertEquals(decisionCount, governor.decisionCount());
+
+        OverheadGovernor.setBudgetPercent(0);
+        switchable.stopAggregating();
+        PeriodicAggregator.setIntervalSeconds(OverheadGovernor.class, 0);
+    }
+
+    @Test
+    public void testOverheadGovernorIgnoresNonDegradable() throws Exception {
+        PeriodicAggregator.setIntervalSeconds(NonDegradableBusyAggregator.class, 1);
+        PeriodicAggregator.setIntervalSeconds(OverheadGovernor.class, 1);
+        final PeriodicAggregator busy = new NonDegradableBusyAggregator();
+        busy.startAggregating();
+        final OverheadGovernor governor = OverheadGovernor.instance();
+        final long decisionCount = governor.decisionCount();
+        OverheadGovernor.setBudgetPercent(0.001);
+
+        // Work that cannot be degraded does not count against the budget
+        Thread.sleep(3500);
+        assertTrue(busy.cpuNanos() > 0);
+        assertEquals(decisionCount, governor.decisionCount());
+        assertEquals(0, governor.stretchedCount());
+
+        OverheadGovernor.setBudgetPercent(0);
+        busy.stopAggregating();
+        PeriodicAggregator.setIntervalSeconds(OverheadGovernor.class, 0);
+    }
+}
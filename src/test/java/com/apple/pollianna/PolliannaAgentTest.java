@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import com.apple.pollianna.gc.GcAggregator;
+import com.apple.pollianna.gc.GcCounterMXBean;
+import com.apple.pollianna.overhead.PolliannaMXBean;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import javax.management.JMX;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PolliannaAgentTest {
+
+    // Pacify SpotBugs to allow System.gc()
+    private static void collectGarbage() {
+        if (System.currentTimeMillis() > 0) { // always true
+            System.gc();
+        }
+    }
+
+    @Test
+    @Tag("fresh-jvm")
+    public void testAsyncStart() throws Exception {
+        // Holding the configuration lock keeps the background start from starting any bean,
+        // so these collections can only reach the GC bean through the buffer
+        synchronized (PolliannaConfiguration.class) {
+            PolliannaAgent.premain("AsyncStart;GcCounter;Pollianna");
+            for (int i = 0; i < 3; i++) {
+                collectGarbage();
+            }
+            // GC notifications are delivered asynchronously
+            Thread.sleep(500);
+            assertFalse(Overhead.isReady());
+        }
+
+        final long deadline = System.currentTimeMillis() + 30_000;
+        while (!Overhead.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(Overhead.isReady());
+        Thread.sleep(2500);
+
+        final PolliannaMXBean pollianna = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+            new ObjectName("com.apple.pollianna:type=Pollianna"), PolliannaMXBean.class);
+        assertTrue(pollianna.isReady());
+        assertTrue(pollianna.getPremainMicros() > 0);
+        assertTrue(Overhead.startNanos() > 0);
+
+        // Collections before the bean was started have been buffered and then counted
+        assertTrue(GcAggregator.bufferedEventCount() >= 3);
+        final GcCounterMXBean gcCounter = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+            new ObjectName("com.apple.pollianna:type=GcCounter"), GcCounterMXBean.class);
+        assertTrue(gcCounter.getCycleCount() >= 3);
+
+        Pollianna.stop();
+    }
+}
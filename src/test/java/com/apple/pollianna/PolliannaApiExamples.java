@@ -21,6 +21,7 @@ import com.apple.pollianna.compiler.CompilerSampleSeed;
 import com.apple.pollianna.gc.GcAggregateSeed;
 import com.apple.pollianna.gc.GcSampleSeed;
 import com.apple.pollianna.jvm.JvmSeed;
+import com.apple.pollianna.nmt.AbstractNmtAggregator;
 import com.apple.pollianna.nmt.NmtAccess;
 import com.apple.pollianna.nmt.NmtAggregateSeed;
 import com.apple.pollianna.nmt.NmtSampleSeed;
@@ -86,9 +87,11 @@ public final class PolliannaApiExamples {
     // None of these calls register any JMX beans.
 
     static void intervalExample() {
-        // Change the NMT recording interval to 1 second.
+        // Change the default recording interval to 2 seconds.
         PeriodicAggregator.setIntervalSeconds(2);
-        // Once any seed or JMX bean starts recording, the rate is fixed and subsequent calls have no effect.
+        // Change the NMT recording interval to 60 seconds. Other aggregators keep the default.
+        PeriodicAggregator.setIntervalSeconds(AbstractNmtAggregator.class, 60);
+        // Changes take effect immediately, also for seeds and JMX beans that are already recording.
     }
 
     static void jvmExamples() {
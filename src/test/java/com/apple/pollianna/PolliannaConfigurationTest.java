@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PolliannaConfigurationTest {
+
+    @Test
+    @Tag("fresh-jvm")
+    public void testLazyConstruction() {
+        Pollianna.start("Jvm");
+        assertEquals(new HashSet<String>(Arrays.asList("Jvm", "Survey")), PolliannaConfiguration.constructedBeanNames());
+
+        Pollianna.start("GcAggregate|PauseMax", "RtCounter");
+        assertEquals(new HashSet<String>(Arrays.asList("Jvm", "Survey", "GcAggregate", "RtCounter")),
+            PolliannaConfiguration.constructedBeanNames());
+
+        assertThrows(IllegalArgumentException.class, () -> Pollianna.start("UnknownBean"));
+        Pollianna.stop();
+    }
+}
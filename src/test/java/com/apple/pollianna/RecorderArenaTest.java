@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class RecorderArenaTest {
+
+    private static void record(RecorderArena arena, RecorderArena.LongSlot slot, long value) {
+        arena.beginWrite();
+        slot.record(value);
+        arena.endWrite();
+    }
+
+    @Test
+    public void testIntervals() throws Exception {
+        final Cursor other = Cursor.register();
+        final RecorderArena arena = new RecorderArena();
+        final RecorderArena.LongSlot slot = arena.newLongSlot();
+        final RecorderArena.DoubleSlot percentage = arena.newDoubleSlot();
+
+        record(arena, slot, 5);
+        record(arena, slot, 7);
+        assertEquals(7L, slot.getRecord().getMax());
+        assertThrows(IllegalStateException.class, arena::newLongSlot);
+
+        // Same semantics as a value recorder, see CursorTest
+        record(arena, slot, 3);
+        assertEquals(3L, other.read(slot::getRecord).getMax());
+        record(arena, slot, 9);
+        record(arena, slot, 1);
+        assertEquals(9L, other.read(slot::getRecord).getMax());
+        record(arena, slot, 2);
+        final LongValueRecord record = slot.getRecord();
+        assertEquals(1L, record.getMin());
+        assertEquals(9L, record.getMax());
+        assertEquals((3 + 9 + 1 + 2) / 4, record.getAvg());
+        assertEquals(2L, other.read(slot::getRecord).getMax());
+        assertEquals(2L, slot.getRecord().getAvg());
+
+        // Reading one slot does not end the interval of another
+        arena.beginWrite();
+        percentage.record(10.0);
+        arena.endWrite();
+        slot.getRecord();
+        arena.beginWrite();
+        percentage.record(30.0);
+        arena.endWrite();
+        final DoubleValueRecord percentageRecord = percentage.getRecord();
+        assertEquals(10.0, percentageRecord.getMin());
+        assertEquals(20.0, percentageRecord.getAvg());
+        assertEquals(30.0, percentageRecord.getMax());
+        assertEquals(30.0, percentage.getRecord().getAvg());
+    }
+
+    @Test
+    public void testConsistentReads() throws Exception {
+        final RecorderArena arena = new RecorderArena();
+        final RecorderArena.LongSlot first = arena.newLongSlot();
+        final RecorderArena.LongSlot second = arena.newLongSlot();
+        final AtomicBoolean isDone = new AtomicBoolean(false);
+        final Thread writer = new Thread(() -> {
+            long value = 0;
+            while (!isDone.get()) {
+                value++;
+                arena.beginWrite();
+                first.record(value);
+                second.record(value);
+                arena.endWrite();
+            }
+        });
+        writer.start();
+
+        long previousMax = 0;
+        for (int i = 0; i < 100_000; i++) {
+            final long[] lastValues = arena.lastValues();
+            assertEquals(lastValues[first.index()], lastValues[second.index()]);
+            final LongValueRecord record = first.getRecord();
+            assertTrue(record.getMin() <= record.getMax());
+            assertTrue(record.getMax() >= previousMax);
+            previousMax = record.getMax();
+        }
+        isDone.set(true);
+        writer.join();
+
+        // Nothing recorded in between any two reads is lost
+        final LongValueRecord last = first.getRecord();
+        assertEquals(arena.lastValues()[first.index()], last.getMax());
+    }
+}
@@ -17,6 +17,7 @@ package com.apple.pollianna;
 
 import com.apple.pollianna.rt.MonitoringBeanAccess;
 import com.apple.pollianna.rt.RtAggregateSeed;
+import com.apple.pollianna.rt.RtCounterSeed;
 import com.apple.pollianna.rt.RtSampleSeed;
 import jdk.jfr.internal.Logger;
 import jdk.jfr.internal.LogTag;
@@ -114,6 +115,25 @@ public class RtTest {
         seed.stopRecording();
     }
 
+    @Test
+    public void testRtCounter() {
+        final RtCounterSeed seed = new RtCounterSeed();
+        seed.startRecording();
+
+        final long started = seed.getStartedThreadCount();
+        assertTrue(started > 0);
+        assertTrue(seed.getLoadedClassCount() > 0);
+
+        startThreads(3);
+        final long started1 = seed.getStartedThreadCount();
+        assertTrue(started1 >= started + 3);
+
+        // Reading does not reset counters
+        assertTrue(seed.getStartedThreadCount() >= started1);
+
+        seed.stopRecording();
+    }
+
     @Test
     public void testRtSample() {
         final RtSampleSeed seed = new RtSampleSeed();
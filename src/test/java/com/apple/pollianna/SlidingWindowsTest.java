@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class SlidingWindowsTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void testWindows() {
+        final long origin = 12345;
+        final SlidingWindows windows = new SlidingWindows(origin);
+
+        // One value per second for 10 minutes, the most recent ones being the largest
+        for (int s = 0; s < 600; s++) {
+            windows.record(s, origin + s * SECOND);
+        }
+        final long now = origin + 599 * SECOND;
+        final WindowRecord record = windows.getRecord(1.0, now);
+        assertEquals(60L, record.getCount1m());
+        assertEquals(599.0, record.getMax1m());
+        assertEquals((540 + 599) / 2.0, record.getAvg1m());
+        assertEquals(300L, record.getCount5m());
+        assertEquals((300 + 599) / 2.0, record.getAvg5m());
+        assertEquals(600L, record.getCount15m());
+        assertEquals(599.0, record.getMax15m());
+
+        // Reading has no side effects
+        assertEquals(record.toString(), windows.getRecord(1.0, now).toString());
+
+        // Values fall out of the windows as time passes
+        final WindowRecord later = windows.getRecord(1.0, now + 60 * SECOND);
+        assertEquals(0L, later.getCount1m());
+        assertEquals(0.0, later.getMax1m());
+        assertEquals(240L, later.getCount5m());
+        assertEquals(599.0, later.getMax5m());
+
+        final WindowRecord muchLater = windows.getRecord(2.0, now + 3600 * SECOND);
+        assertEquals(0L, muchLater.getCount15m());
+
+        windows.record(21, now + 3600 * SECOND);
+        assertEquals(42.0, windows.getRecord(2.0, now + 3600 * SECOND).getMax15m());
+    }
+
+    @Test
+    public void testRecorder() {
+        final LongDurationRecorder recorder = new LongDurationRecorder();
+        assertEquals(0L, recorder.getWindowRecord().getCount15m());
+
+        recorder.enableWindows();
+        recorder.record(3_000_000L);
+        recorder.record(1_000_000L);
+        recorder.getRecord();
+
+        // Starting a new polling interval does not affect the windows
+        final WindowRecord record = recorder.getWindowRecord();
+        assertEquals(2L, record.getCount1m());
+        assertEquals(3.0, record.getMax1m());
+        assertEquals(2.0, record.getAvg1m());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna;
+
+import com.apple.pollianna.rt.RtAggregateMXBean;
+import com.apple.pollianna.rt.RtAggregateSeed;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.openmbean.CompositeData;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class SnapshotTest {
+
+    @Test
+    public void testEpochs() {
+        final Snapshot snapshot = new Snapshot();
+        final AtomicLong counter = new AtomicLong();
+        final Snapshot.Source<Long> a = snapshot.source(counter::incrementAndGet);
+        final Snapshot.Source<Long> b = snapshot.source(counter::incrementAndGet);
+
+        // Both sources are taken together, then served once each
+        final long a1 = a.get();
+        final long b1 = b.get();
+        assertEquals(a1 + 1, b1);
+
+        // Reading an attribute again begins a new scrape
+        final long a2 = a.get();
+        assertTrue(a2 > b1);
+        assertEquals(a2 + 1, (long) b.get());
+    }
+
+    @Test
+    public void testSnapshotAttribute() throws Exception {
+        final RtAggregateSeed staticSeed = new RtAggregateSeed();
+        final DynamicSeed seed = new DynamicSeed(RtAggregateMXBean.class, staticSeed);
+        seed.startRecording();
+
+        final CompositeData data = (CompositeData) seed.getAttribute(DynamicSeed.SNAPSHOT_ATTRIBUTE_NAME);
+        assertTrue((Long) data.get("PeakThreadCount") > 0L);
+
+        final AttributeList attributes = seed.getAttributes(new String[] {"PeakThreadCount", "StartedThreadCount"});
+        assertEquals(2, attributes.size());
+
+        // Attributes read together are served from the same frame as the snapshot read along with them,
+        // regardless of threads that earlier tests in the same JVM may still be starting or ending
+        final AttributeList together = seed.getAttributes(new String[] {DynamicSeed.SNAPSHOT_ATTRIBUTE_NAME, "PeakThreadCount"});
+        final CompositeData snapshot = (CompositeData) ((Attribute) together.get(0)).getValue();
+        assertEquals(snapshot.get("PeakThreadCount"), ((Attribute) together.get(1)).getValue());
+
+        seed.stopRecording();
+    }
+
+    public interface CountingMXBean {
+        long getCount();
+    }
+
+    // Counts how often its attribute is taken into a frame
+    public static final class CountingSeed extends Seed implements CountingMXBean {
+        private final AtomicLong count = new AtomicLong();
+
+        @Override
+        protected List<Aggregator> aggregators() { return Collections.emptyList(); }
+
+        public long getCount() { return count.incrementAndGet(); }
+    }
+
+    @Test
+    public void testSnapshotAttributeInSameFrame() throws Exception {
+        final DynamicSeed seed = new DynamicSeed(CountingMXBean.class, new CountingSeed());
+        final AttributeList together = seed.getAttributes(new String[] {DynamicSeed.SNAPSHOT_ATTRIBUTE_NAME, "Count"});
+        assertEquals(2, together.size());
+        final CompositeData snapshot = (CompositeData) ((Attribute) together.get(0)).getValue();
+        assertEquals(1L, snapshot.get("Count"));
+        assertEquals(1L, ((Attribute) together.get(1)).getValue());
+
+        // Unknown attributes are left out without failing the request
+        assertEquals(1, seed.getAttributes(new String[] {"Unknown", "Count"}).size());
+    }
+}
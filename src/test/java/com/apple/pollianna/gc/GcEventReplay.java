@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.gc;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.OpenDataException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the GC notification listener with recorded or synthesized GC events instead of real collections,
+ * so that it can be tested deterministically, for any collector, and at high rates.
+ * <p>
+ * Each event is turned into a `GarbageCollectionNotificationInfo` notification by GcNotifications
+ * and handed to the same listener instance that receives real notifications,
+ * because the event ring behind it only supports a single producer.
+ * Events flow from there through the GcEventHub to all subscribed GC aggregators, like real ones.
+ */
+final class GcEventReplay {
+
+    /**
+     * One GC event to replay: which collector performed it, how long it took, and the memory usage per pool.
+     */
+    static final class Event {
+        final String gcName;
+        final long durationMillis;
+        final Map<String, MemoryUsage> usageBeforeGc;
+        final Map<String, MemoryUsage> usageAfterGc;
+
+        Event(String gcName, long durationMillis, Map<String, MemoryUsage> usageBeforeGc, Map<String, MemoryUsage> usageAfterGc) {
+            this.gcName = gcName;
+            this.durationMillis = durationMillis;
+            this.usageBeforeGc = usageBeforeGc;
+            this.usageAfterGc = usageAfterGc;
+        }
+    }
+
+    /**
+     * The outcome of replaying a sequence of events.
+     */
+    static final class Result {
+        final long handledCount;
+        final long droppedCount;
+        final long elapsedNanos;
+
+        Result(long handledCount, long droppedCount, long elapsedNanos) {
+            this.handledCount = handledCount;
+            this.droppedCount = droppedCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return the achieved rate in events per second
+         */
+        double eventsPerSecond() {
+            return elapsedNanos <= 0 ? 0.0 : handledCount * 1e9 / elapsedNanos;
+        }
+    }
+
+    /**
+     * @param gcName the name of a collector known to the listener
+     * @return the names of the collector's memory pools, in the listener's order
+     */
+    static List<String> poolNames(String gcName) {
+        final List<String> result = new ArrayList<String>();
+        for (GcCollector.Pool pool : GcEventHub.listener().collector(gcName).pools) {
+            result.add((String) pool.key[0]);
+        }
+        return result;
+    }
+
+    /**
+     * Synthesize an event for a collector, with the same usage in each of its pools.
+     * If the collector has an old generation pool, only that pool shrinks, so that the live set is established.
+     * Otherwise, all pools shrink.
+     *
+     * @param gcName the name of a collector known to the listener
+     * @param durationMillis the duration of the collection
+     * @param usedBeforeGc the bytes used in each pool before the collection
+     * @param usedAfterGc the bytes used in each shrinking pool after the collection
+     * @param max the maximum size of each pool
+     * @return a new event
+     */
+    static Event synthesize(String gcName, long durationMillis, long usedBeforeGc, long usedAfterGc, long max) {
+        final List<String> poolNames = poolNames(gcName);
+        boolean hasOldGen = false;
+        for (String poolName : poolNames) {
+            hasOldGen |= isOldGen(poolName);
+        }
+        final Map<String, MemoryUsage> before = new LinkedHashMap<String, MemoryUsage>();
+        final Map<String, MemoryUsage> after = new LinkedHashMap<String, MemoryUsage>();
+        for (String poolName : poolNames) {
+            final boolean isShrinking = !hasOldGen || isOldGen(poolName);
+            before.put(poolName, new MemoryUsage(0, usedBeforeGc, max, max));
+            after.put(poolName, new MemoryUsage(0, isShrinking ? usedAfterGc : usedBeforeGc, max, max));
+        }
+        return new Event(gcName, durationMillis, before, after);
+    }
+
+    private static boolean isOldGen(String poolName) {
+        return poolName.contains("Old") || poolName.contains("Tenured");
+    }
+
+    /**
+     * Record the GC events of real collections in this JVM, for later replay.
+     */
+    static final class Recording implements NotificationListener, AutoCloseable {
+        private final List<Event> events = Collections.synchronizedList(new ArrayList<Event>());
+
+        Recording() {
+            for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                ((NotificationEmitter) gcBean).addNotificationListener(this, null, null);
+            }
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handBack) {
+            if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                return;
+            }
+            final GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            final GcInfo gcInfo = info.getGcInfo();
+            events.add(new Event(info.getGcName(), gcInfo.getDuration(),
+                new LinkedHashMap<String, MemoryUsage>(gcInfo.getMemoryUsageBeforeGc()),
+                new LinkedHashMap<String, MemoryUsage>(gcInfo.getMemoryUsageAfterGc())));
+        }
+
+        /**
+         * @return the events recorded so far
+         */
+        List<Event> events() {
+            synchronized (events) {
+                return new ArrayList<Event>(events);
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                ((NotificationEmitter) gcBean).removeNotificationListener(this);
+            }
+        }
+    }
+
+    // Per collector, the id of the most recently replayed collection
+    private final Map<String, Long> ids = new LinkedHashMap<String, Long>();
+
+    // Replayed collections follow each other on a virtual timeline, in milliseconds
+    private long timeMillis = 1000;
+
+    /**
+     * @param event an event to replay
+     * @return a notification as it would be emitted for the event by the collector's GarbageCollectorMXBean
+     */
+    Notification notification(Event event) {
+        // Continue where real collections by the same collector are, so that no ids appear to be missing
+        final long id = Math.max(ids.getOrDefault(event.gcName, 0L), GcEventHub.listener().collector(event.gcName).lastId) + 1;
+        ids.put(event.gcName, id);
+        final long startTime = timeMillis;
+        final long endTime = startTime + event.durationMillis;
+        timeMillis = endTime + 1;
+        try {
+            return GcNotifications.notification(event.gcName, "Replay", id, startTime, endTime, event.usageBeforeGc, event.usageAfterGc);
+        } catch (OpenDataException e) {
+            throw new IllegalArgumentException("cannot replay event by " + event.gcName, e);
+        }
+    }
+
+    /**
+     * Hand events to the GC notification listener at a given rate.
+     * All notifications are created before replay begins, so that only the listener's work is paced.
+     *
+     * @param events the events to replay, in order
+     * @param eventsPerSecond the rate at which to replay, or zero or a negative value for as fast as possible
+     * @return the numbers of handled and of dropped events, and how long replaying took
+     */
+    Result replay(List<Event> events, double eventsPerSecond) {
+        final GcNotificationListener listener = GcEventHub.listener();
+        final Notification[] notifications = new Notification[events.size()];
+        final GcCollector[] collectors = new GcCollector[events.size()];
+        for (int i = 0; i < notifications.length; i++) {
+            notifications[i] = notification(events.get(i));
+            collectors[i] = listener.collector(events.get(i).gcName);
+        }
+        final long nanosPerEvent = eventsPerSecond > 0 ? (long) (1e9 / eventsPerSecond) : 0;
+        final long droppedCount = GcEventHub.droppedEventCount();
+        final long startNanos = System.nanoTime();
+        for (int i = 0; i < notifications.length; i++) {
+            if (nanosPerEvent > 0) {
+                final long dueNanos = startNanos + i * nanosPerEvent;
+                long nanos;
+                while ((nanos = dueNanos - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(nanos);
+                }
+            }
+            listener.handleNotification(notifications[i], collectors[i]);
+        }
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        return new Result(notifications.length, GcEventHub.droppedEventCount() - droppedCount, elapsedNanos);
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.gc;
+
+import com.apple.pollianna.Overhead;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class GcEventReplayTest {
+
+    private static final long MiB = 1024 * 1024;
+
+    // No real collection takes this long in a test, so it tells replayed events apart from real ones
+    private static final long REPLAY_DURATION_MILLIS = 7777;
+
+    private static final List<String> GC_NAMES = Arrays.asList(
+        "Copy", "MarkSweepCompact",
+        "PS Scavenge", "PS MarkSweep",
+        "ParNew", "ConcurrentMarkSweep",
+        "G1 Young Generation", "G1 Old Generation",
+        "Shenandoah Cycles",
+        "ZGC", "ZGC Cycles", "ZGC Minor Cycles", "ZGC Major Cycles",
+        "GPGC New", "GPGC Old");
+
+    private static final Set<String> LIVE_SET_GC_NAMES = new HashSet<String>(Arrays.asList(
+        "MarkSweepCompact", "PS MarkSweep", "ConcurrentMarkSweep",
+        "G1 Young Generation", "G1 Old Generation",
+        "Shenandoah Cycles",
+        "ZGC", "ZGC Cycles", "ZGC Major Cycles",
+        "GPGC Old"));
+
+    /**
+     * What a GC aggregator has received of a replayed event.
+     */
+    private static final class Received {
+        final String gcName;
+        final boolean isCycle;
+        final boolean isLiveSetEstablished;
+        final long usedBeforeGc;
+        final long usedAfterGc;
+        final long occupancyMax;
+
+        Received(GcEvent event) {
+            gcName = event.collector.name;
+            isCycle = event.isCycle;
+            isLiveSetEstablished = event.isLiveSetEstablished;
+            usedBeforeGc = event.usedBeforeGc;
+            usedAfterGc = event.usedAfterGc;
+            occupancyMax = event.occupancyMax;
+        }
+    }
+
+    private static final class ReceivingAggregator extends GcAggregator {
+        final List<Received> received = Collections.synchronizedList(new ArrayList<Received>());
+
+        @Override
+        void record(GcEvent event) {
+            super.record(event);
+            if (event.duration == REPLAY_DURATION_MILLIS) {
+                received.add(new Received(event));
+            }
+        }
+
+        void awaitReceived(long count) throws InterruptedException {
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (received.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    @Test
+    public void testCollectorLayouts() throws Exception {
+        final ReceivingAggregator aggregator = new ReceivingAggregator();
+        aggregator.startAggregating();
+
+        final List<GcEventReplay.Event> events = new ArrayList<GcEventReplay.Event>();
+        for (String gcName : GC_NAMES) {
+            events.add(GcEventReplay.synthesize(gcName, REPLAY_DURATION_MILLIS, 300 * MiB, 100 * MiB, 1024 * MiB));
+        }
+        final GcEventReplay.Result result = new GcEventReplay().replay(events, 0);
+        assertEquals(0L, result.droppedCount);
+        aggregator.awaitReceived(GC_NAMES.size());
+        aggregator.stopAggregating();
+
+        assertEquals(GC_NAMES.size(), aggregator.received.size());
+        for (int i = 0; i < GC_NAMES.size(); i++) {
+            final Received received = aggregator.received.get(i);
+            final String gcName = GC_NAMES.get(i);
+            final List<String> poolNames = GcEventReplay.poolNames(gcName);
+            assertEquals(gcName, received.gcName);
+            assertTrue(received.isCycle, gcName);
+            assertEquals(poolNames.size() * 300 * MiB, received.usedBeforeGc, gcName);
+            assertTrue(received.usedAfterGc < received.usedBeforeGc, gcName);
+            assertEquals(LIVE_SET_GC_NAMES.contains(gcName), received.isLiveSetEstablished, gcName);
+            if (received.isLiveSetEstablished) {
+                assertTrue(received.occupancyMax > 0, gcName);
+            }
+        }
+    }
+
+    @Test
+    public void testHighRateWithConcurrentReaders() throws Exception {
+        final ReceivingAggregator aggregator = new ReceivingAggregator();
+        aggregator.startAggregating();
+
+        final AtomicBoolean isReplaying = new AtomicBoolean(true);
+        final Thread reader = new Thread(() -> {
+            while (isReplaying.get()) {
+                aggregator.cycle.getRecord(TimeUnit.MILLISECONDS);
+                aggregator.allocationRate.getRecord();
+                aggregator.occupancy.getRecord();
+                aggregator.cycleCount.total();
+            }
+        });
+        reader.start();
+
+        final int eventCount = 20_000;
+        final List<GcEventReplay.Event> events = new ArrayList<GcEventReplay.Event>();
+        for (int i = 0; i < eventCount; i++) {
+            events.add(GcEventReplay.synthesize(GC_NAMES.get(i % GC_NAMES.size()), REPLAY_DURATION_MILLIS, 300 * MiB, 100 * MiB, 1024 * MiB));
+        }
+        final double eventsPerSecond = 10_000;
+        final GcEventReplay.Result result = new GcEventReplay().replay(events, eventsPerSecond);
+        aggregator.awaitReceived(eventCount - result.droppedCount);
+        isReplaying.set(false);
+        reader.join();
+        aggregator.stopAggregating();
+
+        assertEquals(eventCount, result.handledCount);
+        // Replay is paced, so this only fails if handling falls far behind the requested rate.
+        // Measuring handling throughput is up to GcNotificationListenerBenchmark.
+        assertTrue(result.eventsPerSecond() > eventsPerSecond / 4);
+        // Every event has either been dropped and counted, or received
+        assertEquals(eventCount, result.droppedCount + aggregator.received.size());
+    }
+
+    @Test
+    public void testOverheadReaderDoesNotDelayNotifications() throws Exception {
+        final ReceivingAggregator aggregator = new ReceivingAggregator();
+        aggregator.startAggregating();
+
+        // Stands in for a reader of the "Pollianna" bean that holds the lock of the notification overhead recorder
+        final CountDownLatch isLocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread reader = new Thread(() -> {
+            synchronized (Overhead.gcNotification) {
+                isLocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        reader.start();
+        isLocked.await();
+
+        final List<GcEventReplay.Event> events = new ArrayList<GcEventReplay.Event>();
+        for (String gcName : GC_NAMES) {
+            events.add(GcEventReplay.synthesize(gcName, REPLAY_DURATION_MILLIS, 300 * MiB, 100 * MiB, 1024 * MiB));
+        }
+        final Thread notifier = new Thread(() -> new GcEventReplay().replay(events, 0));
+        notifier.start();
+        notifier.join(TimeUnit.SECONDS.toMillis(10));
+        final boolean isDelayed = notifier.isAlive();
+        release.countDown();
+        reader.join();
+        notifier.join();
+        aggregator.awaitReceived(events.size());
+        aggregator.stopAggregating();
+
+        assertFalse(isDelayed);
+        assertEquals(events.size(), aggregator.received.size());
+    }
+
+    @Test
+    public void testConsumerStops() throws Exception {
+        // Other tests' aggregators may still be subscribed, in which case the consumer is shared and keeps running
+        final boolean isSubscribed = GcEventHub.consumer() != null;
+        final ReceivingAggregator aggregator = new ReceivingAggregator();
+        aggregator.startAggregating();
+        final Thread consumer = GcEventHub.consumer();
+        assertTrue(consumer != null && consumer.isAlive());
+        aggregator.stopAggregating();
+        if (!isSubscribed) {
+            assertNull(GcEventHub.consumer());
+            assertFalse(consumer.isAlive());
+        }
+
+        // A later subscription starts a fresh consumer
+        aggregator.startAggregating();
+        assertTrue(GcEventHub.consumer() != null && GcEventHub.consumer().isAlive());
+        aggregator.stopAggregating();
+    }
+
+    // Pacify SpotBugs to allow System.gc()
+    private static void collectGarbage() {
+        if (System.currentTimeMillis() > 0) { // always true
+            System.gc();
+        }
+    }
+
+    @Test
+    public void testRecordedEvents() throws Exception {
+        final List<GcEventReplay.Event> recorded;
+        try (GcEventReplay.Recording recording = new GcEventReplay.Recording()) {
+            for (int i = 0; i < 3; i++) {
+                collectGarbage();
+            }
+            Thread.sleep(500);
+            recorded = recording.events();
+        }
+        assertTrue(recorded.size() >= 3);
+
+        final ReceivingAggregator aggregator = new ReceivingAggregator();
+        aggregator.startAggregating();
+
+        // Replay with a marked duration, but otherwise as recorded
+        final List<GcEventReplay.Event> events = new ArrayList<GcEventReplay.Event>();
+        for (GcEventReplay.Event event : recorded) {
+            events.add(new GcEventReplay.Event(event.gcName, REPLAY_DURATION_MILLIS, event.usageBeforeGc, event.usageAfterGc));
+        }
+        new GcEventReplay().replay(events, 0);
+        aggregator.awaitReceived(events.size());
+        aggregator.stopAggregating();
+
+        assertEquals(events.size(), aggregator.received.size());
+        for (int i = 0; i < events.size(); i++) {
+            final GcEventReplay.Event event = events.get(i);
+            final Received received = aggregator.received.get(i);
+            assertEquals(event.gcName, received.gcName);
+            if (received.isCycle) {
+                long usedBeforeGc = 0;
+                for (String poolName : GcEventReplay.poolNames(event.gcName)) {
+                    if (event.usageBeforeGc.containsKey(poolName)) {
+                        usedBeforeGc += event.usageBeforeGc.get(poolName).getUsed();
+                    }
+                }
+                assertEquals(usedBeforeGc, received.usedBeforeGc);
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.thread;
+
+import com.apple.pollianna.Cursor;
+import com.apple.pollianna.DynamicSeed;
+import com.apple.pollianna.PeriodicAggregator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import javax.management.MBeanAttributeInfo;
+import javax.management.openmbean.ArrayType;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.OpenMBeanAttributeInfo;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ThreadAggregateTest {
+
+    @Test
+    public void testMap() {
+        final LongLongMap map = new LongLongMap();
+        for (long id = 1; id <= 1000; id++) {
+            map.put(id, id % 100);
+        }
+        map.add(7, 1000);
+        map.add(5000, 2000);
+        assertEquals(1001, map.size());
+        assertEquals(1007L, map.get(7, -1));
+        assertEquals(-1L, map.get(1001, -1));
+
+        final long[] keys = new long[3];
+        final long[] values = new long[3];
+        assertEquals(3, map.top(keys, values));
+        assertEquals(5000L, keys[0]);
+        assertEquals(7L, keys[1]);
+        assertEquals(99L, values[2]);
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(0, map.top(keys, values));
+    }
+
+    private static volatile Object sink;
+
+    /**
+     * Tick until the aggregator has retrieved the ids of all threads again, which it defers for a few ticks.
+     */
+    private static void tickUntilRescan(ThreadAggregator aggregator, Runnable tick) {
+        final long rescanCount = aggregator.rescanCount();
+        for (int i = 0; i < ThreadAggregator.MAX_RESCAN_DELAY_TICKS && aggregator.rescanCount() == rescanCount; i++) {
+            tick.run();
+        }
+        assertTrue(aggregator.rescanCount() > rescanCount);
+    }
+
+    private static boolean contains(ThreadRecord[] records, Thread thread) {
+        for (ThreadRecord record : records) {
+            if (record.getId() == thread.getId()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testTopAllocators() throws Exception {
+        final ThreadAggregator aggregator = new ThreadAggregator();
+        final Runnable tick = aggregator.runnable();
+        tick.run();
+
+        final CountDownLatch done = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread allocator = new Thread(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                sink = new byte[10_000];
+            }
+            done.countDown();
+            try { release.await(); } catch (InterruptedException e) {}
+        }, "test-allocator");
+        allocator.start();
+        done.await();
+        Thread.sleep(10);
+        tickUntilRescan(aggregator, tick);
+
+        final ThreadRecord[] top = aggregator.topAllocators();
+        assertTrue(top.length >= 1);
+        assertEquals("test-allocator", top[0].getName());
+        assertEquals(allocator.getId(), top[0].getId());
+        assertTrue(aggregator.allocationRate.getRecord().getMax() > 0.0);
+
+        // A new interval begins with each read
+        release.countDown();
+        allocator.join();
+        tick.run();
+        for (ThreadRecord record : aggregator.topAllocators()) {
+            assertTrue(record.getId() != allocator.getId());
+        }
+    }
+
+    @Test
+    public void testDynamicTopAllocators() throws Exception {
+        PeriodicAggregator.setIntervalSeconds(ThreadAggregator.class, 1);
+        final DynamicSeed seed = new DynamicSeed(ThreadAggregateMXBean.class, new ThreadAggregateSeed());
+        seed.setIncludedAttributeNames(new HashSet<String>(Arrays.asList("AllocationRateMax", "TopAllocators", "Snapshot")));
+        seed.startRecording();
+        // The allocator keeps allocating across several ticks, since the first tick only establishes totals,
+        // and then stays alive without allocating
+        final CountDownLatch stop = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            final Thread allocator = new Thread(() -> {
+                while (stop.getCount() > 0) {
+                    sink = new byte[10_000];
+                }
+                try { release.await(); } catch (InterruptedException e) {}
+            }, "test-dynamic-allocator");
+            allocator.start();
+            Thread.sleep(2500);
+            stop.countDown();
+            Thread.sleep(1500);
+
+            // Snapshots for other readers, such as the OTel reporter, do not take the top threads,
+            // which would leave nothing to report for the allocator since then
+            final Cursor cursor = Cursor.register();
+            cursor.read(() -> seed.getAttribute("Snapshot"));
+            cursor.read(() -> seed.getAttributes(new String[] {"AllocationRateMax"}));
+
+            MBeanAttributeInfo info = null;
+            for (MBeanAttributeInfo attribute : seed.getMBeanInfo().getAttributes()) {
+                if (attribute.getName().equals("TopAllocators")) {
+                    info = attribute;
+                }
+            }
+            assertTrue(info instanceof OpenMBeanAttributeInfo);
+            assertTrue(((OpenMBeanAttributeInfo) info).getOpenType() instanceof ArrayType);
+
+            final Object value = seed.getAttribute("TopAllocators");
+            assertTrue(value instanceof CompositeData[]);
+            boolean isFound = false;
+            for (CompositeData record : (CompositeData[]) value) {
+                if (record.get("name").equals("test-dynamic-allocator")) {
+                    assertEquals(allocator.getId(), record.get("id"));
+                    assertTrue((Double) record.get("value") > 0.0);
+                    isFound = true;
+                }
+            }
+            assertTrue(isFound);
+
+            // Remote JMX clients receive the value serialized
+            new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(value);
+        } finally {
+            stop.countDown();
+            release.countDown();
+            seed.stopRecording();
+            PeriodicAggregator.setIntervalSeconds(ThreadAggregator.class, 0);
+        }
+    }
+
+    @Test
+    public void testHotThreads() throws Exception {
+        final ThreadAggregator aggregator = new ThreadAggregator();
+        final Runnable tick = aggregator.runnable();
+        tick.run();
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread spinner = new Thread(() -> {
+            final long deadline = System.nanoTime() + 200_000_000L;
+            while (System.nanoTime() < deadline) {
+                // Spend CPU time
+            }
+            try { release.await(); } catch (InterruptedException e) {}
+        }, "test-spinner");
+        spinner.start();
+
+        tickUntilRescan(aggregator, tick);
+        Thread.sleep(300);
+        tick.run();
+
+        // Other threads of the test JVM may be even hotter
+        boolean isFound = false;
+        for (ThreadRecord record : aggregator.hotThreads()) {
+            if (record.getId() == spinner.getId()) {
+                assertEquals("test-spinner", record.getName());
+                assertTrue(record.getValue() > 10.0);
+                assertTrue(record.getValue() <= 100.0);
+                isFound = true;
+            }
+        }
+        assertTrue(isFound);
+
+        release.countDown();
+        spinner.join();
+    }
+
+    @Test
+    public void testThreadChurn() throws Exception {
+        // Enough live threads that a few started ones do not add up to an eighth of them, whatever the JVM has
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread[] idlers = new Thread[64];
+        for (int i = 0; i < idlers.length; i++) {
+            idlers[i] = new Thread(() -> {
+                try { release.await(); } catch (InterruptedException e) {}
+            }, "test-idler");
+            idlers[i].start();
+        }
+        try {
+            final ThreadAggregator aggregator = new ThreadAggregator();
+            final Runnable tick = aggregator.runnable();
+            tick.run();
+            final long rescanCount = aggregator.rescanCount();
+
+            // A pool that replaces a thread per tick does not cause a rescan every tick
+            for (int i = 0; i < ThreadAggregator.MAX_RESCAN_DELAY_TICKS - 1; i++) {
+                final Thread thread = new Thread(() -> { }, "test-churn");
+                thread.start();
+                thread.join();
+                tick.run();
+            }
+            assertTrue(aggregator.rescanCount() - rescanCount <= 1);
+
+            // But the started threads are not ignored for long
+            final Thread thread = new Thread(() -> { }, "test-churn");
+            thread.start();
+            thread.join();
+            tickUntilRescan(aggregator, tick);
+        } finally {
+            release.countDown();
+            for (Thread idler : idlers) {
+                idler.join();
+            }
+        }
+    }
+
+    @Test
+    public void testMeasurementDisabled() throws Exception {
+        final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final ThreadAggregator aggregator = new ThreadAggregator();
+        final Runnable tick = aggregator.runnable();
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread spinner = new Thread(() -> {
+            try { start.await(); } catch (InterruptedException e) {}
+            final long deadline = System.nanoTime() + 200_000_000L;
+            while (System.nanoTime() < deadline) {
+                // Spend CPU time
+            }
+            done.countDown();
+            try { release.await(); } catch (InterruptedException e) {}
+        }, "test-spinner");
+        spinner.start();
+        tick.run();
+
+        // Without any samples, the cached thread ids are kept, even though no thread starts meanwhile
+        threadBean.setThreadAllocatedMemoryEnabled(false);
+        threadBean.setThreadCpuTimeEnabled(false);
+        try {
+            tick.run();
+            tick.run();
+        } finally {
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+            threadBean.setThreadCpuTimeEnabled(true);
+        }
+        tick.run();
+        start.countDown();
+        done.await();
+        tick.run();
+        assertTrue(contains(aggregator.hotThreads(), spinner));
+
+        release.countDown();
+        spinner.join();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2023-2025 Apple Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apple.pollianna.gc;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.Notification;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+
+/**
+ * Synthetic GC notifications, with the same open data types as those emitted by a GarbageCollectorMXBean,
+ * so that the GC notification listener can be fed without real collections, by tests and by benchmarks.
+ */
+final class GcNotifications {
+
+    private static final String[] USAGE_ITEMS = {"init", "used", "committed", "max"};
+    private static final String[] ROW_ITEMS = {"key", "value"};
+    private static final String[] GC_INFO_ITEMS = {"id", "startTime", "endTime", "duration", "memoryUsageBeforeGc", "memoryUsageAfterGc"};
+    private static final String[] NOTIFICATION_ITEMS = {"gcName", "gcAction", "gcCause", "gcInfo"};
+
+    private static final CompositeType usageType;
+    private static final TabularType usagesType;
+    private static final CompositeType gcInfoType;
+    private static final CompositeType notificationType;
+
+    static {
+        try {
+            usageType = new CompositeType("java.lang.management.MemoryUsage", "MemoryUsage", USAGE_ITEMS, USAGE_ITEMS,
+                new OpenType<?>[] {SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG});
+            final CompositeType rowType = new CompositeType("MemoryUsageEntry", "MemoryUsageEntry", ROW_ITEMS, ROW_ITEMS,
+                new OpenType<?>[] {SimpleType.STRING, usageType});
+            usagesType = new TabularType("MemoryUsages", "MemoryUsages", rowType, new String[] {"key"});
+            gcInfoType = new CompositeType("com.sun.management.GcInfo", "GcInfo", GC_INFO_ITEMS, GC_INFO_ITEMS,
+                new OpenType<?>[] {SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, usagesType, usagesType});
+            notificationType = new CompositeType("com.sun.management.GarbageCollectionNotificationInfo",
+                "GarbageCollectionNotificationInfo", NOTIFICATION_ITEMS, NOTIFICATION_ITEMS,
+                new OpenType<?>[] {SimpleType.STRING, SimpleType.STRING, SimpleType.STRING, gcInfoType});
+        } catch (OpenDataException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private GcNotifications() {
+    }
+
+    private static TabularDataSupport usages(Map<String, MemoryUsage> usages) throws OpenDataException {
+        final TabularDataSupport result = new TabularDataSupport(usagesType);
+        for (Map.Entry<String, MemoryUsage> entry : usages.entrySet()) {
+            final MemoryUsage usage = entry.getValue();
+            final CompositeData value = new CompositeDataSupport(usageType, USAGE_ITEMS,
+                new Object[] {usage.getInit(), usage.getUsed(), usage.getCommitted(), usage.getMax()});
+            result.put(new CompositeDataSupport(usagesType.getRowType(), ROW_ITEMS, new Object[] {entry.getKey(), value}));
+        }
+        return result;
+    }
+
+    /**
+     * @param gcName the name of the collector that performed the collection
+     * @param gcCause the cause of the collection
+     * @param id the collector's id for the collection
+     * @param startTime when the collection started, in milliseconds
+     * @param endTime when the collection ended, in milliseconds
+     * @param usageBeforeGc the memory usage per pool before the collection
+     * @param usageAfterGc the memory usage per pool after the collection
+     * @return a notification with the collection's `GarbageCollectionNotificationInfo` as user data
+     */
+    static Notification notification(String gcName, String gcCause, long id, long startTime, long endTime,
+                                     Map<String, MemoryUsage> usageBeforeGc, Map<String, MemoryUsage> usageAfterGc)
+        throws OpenDataException {
+        final CompositeData gcInfo = new CompositeDataSupport(gcInfoType, GC_INFO_ITEMS, new Object[] {
+            id, startTime, endTime, endTime - startTime, usages(usageBeforeGc), usages(usageAfterGc)});
+        final CompositeData info = new CompositeDataSupport(notificationType, NOTIFICATION_ITEMS, new Object[] {
+            gcName, "end of GC", gcCause, gcInfo});
+        final Notification result = new Notification(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION,
+            gcName, id, endTime);
+        result.setUserData(info);
+        return result;
+    }
+}